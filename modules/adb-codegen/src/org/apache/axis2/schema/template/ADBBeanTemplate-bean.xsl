@@ -1860,6 +1860,16 @@
 
         </xsl:for-each>
 
+        <!-- The names of the element properties, so that they don't have to be created for every parsed element -->
+        <xsl:for-each select="property[not(@attribute)]">
+        private static final javax.xml.namespace.QName PROPERTY_QNAME_<xsl:value-of select="position()"/> =
+            new javax.xml.namespace.QName("<xsl:value-of select="@nsuri"/>","<xsl:value-of select="@name"/>");
+            <xsl:if test="string-length(@nsuri) > 0">
+        private static final javax.xml.namespace.QName PROPERTY_LOCAL_QNAME_<xsl:value-of select="position()"/> =
+            new javax.xml.namespace.QName("","<xsl:value-of select="@name"/>");
+            </xsl:if>
+        </xsl:for-each>
+
         /**
         * static method to create the object
         * Precondition:  If this object is an element, the current or next start element starts this object and any intervening reader events are ignorable
@@ -1889,7 +1899,7 @@
                 while (!reader.isStartElement() &amp;&amp; !reader.isEndElement())
                     reader.next();
 
-                currentQName = reader.getName();
+                <xsl:if test="$ignoreunexpected">currentQName = reader.getName();</xsl:if>
                 <xsl:if test="@nillable">
                    nillableValue = reader.getAttributeValue("http://www.w3.org/2001/XMLSchema-instance","nil");
                    if ("true".equals(nillableValue) || "1".equals(nillableValue)){
@@ -1986,9 +1996,6 @@
                 </xsl:if>
 
                 <!-- populate attributes here!!!. The attributes are part of an element, not part of a type -->
-                // Note all attributes that were handled. Used to differ normal attributes
-                // from anyAttributes.
-                java.util.Vector handledAttributes = new java.util.Vector();
                 <!-- if this is an enumeration then we have to read attributes after-->
 
                 <xsl:for-each select="property[@attribute]">
@@ -2088,7 +2095,6 @@
                            </xsl:otherwise>
                        </xsl:choose>
                     }
-                    handledAttributes.add("<xsl:value-of select="$propertyName"/>");
                     </xsl:if>
 
                     <!-- Handle anyAttributes here -->
@@ -2096,13 +2102,14 @@
                         // now run through all any or extra attributes
                         // which were not reflected until now
                         for (int i=0; i &lt; reader.getAttributeCount(); i++) {
-                            if (!handledAttributes.contains(reader.getAttributeLocalName(i))) {
+                            java.lang.String attributeLocalName = reader.getAttributeLocalName(i);
+                            if (<xsl:for-each select="preceding-sibling::property[@attribute and @name != 'extraAttributes']"><xsl:if test="position() > 1"> &amp;&amp; </xsl:if>!"<xsl:value-of select="@name"/>".equals(attributeLocalName)</xsl:for-each><xsl:if test="not(preceding-sibling::property[@attribute and @name != 'extraAttributes'])">true</xsl:if>) {
                                 // this is an anyAttribute and we create
                                 // an OMAttribute for this
                                 org.apache.axiom.om.OMFactory factory = org.apache.axiom.om.OMAbstractFactory.getOMFactory();
                                 org.apache.axiom.om.OMAttribute attr =
                                     factory.createOMAttribute(
-                                            reader.getAttributeLocalName(i),
+                                            attributeLocalName,
                                             factory.createOMNamespace(
                                                 reader.getAttributeNamespace(i), reader.getAttributePrefix(i)),
                                             reader.getAttributeValue(i));
@@ -2153,15 +2160,15 @@
                             <xsl:variable name="javaName"><xsl:value-of select="@javaname"></xsl:value-of></xsl:variable>
                             <xsl:variable name="listName">list<xsl:value-of select="position()"/></xsl:variable>
                             <xsl:variable name="loopBoolName">loopDone<xsl:value-of select="position()"/></xsl:variable>
-                            <xsl:variable name="startQname">startQname<xsl:value-of select="position()"/></xsl:variable>
+                            <xsl:variable name="startQname">PROPERTY_QNAME_<xsl:value-of select="position()"/></xsl:variable>
                             <xsl:variable name="stateMachineName">stateMachine<xsl:value-of select="position()"/></xsl:variable>
                             <xsl:variable name="basePropertyType"><xsl:value-of select="@arrayBaseType"/></xsl:variable>
                             <xsl:variable name="namespace"><xsl:value-of select="@nsuri"/></xsl:variable>
                             <xsl:variable name="min"><xsl:value-of select="@minOccurs"/></xsl:variable>
                             <xsl:variable name="particleClassType" select="@particleClassType"></xsl:variable>
 
-                            <xsl:variable name="propQName">new javax.xml.namespace.QName("<xsl:value-of select="$namespace"/>","<xsl:value-of select="$propertyName"/>")</xsl:variable>
-                            <xsl:variable name="propQName2">new javax.xml.namespace.QName("","<xsl:value-of select="$propertyName"/>")</xsl:variable>
+                            <xsl:variable name="propQName">PROPERTY_QNAME_<xsl:value-of select="position()"/></xsl:variable>
+                            <xsl:variable name="propQName2"><xsl:choose><xsl:when test="string-length($namespace) > 0">PROPERTY_LOCAL_QNAME_<xsl:value-of select="position()"/></xsl:when><xsl:otherwise>PROPERTY_QNAME_<xsl:value-of select="position()"/></xsl:otherwise></xsl:choose></xsl:variable>
 
                            <xsl:choose>
                                 <xsl:when test="$unordered and not($choice and $hasParticleType)">  <!-- One property per iteration if unordered -->
@@ -2186,7 +2193,7 @@
                                          we have to sollow an excpetions : todo find a better solsution-->
                                          try{
                                     </xsl:if>
-                                    if (reader.isStartElement() <xsl:if test="$simple"> || reader.hasText()</xsl:if> <xsl:if test="not($simple) and not($particleClassType)">&amp;&amp; <xsl:value-of select="$propQName"/>.equals(reader.getName()) || <xsl:value-of select="$propQName2"/>.equals(reader.getName()) </xsl:if>){
+                                    if (reader.isStartElement() <xsl:if test="$simple"> || reader.hasText()</xsl:if> <xsl:if test="not($simple) and not($particleClassType)">&amp;&amp; org.apache.axis2.databinding.utils.FactoryUtil.hasName(reader, <xsl:value-of select="$propQName"/>) || org.apache.axis2.databinding.utils.FactoryUtil.hasName(reader, <xsl:value-of select="$propQName2"/>) </xsl:if>){
                                 </xsl:otherwise>
                             </xsl:choose>
 
@@ -2259,7 +2266,7 @@
                                                                 //two continuous end elements means we are exiting the xml structure
                                                                 <xsl:value-of select="$loopBoolName"/> = true;
                                                             } else {
-                                                                if (<xsl:value-of select="$propQName"/>.equals(reader.getName())){
+                                                                if (org.apache.axis2.databinding.utils.FactoryUtil.hasName(reader, <xsl:value-of select="$propQName"/>)){
                                                                     <xsl:if test="@nillable">
                                                                       nillableValue = reader.getAttributeValue("http://www.w3.org/2001/XMLSchema-instance","nil");
                                                                       if ("true".equals(nillableValue) || "1".equals(nillableValue)){
@@ -2340,14 +2347,11 @@
                                         <xsl:when test="@default">
 
                                              boolean <xsl:value-of select="$loopBoolName"/>=false;
-                                             javax.xml.namespace.QName <xsl:value-of select="$startQname"/> = new javax.xml.namespace.QName(
-                                                    "<xsl:value-of select="$namespace"/>",
-                                                    "<xsl:value-of select="$propertyName"/>");
 
                                              while (!<xsl:value-of select="$loopBoolName"/>){
                                                  event = reader.getEventType();
                                                  if (javax.xml.stream.XMLStreamConstants.START_ELEMENT == event
-                                                         &amp;&amp; <xsl:value-of select="$startQname"/>.equals(reader.getName())){
+                                                         &amp;&amp; org.apache.axis2.databinding.utils.FactoryUtil.hasName(reader, <xsl:value-of select="$startQname"/>)){
 
                                                       <!-- if-block that handles nillable -->
                                                       <xsl:if test="@nillable">
@@ -2361,10 +2365,10 @@
                                                                             <xsl:value-of select="$mapperClass"/>.class));
                                                        <xsl:if test="@nillable">}</xsl:if>
                                                  } else if (javax.xml.stream.XMLStreamConstants.START_ELEMENT == event &amp;&amp;
-                                                            !<xsl:value-of select="$startQname"/>.equals(reader.getName())){
+                                                            !org.apache.axis2.databinding.utils.FactoryUtil.hasName(reader, <xsl:value-of select="$startQname"/>)){
                                                      <xsl:value-of select="$loopBoolName"/> = true;
                                                  }else if (javax.xml.stream.XMLStreamConstants.END_ELEMENT == event &amp;&amp;
-                                                           !<xsl:value-of select="$startQname"/>.equals(reader.getName())){
+                                                           !org.apache.axis2.databinding.utils.FactoryUtil.hasName(reader, <xsl:value-of select="$startQname"/>)){
                                                      <xsl:value-of select="$loopBoolName"/> = true;
                                                  }else if (javax.xml.stream.XMLStreamConstants.END_DOCUMENT == event){
                                                      <xsl:value-of select="$loopBoolName"/> = true;
@@ -2414,7 +2418,7 @@
                                                         //two continuous end elements means we are exiting the xml structure
                                                         <xsl:value-of select="$loopBoolName"/> = true;
                                                     } else {
-                                                        if (<xsl:value-of select="$propQName"/>.equals(reader.getName())){
+                                                        if (org.apache.axis2.databinding.utils.FactoryUtil.hasName(reader, <xsl:value-of select="$propQName"/>)){
                                                              <xsl:if test="@nillable">
                                                               nillableValue = reader.getAttributeValue("http://www.w3.org/2001/XMLSchema-instance","nil");
                                                               if ("true".equals(nillableValue) || "1".equals(nillableValue)){
@@ -2449,14 +2453,11 @@
                                             <xsl:choose>
                                              <xsl:when test="@default">
                                              boolean <xsl:value-of select="$loopBoolName"/>=false;
-                                             javax.xml.namespace.QName <xsl:value-of select="$startQname"/> = new javax.xml.namespace.QName(
-                                                    "<xsl:value-of select="$namespace"/>",
-                                                    "<xsl:value-of select="$propertyName"/>");
 
                                              while (!<xsl:value-of select="$loopBoolName"/>){
                                                  event = reader.getEventType();
                                                  if (javax.xml.stream.XMLStreamConstants.START_ELEMENT == event
-                                                         &amp;&amp; <xsl:value-of select="$startQname"/>.equals(reader.getName())){
+                                                         &amp;&amp; org.apache.axis2.databinding.utils.FactoryUtil.hasName(reader, <xsl:value-of select="$startQname"/>)){
 
                                                       <!-- if-block that handles nillable -->
                                                       <xsl:if test="@nillable">
@@ -2469,10 +2470,10 @@
                                                        <xsl:value-of select="$listName"/>.add(org.apache.axis2.databinding.utils.FactoryUtil.extractElement(reader, false).getFirstElement());
                                                        <xsl:if test="@nillable">}</xsl:if>
                                                  } else if (javax.xml.stream.XMLStreamConstants.START_ELEMENT == event &amp;&amp;
-                                                            !<xsl:value-of select="$startQname"/>.equals(reader.getName())){
+                                                            !org.apache.axis2.databinding.utils.FactoryUtil.hasName(reader, <xsl:value-of select="$startQname"/>)){
                                                      <xsl:value-of select="$loopBoolName"/> = true;
                                                  }else if (javax.xml.stream.XMLStreamConstants.END_ELEMENT == event &amp;&amp;
-                                                           !<xsl:value-of select="$startQname"/>.equals(reader.getName())){
+                                                           !org.apache.axis2.databinding.utils.FactoryUtil.hasName(reader, <xsl:value-of select="$startQname"/>)){
                                                      <xsl:value-of select="$loopBoolName"/> = true;
                                                  }else if (javax.xml.stream.XMLStreamConstants.END_DOCUMENT == event){
                                                      <xsl:value-of select="$loopBoolName"/> = true;
@@ -2544,7 +2545,7 @@
                                                     //two continuous end elements means we are exiting the xml structure
                                                     <xsl:value-of select="$loopBoolName"/> = true;
                                                 } else {
-                                                    if (<xsl:value-of select="$propQName"/>.equals(reader.getName())){
+                                                    if (org.apache.axis2.databinding.utils.FactoryUtil.hasName(reader, <xsl:value-of select="$propQName"/>)){
                                                          <xsl:if test="@nillable">
                                                           nillableValue = reader.getAttributeValue("http://www.w3.org/2001/XMLSchema-instance","nil");
                                                           if ("true".equals(nillableValue) || "1".equals(nillableValue)){
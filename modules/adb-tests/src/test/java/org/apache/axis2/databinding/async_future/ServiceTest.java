@@ -0,0 +1,84 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axis2.databinding.async_future;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import javax.xml.ws.Endpoint;
+
+import org.apache.axiom.testutils.PortAllocator;
+import org.apache.axis2.databinding.async_future.client.ComplexTypeWithAttribute;
+import org.apache.axis2.databinding.async_future.client.EchoServiceStub;
+import org.apache.axis2.databinding.async_future.service.SlowEchoImpl;
+import org.apache.axis2.databinding.axis2_5799.service.EchoImpl;
+import org.junit.Test;
+
+/**
+ * Tests the <code>CompletableFuture</code> returning methods generated with
+ * <code>generateAsyncFuture</code>.
+ */
+public class ServiceTest {
+    private static ComplexTypeWithAttribute createRequest() {
+        ComplexTypeWithAttribute request = new ComplexTypeWithAttribute();
+        request.setAttr("value");
+        return request;
+    }
+
+    @Test
+    public void testFutureCompletes() throws Exception {
+        int port = PortAllocator.allocatePort();
+        String address = "http://localhost:" + port + "/service";
+        Endpoint endpoint = Endpoint.publish(address, new EchoImpl());
+        try {
+            EchoServiceStub stub = new EchoServiceStub(address);
+            CompletableFuture<ComplexTypeWithAttribute> future = stub.echoAsync(createRequest());
+            assertThat(future.get(30, TimeUnit.SECONDS).getAttr()).isEqualTo("value");
+        } finally {
+            endpoint.stop();
+        }
+    }
+
+    @Test
+    public void testFutureTimesOut() throws Exception {
+        int port = PortAllocator.allocatePort();
+        String address = "http://localhost:" + port + "/service";
+        SlowEchoImpl service = new SlowEchoImpl();
+        Endpoint endpoint = Endpoint.publish(address, service);
+        try {
+            EchoServiceStub stub = new EchoServiceStub(address);
+            CompletableFuture<ComplexTypeWithAttribute> future =
+                    stub.echoAsync(createRequest(), 200);
+            try {
+                future.get(30, TimeUnit.SECONDS);
+                fail("Expected the future to time out");
+            } catch (ExecutionException ex) {
+                assertThat(ex.getCause()).isInstanceOf(TimeoutException.class);
+            }
+        } finally {
+            service.release();
+            endpoint.stop();
+        }
+    }
+}
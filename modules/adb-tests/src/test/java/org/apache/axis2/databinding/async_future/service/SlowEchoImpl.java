@@ -0,0 +1,49 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axis2.databinding.async_future.service;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import javax.jws.WebService;
+import javax.xml.ws.Holder;
+
+import org.apache.axis2.databinding.axis2_5799.service.ComplexTypeWithAttribute;
+import org.apache.axis2.databinding.axis2_5799.service.EchoPortType;
+
+/**
+ * Echo service that only responds once {@link #release()} has been called.
+ */
+@WebService(endpointInterface="org.apache.axis2.databinding.axis2_5799.service.EchoPortType")
+public class SlowEchoImpl implements EchoPortType {
+    private final CountDownLatch latch = new CountDownLatch(1);
+
+    @Override
+    public void echo(Holder<ComplexTypeWithAttribute> body) {
+        try {
+            latch.await(30, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public void release() {
+        latch.countDown();
+    }
+}
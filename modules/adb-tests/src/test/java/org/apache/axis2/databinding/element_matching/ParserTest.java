@@ -0,0 +1,179 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axis2.databinding.element_matching;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.StringReader;
+import java.math.BigDecimal;
+
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamReader;
+
+import org.apache.axis2.databinding.element_matching.client.Item;
+import org.apache.axis2.databinding.element_matching.client.Order;
+import org.apache.axis2.databinding.element_matching.client.Orders;
+import org.apache.axis2.databinding.utils.FactoryUtil;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.junit.Test;
+
+/**
+ * Tests the element matching of beans generated with <code>-Eiu</code>, i.e. the static
+ * <code>QName</code> constants and {@link FactoryUtil#hasName(XMLStreamReader, QName)}.
+ */
+public class ParserTest {
+    private static final Log log = LogFactory.getLog(ParserTest.class);
+
+    private static final XMLInputFactory inputFactory = XMLInputFactory.newInstance();
+
+    private static void appendOrder(StringBuilder buffer, long id, int items, boolean unexpected) {
+        buffer.append("<o:order status='open' priority='").append(id % 5).append("'>");
+        buffer.append("<o:id>").append(id).append("</o:id>");
+        buffer.append("<o:customer>customer").append(id).append("</o:customer>");
+        if (id % 2 == 0) {
+            buffer.append("<o:note>note").append(id).append("</o:note>");
+        }
+        for (int i = 0; i < items; i++) {
+            buffer.append("<o:item currency='EUR' x:origin='warehouse").append(i).append("'>");
+            buffer.append("<o:sku>SKU-").append(i).append("</o:sku>");
+            buffer.append("<o:quantity>").append(i + 1).append("</o:quantity>");
+            buffer.append("<o:price>").append(i).append(".50</o:price>");
+            buffer.append("</o:item>");
+        }
+        if (unexpected) {
+            buffer.append("<o:unexpected><o:sku>ignored</o:sku></o:unexpected>");
+        }
+        buffer.append("</o:order>");
+    }
+
+    private static String createDocument(int orders, int items, boolean unexpected) {
+        StringBuilder buffer = new StringBuilder();
+        buffer.append("<o:Orders xmlns:o='urn:orders' xmlns:x='urn:extra'>");
+        for (int i = 0; i < orders; i++) {
+            appendOrder(buffer, i, items, unexpected);
+        }
+        buffer.append("</o:Orders>");
+        return buffer.toString();
+    }
+
+    private static Orders parse(String document) throws Exception {
+        XMLStreamReader reader = inputFactory.createXMLStreamReader(new StringReader(document));
+        try {
+            return Orders.Factory.parse(reader);
+        } finally {
+            reader.close();
+        }
+    }
+
+    @Test
+    public void testParse() throws Exception {
+        Order[] orders = parse(createDocument(2, 3, false)).getOrder();
+        assertThat(orders).hasLength(2);
+        assertThat(orders[0].getId()).isEqualTo(0L);
+        assertThat(orders[0].getCustomer()).isEqualTo("customer0");
+        assertThat(orders[0].getNote()).isEqualTo("note0");
+        assertThat(orders[0].getStatus()).isEqualTo("open");
+        assertThat(orders[1].getNote()).isNull();
+        assertThat(orders[1].getPriority()).isEqualTo(1);
+        Item[] items = orders[1].getItem();
+        assertThat(items).hasLength(3);
+        assertThat(items[2].getSku()).isEqualTo("SKU-2");
+        assertThat(items[2].getQuantity()).isEqualTo(3);
+        assertThat(items[2].getPrice()).isEqualTo(new BigDecimal("2.50"));
+        assertThat(items[2].getCurrency()).isEqualTo("EUR");
+        assertThat(items[2].getExtraAttributes()).hasLength(1);
+        assertThat(items[2].getExtraAttributes()[0].getAttributeValue()).isEqualTo("warehouse2");
+    }
+
+    @Test
+    public void testUnexpectedElementIgnored() throws Exception {
+        Order[] orders = parse(createDocument(2, 1, true)).getOrder();
+        assertThat(orders).hasLength(2);
+        assertThat(orders[0].getItem()).hasLength(1);
+        assertThat(orders[1].getId()).isEqualTo(1L);
+        assertThat(orders[1].getItem()[0].getSku()).isEqualTo("SKU-0");
+    }
+
+    /**
+     * Measures the time to parse a large document through the generated beans, and compares
+     * {@link FactoryUtil#hasName(XMLStreamReader, QName)} with the
+     * <code>qname.equals(reader.getName())</code> checks generated by the previous template.
+     * Only runs if the <code>run.adb.benchmarks</code> system property is set to
+     * <code>true</code>.
+     */
+    @Test
+    public void testBenchmark() throws Exception {
+        if (!Boolean.getBoolean("run.adb.benchmarks")) {
+            return;
+        }
+        String document = createDocument(20000, 5, false);
+        byte[] bytes = document.getBytes("UTF-8");
+        QName itemQName = new QName("urn:orders", "item");
+        // The first round warms up the JIT
+        for (int round = 0; round < 2; round++) {
+            long start = System.nanoTime();
+            int parsed = 0;
+            for (int i = 0; i < 5; i++) {
+                XMLStreamReader reader = inputFactory.createXMLStreamReader(
+                        new ByteArrayInputStream(bytes));
+                parsed += Orders.Factory.parse(reader).getOrder().length;
+                reader.close();
+            }
+            long parseTime = System.nanoTime() - start;
+            assertThat(parsed).isEqualTo(100000);
+
+            int equalsMatches = 0;
+            start = System.nanoTime();
+            XMLStreamReader reader = inputFactory.createXMLStreamReader(
+                    new ByteArrayInputStream(bytes));
+            while (reader.hasNext()) {
+                if (reader.next() == XMLStreamReader.START_ELEMENT
+                        && itemQName.equals(reader.getName())) {
+                    equalsMatches++;
+                }
+            }
+            reader.close();
+            long equalsTime = System.nanoTime() - start;
+
+            int hasNameMatches = 0;
+            start = System.nanoTime();
+            reader = inputFactory.createXMLStreamReader(new ByteArrayInputStream(bytes));
+            while (reader.hasNext()) {
+                if (reader.next() == XMLStreamReader.START_ELEMENT
+                        && FactoryUtil.hasName(reader, itemQName)) {
+                    hasNameMatches++;
+                }
+            }
+            reader.close();
+            long hasNameTime = System.nanoTime() - start;
+            assertThat(hasNameMatches).isEqualTo(equalsMatches);
+
+            if (round == 1) {
+                log.info("Parsed " + parsed + " orders (" + bytes.length / 1024
+                        + " KB per document) in " + parseTime / 1000000 + " ms");
+                log.info("Element matching over " + bytes.length / 1024 + " KB: "
+                        + "QName.equals(reader.getName()) " + equalsTime / 1000000 + " ms, "
+                        + "FactoryUtil.hasName " + hasNameTime / 1000000 + " ms");
+            }
+        }
+    }
+}
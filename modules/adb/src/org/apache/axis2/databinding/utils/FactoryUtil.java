@@ -18,6 +18,7 @@
  */
 package org.apache.axis2.databinding.utils;
 
+import javax.xml.namespace.QName;
 import javax.xml.stream.XMLStreamReader;
 
 import org.apache.axiom.om.OMDocument;
@@ -34,4 +35,21 @@ public final class FactoryUtil {
         document.build();
         return document.getOMDocumentElement();
     }
+
+    /**
+     * Check whether the current start or end element of the reader has the given name. Unlike
+     * <code>qname.equals(reader.getName())</code> this doesn't create a new {@link QName} for
+     * every element.
+     * 
+     * @param reader the reader, positioned on a start or end element
+     * @param qname the expected name
+     * @return <code>true</code> if the local name and namespace URI of the element match
+     */
+    public static boolean hasName(XMLStreamReader reader, QName qname) {
+        if (!qname.getLocalPart().equals(reader.getLocalName())) {
+            return false;
+        }
+        String namespaceURI = reader.getNamespaceURI();
+        return qname.getNamespaceURI().equals(namespaceURI == null ? "" : namespaceURI);
+    }
 }
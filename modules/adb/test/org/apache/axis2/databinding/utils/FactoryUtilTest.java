@@ -0,0 +1,51 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.databinding.utils;
+
+import java.io.StringReader;
+
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamReader;
+
+import junit.framework.TestCase;
+
+public class FactoryUtilTest extends TestCase {
+    private static XMLStreamReader createReader(String xml) throws Exception {
+        XMLStreamReader reader = XMLInputFactory.newInstance().createXMLStreamReader(
+                new StringReader(xml));
+        reader.nextTag();
+        return reader;
+    }
+
+    public void testHasNameWithNamespace() throws Exception {
+        XMLStreamReader reader = createReader("<p:test xmlns:p='urn:test'/>");
+        assertTrue(FactoryUtil.hasName(reader, new QName("urn:test", "test")));
+        assertFalse(FactoryUtil.hasName(reader, new QName("urn:other", "test")));
+        assertFalse(FactoryUtil.hasName(reader, new QName("", "test")));
+        assertFalse(FactoryUtil.hasName(reader, new QName("urn:test", "other")));
+    }
+
+    public void testHasNameWithoutNamespace() throws Exception {
+        XMLStreamReader reader = createReader("<test/>");
+        assertTrue(FactoryUtil.hasName(reader, new QName("", "test")));
+        assertFalse(FactoryUtil.hasName(reader, new QName("urn:test", "test")));
+    }
+}
@@ -0,0 +1,397 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axis2.clustering.codec;
+
+import org.apache.axis2.clustering.ClusteringCommand;
+import org.apache.axis2.clustering.state.StateClusteringCommand;
+import org.apache.axis2.clustering.state.commands.DeleteServiceGroupStateCommand;
+import org.apache.axis2.clustering.state.commands.DeleteServiceStateCommand;
+import org.apache.axis2.clustering.state.commands.StateClusteringCommandCollection;
+import org.apache.axis2.clustering.state.commands.UpdateConfigurationStateCommand;
+import org.apache.axis2.clustering.state.commands.UpdateServiceGroupStateCommand;
+import org.apache.axis2.clustering.state.commands.UpdateServiceStateCommand;
+import org.apache.axis2.clustering.state.commands.UpdateStateCommand;
+import org.apache.axis2.context.PropertyDifference;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A compact binary encoding of {@link ClusteringCommand}s, used instead of Java serialization for
+ * the command types that have a {@link CommandSerializer}. The state replication commands are
+ * supported out of the box; other command types can be supported by registering a serializer.
+ * <p/>
+ * An encoded message starts with the bytes <tt>A2C</tt> followed by the version of the encoding,
+ * which distinguishes it from a Java serialization stream. The body is the ID of the command type
+ * followed by the fields written by its serializer. Within a message, strings are written once and
+ * then referenced, so that the context IDs and property keys repeated in a batch of commands are
+ * only sent once, and property values of the basic types (strings, numbers, booleans, QNames and
+ * byte arrays) are written without class descriptors. Other values are written with Java
+ * serialization, unless a {@link ValueSerializer} is registered for their class.
+ * <p/>
+ * Serializers must be registered with the same IDs on all members.
+ */
+public class BinaryCommandCodec {
+
+    /**
+     * The version of the encoding. A member can read messages with this or a lower version.
+     */
+    public static final int VERSION = 1;
+
+    /**
+     * The IDs below this value are reserved for the command types and value classes supported by
+     * Axis2.
+     */
+    public static final int FIRST_CUSTOM_ID = 64;
+
+    private static final byte[] MAGIC = {'A', '2', 'C'};
+
+    static final class Registration {
+        final int id;
+        final Object serializer;
+
+        Registration(int id, Object serializer) {
+            this.id = id;
+            this.serializer = serializer;
+        }
+    }
+
+    /**
+     * Thrown by {@link CodecOutput#writeCommand} for a command type without a serializer
+     */
+    static final class UnsupportedCommandException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        UnsupportedCommandException(ClusteringCommand command) {
+            super("No command serializer registered for " + command.getClass().getName());
+        }
+    }
+
+    private final Map<Class<?>, Registration> commandsByClass =
+            new ConcurrentHashMap<Class<?>, Registration>();
+    private final Map<Integer, Registration> commandsById =
+            new ConcurrentHashMap<Integer, Registration>();
+    private final Map<Class<?>, Registration> valuesByClass =
+            new ConcurrentHashMap<Class<?>, Registration>();
+    private final Map<Integer, Registration> valuesById =
+            new ConcurrentHashMap<Integer, Registration>();
+
+    public BinaryCommandCodec() {
+        addCommandSerializer(1, UpdateConfigurationStateCommand.class,
+                             new UpdateConfigurationStateSerializer());
+        addCommandSerializer(2, UpdateServiceGroupStateCommand.class,
+                             new UpdateServiceGroupStateSerializer());
+        addCommandSerializer(3, UpdateServiceStateCommand.class,
+                             new UpdateServiceStateSerializer());
+        addCommandSerializer(4, DeleteServiceGroupStateCommand.class,
+                             new DeleteServiceGroupStateSerializer());
+        addCommandSerializer(5, DeleteServiceStateCommand.class,
+                             new DeleteServiceStateSerializer());
+        addCommandSerializer(6, StateClusteringCommandCollection.class,
+                             new CollectionSerializer());
+    }
+
+    /**
+     * Register the serializer of a command type.
+     *
+     * @param id         The ID of the command type in the messages; at least
+     *                   {@link #FIRST_CUSTOM_ID}
+     * @param type       The command class; subclasses are not covered
+     * @param serializer The serializer
+     */
+    public <T extends ClusteringCommand> void registerCommandSerializer(
+            int id, Class<T> type, CommandSerializer<T> serializer) {
+        checkCustomId(id);
+        addCommandSerializer(id, type, serializer);
+    }
+
+    /**
+     * Register the serializer of a property value class.
+     *
+     * @param id         The ID of the value class in the messages; at least
+     *                   {@link #FIRST_CUSTOM_ID}
+     * @param type       The value class; subclasses are not covered
+     * @param serializer The serializer
+     */
+    public <T> void registerValueSerializer(int id, Class<T> type,
+                                            ValueSerializer<T> serializer) {
+        checkCustomId(id);
+        register(valuesByClass, valuesById, id, type, serializer);
+    }
+
+    private static void checkCustomId(int id) {
+        if (id < FIRST_CUSTOM_ID) {
+            throw new IllegalArgumentException("The IDs below " + FIRST_CUSTOM_ID +
+                                               " are reserved");
+        }
+    }
+
+    private <T extends ClusteringCommand> void addCommandSerializer(
+            int id, Class<T> type, CommandSerializer<T> serializer) {
+        register(commandsByClass, commandsById, id, type, serializer);
+    }
+
+    private synchronized void register(Map<Class<?>, Registration> byClass,
+                                       Map<Integer, Registration> byId,
+                                       int id, Class<?> type, Object serializer) {
+        if (byId.containsKey(id)) {
+            throw new IllegalArgumentException("A serializer is already registered with ID " + id);
+        }
+        if (byClass.containsKey(type)) {
+            throw new IllegalArgumentException("A serializer is already registered for " +
+                                               type.getName());
+        }
+        Registration registration = new Registration(id, serializer);
+        byId.put(id, registration);
+        byClass.put(type, registration);
+    }
+
+    Registration getCommandRegistration(Class<?> type) {
+        return commandsByClass.get(type);
+    }
+
+    Registration getCommandRegistration(int id) {
+        return commandsById.get(id);
+    }
+
+    Registration getValueRegistration(Class<?> type) {
+        return valuesByClass.get(type);
+    }
+
+    Registration getValueRegistration(int id) {
+        return valuesById.get(id);
+    }
+
+    /**
+     * Encode a command.
+     *
+     * @param command The command
+     * @return The encoded command, or null if the command (or a command it contains) has no
+     *         serializer, in which case it should be sent with Java serialization
+     * @throws IOException If the command can't be encoded
+     */
+    public byte[] encode(ClusteringCommand command) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.write(MAGIC);
+        out.writeByte(VERSION);
+        try {
+            new CodecOutput(this, out).writeCommand(command);
+        } catch (UnsupportedCommandException e) {
+            return null;
+        }
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Check whether a message has been produced by {@link #encode}.
+     *
+     * @param message The message
+     * @return true if the message is an encoded command, false if it is e.g. a Java serialization
+     *         stream
+     */
+    public static boolean isEncoded(byte[] message) {
+        if (message.length <= MAGIC.length) {
+            return false;
+        }
+        for (int i = 0; i < MAGIC.length; i++) {
+            if (message[i] != MAGIC[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Decode a command.
+     *
+     * @param message The message produced by {@link #encode}
+     * @return The command
+     * @throws IOException If the message is invalid, has been encoded with a later version, or
+     *                     contains a command type or value class without a serializer
+     */
+    public ClusteringCommand decode(byte[] message) throws IOException {
+        if (!isEncoded(message)) {
+            throw new IOException("Not an encoded clustering command");
+        }
+        int version = message[MAGIC.length];
+        if (version < 1 || version > VERSION) {
+            throw new IOException("Unsupported encoding version " + version);
+        }
+        DataInputStream in = new DataInputStream(
+                new ByteArrayInputStream(message, MAGIC.length + 1,
+                                         message.length - MAGIC.length - 1));
+        return new CodecInput(this, in).readCommand();
+    }
+
+    // ----------------------- Serializers of the state replication commands ----------------------
+
+    private static void writeProperties(UpdateStateCommand command, CodecOutput out)
+            throws IOException {
+        Map properties = command.getProperties();
+        if (properties == null) {
+            out.writeVarInt(0);
+            return;
+        }
+        out.writeVarInt(properties.size());
+        for (Object o : properties.values()) {
+            PropertyDifference diff = (PropertyDifference) o;
+            out.writeString(diff.getKey());
+            out.writeBoolean(diff.isRemoved());
+            out.writeValue(diff.getValue());
+        }
+    }
+
+    private static <T extends UpdateStateCommand> T readProperties(T command, CodecInput in)
+            throws IOException {
+        int count = in.readVarInt();
+        if (count == 0) {
+            command.isPropertiesEmpty(); // creates the empty property map
+        }
+        for (int i = 0; i < count; i++) {
+            String key = in.readString();
+            boolean removed = in.readBoolean();
+            command.addProperty(new PropertyDifference(key, in.readValue(), removed));
+        }
+        return command;
+    }
+
+    private static class UpdateConfigurationStateSerializer
+            implements CommandSerializer<UpdateConfigurationStateCommand> {
+
+        public void write(UpdateConfigurationStateCommand command, CodecOutput out)
+                throws IOException {
+            writeProperties(command, out);
+        }
+
+        public UpdateConfigurationStateCommand read(CodecInput in) throws IOException {
+            return readProperties(new UpdateConfigurationStateCommand(), in);
+        }
+    }
+
+    private static class UpdateServiceGroupStateSerializer
+            implements CommandSerializer<UpdateServiceGroupStateCommand> {
+
+        public void write(UpdateServiceGroupStateCommand command, CodecOutput out)
+                throws IOException {
+            out.writeString(command.getServiceGroupName());
+            out.writeString(command.getServiceGroupContextId());
+            writeProperties(command, out);
+        }
+
+        public UpdateServiceGroupStateCommand read(CodecInput in) throws IOException {
+            UpdateServiceGroupStateCommand command = new UpdateServiceGroupStateCommand();
+            command.setServiceGroupName(in.readString());
+            command.setServiceGroupContextId(in.readString());
+            return readProperties(command, in);
+        }
+    }
+
+    private static class UpdateServiceStateSerializer
+            implements CommandSerializer<UpdateServiceStateCommand> {
+
+        public void write(UpdateServiceStateCommand command, CodecOutput out)
+                throws IOException {
+            out.writeString(command.getServiceGroupName());
+            out.writeString(command.getServiceGroupContextId());
+            out.writeString(command.getServiceName());
+            writeProperties(command, out);
+        }
+
+        public UpdateServiceStateCommand read(CodecInput in) throws IOException {
+            UpdateServiceStateCommand command = new UpdateServiceStateCommand();
+            command.setServiceGroupName(in.readString());
+            command.setServiceGroupContextId(in.readString());
+            command.setServiceName(in.readString());
+            return readProperties(command, in);
+        }
+    }
+
+    private static class DeleteServiceGroupStateSerializer
+            implements CommandSerializer<DeleteServiceGroupStateCommand> {
+
+        public void write(DeleteServiceGroupStateCommand command, CodecOutput out)
+                throws IOException {
+            out.writeString(command.getServiceGroupContextId());
+        }
+
+        public DeleteServiceGroupStateCommand read(CodecInput in) throws IOException {
+            DeleteServiceGroupStateCommand command = new DeleteServiceGroupStateCommand();
+            command.setServiceGroupContextId(in.readString());
+            return command;
+        }
+    }
+
+    private static class DeleteServiceStateSerializer
+            implements CommandSerializer<DeleteServiceStateCommand> {
+
+        public void write(DeleteServiceStateCommand command, CodecOutput out)
+                throws IOException {
+            out.writeString(command.getServiceGroupName());
+            out.writeString(command.getServiceGroupContextId());
+            out.writeString(command.getServiceName());
+        }
+
+        public DeleteServiceStateCommand read(CodecInput in) throws IOException {
+            DeleteServiceStateCommand command = new DeleteServiceStateCommand();
+            command.setServiceGroupName(in.readString());
+            command.setServiceGroupContextId(in.readString());
+            command.setServiceName(in.readString());
+            return command;
+        }
+    }
+
+    private static class CollectionSerializer
+            implements CommandSerializer<StateClusteringCommandCollection> {
+
+        public void write(StateClusteringCommandCollection command, CodecOutput out)
+                throws IOException {
+            List<StateClusteringCommand> commands = command.getCommands();
+            if (commands == null) {
+                out.writeVarInt(0);
+                return;
+            }
+            out.writeVarInt(commands.size());
+            for (StateClusteringCommand cmd : commands) {
+                out.writeCommand(cmd);
+            }
+        }
+
+        public StateClusteringCommandCollection read(CodecInput in) throws IOException {
+            int count = in.readVarInt();
+            List<StateClusteringCommand> commands = new ArrayList<StateClusteringCommand>();
+            for (int i = 0; i < count; i++) {
+                ClusteringCommand cmd = in.readCommand();
+                if (!(cmd instanceof StateClusteringCommand)) {
+                    throw new IOException("Unexpected command " + cmd + " in a collection");
+                }
+                commands.add((StateClusteringCommand) cmd);
+            }
+            return new StateClusteringCommandCollection(commands);
+        }
+    }
+}
@@ -0,0 +1,163 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axis2.clustering.codec;
+
+import org.apache.axis2.clustering.ClusteringCommand;
+import org.apache.axis2.clustering.tribes.ClassLoaderUtil;
+import org.apache.catalina.tribes.io.XByteBuffer;
+
+import javax.xml.namespace.QName;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The input of the {@link BinaryCommandCodec}; reads what {@link CodecOutput} wrote.
+ */
+public final class CodecInput {
+
+    private final BinaryCommandCodec codec;
+    private final DataInputStream in;
+    private final List<String> dictionary = new ArrayList<String>();
+
+    CodecInput(BinaryCommandCodec codec, DataInputStream in) {
+        this.codec = codec;
+        this.in = in;
+    }
+
+    public int readVarInt() throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed variable length integer");
+    }
+
+    public long readVarLong() throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 70; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed variable length integer");
+    }
+
+    public boolean readBoolean() throws IOException {
+        return in.readBoolean();
+    }
+
+    public double readDouble() throws IOException {
+        return in.readDouble();
+    }
+
+    public byte[] readBytes() throws IOException {
+        int length = readVarInt();
+        if (length < 0 || length > in.available()) {
+            throw new IOException("Invalid length " + length);
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return bytes;
+    }
+
+    public String readString() throws IOException {
+        int ref = readVarInt();
+        if (ref == 0) {
+            return null;
+        } else if (ref == CodecOutput.STRING_LITERAL) {
+            String value = new String(readBytes(), "UTF-8");
+            dictionary.add(value);
+            return value;
+        } else if (ref - 2 < dictionary.size()) {
+            return dictionary.get(ref - 2);
+        } else {
+            throw new IOException("Invalid string reference " + ref);
+        }
+    }
+
+    public QName readQName() throws IOException {
+        String namespaceURI = readString();
+        if (namespaceURI == null) {
+            return null;
+        }
+        String localPart = readString();
+        String prefix = readString();
+        return new QName(namespaceURI, localPart, prefix);
+    }
+
+    public Object readValue() throws IOException {
+        int type = readVarInt();
+        switch (type) {
+            case CodecOutput.VALUE_NULL:
+                return null;
+            case CodecOutput.VALUE_STRING:
+                return readString();
+            case CodecOutput.VALUE_INTEGER:
+                int i = readVarInt();
+                return (i >>> 1) ^ -(i & 1);
+            case CodecOutput.VALUE_LONG:
+                long l = readVarLong();
+                return (l >>> 1) ^ -(l & 1);
+            case CodecOutput.VALUE_TRUE:
+                return Boolean.TRUE;
+            case CodecOutput.VALUE_FALSE:
+                return Boolean.FALSE;
+            case CodecOutput.VALUE_DOUBLE:
+                return readDouble();
+            case CodecOutput.VALUE_QNAME:
+                return readQName();
+            case CodecOutput.VALUE_BYTES:
+                return readBytes();
+            case CodecOutput.VALUE_CUSTOM:
+                int id = readVarInt();
+                BinaryCommandCodec.Registration registration = codec.getValueRegistration(id);
+                if (registration == null) {
+                    throw new IOException("No value serializer registered with ID " + id);
+                }
+                return ((ValueSerializer) registration.serializer).read(this);
+            case CodecOutput.VALUE_SERIALIZED:
+                byte[] bytes = readBytes();
+                try {
+                    return XByteBuffer.deserialize(bytes, 0, bytes.length,
+                                                   ClassLoaderUtil.getClassLoaders());
+                } catch (ClassNotFoundException e) {
+                    throw new IOException("Cannot deserialize property value", e);
+                }
+            default:
+                throw new IOException("Unknown value type " + type);
+        }
+    }
+
+    public ClusteringCommand readCommand() throws IOException {
+        int id = readVarInt();
+        BinaryCommandCodec.Registration registration = codec.getCommandRegistration(id);
+        if (registration == null) {
+            throw new IOException("No command serializer registered with ID " + id);
+        }
+        return ((CommandSerializer) registration.serializer).read(this);
+    }
+}
@@ -0,0 +1,194 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axis2.clustering.codec;
+
+import org.apache.axis2.clustering.ClusteringCommand;
+
+import javax.xml.namespace.QName;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The output of the {@link BinaryCommandCodec}. Strings are written to a dictionary: a string that
+ * has already been written in the same message, such as a context ID or a property key, is
+ * replaced by a reference to its first occurrence.
+ */
+public final class CodecOutput {
+
+    static final int VALUE_NULL = 0;
+    static final int VALUE_STRING = 1;
+    static final int VALUE_INTEGER = 2;
+    static final int VALUE_LONG = 3;
+    static final int VALUE_TRUE = 4;
+    static final int VALUE_FALSE = 5;
+    static final int VALUE_DOUBLE = 6;
+    static final int VALUE_QNAME = 7;
+    static final int VALUE_BYTES = 8;
+    static final int VALUE_CUSTOM = 9;
+    static final int VALUE_SERIALIZED = 10;
+
+    /**
+     * Written instead of a dictionary reference for a string that is not in the dictionary yet.
+     * 0 is null, references start at 2.
+     */
+    static final int STRING_LITERAL = 1;
+
+    private final BinaryCommandCodec codec;
+    private final DataOutputStream out;
+    private final Map<String, Integer> dictionary = new HashMap<String, Integer>();
+
+    CodecOutput(BinaryCommandCodec codec, DataOutputStream out) {
+        this.codec = codec;
+        this.out = out;
+    }
+
+    /**
+     * Write an unsigned variable length integer: 7 bits per byte, least significant first.
+     */
+    public void writeVarInt(int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    public void writeVarLong(long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    public void writeBoolean(boolean value) throws IOException {
+        out.writeBoolean(value);
+    }
+
+    public void writeDouble(double value) throws IOException {
+        out.writeDouble(value);
+    }
+
+    public void writeBytes(byte[] bytes) throws IOException {
+        writeVarInt(bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * Write a string, which may be null.
+     */
+    public void writeString(String value) throws IOException {
+        if (value == null) {
+            writeVarInt(0);
+            return;
+        }
+        Integer index = dictionary.get(value);
+        if (index != null) {
+            writeVarInt(index + 2);
+        } else {
+            dictionary.put(value, dictionary.size());
+            writeVarInt(STRING_LITERAL);
+            writeBytes(value.getBytes("UTF-8"));
+        }
+    }
+
+    /**
+     * Write a QName, which may be null. The namespace URI, local part and prefix are written to
+     * the dictionary.
+     */
+    public void writeQName(QName value) throws IOException {
+        if (value == null) {
+            writeString(null);
+            return;
+        }
+        writeString(value.getNamespaceURI());
+        writeString(value.getLocalPart());
+        writeString(value.getPrefix());
+    }
+
+    /**
+     * Write a property value, which may be null. Strings, integers, longs, booleans, doubles,
+     * QNames and byte arrays are written directly, values with a registered
+     * {@link ValueSerializer} are written by the serializer, and other values with Java
+     * serialization.
+     */
+    @SuppressWarnings("unchecked")
+    public void writeValue(Object value) throws IOException {
+        if (value == null) {
+            writeVarInt(VALUE_NULL);
+        } else if (value instanceof String) {
+            writeVarInt(VALUE_STRING);
+            writeString((String) value);
+        } else if (value instanceof Integer) {
+            writeVarInt(VALUE_INTEGER);
+            int i = (Integer) value;
+            writeVarInt((i << 1) ^ (i >> 31));
+        } else if (value instanceof Long) {
+            writeVarInt(VALUE_LONG);
+            long l = (Long) value;
+            writeVarLong((l << 1) ^ (l >> 63));
+        } else if (value instanceof Boolean) {
+            writeVarInt((Boolean) value ? VALUE_TRUE : VALUE_FALSE);
+        } else if (value instanceof Double) {
+            writeVarInt(VALUE_DOUBLE);
+            writeDouble((Double) value);
+        } else if (value instanceof QName) {
+            writeVarInt(VALUE_QNAME);
+            writeQName((QName) value);
+        } else if (value instanceof byte[]) {
+            writeVarInt(VALUE_BYTES);
+            writeBytes((byte[]) value);
+        } else {
+            BinaryCommandCodec.Registration registration =
+                    codec.getValueRegistration(value.getClass());
+            if (registration != null) {
+                writeVarInt(VALUE_CUSTOM);
+                writeVarInt(registration.id);
+                ((ValueSerializer) registration.serializer).write(value, this);
+            } else {
+                writeVarInt(VALUE_SERIALIZED);
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                ObjectOutputStream objectOut = new ObjectOutputStream(bytes);
+                objectOut.writeObject(value);
+                objectOut.close();
+                writeBytes(bytes.toByteArray());
+            }
+        }
+    }
+
+    /**
+     * Write a command, e.g. a command contained in another command.
+     *
+     * @throws IOException If the command type has no registered {@link CommandSerializer}
+     */
+    @SuppressWarnings("unchecked")
+    public void writeCommand(ClusteringCommand command) throws IOException {
+        BinaryCommandCodec.Registration registration =
+                codec.getCommandRegistration(command.getClass());
+        if (registration == null) {
+            throw new BinaryCommandCodec.UnsupportedCommandException(command);
+        }
+        writeVarInt(registration.id);
+        ((CommandSerializer) registration.serializer).write(command, this);
+    }
+}
@@ -0,0 +1,38 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axis2.clustering.codec;
+
+import org.apache.axis2.clustering.ClusteringCommand;
+
+import java.io.IOException;
+
+/**
+ * Writes and reads the fields of a {@link ClusteringCommand} type for the
+ * {@link BinaryCommandCodec}. A serializer is registered with the codec of each member under an
+ * ID that identifies the command type in the messages, so the same ID must be used on all
+ * members.
+ *
+ * @param <T> The command type
+ */
+public interface CommandSerializer<T extends ClusteringCommand> {
+
+    void write(T command, CodecOutput out) throws IOException;
+
+    T read(CodecInput in) throws IOException;
+}
@@ -29,6 +29,8 @@ import org.apache.axis2.context.ConfigurationContext;
 import org.apache.axis2.context.ServiceContext;
 import org.apache.axis2.context.ServiceGroupContext;
 import org.apache.axis2.description.Parameter;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
 
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -37,13 +39,57 @@ import java.util.Map;
 
 /**
  * This class is the defaut StateManager of the Apache Tribes based clustering implementation
+ * <p/>
+ * The {@link #REPLICATION_MODE} parameter determines when the state is sent to the group:
+ * <ul>
+ * <li>{@link #REPLICATION_MODE_SYNC} (the default): each update is sent immediately, by the thread
+ * that requests it</li>
+ * <li>{@link #REPLICATION_MODE_ASYNC}: updates are queued and sent in batches by a background
+ * thread, {@link #REPLICATION_DELAY} milliseconds after the first update of the batch. Successive
+ * updates of the same context are coalesced. The thread that requests the replication doesn't
+ * wait, so a member may fail before its latest state has been replicated. The property values are
+ * serialized when the batch is sent, not when the update is requested.</li>
+ * <li>{@link #REPLICATION_MODE_SYNC_ON_COMMIT}: updates are queued as in the asynchronous mode,
+ * but the thread that requests the replication (typically at the end of a request, before the
+ * response is sent) waits until its updates have been sent. The updates requested by other
+ * threads while a batch is being sent are coalesced and sent together in the next batch.</li>
+ * </ul>
  */
 public class DefaultStateManager implements StateManager {
 
+    private static final Log log = LogFactory.getLog(DefaultStateManager.class);
+
+    /**
+     * The parameter that determines when the state is replicated: {@link #REPLICATION_MODE_SYNC},
+     * {@link #REPLICATION_MODE_ASYNC} or {@link #REPLICATION_MODE_SYNC_ON_COMMIT}.
+     */
+    public static final String REPLICATION_MODE = "replicationMode";
+
+    public static final String REPLICATION_MODE_SYNC = "sync";
+
+    public static final String REPLICATION_MODE_ASYNC = "async";
+
+    public static final String REPLICATION_MODE_SYNC_ON_COMMIT = "syncOnCommit";
+
+    /**
+     * The parameter that specifies the time, in milliseconds, during which updates are collected
+     * before a batch is sent in the asynchronous replication mode. The default is 100.
+     */
+    public static final String REPLICATION_DELAY = "replicationDelay";
+
+    private static final long DEFAULT_REPLICATION_DELAY = 100;
+
     private final Map<String, Parameter> parameters = new HashMap<String, Parameter>();
 
     private ChannelSender sender;
 
+    private ReplicationQueue replicationQueue;
+
+    /**
+     * Set by {@link #shutdown}; from then on, the commands are sent immediately.
+     */
+    private boolean stopped;
+
     private final Map<String, List> excludedReplicationPatterns = new HashMap<String, List>();
 
     //TODO: Try to use an interface
@@ -60,7 +106,7 @@ public class DefaultStateManager implements StateManager {
                                                                  excludedReplicationPatterns,
                                                                  false);
         if (cmd != null) {
-            sender.sendToGroup(cmd);
+            send(context, cmd);
         }
     }
 
@@ -69,11 +115,34 @@ public class DefaultStateManager implements StateManager {
         StateClusteringCommand cmd =
                 StateClusteringCommandFactory.getUpdateCommand(context, propertyNames);
         if (cmd != null) {
-            sender.sendToGroup(cmd);
+            send(context, cmd);
         }
     }
 
     public void updateContexts(AbstractContext[] contexts) throws ClusteringFault {
+        ReplicationQueue queue = getReplicationQueue();
+        if (queue != null) {
+            ReplicationQueue.Batch batch = null;
+            for (AbstractContext context : contexts) {
+                StateClusteringCommand cmd =
+                        StateClusteringCommandFactory.getUpdateCommand(context,
+                                                                       excludedReplicationPatterns,
+                                                                       false);
+                if (cmd != null) {
+                    ReplicationQueue.Batch added = queue.add(context, cmd);
+                    if (added == null) {
+                        // the queue has been stopped meanwhile
+                        sender.sendToGroup(cmd);
+                    } else {
+                        batch = added;
+                    }
+                }
+            }
+            if (batch != null && isSyncOnCommit()) {
+                queue.flush(batch);
+            }
+            return;
+        }
         StateClusteringCommandCollection cmd =
                 StateClusteringCommandFactory.getCommandCollection(contexts,
                                                                    excludedReplicationPatterns);
@@ -83,12 +152,81 @@ public class DefaultStateManager implements StateManager {
     }
 
     public void replicateState(StateClusteringCommand command) throws ClusteringFault {
-        sender.sendToGroup(command);
+        send(null, command);
     }
 
     public void removeContext(AbstractContext context) throws ClusteringFault {
         StateClusteringCommand cmd = StateClusteringCommandFactory.getRemoveCommand(context);
-        sender.sendToGroup(cmd);
+        send(null, cmd);
+    }
+
+    /**
+     * Send a command according to the replication mode.
+     *
+     * @param context The context updated by the command, or null if updates of the same context
+     *                queued before and after the command must not be coalesced
+     * @param cmd     The command
+     * @throws ClusteringFault If the command can't be sent
+     */
+    private void send(AbstractContext context, StateClusteringCommand cmd) throws ClusteringFault {
+        ReplicationQueue queue = getReplicationQueue();
+        if (queue == null) {
+            sender.sendToGroup(cmd);
+        } else if (cmd != null) {
+            ReplicationQueue.Batch batch = queue.add(context, cmd);
+            if (batch == null) {
+                // the queue has been stopped meanwhile
+                sender.sendToGroup(cmd);
+            } else if (isSyncOnCommit()) {
+                queue.flush(batch);
+            }
+        }
+    }
+
+    private String getReplicationMode() {
+        Parameter param = getParameter(REPLICATION_MODE);
+        return param == null ? REPLICATION_MODE_SYNC : ((String) param.getValue()).trim();
+    }
+
+    private boolean isSyncOnCommit() {
+        return REPLICATION_MODE_SYNC_ON_COMMIT.equals(getReplicationMode());
+    }
+
+    /**
+     * @return the queue used to send the commands, or null if they are sent immediately
+     */
+    private synchronized ReplicationQueue getReplicationQueue() {
+        if (stopped || REPLICATION_MODE_SYNC.equals(getReplicationMode())) {
+            return null;
+        }
+        if (replicationQueue == null) {
+            long delay = DEFAULT_REPLICATION_DELAY;
+            Parameter delayParam = getParameter(REPLICATION_DELAY);
+            if (delayParam != null) {
+                delay = Long.parseLong(((String) delayParam.getValue()).trim());
+            }
+            replicationQueue = new ReplicationQueue(sender, delay);
+            if (log.isDebugEnabled()) {
+                log.debug("State replication mode: " + getReplicationMode());
+            }
+        }
+        return replicationQueue;
+    }
+
+    /**
+     * Send the updates that have been queued but not replicated yet. Called when the member leaves
+     * the group. The updates requested afterwards are sent immediately.
+     */
+    public void shutdown() {
+        ReplicationQueue queue;
+        synchronized (this) {
+            stopped = true;
+            queue = replicationQueue;
+            replicationQueue = null;
+        }
+        if (queue != null) {
+            queue.stop();
+        }
     }
 
     public boolean isContextClusterable(AbstractContext context) {
@@ -111,6 +249,16 @@ public class DefaultStateManager implements StateManager {
 
     // ---------------------- Methods from ParameterInclude ----------------------------------------
     public void addParameter(Parameter param) throws AxisFault {
+        if (REPLICATION_MODE.equals(param.getName())) {
+            String mode = ((String) param.getValue()).trim();
+            if (!REPLICATION_MODE_SYNC.equals(mode) && !REPLICATION_MODE_ASYNC.equals(mode) &&
+                !REPLICATION_MODE_SYNC_ON_COMMIT.equals(mode)) {
+                throw new AxisFault("Invalid " + REPLICATION_MODE + " " + mode + ". Valid values" +
+                                    " are " + REPLICATION_MODE_SYNC + ", " +
+                                    REPLICATION_MODE_ASYNC + " & " +
+                                    REPLICATION_MODE_SYNC_ON_COMMIT);
+            }
+        }
         parameters.put(param.getName(), param);
     }
 
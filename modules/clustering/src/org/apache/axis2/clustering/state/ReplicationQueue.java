@@ -0,0 +1,263 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.clustering.state;
+
+import org.apache.axis2.clustering.ClusteringFault;
+import org.apache.axis2.clustering.MessageSender;
+import org.apache.axis2.clustering.state.commands.StateClusteringCommandCollection;
+import org.apache.axis2.clustering.state.commands.UpdateStateCommand;
+import org.apache.axis2.context.AbstractContext;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Queues the state replication commands of a {@link DefaultStateManager} and sends them to the
+ * group in batches, as a {@link StateClusteringCommandCollection}.
+ * <p/>
+ * Successive updates of the same context are coalesced into a single command, so that only the
+ * latest value of a property is sent. Other commands (removals and custom commands) are kept in
+ * order, and updates queued after them are not merged into the updates queued before them.
+ * <p/>
+ * Batches are sent either by a background thread, a short time after the first command of the
+ * batch has been queued, or by a thread that needs its commands to be replicated before it
+ * continues ({@link #flush}). In the latter case, threads that queue commands while a batch is
+ * being sent wait for the next batch, which is sent by one of them.
+ * Batches are always sent one at a time, in order.
+ */
+final class ReplicationQueue {
+
+    private static final Log log = LogFactory.getLog(ReplicationQueue.class);
+
+    /**
+     * The commands that are sent together.
+     */
+    static final class Batch {
+        final List<StateClusteringCommand> commands = new ArrayList<StateClusteringCommand>();
+
+        /**
+         * The update commands of the batch that can still be merged, by context.
+         */
+        final Map<AbstractContext, UpdateStateCommand> updates =
+                new IdentityHashMap<AbstractContext, UpdateStateCommand>();
+        boolean sent;
+        ClusteringFault fault;
+
+        void add(AbstractContext context, StateClusteringCommand command) {
+            if (context != null && command instanceof UpdateStateCommand) {
+                UpdateStateCommand updateCommand = (UpdateStateCommand) command;
+                UpdateStateCommand pending = updates.get(context);
+                if (pending != null) {
+                    pending.addProperties(updateCommand);
+                } else {
+                    updates.put(context, updateCommand);
+                    commands.add(updateCommand);
+                }
+            } else {
+                // Keep the order of the updates with respect to this command
+                updates.clear();
+                commands.add(command);
+            }
+        }
+    }
+
+    private final MessageSender sender;
+    private final long delay;
+    private Batch current = new Batch();
+    private boolean sending;
+    private Thread thread;
+    private boolean stopped;
+
+    /**
+     * @param sender the sender used to send the batches
+     * @param delay  the time, in milliseconds, the background thread waits for further commands
+     *               before it sends a batch
+     */
+    ReplicationQueue(MessageSender sender, long delay) {
+        this.sender = sender;
+        this.delay = delay;
+    }
+
+    /**
+     * Queue a command. The command is sent by the background thread, unless {@link #flush} is
+     * called first.
+     *
+     * @param context the context updated by the command, or <code>null</code> if the command
+     *                can't be merged with other commands
+     * @param command the command
+     * @return the batch the command belongs to, or <code>null</code> if the queue has been
+     *         stopped, in which case the command has not been queued
+     */
+    synchronized Batch add(AbstractContext context, StateClusteringCommand command) {
+        if (stopped) {
+            return null;
+        }
+        if (thread == null) {
+            thread = new Thread(new Runnable() {
+                public void run() {
+                    sendBatches();
+                }
+            }, "Axis2 state replication");
+            thread.setDaemon(true);
+            thread.start();
+        }
+        boolean wasEmpty = current.commands.isEmpty();
+        current.add(context, command);
+        if (wasEmpty) {
+            notifyAll();
+        }
+        return current;
+    }
+
+    /**
+     * Wait until the given batch has been sent, sending it from the calling thread if no other
+     * batch is being sent.
+     *
+     * @param batch the batch returned by {@link #add}
+     * @throws ClusteringFault if the batch couldn't be sent
+     */
+    void flush(Batch batch) throws ClusteringFault {
+        while (true) {
+            Batch batchToSend;
+            synchronized (this) {
+                while (sending && !batch.sent) {
+                    try {
+                        wait();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new ClusteringFault("Interrupted while waiting for the replication" +
+                                                  " of the state");
+                    }
+                }
+                if (batch.sent) {
+                    break;
+                }
+                batchToSend = startSending();
+            }
+            send(batchToSend);
+        }
+        if (batch.fault != null) {
+            throw batch.fault;
+        }
+    }
+
+    /**
+     * Take the current batch for sending. Must be called with the lock held and no batch being
+     * sent.
+     */
+    private Batch startSending() {
+        Batch batch = current;
+        current = new Batch();
+        sending = true;
+        return batch;
+    }
+
+    /**
+     * Send a batch taken by {@link #startSending}. The lock is not held, so that threads can queue
+     * commands for the next batch meanwhile.
+     */
+    private void send(Batch batch) {
+        try {
+            if (!batch.commands.isEmpty()) {
+                StateClusteringCommand command = batch.commands.size() == 1 ?
+                        batch.commands.get(0) :
+                        new StateClusteringCommandCollection(batch.commands);
+                if (log.isDebugEnabled()) {
+                    log.debug("Replicating " + batch.commands.size() + " state commands");
+                }
+                sender.sendToGroup(command);
+            }
+        } catch (ClusteringFault e) {
+            batch.fault = e;
+        } catch (RuntimeException e) {
+            batch.fault = new ClusteringFault("Could not replicate the state", e);
+        } finally {
+            synchronized (this) {
+                batch.sent = true;
+                sending = false;
+                notifyAll();
+            }
+        }
+    }
+
+    /**
+     * The background thread: send the pending commands a short time after the first one was
+     * queued.
+     */
+    private void sendBatches() {
+        while (true) {
+            Batch batch;
+            synchronized (this) {
+                try {
+                    while (!stopped && current.commands.isEmpty()) {
+                        wait();
+                    }
+                    long end = System.currentTimeMillis() + delay;
+                    long remaining;
+                    while (!stopped && (remaining = end - System.currentTimeMillis()) > 0) {
+                        wait(remaining);
+                    }
+                    while (sending) {
+                        wait();
+                    }
+                } catch (InterruptedException e) {
+                    return;
+                }
+                if (stopped) {
+                    // the remaining commands are sent by stop()
+                    return;
+                }
+                if (current.commands.isEmpty()) {
+                    // already sent by a thread calling flush()
+                    continue;
+                }
+                batch = startSending();
+            }
+            send(batch);
+            if (batch.fault != null) {
+                log.error("Could not replicate the state", batch.fault);
+            }
+        }
+    }
+
+    /**
+     * Send the pending commands and stop the background thread.
+     */
+    void stop() {
+        Batch batch;
+        synchronized (this) {
+            if (stopped) {
+                return;
+            }
+            stopped = true;
+            batch = current;
+            notifyAll();
+        }
+        try {
+            flush(batch);
+        } catch (ClusteringFault e) {
+            log.error("Could not replicate the state", e);
+        }
+    }
+}
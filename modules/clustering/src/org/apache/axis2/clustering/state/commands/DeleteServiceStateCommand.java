@@ -31,14 +31,26 @@ public class DeleteServiceStateCommand extends StateClusteringCommand {
     protected String serviceGroupContextId;
     protected String serviceName;
 
+    public String getServiceGroupName() {
+        return serviceGroupName;
+    }
+
     public void setServiceGroupName(String serviceGroupName) {
         this.serviceGroupName = serviceGroupName;
     }
 
+    public String getServiceName() {
+        return serviceName;
+    }
+
     public void setServiceName(String serviceName) {
         this.serviceName = serviceName;
     }
 
+    public String getServiceGroupContextId() {
+        return serviceGroupContextId;
+    }
+
     public void setServiceGroupContextId(String serviceGroupContextId) {
         this.serviceGroupContextId = serviceGroupContextId;
     }
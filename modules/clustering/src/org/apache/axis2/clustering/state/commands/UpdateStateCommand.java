@@ -24,6 +24,7 @@ import org.apache.axis2.clustering.state.StateClusteringCommand;
 import org.apache.axis2.context.PropertyDifference;
 
 import java.util.HashMap;
+import java.util.Map;
 
 /**
  * 
@@ -40,10 +41,32 @@ public abstract class UpdateStateCommand extends StateClusteringCommand {
         return propertyUpdater.getProperties().isEmpty();
     }
 
+    /**
+     * @return The property differences by property name; may be null
+     */
+    public Map getProperties() {
+        return propertyUpdater.getProperties();
+    }
+
     public void addProperty(PropertyDifference diff) {
         if (propertyUpdater.getProperties() == null) {
             propertyUpdater.setProperties(new HashMap());
         }                                        
         propertyUpdater.addContextProperty(diff);
     }
+
+    /**
+     * Add the properties of another update of the same context. The properties of
+     * <code>cmd</code> replace the properties with the same name in this command.
+     *
+     * @param cmd The later update
+     */
+    public void addProperties(UpdateStateCommand cmd) {
+        Map properties = cmd.propertyUpdater.getProperties();
+        if (properties != null) {
+            for (Object diff : properties.values()) {
+                addProperty((PropertyDifference) diff);
+            }
+        }
+    }
 }
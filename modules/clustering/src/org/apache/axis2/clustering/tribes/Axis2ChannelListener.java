@@ -21,6 +21,7 @@ package org.apache.axis2.clustering.tribes;
 
 import org.apache.axis2.clustering.ClusteringConstants;
 import org.apache.axis2.clustering.ClusteringFault;
+import org.apache.axis2.clustering.codec.BinaryCommandCodec;
 import org.apache.axis2.clustering.management.DefaultNodeManager;
 import org.apache.axis2.clustering.management.GroupManagementCommand;
 import org.apache.axis2.clustering.management.NodeManagementCommand;
@@ -50,6 +51,8 @@ public class Axis2ChannelListener implements ChannelListener {
 
     private ConfigurationContext configurationContext;
 
+    private BinaryCommandCodec commandCodec = new BinaryCommandCodec();
+
     public Axis2ChannelListener(ConfigurationContext configurationContext,
                                 DefaultNodeManager nodeManager,
                                 DefaultStateManager stateManager) {
@@ -70,6 +73,10 @@ public class Axis2ChannelListener implements ChannelListener {
         this.configurationContext = configurationContext;
     }
 
+    public void setCommandCodec(BinaryCommandCodec commandCodec) {
+        this.commandCodec = commandCodec;
+    }
+
     /**
      * Invoked by the channel to determine if the listener will process this message or not.
      * @param msg Serializable
@@ -88,10 +95,14 @@ public class Axis2ChannelListener implements ChannelListener {
     public void messageReceived(Serializable msg, Member sender) {
         try {
             byte[] message = ((ByteMessage) msg).getMessage();
-            msg = XByteBuffer.deserialize(message,
-                                          0,
-                                          message.length,
-                                          ClassLoaderUtil.getClassLoaders());
+            if (BinaryCommandCodec.isEncoded(message)) {
+                msg = commandCodec.decode(message);
+            } else {
+                msg = XByteBuffer.deserialize(message,
+                                              0,
+                                              message.length,
+                                              ClassLoaderUtil.getClassLoaders());
+            }
         } catch (Exception e) {
             String errMsg = "Cannot deserialize received message";
             log.error(errMsg, e);
@@ -22,6 +22,7 @@ package org.apache.axis2.clustering.tribes;
 import org.apache.axis2.clustering.ClusteringCommand;
 import org.apache.axis2.clustering.ClusteringFault;
 import org.apache.axis2.clustering.MessageSender;
+import org.apache.axis2.clustering.codec.BinaryCommandCodec;
 import org.apache.catalina.tribes.ByteMessage;
 import org.apache.catalina.tribes.Channel;
 import org.apache.catalina.tribes.ChannelException;
@@ -40,6 +41,7 @@ public class ChannelSender implements MessageSender {
     private Channel channel;
     private boolean synchronizeAllMembers;
     private MembershipManager membershipManager;
+    private BinaryCommandCodec commandCodec;
 
     public ChannelSender(Channel channel,
                          MembershipManager membershipManager,
@@ -49,6 +51,16 @@ public class ChannelSender implements MessageSender {
         this.synchronizeAllMembers = synchronizeAllMembers;
     }
 
+    /**
+     * Set the codec used to encode the commands it supports. The commands are sent with Java
+     * serialization if no codec is set.
+     *
+     * @param commandCodec The codec, or null
+     */
+    public void setCommandCodec(BinaryCommandCodec commandCodec) {
+        this.commandCodec = commandCodec;
+    }
+
     public synchronized void sendToGroup(ClusteringCommand msg,
                             MembershipManager membershipManager,
                             int additionalOptions) throws ClusteringFault {
@@ -106,6 +118,12 @@ public class ChannelSender implements MessageSender {
     }
 
     private ByteMessage toByteMessage(ClusteringCommand msg) throws IOException {
+        if (commandCodec != null) {
+            byte[] message = commandCodec.encode(msg);
+            if (message != null) {
+                return new ByteMessage(message);
+            }
+        }
         ByteArrayOutputStream bos = new ByteArrayOutputStream();
         ObjectOutputStream out = new ObjectOutputStream(bos);
         out.writeObject(msg);
@@ -23,6 +23,7 @@ import org.apache.axiom.om.OMAttribute;
 import org.apache.axiom.om.OMElement;
 import org.apache.axis2.AxisFault;
 import org.apache.axis2.clustering.*;
+import org.apache.axis2.clustering.codec.BinaryCommandCodec;
 import org.apache.axis2.clustering.control.ControlCommand;
 import org.apache.axis2.clustering.control.GetConfigurationCommand;
 import org.apache.axis2.clustering.control.GetStateCommand;
@@ -120,6 +121,11 @@ public class TribesClusteringAgent implements ClusteringAgent {
     private boolean clusterManagementMode;
     private RpcMessagingHandler rpcMessagingHandler;
 
+    /**
+     * Encodes and decodes the commands that are not sent with Java serialization
+     */
+    private final BinaryCommandCodec commandCodec = new BinaryCommandCodec();
+
     public TribesClusteringAgent() {
         parameters = new HashMap<String, Parameter>();
     }
@@ -201,8 +207,12 @@ public class TribesClusteringAgent implements ClusteringAgent {
         channel.addInterceptor(coordinator);
         channel.setHeartbeat(true);
         channelSender = new ChannelSender(channel, primaryMembershipManager, synchronizeAllMembers());
+        if (useBinaryEncoding()) {
+            channelSender.setCommandCodec(commandCodec);
+        }
         axis2ChannelListener =
                 new Axis2ChannelListener(configurationContext, configurationManager, contextManager);
+        axis2ChannelListener.setCommandCodec(commandCodec);
         channel.addChannelListener(axis2ChannelListener);
 
         byte[] domain = getClusterDomain();
@@ -826,6 +836,10 @@ public class TribesClusteringAgent implements ClusteringAgent {
      */
     public void shutdown() throws ClusteringFault {
         log.debug("Enter: TribesClusteringAgent::shutdown");
+        if (contextManager != null) {
+            // Replicate the updates that are still queued before leaving the group
+            contextManager.shutdown();
+        }
         if (channel != null) {
             try {
                 channel.removeChannelListener(rpcInitChannel);
@@ -875,5 +889,37 @@ public class TribesClusteringAgent implements ClusteringAgent {
         Parameter syncAllParam = getParameter(ClusteringConstants.Parameters.SYNCHRONIZE_ALL_MEMBERS);
         return syncAllParam == null || Boolean.parseBoolean((String) syncAllParam.getValue());
     }
+
+    /**
+     * Check whether the commands are sent with the binary encoding of {@link #getCommandCodec()}
+     * instead of Java serialization. Members always accept both encodings, but the binary
+     * encoding should only be enabled once all the members support it.
+     *
+     * @return true if the {@link TribesConstants#MESSAGE_ENCODING} parameter is "binary"
+     */
+    private boolean useBinaryEncoding() throws ClusteringFault {
+        Parameter param = getParameter(TribesConstants.MESSAGE_ENCODING);
+        if (param == null) {
+            return false;
+        }
+        String encoding = ((String) param.getValue()).trim();
+        if (TribesConstants.MESSAGE_ENCODING_BINARY.equals(encoding)) {
+            return true;
+        } else if (!TribesConstants.MESSAGE_ENCODING_JAVA.equals(encoding)) {
+            handleException("Invalid " + TribesConstants.MESSAGE_ENCODING + " " + encoding +
+                            ". Valid values are " + TribesConstants.MESSAGE_ENCODING_JAVA +
+                            " & " + TribesConstants.MESSAGE_ENCODING_BINARY);
+        }
+        return false;
+    }
+
+    /**
+     * The codec used for the binary encoding of commands. Serializers for custom commands and
+     * property values can be registered with it, using the same IDs on all members.
+     *
+     * @return The codec
+     */
+    public BinaryCommandCodec getCommandCodec() {
+        return commandCodec;
+    }
 }
-    
\ No newline at end of file
@@ -63,4 +63,13 @@ public final class TribesConstants {
     public static final String BIND_ADDRESS = "bindAddress";
     public static final String TCP_LISTEN_PORT = "tcpListenPort";
     public static final String MAX_RETRIES = "maxRetries";
+
+    /**
+     * The encoding of the commands sent by this member: "java" (the default) for Java
+     * serialization, or "binary" for the {@link org.apache.axis2.clustering.codec.BinaryCommandCodec}
+     * encoding of the commands it supports. Members always accept both encodings.
+     */
+    public static final String MESSAGE_ENCODING = "messageEncoding";
+    public static final String MESSAGE_ENCODING_JAVA = "java";
+    public static final String MESSAGE_ENCODING_BINARY = "binary";
 }
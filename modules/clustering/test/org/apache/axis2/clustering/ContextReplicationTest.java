@@ -37,6 +37,8 @@ import org.apache.axis2.description.AxisServiceGroup;
 import org.apache.axis2.description.Parameter;
 import org.apache.axis2.engine.AxisConfiguration;
 import org.apache.axis2.util.Utils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
 
 import java.io.IOException;
 import java.net.DatagramPacket;
@@ -53,6 +55,8 @@ import java.util.List;
  */
 public class ContextReplicationTest extends TestCase {
 
+    private static final Log log = LogFactory.getLog(ContextReplicationTest.class);
+
     private static final String TEST_SERVICE_NAME = "testService";
 
     private static final Parameter domainParam =
@@ -636,6 +640,85 @@ public class ContextReplicationTest extends TestCase {
 
     }
 
+    /**
+     * Replicates concurrent updates of a ServiceGroupContext in each replication mode, and logs
+     * the time taken by the threads that request the replication.
+     */
+    public void testReplicationModes() throws Exception {
+        if (!canRunTests) {
+            return;
+        }
+
+        ServiceGroupContext serviceGroupContext1 =
+                configurationContext1.createServiceGroupContext(serviceGroup1);
+        serviceGroupContext1.setId(TEST_SERVICE_NAME);
+        configurationContext1.addServiceGroupContextIntoApplicationScopeTable(serviceGroupContext1);
+
+        ServiceGroupContext serviceGroupContext2 =
+                configurationContext2.createServiceGroupContext(serviceGroup2);
+        serviceGroupContext2.setId(TEST_SERVICE_NAME);
+        configurationContext2.addServiceGroupContextIntoApplicationScopeTable(serviceGroupContext2);
+
+        int threadCount = 8;
+        int updateCount = 100;
+        String[] modes = {DefaultStateManager.REPLICATION_MODE_SYNC,
+                          DefaultStateManager.REPLICATION_MODE_SYNC_ON_COMMIT,
+                          DefaultStateManager.REPLICATION_MODE_ASYNC};
+        for (String mode : modes) {
+            ctxMan1.addParameter(new Parameter(DefaultStateManager.REPLICATION_MODE, mode));
+            long time = updateConcurrently(serviceGroupContext1, mode + "-", threadCount,
+                                           updateCount);
+            log.info("Replication mode " + mode + ": " + threadCount * updateCount +
+                     " updates in " + time + " ms");
+
+            // The last value of each property must have been replicated
+            Integer lastValue = updateCount - 1;
+            for (int i = 0; i < threadCount; i++) {
+                String key = mode + "-" + i;
+                for (int j = 0; j < 100 && !lastValue.equals(serviceGroupContext2.getProperty(key));
+                     j++) {
+                    Thread.sleep(100);
+                }
+                assertEquals(lastValue, serviceGroupContext2.getProperty(key));
+            }
+        }
+    }
+
+    private long updateConcurrently(final ServiceGroupContext serviceGroupContext,
+                                    final String keyPrefix,
+                                    int threadCount,
+                                    final int updateCount) throws Exception {
+        final List<Throwable> failures = new ArrayList<Throwable>();
+        Thread[] threads = new Thread[threadCount];
+        for (int i = 0; i < threadCount; i++) {
+            final String key = keyPrefix + i;
+            threads[i] = new Thread() {
+                public void run() {
+                    try {
+                        for (int j = 0; j < updateCount; j++) {
+                            serviceGroupContext.setProperty(key, j);
+                            ctxMan1.updateContext(serviceGroupContext);
+                        }
+                    } catch (Throwable e) {
+                        synchronized (failures) {
+                            failures.add(e);
+                        }
+                    }
+                }
+            };
+        }
+        long start = System.currentTimeMillis();
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        long time = System.currentTimeMillis() - start;
+        assertTrue(failures.toString(), failures.isEmpty());
+        return time;
+    }
+
     protected void tearDown() throws Exception {
         super.tearDown();
         if (clusterManager1 != null) {
@@ -0,0 +1,301 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.clustering.codec;
+
+import junit.framework.TestCase;
+
+import org.apache.axis2.clustering.ClusteringCommand;
+import org.apache.axis2.clustering.ClusteringFault;
+import org.apache.axis2.clustering.state.StateClusteringCommand;
+import org.apache.axis2.clustering.state.commands.DeleteServiceGroupStateCommand;
+import org.apache.axis2.clustering.state.commands.StateClusteringCommandCollection;
+import org.apache.axis2.clustering.state.commands.UpdateServiceStateCommand;
+import org.apache.axis2.context.ConfigurationContext;
+import org.apache.axis2.context.PropertyDifference;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import javax.xml.namespace.QName;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tests the {@link BinaryCommandCodec} and compares it with Java serialization
+ */
+public class BinaryCommandCodecTest extends TestCase {
+
+    private static final Log log = LogFactory.getLog(BinaryCommandCodecTest.class);
+
+    public static class Point {
+        final int x;
+        final int y;
+
+        public Point(int x, int y) {
+            this.x = x;
+            this.y = y;
+        }
+    }
+
+    public static class PointSerializer implements ValueSerializer<Point> {
+        public void write(Point value, CodecOutput out) throws IOException {
+            out.writeVarInt(value.x);
+            out.writeVarInt(value.y);
+        }
+
+        public Point read(CodecInput in) throws IOException {
+            return new Point(in.readVarInt(), in.readVarInt());
+        }
+    }
+
+    public static class PingCommand extends ClusteringCommand {
+        String message;
+
+        public void execute(ConfigurationContext configContext) throws ClusteringFault {
+        }
+    }
+
+    public static class PingSerializer implements CommandSerializer<PingCommand> {
+        public void write(PingCommand command, CodecOutput out) throws IOException {
+            out.writeString(command.message);
+        }
+
+        public PingCommand read(CodecInput in) throws IOException {
+            PingCommand command = new PingCommand();
+            command.message = in.readString();
+            return command;
+        }
+    }
+
+    private final BinaryCommandCodec codec = new BinaryCommandCodec();
+
+    private static UpdateServiceStateCommand createUpdate(String serviceGroupContextId,
+                                                         int index) {
+        UpdateServiceStateCommand cmd = new UpdateServiceStateCommand();
+        cmd.setServiceGroupName("EchoServiceGroup");
+        cmd.setServiceGroupContextId(serviceGroupContextId);
+        cmd.setServiceName("EchoService");
+        cmd.addProperty(new PropertyDifference("counter", index, false));
+        cmd.addProperty(new PropertyDifference("lastAccess", 1234567890123L + index, false));
+        cmd.addProperty(new PropertyDifference("user", "user" + index, false));
+        cmd.addProperty(new PropertyDifference("operation",
+                                               new QName("http://example.org/echo", "echo"),
+                                               false));
+        cmd.addProperty(new PropertyDifference("authenticated", Boolean.TRUE, false));
+        return cmd;
+    }
+
+    private static StateClusteringCommandCollection createBatch(int size) {
+        List<StateClusteringCommand> commands = new ArrayList<StateClusteringCommand>();
+        for (int i = 0; i < size; i++) {
+            commands.add(createUpdate("urn:uuid:6F9C5C5E3E0B8A1A3F1227361234" + (i % 4), i));
+        }
+        return new StateClusteringCommandCollection(commands);
+    }
+
+    private static PropertyDifference getProperty(UpdateServiceStateCommand cmd, String key) {
+        return (PropertyDifference) cmd.getProperties().get(key);
+    }
+
+    public void testUpdateServiceState() throws Exception {
+        UpdateServiceStateCommand cmd = createUpdate("sgctx-1", -42);
+        cmd.addProperty(new PropertyDifference("ratio", 0.5, false));
+        cmd.addProperty(new PropertyDifference("data", new byte[]{1, 2, 3}, false));
+        cmd.addProperty(new PropertyDifference("created", new Date(1000), false));
+        cmd.addProperty(new PropertyDifference("nothing", null, false));
+        cmd.addProperty(new PropertyDifference("removed", null, true));
+
+        UpdateServiceStateCommand decoded =
+                (UpdateServiceStateCommand) codec.decode(codec.encode(cmd));
+        assertEquals("EchoServiceGroup", decoded.getServiceGroupName());
+        assertEquals("sgctx-1", decoded.getServiceGroupContextId());
+        assertEquals("EchoService", decoded.getServiceName());
+        assertEquals(cmd.getProperties().size(), decoded.getProperties().size());
+        assertEquals(-42, getProperty(decoded, "counter").getValue());
+        assertEquals(1234567890123L - 42, getProperty(decoded, "lastAccess").getValue());
+        assertEquals("user-42", getProperty(decoded, "user").getValue());
+        assertEquals(new QName("http://example.org/echo", "echo"),
+                     getProperty(decoded, "operation").getValue());
+        assertEquals(Boolean.TRUE, getProperty(decoded, "authenticated").getValue());
+        assertEquals(0.5, getProperty(decoded, "ratio").getValue());
+        assertTrue(Arrays.equals(new byte[]{1, 2, 3},
+                                 (byte[]) getProperty(decoded, "data").getValue()));
+        assertEquals(new Date(1000), getProperty(decoded, "created").getValue());
+        assertNull(getProperty(decoded, "nothing").getValue());
+        assertFalse(getProperty(decoded, "nothing").isRemoved());
+        assertTrue(getProperty(decoded, "removed").isRemoved());
+    }
+
+    public void testCollection() throws Exception {
+        StateClusteringCommandCollection batch = createBatch(3);
+        DeleteServiceGroupStateCommand delete = new DeleteServiceGroupStateCommand();
+        delete.setServiceGroupContextId("sgctx-2");
+        batch.getCommands().add(delete);
+
+        StateClusteringCommandCollection decoded =
+                (StateClusteringCommandCollection) codec.decode(codec.encode(batch));
+        List<StateClusteringCommand> commands = decoded.getCommands();
+        assertEquals(4, commands.size());
+        for (int i = 0; i < 3; i++) {
+            UpdateServiceStateCommand cmd = (UpdateServiceStateCommand) commands.get(i);
+            assertEquals(i, getProperty(cmd, "counter").getValue());
+        }
+        assertEquals("sgctx-2",
+                     ((DeleteServiceGroupStateCommand) commands.get(3)).getServiceGroupContextId());
+    }
+
+    /**
+     * The strings repeated in a message are only written once
+     */
+    public void testDictionary() throws Exception {
+        int single = codec.encode(createBatch(1)).length;
+        int batch = codec.encode(createBatch(2)).length;
+        assertTrue(batch - single < single / 2);
+    }
+
+    public void testEmptyProperties() throws Exception {
+        UpdateServiceStateCommand cmd = new UpdateServiceStateCommand();
+        cmd.setServiceName("EchoService");
+        UpdateServiceStateCommand decoded =
+                (UpdateServiceStateCommand) codec.decode(codec.encode(cmd));
+        assertNotNull(decoded.getProperties());
+        assertTrue(decoded.getProperties().isEmpty());
+        assertNull(decoded.getServiceGroupName());
+    }
+
+    public void testCustomValueSerializer() throws Exception {
+        codec.registerValueSerializer(BinaryCommandCodec.FIRST_CUSTOM_ID, Point.class,
+                                      new PointSerializer());
+        UpdateServiceStateCommand cmd = new UpdateServiceStateCommand();
+        cmd.addProperty(new PropertyDifference("location", new Point(3, 4), false));
+        byte[] message = codec.encode(cmd);
+
+        Point point = (Point) getProperty((UpdateServiceStateCommand) codec.decode(message),
+                                          "location").getValue();
+        assertEquals(3, point.x);
+        assertEquals(4, point.y);
+
+        // A member without the serializer can't decode the message
+        try {
+            new BinaryCommandCodec().decode(message);
+            fail("Expected IOException");
+        } catch (IOException e) {
+            // Expected
+        }
+    }
+
+    public void testCustomCommandSerializer() throws Exception {
+        PingCommand ping = new PingCommand();
+        ping.message = "hello";
+        assertNull(codec.encode(ping));
+
+        codec.registerCommandSerializer(BinaryCommandCodec.FIRST_CUSTOM_ID, PingCommand.class,
+                                        new PingSerializer());
+        assertEquals("hello", ((PingCommand) codec.decode(codec.encode(ping))).message);
+    }
+
+    public void testReservedIds() {
+        try {
+            codec.registerValueSerializer(1, Point.class, new PointSerializer());
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            // Expected
+        }
+    }
+
+    public void testJavaSerializationIsNotEncoded() throws Exception {
+        assertTrue(BinaryCommandCodec.isEncoded(codec.encode(createBatch(1))));
+        assertFalse(BinaryCommandCodec.isEncoded(serialize(createBatch(1))));
+    }
+
+    public void testLaterVersion() throws Exception {
+        byte[] message = codec.encode(createBatch(1));
+        message[3] = (byte) (BinaryCommandCodec.VERSION + 1);
+        try {
+            codec.decode(message);
+            fail("Expected IOException");
+        } catch (IOException e) {
+            // Expected
+        }
+    }
+
+    private static byte[] serialize(Object obj) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ObjectOutputStream out = new ObjectOutputStream(bytes);
+        out.writeObject(obj);
+        out.close();
+        return bytes.toByteArray();
+    }
+
+    private static Object deserialize(byte[] bytes) throws Exception {
+        return new ObjectInputStream(new ByteArrayInputStream(bytes)).readObject();
+    }
+
+    public void testEncodedSize() throws Exception {
+        for (int size : new int[]{1, 20}) {
+            StateClusteringCommandCollection batch = createBatch(size);
+            assertTrue(codec.encode(batch).length < serialize(batch).length / 2);
+        }
+    }
+
+    /**
+     * Compares the time to encode and decode a batch of state updates with Java serialization.
+     * Only run if the run.clustering.benchmarks system property is set to true.
+     */
+    public void testBenchmark() throws Exception {
+        if (!Boolean.getBoolean("run.clustering.benchmarks")) {
+            return;
+        }
+        int iterations = 2000;
+        for (int size : new int[]{1, 20}) {
+            StateClusteringCommandCollection batch = createBatch(size);
+            byte[] serialized = serialize(batch);
+            byte[] encoded = codec.encode(batch);
+
+            long javaTime = 0;
+            long binaryTime = 0;
+            // The first round warms up the JIT
+            for (int round = 0; round < 2; round++) {
+                long start = System.nanoTime();
+                for (int i = 0; i < iterations; i++) {
+                    deserialize(serialize(batch));
+                }
+                javaTime = System.nanoTime() - start;
+                start = System.nanoTime();
+                for (int i = 0; i < iterations; i++) {
+                    codec.decode(codec.encode(batch));
+                }
+                binaryTime = System.nanoTime() - start;
+            }
+            log.info("Batch of " + size + " updates: Java serialization " +
+                     serialized.length + " bytes, " +
+                     javaTime / iterations / 1000 + " us; binary codec " +
+                     encoded.length + " bytes, " +
+                     binaryTime / iterations / 1000 + " us (encode + decode)");
+        }
+    }
+}
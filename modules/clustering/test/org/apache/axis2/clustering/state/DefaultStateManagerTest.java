@@ -0,0 +1,84 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axis2.clustering.state;
+
+import junit.framework.TestCase;
+
+import org.apache.axis2.clustering.ClusteringCommand;
+import org.apache.axis2.clustering.ClusteringFault;
+import org.apache.axis2.clustering.tribes.ChannelSender;
+import org.apache.axis2.context.ConfigurationContext;
+import org.apache.axis2.description.Parameter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Tests the replication modes of {@link DefaultStateManager}
+ */
+public class DefaultStateManagerTest extends TestCase {
+
+    private static class RecordingSender extends ChannelSender {
+        final List<ClusteringCommand> commands =
+                Collections.synchronizedList(new ArrayList<ClusteringCommand>());
+
+        RecordingSender() {
+            super(null, null, false);
+        }
+
+        public void sendToGroup(ClusteringCommand msg) throws ClusteringFault {
+            commands.add(msg);
+        }
+    }
+
+    private static class CustomCommand extends StateClusteringCommand {
+        public void execute(ConfigurationContext configContext) throws ClusteringFault {
+        }
+    }
+
+    private DefaultStateManager createStateManager(RecordingSender sender, String mode)
+            throws Exception {
+        DefaultStateManager stateManager = new DefaultStateManager();
+        stateManager.addParameter(new Parameter(DefaultStateManager.REPLICATION_MODE, mode));
+        stateManager.addParameter(new Parameter(DefaultStateManager.REPLICATION_DELAY, "60000"));
+        stateManager.setSender(sender);
+        return stateManager;
+    }
+
+    public void testShutdownSendsQueuedCommands() throws Exception {
+        RecordingSender sender = new RecordingSender();
+        DefaultStateManager stateManager =
+                createStateManager(sender, DefaultStateManager.REPLICATION_MODE_ASYNC);
+        stateManager.replicateState(new CustomCommand());
+        assertTrue(sender.commands.isEmpty());
+        stateManager.shutdown();
+        assertEquals(1, sender.commands.size());
+    }
+
+    public void testReplicationAfterShutdown() throws Exception {
+        RecordingSender sender = new RecordingSender();
+        DefaultStateManager stateManager =
+                createStateManager(sender, DefaultStateManager.REPLICATION_MODE_ASYNC);
+        stateManager.shutdown();
+        // sent immediately instead of being queued for a thread that no longer runs
+        stateManager.replicateState(new CustomCommand());
+        assertEquals(1, sender.commands.size());
+    }
+}
@@ -0,0 +1,200 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.clustering.state;
+
+import junit.framework.TestCase;
+
+import org.apache.axis2.clustering.ClusteringCommand;
+import org.apache.axis2.clustering.ClusteringFault;
+import org.apache.axis2.clustering.MessageSender;
+import org.apache.axis2.clustering.state.commands.StateClusteringCommandCollection;
+import org.apache.axis2.clustering.state.commands.UpdateConfigurationStateCommand;
+import org.apache.axis2.context.ConfigurationContext;
+import org.apache.axis2.context.ConfigurationContextFactory;
+import org.apache.axis2.context.PropertyDifference;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tests the batching and coalescing of state replication commands by {@link ReplicationQueue}
+ */
+public class ReplicationQueueTest extends TestCase {
+
+    private static class RecordingSender implements MessageSender {
+        final List<ClusteringCommand> commands =
+                Collections.synchronizedList(new ArrayList<ClusteringCommand>());
+
+        public void sendToGroup(ClusteringCommand msg) throws ClusteringFault {
+            commands.add(msg);
+        }
+
+        public void sendToSelf(ClusteringCommand msg) throws ClusteringFault {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    private static class CustomCommand extends StateClusteringCommand {
+        public void execute(ConfigurationContext configContext) throws ClusteringFault {
+            configContext.setNonReplicableProperty("custom", "executed");
+        }
+    }
+
+    private ConfigurationContext configurationContext;
+
+    protected void setUp() throws Exception {
+        configurationContext = ConfigurationContextFactory.createEmptyConfigurationContext();
+    }
+
+    private static StateClusteringCommand update(String key, Object value) {
+        UpdateConfigurationStateCommand cmd = new UpdateConfigurationStateCommand();
+        cmd.addProperty(new PropertyDifference(key, value, false));
+        return cmd;
+    }
+
+    /**
+     * Executes the commands that have been sent on another configuration context
+     */
+    private static ConfigurationContext replay(List<ClusteringCommand> commands) throws Exception {
+        ConfigurationContext replica = ConfigurationContextFactory.createEmptyConfigurationContext();
+        for (ClusteringCommand command : commands) {
+            command.execute(replica);
+        }
+        return replica;
+    }
+
+    public void testCoalescing() throws Exception {
+        RecordingSender sender = new RecordingSender();
+        ReplicationQueue queue = new ReplicationQueue(sender, 60000);
+        queue.add(configurationContext, update("a", "1"));
+        queue.add(configurationContext, update("b", "2"));
+        queue.flush(queue.add(configurationContext, update("a", "3")));
+
+        assertEquals(1, sender.commands.size());
+        assertTrue(sender.commands.get(0) instanceof UpdateConfigurationStateCommand);
+        ConfigurationContext replica = replay(sender.commands);
+        assertEquals("3", replica.getPropertyNonReplicable("a"));
+        assertEquals("2", replica.getPropertyNonReplicable("b"));
+        queue.stop();
+    }
+
+    public void testOrderIsPreserved() throws Exception {
+        RecordingSender sender = new RecordingSender();
+        ReplicationQueue queue = new ReplicationQueue(sender, 60000);
+        queue.add(configurationContext, update("a", "1"));
+        queue.add(null, new CustomCommand());
+        queue.flush(queue.add(configurationContext, update("a", "2")));
+
+        assertEquals(1, sender.commands.size());
+        assertTrue(sender.commands.get(0) instanceof StateClusteringCommandCollection);
+        ConfigurationContext replica = replay(sender.commands);
+        assertEquals("2", replica.getPropertyNonReplicable("a"));
+        assertEquals("executed", replica.getPropertyNonReplicable("custom"));
+        queue.stop();
+    }
+
+    public void testBackgroundSend() throws Exception {
+        RecordingSender sender = new RecordingSender();
+        ReplicationQueue queue = new ReplicationQueue(sender, 10);
+        queue.add(configurationContext, update("a", "1"));
+        for (int i = 0; i < 1000 && sender.commands.isEmpty(); i++) {
+            Thread.sleep(10);
+        }
+        assertEquals(1, sender.commands.size());
+        queue.stop();
+        assertEquals(1, sender.commands.size());
+    }
+
+    public void testStopSendsPendingCommands() throws Exception {
+        RecordingSender sender = new RecordingSender();
+        ReplicationQueue queue = new ReplicationQueue(sender, 60000);
+        queue.add(configurationContext, update("a", "1"));
+        queue.stop();
+        assertEquals(1, sender.commands.size());
+    }
+
+    public void testAddAfterStop() throws Exception {
+        RecordingSender sender = new RecordingSender();
+        ReplicationQueue queue = new ReplicationQueue(sender, 60000);
+        queue.stop();
+        assertNull(queue.add(configurationContext, update("a", "1")));
+        assertTrue(sender.commands.isEmpty());
+    }
+
+    /**
+     * Updates that are requested while a batch is being sent are sent together in the next batch.
+     */
+    public void testGroupCommit() throws Exception {
+        final CountDownLatch sending = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final RecordingSender sender = new RecordingSender() {
+            public void sendToGroup(ClusteringCommand msg) throws ClusteringFault {
+                super.sendToGroup(msg);
+                sending.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    throw new ClusteringFault(e);
+                }
+            }
+        };
+        final ReplicationQueue queue = new ReplicationQueue(sender, 60000);
+        final ConfigurationContext[] contexts = new ConfigurationContext[5];
+        for (int i = 0; i < contexts.length; i++) {
+            contexts[i] = ConfigurationContextFactory.createEmptyConfigurationContext();
+        }
+        final List<Throwable> failures = Collections.synchronizedList(new ArrayList<Throwable>());
+        Thread[] threads = new Thread[contexts.length];
+        for (int i = 0; i < threads.length; i++) {
+            final ConfigurationContext context = contexts[i];
+            final String key = "key" + i;
+            threads[i] = new Thread() {
+                public void run() {
+                    try {
+                        queue.flush(queue.add(context, update(key, "value")));
+                    } catch (Throwable e) {
+                        failures.add(e);
+                    }
+                }
+            };
+        }
+        threads[0].start();
+        assertTrue(sending.await(10, TimeUnit.SECONDS));
+        for (int i = 1; i < threads.length; i++) {
+            threads[i].start();
+        }
+        // Let the other threads queue their updates while the first batch is being sent
+        Thread.sleep(500);
+        release.countDown();
+        for (Thread thread : threads) {
+            thread.join(10000);
+        }
+        assertTrue(failures.toString(), failures.isEmpty());
+        assertEquals(2, sender.commands.size());
+        ConfigurationContext replica = replay(sender.commands);
+        for (int i = 0; i < contexts.length; i++) {
+            assertEquals("value", replica.getPropertyNonReplicable("key" + i));
+        }
+        queue.stop();
+    }
+}
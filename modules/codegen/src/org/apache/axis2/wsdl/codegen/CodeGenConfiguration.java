@@ -203,6 +203,10 @@ public class CodeGenConfiguration implements CommandLineOptionConstants {
         this.syncOn = syncOn;
     }
 
+    public void setAsyncFutureOn(boolean asyncFutureOn) {
+        this.asyncFutureOn = asyncFutureOn;
+    }
+
     public void setServerSide(boolean serverSide) {
         this.serverSide = serverSide;
     }
@@ -230,6 +234,7 @@ public class CodeGenConfiguration implements CommandLineOptionConstants {
 
     private boolean asyncOn = true;
     private boolean syncOn = true;
+    private boolean asyncFutureOn = false;
     private boolean serverSide = false;
     private boolean generateDeployementDescriptor = true;
     private boolean writeTestCase = false;
@@ -439,6 +444,14 @@ public class CodeGenConfiguration implements CommandLineOptionConstants {
         return syncOn;
     }
 
+    /**
+     * Should the stubs also offer non-blocking methods returning a
+     * <code>java.util.concurrent.CompletableFuture</code>? The generated code requires Java 8.
+     */
+    public boolean isAsyncFutureOn() {
+        return asyncFutureOn;
+    }
+
     public boolean isServerSide() {
         return serverSide;
     }
@@ -91,6 +91,16 @@ public class CodegenConfigLoader implements CommandLineOptionConstants {
             config.setAsyncOn(false);
             config.setSyncOn(true);
         }
+        // the future returning methods are built on top of the callback based ones
+        if (loadOption(WSDL2JavaConstants.CODEGEN_ASYNC_FUTURE_OPTION,
+                       WSDL2JavaConstants.CODEGEN_ASYNC_FUTURE_OPTION_LONG, optionMap) != null) {
+            if (syncFlagPresent && !asyncFlagPresent) {
+                throw new CodeGenerationException(
+                        CodegenMessages.getMessage("options.asyncFutureWithSyncOnly"));
+            }
+            config.setAsyncOn(true);
+            config.setAsyncFutureOn(true);
+        }
 
         commandLineOption = loadOption(WSDL2JavaConstants.PACKAGE_OPTION,
                                        WSDL2JavaConstants.PACKAGE_OPTION_LONG, optionMap);
@@ -2596,6 +2596,9 @@ public class AxisServiceBasedMultiLanguageEmitter implements Emitter {
         addAttribute(doc, "isSync", this.codeGenConfiguration.isSyncOn()
                 ? "1"
                 : "0", rootElement);
+        addAttribute(doc, "isAsyncFuture", this.codeGenConfiguration.isAsyncFutureOn()
+                ? "1"
+                : "0", rootElement);
     }
 
     /**
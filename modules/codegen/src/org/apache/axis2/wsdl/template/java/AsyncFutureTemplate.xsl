@@ -0,0 +1,90 @@
+
+<!--
+  ~ Licensed to the Apache Software Foundation (ASF) under one
+  ~ or more contributor license agreements. See the NOTICE file
+  ~ distributed with this work for additional information
+  ~ regarding copyright ownership. The ASF licenses this file
+  ~ to you under the Apache License, Version 2.0 (the
+  ~ "License"); you may not use this file except in compliance
+  ~ with the License. You may obtain a copy of the License at
+  ~
+  ~ http://www.apache.org/licenses/LICENSE-2.0
+  ~
+  ~ Unless required by applicable law or agreed to in writing,
+  ~ software distributed under the License is distributed on an
+  ~ "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+  ~ KIND, either express or implied. See the License for the
+  ~ specific language governing permissions and limitations
+  ~ under the License.
+  -->
+
+<!-- Named templates for the CompletableFuture returning methods. They are included by both the
+     interface and the interface implementation templates, so that the generated signatures
+     always match -->
+<xsl:stylesheet version="1.0" xmlns:xsl="http://www.w3.org/1999/XSL/Transform">
+
+    <!-- Parameter list of the CompletableFuture returning methods, in the same order as for the
+         start methods. Only the parameter names are written if names-only is set, and a comma is
+         appended if there are any parameters and trailing-comma is set -->
+    <xsl:template name="asyncFutureParams">
+        <xsl:param name="names-only" select="false()"/>
+        <xsl:param name="trailing-comma" select="false()"/>
+        <xsl:variable name="inputcount" select="count(input/param[@location='body' and @type!=''])"/>
+        <xsl:variable name="isUnwrapParameters" select="input/param[@location='body' and @type!='']/@unwrappParameters"/>
+        <xsl:variable name="inputParamCount" select="count(input/param[@location='body' and @type!='']/param)"/>
+        <xsl:if test="$inputcount=1">
+            <xsl:choose>
+                <xsl:when test="$isUnwrapParameters">
+                    <xsl:for-each select="input/param[@location='body' and @type!='']/param">
+                        <xsl:if test="position()>1">,</xsl:if><xsl:if test="not($names-only)"><xsl:value-of select="@type"/><xsl:text> </xsl:text></xsl:if><xsl:value-of select="@name"/>
+                    </xsl:for-each>
+                </xsl:when>
+                <xsl:otherwise>
+                    <xsl:for-each select="input/param[@location='body' and @type!='']">
+                        <xsl:if test="not($names-only)"><xsl:value-of select="@type"/><xsl:text> </xsl:text></xsl:if><xsl:value-of select="@name"/>
+                    </xsl:for-each>
+                </xsl:otherwise>
+            </xsl:choose>
+        </xsl:if>
+        <xsl:if test="($inputcount=1 and input/param[not(@location='body') and @type!='']) and
+                        not($isUnwrapParameters and $inputParamCount=0)">,</xsl:if>
+        <xsl:for-each select="input/param[not(@location='body') and @type!='']">
+            <xsl:if test="position()>1">,</xsl:if><xsl:if test="not($names-only)"><xsl:value-of select="@type"/><xsl:text> </xsl:text></xsl:if><xsl:value-of select="@name"/>
+        </xsl:for-each>
+        <xsl:if test="$trailing-comma and (($inputcount=1 and not($isUnwrapParameters and $inputParamCount=0))
+                        or input/param[not(@location='body') and @type!=''])">,</xsl:if>
+    </xsl:template>
+
+    <!-- Result type of the CompletableFuture returning methods; this is the parameter type of the
+         receiveResult method of the callback handler, or empty if it has no parameter. If boxed
+         is set, primitive types are replaced by their wrappers and an empty type by Void -->
+    <xsl:template name="asyncFutureResultType">
+        <xsl:param name="boxed" select="false()"/>
+        <xsl:variable name="outParamType" select="output/param[@location='body']/@type"/>
+        <xsl:variable name="outParamComplexType" select="output/param[@location='body']/@complextype"/>
+        <xsl:variable name="outParamCount" select="count(output/param[@location='body']/param)"/>
+        <xsl:variable name="isUnwrapParameters" select="input/param[@location='body' and @type!='']/@unwrappParameters"/>
+        <xsl:variable name="type">
+            <xsl:choose>
+                <xsl:when test="$outParamCount=1"><xsl:value-of select="output/param[@location='body']/param/@type"/></xsl:when>
+                <xsl:when test="string-length(normalize-space($outParamComplexType)) > 0"><xsl:value-of select="$outParamComplexType"/></xsl:when>
+                <xsl:when test="($outParamCount=0) and ($isUnwrapParameters)"></xsl:when>
+                <xsl:otherwise><xsl:value-of select="$outParamType"/></xsl:otherwise>
+            </xsl:choose>
+        </xsl:variable>
+        <xsl:choose>
+            <xsl:when test="not($boxed)"><xsl:value-of select="$type"/></xsl:when>
+            <xsl:when test="$type=''">java.lang.Void</xsl:when>
+            <xsl:when test="$type='boolean'">java.lang.Boolean</xsl:when>
+            <xsl:when test="$type='byte'">java.lang.Byte</xsl:when>
+            <xsl:when test="$type='char'">java.lang.Character</xsl:when>
+            <xsl:when test="$type='short'">java.lang.Short</xsl:when>
+            <xsl:when test="$type='int'">java.lang.Integer</xsl:when>
+            <xsl:when test="$type='long'">java.lang.Long</xsl:when>
+            <xsl:when test="$type='float'">java.lang.Float</xsl:when>
+            <xsl:when test="$type='double'">java.lang.Double</xsl:when>
+            <xsl:otherwise><xsl:value-of select="$type"/></xsl:otherwise>
+        </xsl:choose>
+    </xsl:template>
+
+</xsl:stylesheet>
@@ -27,6 +27,9 @@
          URI resolver during the xslt transformations
      -->
     <xsl:include href="externalTemplate"/>
+
+    <!-- named templates shared by the interface and interface implementation templates -->
+    <xsl:include href="/org/apache/axis2/wsdl/template/java/AsyncFutureTemplate.xsl"/>
     
     
     <xsl:include href="policyExtensionTemplate"/>
@@ -37,6 +40,7 @@
         <xsl:variable name="callbackname"><xsl:value-of select="@callbackname"/></xsl:variable>
         <xsl:variable name="isSync"><xsl:value-of select="@isSync"/></xsl:variable>
         <xsl:variable name="isAsync"><xsl:value-of select="@isAsync"/></xsl:variable>
+        <xsl:variable name="isAsyncFuture"><xsl:value-of select="@isAsyncFuture"/></xsl:variable>
         <xsl:variable name="soapVersion"><xsl:value-of select="@soap-version"/></xsl:variable>
         <xsl:variable name="isbackcompatible" select="@isbackcompatible"/>
 /**
@@ -869,6 +873,71 @@
 
                     }
                 </xsl:if>
+            <!-- CompletableFuture method generation, built on the start method -->
+            <xsl:if test="$isAsyncFuture='1' and $outputtype!=''">
+                <xsl:variable name="futureType"><xsl:call-template name="asyncFutureResultType"><xsl:with-param name="boxed" select="true()"/></xsl:call-template></xsl:variable>
+                <xsl:variable name="resultType"><xsl:call-template name="asyncFutureResultType"/></xsl:variable>
+                /**
+                * Auto generated method signature for non-blocking invocations returning a future
+                * <xsl:value-of select="@comment"/>
+                * @see <xsl:value-of select="$package"/>.<xsl:value-of select="$interfaceName"/>#<xsl:value-of select="@name"/>Async
+                <xsl:for-each select="input/param[@type!='']">
+                    * @param <xsl:value-of select="@name"></xsl:value-of><xsl:text>
+                </xsl:text></xsl:for-each>
+                */
+                public java.util.concurrent.CompletableFuture&lt;<xsl:value-of select="$futureType"/>> <xsl:value-of select="@name"/>Async(
+                    <xsl:call-template name="asyncFutureParams"/>)
+                    throws java.rmi.RemoteException{
+                    return <xsl:value-of select="@name"/>Async(<xsl:call-template name="asyncFutureParams"><xsl:with-param name="names-only" select="true()"/><xsl:with-param name="trailing-comma" select="true()"/></xsl:call-template>
+                            _serviceClient.getOptions().getTimeOutInMilliSeconds());
+                }
+
+                /**
+                * Auto generated method signature for non-blocking invocations returning a future.
+                * Cancelling the future does not abort the request, but its response is discarded.
+                * <xsl:value-of select="@comment"/>
+                * @see <xsl:value-of select="$package"/>.<xsl:value-of select="$interfaceName"/>#<xsl:value-of select="@name"/>Async
+                <xsl:for-each select="input/param[@type!='']">
+                    * @param <xsl:value-of select="@name"></xsl:value-of><xsl:text>
+                </xsl:text></xsl:for-each>
+                * @param timeout the time in milliseconds after which the future fails with a
+                *     java.util.concurrent.TimeoutException, or 0 for no timeout
+                */
+                public java.util.concurrent.CompletableFuture&lt;<xsl:value-of select="$futureType"/>> <xsl:value-of select="@name"/>Async(
+                    <xsl:call-template name="asyncFutureParams"><xsl:with-param name="trailing-comma" select="true()"/></xsl:call-template>
+                    final long timeout)
+                    throws java.rmi.RemoteException{
+
+                    final java.util.concurrent.CompletableFuture&lt;<xsl:value-of select="$futureType"/>> _future =
+                            new java.util.concurrent.CompletableFuture&lt;<xsl:value-of select="$futureType"/>>();
+
+                    start<xsl:value-of select="@name"/>(<xsl:call-template name="asyncFutureParams"><xsl:with-param name="names-only" select="true()"/><xsl:with-param name="trailing-comma" select="true()"/></xsl:call-template>
+                        new <xsl:value-of select="$package"/>.<xsl:value-of select="$callbackname"/>() {
+                            public void receiveResult<xsl:value-of select="@name"/>(<xsl:if test="$resultType!=''"><xsl:value-of select="$resultType"/> result</xsl:if>) {
+                                _future.complete(<xsl:choose><xsl:when test="$resultType!=''">result</xsl:when><xsl:otherwise>null</xsl:otherwise></xsl:choose>);
+                            }
+
+                            public void receiveError<xsl:value-of select="@name"/>(java.lang.Exception e) {
+                                _future.completeExceptionally(e);
+                            }
+                        });
+
+                    if (timeout > 0 &amp;&amp; !_future.isDone()) {
+                        final java.util.concurrent.ScheduledFuture&lt;?> _timeoutTask = scheduleTimeout(new java.lang.Runnable() {
+                            public void run() {
+                                _future.completeExceptionally(new java.util.concurrent.TimeoutException(
+                                        "No response received for <xsl:value-of select="@name"/> within " + timeout + " ms"));
+                            }
+                        }, timeout);
+                        _future.whenComplete(new java.util.function.BiConsumer&lt;<xsl:value-of select="$futureType"/>,java.lang.Throwable>() {
+                            public void accept(<xsl:value-of select="$futureType"/> result, java.lang.Throwable error) {
+                                _timeoutTask.cancel(false);
+                            }
+                        });
+                    }
+                    return _future;
+                }
+            </xsl:if>
                 <!-- End of in-out mep -->
             </xsl:if>
 
@@ -28,10 +28,14 @@
      -->
     <xsl:include href="externalTemplate"/>
 
+    <!-- named templates shared by the interface and interface implementation templates -->
+    <xsl:include href="/org/apache/axis2/wsdl/template/java/AsyncFutureTemplate.xsl"/>
+
 
     <xsl:template match="/interface">
     <xsl:variable name="isSync"><xsl:value-of select="@isSync"/></xsl:variable>
     <xsl:variable name="isAsync"><xsl:value-of select="@isAsync"/></xsl:variable>
+    <xsl:variable name="isAsyncFuture"><xsl:value-of select="@isAsyncFuture"/></xsl:variable>
     <xsl:variable name="callbackname"><xsl:value-of select="@callbackname"/></xsl:variable>
     <xsl:variable name="package"><xsl:value-of select="@package"/></xsl:variable>
     <xsl:variable name="isbackcompatible" select="@isbackcompatible"/>
@@ -190,6 +194,36 @@
             throws java.rmi.RemoteException;
 
      </xsl:if>
+
+        <!-- start of the CompletableFuture block -->
+        <xsl:if test="$isAsyncFuture='1' and $outputtype!=''">
+         /**
+            * Auto generated method signature for non-blocking invocations returning a future.
+            * The invocation times out after the timeout set in the options of the service client.
+            * <xsl:value-of select="@comment"/>
+            <xsl:for-each select="input/param[@type!='']">
+                * @param <xsl:value-of select="@name"></xsl:value-of><xsl:text>
+            </xsl:text></xsl:for-each>
+          */
+        public java.util.concurrent.CompletableFuture&lt;<xsl:call-template name="asyncFutureResultType"><xsl:with-param name="boxed" select="true()"/></xsl:call-template>> <xsl:value-of select="@name"/>Async(
+            <xsl:call-template name="asyncFutureParams"/>)
+            throws java.rmi.RemoteException;
+
+         /**
+            * Auto generated method signature for non-blocking invocations returning a future.
+            * <xsl:value-of select="@comment"/>
+            <xsl:for-each select="input/param[@type!='']">
+                * @param <xsl:value-of select="@name"></xsl:value-of><xsl:text>
+            </xsl:text></xsl:for-each>
+            * @param timeout the time in milliseconds after which the future fails with a
+            *     java.util.concurrent.TimeoutException, or 0 for no timeout
+          */
+        public java.util.concurrent.CompletableFuture&lt;<xsl:call-template name="asyncFutureResultType"><xsl:with-param name="boxed" select="true()"/></xsl:call-template>> <xsl:value-of select="@name"/>Async(
+            <xsl:call-template name="asyncFutureParams"><xsl:with-param name="trailing-comma" select="true()"/></xsl:call-template>
+            long timeout)
+            throws java.rmi.RemoteException;
+
+        </xsl:if>
      </xsl:if>
         <!-- Code for in-only mep -->
        <xsl:if test="@mep='10' or @mep='11'">
@@ -43,6 +43,8 @@ public class WSDL2JavaOptionsValidator implements CommandLineOptionConstants, Op
                     WSDL2JavaConstants.CODEGEN_ASYNC_ONLY_OPTION_LONG.equalsIgnoreCase(optionType) ||
                     WSDL2JavaConstants.CODEGEN_SYNC_ONLY_OPTION.equalsIgnoreCase(optionType) ||
                     WSDL2JavaConstants.CODEGEN_SYNC_ONLY_OPTION_LONG.equalsIgnoreCase(optionType) ||
+                    WSDL2JavaConstants.CODEGEN_ASYNC_FUTURE_OPTION.equalsIgnoreCase(optionType) ||
+                    WSDL2JavaConstants.CODEGEN_ASYNC_FUTURE_OPTION_LONG.equalsIgnoreCase(optionType) ||
                     WSDL2JavaConstants.DATA_BINDING_TYPE_OPTION.equalsIgnoreCase(optionType) ||
                     WSDL2JavaConstants.DATA_BINDING_TYPE_OPTION_LONG.equalsIgnoreCase(optionType) ||
                     WSDL2JavaConstants.EXTERNAL_MAPPING_OPTION.equalsIgnoreCase(optionType) ||
@@ -0,0 +1,52 @@
+/*
+ * Copyright (c) 2007, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.axis2.wsdl.codegen;
+
+import junit.framework.TestCase;
+
+package org.apache.axis2.wsdl.codegen;
+
+import junit.framework.TestCase;
+import org.apache.axis2.util.CommandLineOptionParser;
+
+public class CodegenConfigLoaderTest extends TestCase {
+
+    private static CodeGenConfiguration loadConfig(String... args) throws Exception {
+        CodeGenConfiguration config = new CodeGenConfiguration();
+        CodegenConfigLoader.loadConfig(config, new CommandLineOptionParser(args).getAllOptions());
+        return config;
+    }
+
+    public void testAsyncFutureImpliesAsync() throws Exception {
+        CodeGenConfiguration config = loadConfig("-af");
+        assertTrue(config.isAsyncFutureOn());
+        assertTrue(config.isAsyncOn());
+        assertTrue(config.isSyncOn());
+
+        config = loadConfig("-a", "-af");
+        assertTrue(config.isAsyncFutureOn());
+        assertFalse(config.isSyncOn());
+    }
+
+    public void testAsyncFutureWithSyncOnlyIsRejected() throws Exception {
+        try {
+            loadConfig("-s", "-af");
+            fail("Expected CodeGenerationException");
+        } catch (CodeGenerationException ex) {
+            // expected
+        }
+    }
+}
@@ -151,8 +151,8 @@ public class JAXWSDeployer extends AbstractDeployer {
                         axisConfig.isChildFirstClassLoading());
                 Thread.currentThread().setContextClassLoader(classLoader);
 
-                List<String> classList = Utils.getListOfClasses(deploymentFileData);
                 JAXWSDeployerSupport deployerSupport = new JAXWSDeployerSupport(configCtx, directory);
+                List<String> classList = deployerSupport.getListOfClasses(deploymentFileData);
                 AxisServiceGroup serviceGroup = deployerSupport.deployClasses(groupName, location, classLoader, classList);
                 
                 if(serviceGroup == null) {
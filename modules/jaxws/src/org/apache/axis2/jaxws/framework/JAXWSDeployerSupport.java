@@ -19,6 +19,7 @@
 
 package org.apache.axis2.jaxws.framework;
 
+import java.io.IOException;
 import java.net.URL;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -47,6 +48,7 @@ import org.apache.axis2.jaxws.addressing.util.EndpointKey;
 import org.apache.axis2.jaxws.description.DescriptionFactory;
 import org.apache.axis2.jaxws.description.EndpointDescription;
 import org.apache.axis2.jaxws.server.JAXWSMessageReceiver;
+import org.apache.axis2.jaxws.utility.ClassFileInfo;
 import org.apache.axis2.util.Loader;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -203,6 +205,11 @@ public class JAXWSDeployerSupport {
 
         String serviceHierarchy = Utils.getServiceHierarchy(location.getPath(), getDirectory());
         for (String className : classList) {
+            // Look at the class file first, so that only the endpoints are loaded
+            ClassFileInfo classFileInfo = ClassFileInfo.read(classLoader, className);
+            if (classFileInfo != null && !JAXWSEndpointIndex.isEndpoint(classFileInfo)) {
+                continue;
+            }
             Class<?> pojoClass;
             try {
                 pojoClass = Loader.loadClass(classLoader, className);
@@ -290,6 +297,19 @@ public class JAXWSDeployerSupport {
      */
     public List<String> getListOfClasses(DeploymentFileData deploymentFileData)
             throws DeploymentException {
+        try {
+            List<String> classList = JAXWSEndpointIndex.read(deploymentFileData.getFile());
+            if (classList != null) {
+                if (log.isDebugEnabled()) {
+                    log.debug("Using the JAX-WS endpoint index of "
+                            + deploymentFileData.getAbsolutePath() + ": " + classList);
+                }
+                return classList;
+            }
+        } catch (IOException e) {
+            log.warn("Unable to read the JAX-WS endpoint index of "
+                    + deploymentFileData.getAbsolutePath() + "; scanning all classes", e);
+        }
         return Utils.getListOfClasses(deploymentFileData);
     }
 
@@ -0,0 +1,201 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.jaxws.framework;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import javax.jws.WebService;
+import javax.xml.ws.WebServiceProvider;
+
+import org.apache.axis2.jaxws.utility.ClassFileInfo;
+import org.apache.commons.io.FileUtils;
+
+/**
+ * <p>An index of the JAX-WS endpoint classes of an archive, stored in the archive as
+ * {@value #INDEX_RESOURCE}. The file lists one class name per line; empty lines and lines starting
+ * with <tt>#</tt> are ignored. If an archive contains the index, only the listed classes are
+ * considered by {@link JAXWSDeployerSupport}, instead of every class of the archive.</p>
+ *
+ * <p>The index can be created at build time by running this class on the directory of compiled
+ * classes before it is packaged:</p>
+ * <pre>
+ * java org.apache.axis2.jaxws.framework.JAXWSEndpointIndex target/classes
+ * </pre>
+ *
+ * @since 1.8.0
+ */
+public final class JAXWSEndpointIndex {
+
+    /** The location of the index in an archive. */
+    public static final String INDEX_RESOURCE = "META-INF/axis2/jaxws-endpoints";
+
+    private JAXWSEndpointIndex() {
+    }
+
+    /**
+     * Determines whether the class described by the given class file is a JAX-WS endpoint,
+     * i.e. a class (not an interface) with the <code>@WebService</code> or
+     * <code>@WebServiceProvider</code> annotation.
+     *
+     * @param classFileInfo
+     *            the class file information
+     * @return true if the class is an endpoint
+     */
+    public static boolean isEndpoint(ClassFileInfo classFileInfo) {
+        return !classFileInfo.isInterface()
+                && (classFileInfo.hasAnnotation(WebService.class.getName())
+                        || classFileInfo.hasAnnotation(WebServiceProvider.class.getName()));
+    }
+
+    /**
+     * Reads the index of an archive.
+     *
+     * @param archive
+     *            the archive file or exploded directory
+     * @return the class names listed in the index, or <code>null</code> if the archive has no
+     *         index
+     * @throws IOException
+     *             if the index can't be read
+     */
+    public static List<String> read(File archive) throws IOException {
+        if (archive.isDirectory()) {
+            File index = new File(archive, INDEX_RESOURCE);
+            if (!index.isFile()) {
+                return null;
+            }
+            InputStream in = new FileInputStream(index);
+            try {
+                return read(in);
+            } finally {
+                in.close();
+            }
+        } else {
+            ZipFile zipFile = new ZipFile(archive);
+            try {
+                ZipEntry entry = zipFile.getEntry(INDEX_RESOURCE);
+                if (entry == null) {
+                    return null;
+                }
+                InputStream in = zipFile.getInputStream(entry);
+                try {
+                    return read(in);
+                } finally {
+                    in.close();
+                }
+            } finally {
+                zipFile.close();
+            }
+        }
+    }
+
+    private static List<String> read(InputStream in) throws IOException {
+        List<String> classNames = new ArrayList<String>();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, "UTF-8"));
+        String line;
+        while ((line = reader.readLine()) != null) {
+            line = line.trim();
+            if (line.length() > 0 && !line.startsWith("#")) {
+                classNames.add(line);
+            }
+        }
+        return classNames;
+    }
+
+    /**
+     * Scans a directory of compiled classes for JAX-WS endpoints without loading the classes.
+     *
+     * @param directory
+     *            the root directory of the classes
+     * @return the sorted class names of the endpoints
+     * @throws IOException
+     *             if a class file can't be read
+     */
+    public static List<String> scan(File directory) throws IOException {
+        List<String> classNames = new ArrayList<String>();
+        for (Iterator<File> files = FileUtils.iterateFiles(directory, new String[] { "class" },
+                true); files.hasNext();) {
+            InputStream in = new FileInputStream(files.next());
+            try {
+                ClassFileInfo classFileInfo = ClassFileInfo.read(in);
+                if (isEndpoint(classFileInfo)) {
+                    classNames.add(classFileInfo.getClassName());
+                }
+            } finally {
+                in.close();
+            }
+        }
+        Collections.sort(classNames);
+        return classNames;
+    }
+
+    /**
+     * Scans a directory of compiled classes and writes the index into it.
+     *
+     * @param directory
+     *            the root directory of the classes
+     * @return the index file
+     * @throws IOException
+     *             if the classes can't be read or the index can't be written
+     */
+    public static File write(File directory) throws IOException {
+        List<String> classNames = scan(directory);
+        File index = new File(directory, INDEX_RESOURCE);
+        File parent = index.getParentFile();
+        if (!parent.isDirectory() && !parent.mkdirs()) {
+            throw new IOException("Unable to create the directory " + parent);
+        }
+        Writer writer = new OutputStreamWriter(new FileOutputStream(index), "UTF-8");
+        try {
+            writer.write("# JAX-WS endpoints, generated by " + JAXWSEndpointIndex.class.getName()
+                    + "\n");
+            for (String className : classNames) {
+                writer.write(className);
+                writer.write('\n');
+            }
+        } finally {
+            writer.close();
+        }
+        return index;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            System.err.println("Usage: " + JAXWSEndpointIndex.class.getName()
+                    + " <classes directory>");
+            System.exit(1);
+        }
+        File index = write(new File(args[0]));
+        System.out.println("Wrote " + index);
+    }
+}
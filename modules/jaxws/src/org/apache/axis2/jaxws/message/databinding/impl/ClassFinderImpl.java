@@ -23,6 +23,7 @@ import org.apache.axis2.java.security.AccessController;
 import org.apache.axis2.jaxws.ExceptionFactory;
 import org.apache.axis2.jaxws.i18n.Messages;
 import org.apache.axis2.jaxws.message.databinding.ClassFinder;
+import org.apache.axis2.jaxws.utility.ClassFileInfo;
 import org.apache.axis2.jaxws.utility.ClassUtils;
 import org.apache.axis2.jaxws.utility.JavaUtils;
 import org.apache.commons.logging.Log;
@@ -30,6 +31,7 @@ import org.apache.commons.logging.LogFactory;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.lang.reflect.Method;
 import java.net.URL;
 import java.net.URLClassLoader;
@@ -40,6 +42,11 @@ import java.util.Enumeration;
 import java.util.jar.JarEntry;
 import java.util.jar.JarFile;
 
+import javax.jws.WebService;
+import javax.xml.ws.WebFault;
+import javax.xml.ws.WebServiceClient;
+import javax.xml.ws.WebServiceProvider;
+
 
 public class ClassFinderImpl implements ClassFinder {
     private static final Log log = LogFactory.getLog(ClassFinderImpl.class);
@@ -60,8 +67,9 @@ public class ClassFinderImpl implements ClassFinder {
                     File f = new File(url.toURI().getPath()); 
                     //If file is not of type directory then its a jar file
                     if (f.exists() && !f.isDirectory()) {
+                        JarFile jf = null;
                         try {
-                            JarFile jf = new JarFile(f);
+                            jf = new JarFile(f);
                             Enumeration<JarEntry> entries = jf.entries();
                             //read all entries in jar file
                             while (entries.hasMoreElements()) {
@@ -73,7 +81,9 @@ public class ClassFinderImpl implements ClassFinder {
                                     clazzName = clazzName.replace('/', '.').replace('\\', '.')
                                             .replace(':', '.');
                                     //We are only going to add the class that belong to the provided package.
-                                    if (clazzName.startsWith(pkg + ".")) {
+                                    if (clazzName.startsWith(pkg + ".")
+                                            && clazzName.lastIndexOf('.') == pkg.length()
+                                            && isCandidate(jf, je)) {
                                         try {
                                             Class clazz = forName(clazzName, false, cl);
                                             // Don't add any interfaces or JAXWS specific classes.
@@ -108,6 +118,14 @@ public class ClassFinderImpl implements ClassFinder {
                             }
                         } catch (IOException e) {
                             throw new ClassNotFoundException(Messages.getMessage("ClassUtilsErr4"));
+                        } finally {
+                            if (jf != null) {
+                                try {
+                                    jf.close();
+                                } catch (IOException e) {
+                                    log.debug("Unable to close " + f, e);
+                                }
+                            }
                         }
                     }
                 }
@@ -119,6 +137,42 @@ public class ClassFinderImpl implements ClassFinder {
 
     }
 
+    /**
+     * Checks the class file of a jar entry, so that classes that can't be added to the JAXBContext
+     * are not loaded: interfaces, classes without a public default constructor and JAX-WS
+     * annotated classes. The remaining classes are still checked after they have been loaded.
+     *
+     * @return false if the class is not a candidate, true if it is or if the class file can't
+     *         be read
+     */
+    private static boolean isCandidate(JarFile jf, JarEntry je) {
+        ClassFileInfo classFileInfo;
+        try {
+            InputStream in = jf.getInputStream(je);
+            try {
+                classFileInfo = ClassFileInfo.read(in);
+            } finally {
+                in.close();
+            }
+        } catch (IOException e) {
+            if (log.isDebugEnabled()) {
+                log.debug("Unable to read the class file " + je.getName(), e);
+            }
+            return true;
+        }
+        boolean candidate = !classFileInfo.isInterface()
+                && classFileInfo.hasPublicDefaultConstructor()
+                && !classFileInfo.hasAnnotation(WebService.class.getName())
+                && !classFileInfo.hasAnnotation(WebServiceClient.class.getName())
+                && !classFileInfo.hasAnnotation(WebServiceProvider.class.getName())
+                && !classFileInfo.hasAnnotation(WebFault.class.getName());
+        if (!candidate && log.isDebugEnabled()) {
+            log.debug("Skipping class " + classFileInfo.getClassName()
+                    + " without loading it while constructing a JAXBContext");
+        }
+        return candidate;
+    }
+
     /**
      * Return the class for this name
      *
@@ -0,0 +1,311 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.jaxws.utility;
+
+import org.apache.axis2.java.security.AccessController;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.PrivilegedAction;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * The information of a class file that is needed to decide whether a class must be loaded during
+ * deployment: its access flags, its super class, the annotations present on the class and whether
+ * it has a public no-argument constructor. The class file is parsed directly, so the class is not
+ * defined in the JVM; this avoids loading (and filling the permanent generation with) every class
+ * of a large archive only to look at its annotations.
+ * <p>
+ * Only runtime visible annotations declared on the class itself are reported; inherited
+ * annotations are not.
+ */
+public final class ClassFileInfo {
+    private static final Log log = LogFactory.getLog(ClassFileInfo.class);
+
+    private static final int MAGIC = 0xCAFEBABE;
+
+    private static final int ACC_PUBLIC = 0x0001;
+    private static final int ACC_INTERFACE = 0x0200;
+    private static final int ACC_ABSTRACT = 0x0400;
+
+    private static final String RUNTIME_VISIBLE_ANNOTATIONS = "RuntimeVisibleAnnotations";
+
+    private final String className;
+
+    private final String superClassName;
+
+    private final int accessFlags;
+
+    private final Set<String> annotations;
+
+    private final boolean publicDefaultConstructor;
+
+    private ClassFileInfo(String className, String superClassName, int accessFlags,
+                          Set<String> annotations, boolean publicDefaultConstructor) {
+        this.className = className;
+        this.superClassName = superClassName;
+        this.accessFlags = accessFlags;
+        this.annotations = annotations;
+        this.publicDefaultConstructor = publicDefaultConstructor;
+    }
+
+    /**
+     * Read the class file of the given class as a resource of the class loader.
+     *
+     * @param classLoader the class loader
+     * @param className   the binary name of the class
+     * @return the information, or <code>null</code> if the class file can't be found or read, in
+     *         which case the caller should fall back to loading the class
+     */
+    public static ClassFileInfo read(final ClassLoader classLoader, String className) {
+        final String resourceName = className.replace('.', '/') + ".class";
+        InputStream in = (InputStream) AccessController.doPrivileged(new PrivilegedAction() {
+            public Object run() {
+                return classLoader.getResourceAsStream(resourceName);
+            }
+        });
+        if (in == null) {
+            return null;
+        }
+        try {
+            try {
+                return read(in);
+            } finally {
+                in.close();
+            }
+        } catch (IOException e) {
+            if (log.isDebugEnabled()) {
+                log.debug("Unable to read the class file of " + className, e);
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Parse a class file.
+     *
+     * @param in the content of the class file; the stream is not closed
+     * @return the information
+     * @throws IOException if the stream can't be read or doesn't contain a class file
+     */
+    public static ClassFileInfo read(InputStream in) throws IOException {
+        DataInputStream data = new DataInputStream(new BufferedInputStream(in));
+        if (data.readInt() != MAGIC) {
+            throw new IOException("Not a class file");
+        }
+        data.skipBytes(4); // minor and major version
+
+        // Only the UTF8 strings and the class entries are needed
+        int constantPoolCount = data.readUnsignedShort();
+        String[] strings = new String[constantPoolCount];
+        int[] classes = new int[constantPoolCount];
+        for (int i = 1; i < constantPoolCount; i++) {
+            int tag = data.readUnsignedByte();
+            switch (tag) {
+                case 1: // Utf8
+                    strings[i] = data.readUTF();
+                    break;
+                case 7: // Class
+                    classes[i] = data.readUnsignedShort();
+                    break;
+                case 8: // String
+                case 16: // MethodType
+                case 19: // Module
+                case 20: // Package
+                    data.skipBytes(2);
+                    break;
+                case 15: // MethodHandle
+                    data.skipBytes(3);
+                    break;
+                case 3: // Integer
+                case 4: // Float
+                case 9: // Fieldref
+                case 10: // Methodref
+                case 11: // InterfaceMethodref
+                case 12: // NameAndType
+                case 17: // Dynamic
+                case 18: // InvokeDynamic
+                    data.skipBytes(4);
+                    break;
+                case 5: // Long
+                case 6: // Double
+                    data.skipBytes(8);
+                    i++;
+                    break;
+                default:
+                    throw new IOException("Unknown constant pool tag " + tag);
+            }
+        }
+
+        int accessFlags = data.readUnsignedShort();
+        String className = toClassName(strings[classes[data.readUnsignedShort()]]);
+        int superClass = data.readUnsignedShort();
+        String superClassName = superClass == 0 ? null : toClassName(strings[classes[superClass]]);
+        data.skipBytes(2 * data.readUnsignedShort()); // interfaces
+
+        int fieldCount = data.readUnsignedShort();
+        for (int i = 0; i < fieldCount; i++) {
+            data.skipBytes(6);
+            skipAttributes(data);
+        }
+
+        boolean publicDefaultConstructor = false;
+        int methodCount = data.readUnsignedShort();
+        for (int i = 0; i < methodCount; i++) {
+            int methodAccessFlags = data.readUnsignedShort();
+            String name = strings[data.readUnsignedShort()];
+            String descriptor = strings[data.readUnsignedShort()];
+            if ((methodAccessFlags & ACC_PUBLIC) != 0 && "<init>".equals(name)
+                    && "()V".equals(descriptor)) {
+                publicDefaultConstructor = true;
+            }
+            skipAttributes(data);
+        }
+
+        Set<String> annotations = Collections.emptySet();
+        int attributeCount = data.readUnsignedShort();
+        for (int i = 0; i < attributeCount; i++) {
+            String name = strings[data.readUnsignedShort()];
+            int length = data.readInt();
+            if (RUNTIME_VISIBLE_ANNOTATIONS.equals(name)) {
+                int annotationCount = data.readUnsignedShort();
+                annotations = new HashSet<String>();
+                for (int j = 0; j < annotationCount; j++) {
+                    annotations.add(toClassName(readAnnotation(data, strings)));
+                }
+            } else {
+                skipFully(data, length);
+            }
+        }
+
+        return new ClassFileInfo(className, superClassName, accessFlags, annotations,
+                publicDefaultConstructor);
+    }
+
+    /**
+     * Read an annotation and return its type descriptor.
+     */
+    private static String readAnnotation(DataInputStream data, String[] strings)
+            throws IOException {
+        String type = strings[data.readUnsignedShort()];
+        int pairCount = data.readUnsignedShort();
+        for (int i = 0; i < pairCount; i++) {
+            data.skipBytes(2); // element name
+            skipElementValue(data, strings);
+        }
+        return type;
+    }
+
+    private static void skipElementValue(DataInputStream data, String[] strings)
+            throws IOException {
+        int tag = data.readUnsignedByte();
+        switch (tag) {
+            case 'e':
+                data.skipBytes(4);
+                break;
+            case '@':
+                readAnnotation(data, strings);
+                break;
+            case '[':
+                int count = data.readUnsignedShort();
+                for (int i = 0; i < count; i++) {
+                    skipElementValue(data, strings);
+                }
+                break;
+            default:
+                // constant values and classes
+                data.skipBytes(2);
+        }
+    }
+
+    private static void skipAttributes(DataInputStream data) throws IOException {
+        int count = data.readUnsignedShort();
+        for (int i = 0; i < count; i++) {
+            data.skipBytes(2);
+            skipFully(data, data.readInt());
+        }
+    }
+
+    private static void skipFully(DataInputStream data, int length) throws IOException {
+        while (length > 0) {
+            int skipped = data.skipBytes(length);
+            if (skipped <= 0) {
+                throw new IOException("Unexpected end of class file");
+            }
+            length -= skipped;
+        }
+    }
+
+    /**
+     * Convert an internal name (<tt>a/b/C</tt>) or a field descriptor (<tt>La/b/C;</tt>) to a
+     * class name.
+     */
+    private static String toClassName(String name) {
+        if (name.startsWith("L") && name.endsWith(";")) {
+            name = name.substring(1, name.length() - 1);
+        }
+        return name.replace('/', '.');
+    }
+
+    /**
+     * @return the binary name of the class
+     */
+    public String getClassName() {
+        return className;
+    }
+
+    /**
+     * @return the binary name of the super class, or <code>null</code> for
+     *         <code>java.lang.Object</code>
+     */
+    public String getSuperClassName() {
+        return superClassName;
+    }
+
+    public boolean isInterface() {
+        return (accessFlags & ACC_INTERFACE) != 0;
+    }
+
+    public boolean isAbstract() {
+        return (accessFlags & ACC_ABSTRACT) != 0;
+    }
+
+    /**
+     * @param annotationClassName the class name of an annotation type
+     * @return true if the annotation is present on the class itself
+     */
+    public boolean hasAnnotation(String annotationClassName) {
+        return annotations.contains(annotationClassName);
+    }
+
+    /**
+     * @return true if the class declares a public constructor without arguments (the compiler
+     *         generates one for classes that declare no constructor)
+     */
+    public boolean hasPublicDefaultConstructor() {
+        return publicDefaultConstructor;
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.jaxws.utility;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.Serializable;
+
+import javax.jws.WebService;
+import javax.xml.transform.Source;
+import javax.xml.ws.Provider;
+import javax.xml.ws.WebServiceProvider;
+
+import junit.framework.TestCase;
+
+import org.apache.axis2.jaxws.framework.JAXWSEndpointIndex;
+
+/**
+ * Test the class file parsing of ClassFileInfo
+ */
+public class ClassFileInfoTests extends TestCase {
+
+    @WebService(serviceName = "EchoService", targetNamespace = "http://test")
+    public static class Endpoint {
+        private static final long LONG_CONSTANT = 1L;
+        private static final double DOUBLE_CONSTANT = 2.0;
+
+        public String echo(String value) {
+            return value + LONG_CONSTANT + DOUBLE_CONSTANT;
+        }
+    }
+
+    @WebServiceProvider(serviceName = "ProviderService")
+    public static class ProviderEndpoint implements Provider<Source> {
+        public Source invoke(Source request) {
+            return request;
+        }
+    }
+
+    @WebService
+    public interface EndpointInterface {
+        String echo(String value);
+    }
+
+    public static class Bean implements Serializable {
+        private static final long serialVersionUID = 1L;
+    }
+
+    public static class NoDefaultConstructor {
+        public NoDefaultConstructor(String value) {
+        }
+    }
+
+    private static ClassFileInfo read(Class<?> cls) {
+        ClassFileInfo info = ClassFileInfo.read(ClassFileInfoTests.class.getClassLoader(),
+                cls.getName());
+        assertNotNull(info);
+        assertEquals(cls.getName(), info.getClassName());
+        return info;
+    }
+
+    public void testEndpoint() {
+        ClassFileInfo info = read(Endpoint.class);
+        assertTrue(info.hasAnnotation(WebService.class.getName()));
+        assertFalse(info.isInterface());
+        assertTrue(info.hasPublicDefaultConstructor());
+        assertEquals(Object.class.getName(), info.getSuperClassName());
+        assertTrue(JAXWSEndpointIndex.isEndpoint(info));
+    }
+
+    public void testProvider() {
+        ClassFileInfo info = read(ProviderEndpoint.class);
+        assertTrue(info.hasAnnotation(WebServiceProvider.class.getName()));
+        assertTrue(JAXWSEndpointIndex.isEndpoint(info));
+    }
+
+    public void testInterface() {
+        ClassFileInfo info = read(EndpointInterface.class);
+        assertTrue(info.isInterface());
+        assertTrue(info.isAbstract());
+        assertFalse(JAXWSEndpointIndex.isEndpoint(info));
+    }
+
+    public void testBean() {
+        ClassFileInfo info = read(Bean.class);
+        assertFalse(info.hasAnnotation(WebService.class.getName()));
+        assertTrue(info.hasPublicDefaultConstructor());
+        assertFalse(JAXWSEndpointIndex.isEndpoint(info));
+    }
+
+    public void testNoDefaultConstructor() {
+        assertFalse(read(NoDefaultConstructor.class).hasPublicDefaultConstructor());
+    }
+
+    public void testUnknownClass() {
+        assertNull(ClassFileInfo.read(ClassFileInfoTests.class.getClassLoader(),
+                "org.apache.axis2.jaxws.utility.DoesNotExist"));
+    }
+
+    public void testInvalidClassFile() {
+        try {
+            ClassFileInfo.read(new ByteArrayInputStream(new byte[] { 1, 2, 3, 4, 5, 6, 7, 8 }));
+            fail("Expected IOException");
+        } catch (IOException e) {
+            // Expected
+        }
+    }
+}
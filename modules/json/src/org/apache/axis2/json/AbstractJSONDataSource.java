@@ -29,6 +29,7 @@ import javax.xml.stream.XMLStreamException;
 import java.io.IOException;
 import java.io.Reader;
 import java.io.BufferedReader;
+import java.io.Writer;
 
 /**
  * JSONDataSource keeps the JSON String inside and consumes it when needed. This is to be kept in
@@ -62,10 +63,60 @@ public abstract class AbstractJSONDataSource extends AbstractPullOMDataSource {
         return getJSONString();
     }
 
+    /**
+     * Writes the JSON string to the given writer. The JSON string remains available afterwards.
+     *
+     * @param writer the writer to write to; it is not flushed
+     * @throws IOException if an error occurs while reading the input or writing the output
+     * @see #writeJSONString(Writer, boolean)
+     */
+    public void writeJSONString(Writer writer) throws IOException {
+        writeJSONString(writer, true);
+    }
+
+    /**
+     * Writes the JSON string to the given writer. If the JSON input stream has not been consumed
+     * yet, it is copied to the writer while it is read, so that the output starts before the whole
+     * message has been received.
+     *
+     * @param writer   the writer to write to; it is not flushed
+     * @param preserve whether the JSON string must remain available afterwards; if
+     *                 <code>false</code> and the input has not been consumed yet, no copy of it is
+     *                 kept in memory and the data source can't be read again
+     * @throws IOException if an error occurs while reading the input or writing the output
+     */
+    public void writeJSONString(Writer writer, boolean preserve) throws IOException {
+        if (isRead) {
+            writer.write(jsonString);
+            return;
+        }
+        if (jsonReader == null) {
+            throw new OMException("The JSON input stream has already been consumed");
+        }
+        StringBuilder sb = preserve ? new StringBuilder(512) : null;
+        char[] tempBuf = new char[4096];
+        int readLen;
+
+        while((readLen = jsonReader.read(tempBuf)) != -1) {
+            writer.write(tempBuf, 0, readLen);
+            if (preserve) {
+                sb.append(tempBuf, 0, readLen);
+            }
+        }
+        if (preserve) {
+            jsonString = sb.toString();
+            isRead = true;
+        } else {
+            jsonReader = null;
+        }
+    }
+
     //returns the json string by consuming the JSON input stream.
     private String getJSONString() {
         if (isRead) {
             return jsonString;
+        } else if (jsonReader == null) {
+            throw new OMException("The JSON input stream has already been consumed");
         } else {
             try {
                 BufferedReader br = new BufferedReader(jsonReader);
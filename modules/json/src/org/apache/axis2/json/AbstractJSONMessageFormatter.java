@@ -97,7 +97,11 @@ public abstract class AbstractJSONMessageFormatter implements MessageFormatter {
 
         String jsonToWrite = getStringToWrite(element);
         if (jsonToWrite != null) {
-            return jsonToWrite.getBytes();
+            try {
+                return jsonToWrite.getBytes(format.getCharSetEncoding());
+            } catch (UnsupportedEncodingException ex) {
+                throw AxisFault.makeFault(ex);
+            }
             //otherwise serialize the OM by expanding the tree
         } else {
             try {
@@ -105,6 +109,7 @@ public abstract class AbstractJSONMessageFormatter implements MessageFormatter {
                 XMLStreamWriter jsonWriter = getJSONWriter(bytesOut, format, msgCtxt);
                 element.serializeAndConsume(jsonWriter);
                 jsonWriter.writeEndDocument();
+                jsonWriter.flush();
 
                 return bytesOut.toByteArray();
 
@@ -154,6 +159,26 @@ public abstract class AbstractJSONMessageFormatter implements MessageFormatter {
         }
     }
 
+    /**
+     * Get the data source of the given element if the original JSON string can be written directly,
+     * i.e. if the element is backed by a data source of the type used by this formatter and has not
+     * been expanded. Unlike {@link #getStringToWrite(OMElement)} this doesn't read the JSON string.
+     *
+     * @param element
+     *            the element
+     * @return the data source, or <code>null</code> if the element must be serialized
+     */
+    private AbstractJSONDataSource getDataSourceToWrite(OMElement element) {
+        if (element instanceof OMSourcedElement) {
+            OMSourcedElement sourcedElement = (OMSourcedElement)element;
+            OMDataSource dataSource = sourcedElement.getDataSource();
+            if (!sourcedElement.isExpanded() && dataSourceClass.isInstance(dataSource)) {
+                return (AbstractJSONDataSource)dataSource;
+            }
+        }
+        return null;
+    }
+
     /**
      * Writes the JSON message to the output stream with the correct convention. If the payload is
      * an OMSourcedElement and it contains a JSONDataSource with a correctly formatted JSON
@@ -163,7 +188,9 @@ public abstract class AbstractJSONMessageFormatter implements MessageFormatter {
      * @param msgCtxt  Message context which contains the soap envelope to be written
      * @param format   format of the message, this is ignored
      * @param out      output stream to be written in to
-     * @param preserve ignored
+     * @param preserve whether the payload must remain available afterwards, e.g. because the
+     *                 transport may have to send it again; if not, a pass-through JSON string is
+     *                 copied from the input to the output without being kept in memory
      * @throws AxisFault if there is an error in writing the message using StAX writer or IF THE
      *                   USER TRIES TO SEND A JSON MESSAGE WITH NAMESPACES USING THE "MAPPED"
      *                   CONVENTION.
@@ -180,15 +207,23 @@ public abstract class AbstractJSONMessageFormatter implements MessageFormatter {
                 element2.setText(fault.toString());
                 element = element2;
             }
-            String jsonToWrite = getStringToWrite(element);
-            if (jsonToWrite != null) {
-                out.write(jsonToWrite.getBytes());
+            AbstractJSONDataSource dataSource = getDataSourceToWrite(element);
+            if (dataSource != null) {
+                // Pass through: copy the JSON string to the output without converting it to a byte array
+                Writer writer = new OutputStreamWriter(out, format.getCharSetEncoding());
+                dataSource.writeJSONString(writer, preserve);
+                writer.flush();
             } else {
                 XMLStreamWriter jsonWriter = getJSONWriter(out, format, msgCtxt);
                 // Jettison v1.2+ relies on writeStartDocument being called (AXIS2-5044)
                 jsonWriter.writeStartDocument();
-                element.serializeAndConsume(jsonWriter);
+                if (preserve) {
+                    element.serialize(jsonWriter);
+                } else {
+                    element.serializeAndConsume(jsonWriter);
+                }
                 jsonWriter.writeEndDocument();
+                jsonWriter.flush();
             }
         } catch (IOException e) {
             throw AxisFault.makeFault(e);
@@ -0,0 +1,115 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.json.gson;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.TypeAdapterFactory;
+import org.apache.axis2.AxisFault;
+import org.apache.axis2.description.AxisService;
+import org.apache.axis2.json.gson.factory.JsonConstant;
+import org.apache.axis2.json.gson.factory.WeakIdentityCache;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+/**
+ * Provides the {@link Gson} instance of a service. Gson instances are thread safe, so a single
+ * instance is created per service and cached until the service is discarded.
+ * <p>
+ * Custom type adapters can be registered with the {@value JsonConstant#GSON_TYPE_ADAPTERS}
+ * parameter in services.xml. Its value is a list of entries separated by commas or white space.
+ * An entry <tt>type=adapterClass</tt> registers an instance of the adapter class (a
+ * <code>TypeAdapter</code>, <code>JsonSerializer</code>, <code>JsonDeserializer</code> or
+ * <code>InstanceCreator</code>) for the given type, and an entry with only a class name registers a
+ * <code>TypeAdapterFactory</code>:
+ * <pre>
+ * &lt;parameter name="gsonTypeAdapters"&gt;
+ *     com.example.Money=com.example.MoneyTypeAdapter,
+ *     com.example.CustomTypeAdapterFactory
+ * &lt;/parameter&gt;
+ * </pre>
+ */
+public final class GsonProvider {
+    private static final Log log = LogFactory.getLog(GsonProvider.class);
+
+    private static final Gson DEFAULT_GSON = new Gson();
+
+    private static final WeakIdentityCache<AxisService, Gson> gsons =
+            new WeakIdentityCache<AxisService, Gson>();
+
+    private GsonProvider() {
+    }
+
+    /**
+     * Get the Gson instance of the given service.
+     *
+     * @param axisService the service, may be <code>null</code>
+     * @return the Gson instance configured for the service, or a default instance if the service is
+     *         <code>null</code>
+     * @throws AxisFault if a configured type adapter can't be instantiated
+     */
+    public static Gson getGson(AxisService axisService) throws AxisFault {
+        if (axisService == null) {
+            return DEFAULT_GSON;
+        }
+        Gson gson = gsons.get(axisService);
+        if (gson == null) {
+            gson = gsons.putIfAbsent(axisService, createGson(axisService));
+        }
+        return gson;
+    }
+
+    private static Gson createGson(AxisService axisService) throws AxisFault {
+        Object value = axisService.getParameterValue(JsonConstant.GSON_TYPE_ADAPTERS);
+        if (!(value instanceof String) || ((String) value).trim().length() == 0) {
+            return DEFAULT_GSON;
+        }
+        GsonBuilder builder = new GsonBuilder();
+        ClassLoader classLoader = axisService.getClassLoader();
+        if (classLoader == null) {
+            classLoader = GsonProvider.class.getClassLoader();
+        }
+        for (String entry : ((String) value).trim().split("[,\\s]+")) {
+            int index = entry.indexOf('=');
+            try {
+                if (index == -1) {
+                    builder.registerTypeAdapterFactory(
+                            (TypeAdapterFactory) newInstance(classLoader, entry));
+                } else {
+                    Class<?> type = Class.forName(entry.substring(0, index).trim(), true, classLoader);
+                    Object typeAdapter = newInstance(classLoader, entry.substring(index + 1).trim());
+                    builder.registerTypeAdapter(type, typeAdapter);
+                }
+            } catch (Exception e) {
+                throw new AxisFault("Unable to register the Gson type adapter " + entry
+                        + " of service " + axisService.getName(), e);
+            }
+            if (log.isDebugEnabled()) {
+                log.debug("Registered Gson type adapter " + entry + " for service "
+                        + axisService.getName());
+            }
+        }
+        return builder.create();
+    }
+
+    private static Object newInstance(ClassLoader classLoader, String className) throws Exception {
+        return Class.forName(className, true, classLoader).newInstance();
+    }
+}
@@ -24,10 +24,8 @@ import com.google.gson.stream.JsonToken;
 import org.apache.axis2.AxisFault;
 import org.apache.axis2.context.ConfigurationContext;
 import org.apache.axis2.json.gson.factory.JSONType;
-import org.apache.axis2.json.gson.factory.JsonConstant;
+import org.apache.axis2.json.gson.factory.JsonConversionPlan;
 import org.apache.axis2.json.gson.factory.JsonObject;
-import org.apache.axis2.json.gson.factory.XmlNode;
-import org.apache.axis2.json.gson.factory.XmlNodeGenerator;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.ws.commons.schema.XmlSchema;
@@ -38,10 +36,8 @@ import javax.xml.stream.Location;
 import javax.xml.stream.XMLStreamException;
 import javax.xml.stream.XMLStreamReader;
 import java.io.IOException;
-import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Queue;
 import java.util.Stack;
@@ -63,18 +59,8 @@ public class GsonXMLStreamReader implements XMLStreamReader {
 
     private boolean isProcessed;
 
-    private ConfigurationContext configContext;
-
-    private QName elementQname;
-
-    private XmlNode mainXmlNode;
-
-    private List<XmlSchema> xmlSchemaList;
-
     private Queue<JsonObject> queue = new LinkedList<JsonObject>();
 
-    private XmlNodeGenerator xmlNodeGenerator;
-
     private Stack<JsonObject> stackObj = new Stack<JsonObject>();
     private Stack<JsonObject> miniStack = new Stack<JsonObject>();
     private JsonObject topNestedArrayObj = null;
@@ -98,41 +84,22 @@ public class GsonXMLStreamReader implements XMLStreamReader {
     }
 
     public void initXmlStreamReader(QName elementQname, List<XmlSchema> xmlSchemaList, ConfigurationContext configContext) throws AxisFault {
-        this.elementQname = elementQname;
-        this.xmlSchemaList = xmlSchemaList;
-        this.configContext = configContext;
+        JsonConversionPlan plan;
         try {
-            process();
+            plan = JsonConversionPlan.getPlan(configContext, xmlSchemaList, elementQname);
         } catch (AxisFault axisFault) {
             throw new AxisFault("Error while initializing XMLStreamReader ", axisFault);
         }
-        isProcessed = true;
-
+        initXmlStreamReader(plan);
     }
 
-    private void process() throws AxisFault {
-        Object ob = configContext.getProperty(JsonConstant.XMLNODES);
-        if (ob != null) {
-            Map<QName, XmlNode> nodeMap = (Map<QName, XmlNode>) ob;
-            XmlNode requesNode = nodeMap.get(elementQname);
-            if (requesNode != null) {
-                xmlNodeGenerator = new XmlNodeGenerator();
-                queue = xmlNodeGenerator.getQueue(requesNode);
-            } else {
-                xmlNodeGenerator = new XmlNodeGenerator(xmlSchemaList, elementQname);
-                mainXmlNode = xmlNodeGenerator.getMainXmlNode();
-                queue = xmlNodeGenerator.getQueue(mainXmlNode);
-                nodeMap.put(elementQname, mainXmlNode);
-                configContext.setProperty(JsonConstant.XMLNODES, nodeMap);
-            }
-        } else {
-            Map<QName, XmlNode> newNodeMap = new HashMap<QName, XmlNode>();
-            xmlNodeGenerator = new XmlNodeGenerator(xmlSchemaList, elementQname);
-            mainXmlNode = xmlNodeGenerator.getMainXmlNode();
-            queue = xmlNodeGenerator.getQueue(mainXmlNode);
-            newNodeMap.put(elementQname, mainXmlNode);
-            configContext.setProperty(JsonConstant.XMLNODES, newNodeMap);
-        }
+    /**
+     * Initialize the reader with the precompiled conversion plan of the request message.
+     *
+     * @param plan the plan of the expected request element
+     */
+    public void initXmlStreamReader(JsonConversionPlan plan) {
+        queue = plan.createQueue();
         isProcessed = true;
     }
 
@@ -22,10 +22,8 @@ package org.apache.axis2.json.gson;
 import com.google.gson.stream.JsonWriter;
 import org.apache.axis2.context.ConfigurationContext;
 import org.apache.axis2.json.gson.factory.JSONType;
-import org.apache.axis2.json.gson.factory.JsonConstant;
+import org.apache.axis2.json.gson.factory.JsonConversionPlan;
 import org.apache.axis2.json.gson.factory.JsonObject;
-import org.apache.axis2.json.gson.factory.XmlNode;
-import org.apache.axis2.json.gson.factory.XmlNodeGenerator;
 import org.apache.ws.commons.schema.XmlSchema;
 
 import javax.xml.namespace.NamespaceContext;
@@ -75,14 +73,12 @@ public class GsonXMLStreamWriter implements XMLStreamWriter {
      */
     private QName elementQName;
 
-    /**
-     * Intermediate representation of XmlSchema
-     */
-    private XmlNode mainXmlNode;
-
     private ConfigurationContext configContext;
 
-    private XmlNodeGenerator xmlNodeGenerator;
+    /**
+     * Precompiled representation of the XmlSchema of the outgoing message
+     */
+    private JsonConversionPlan plan;
 
     private boolean isProcessed;
 
@@ -100,29 +96,23 @@ public class GsonXMLStreamWriter implements XMLStreamWriter {
         this.configContext = context;
     }
 
+    /**
+     * Create a writer using the precompiled conversion plan of the outgoing message.
+     *
+     * @param jsonWriter the JsonWriter to write to
+     * @param plan       the plan of the outgoing element
+     */
+    public GsonXMLStreamWriter(JsonWriter jsonWriter, JsonConversionPlan plan) {
+        this.jsonWriter = jsonWriter;
+        this.elementQName = plan.getElementQName();
+        this.plan = plan;
+    }
+
     private void process() throws IOException {
-        Object ob = configContext.getProperty(JsonConstant.XMLNODES);
-        if (ob != null) {
-            Map<QName, XmlNode> nodeMap = (Map<QName, XmlNode>) ob;
-            XmlNode resNode = nodeMap.get(elementQName);
-            if (resNode != null) {
-                xmlNodeGenerator = new XmlNodeGenerator();
-                queue = xmlNodeGenerator.getQueue(resNode);
-            } else {
-                xmlNodeGenerator = new XmlNodeGenerator(xmlSchemaList, elementQName);
-                mainXmlNode = xmlNodeGenerator.getMainXmlNode();
-                queue = xmlNodeGenerator.getQueue(mainXmlNode);
-                nodeMap.put(elementQName, mainXmlNode);
-                configContext.setProperty(JsonConstant.XMLNODES, nodeMap);
-            }
-        } else {
-            Map<QName, XmlNode> newNodeMap = new HashMap<QName, XmlNode>();
-            xmlNodeGenerator = new XmlNodeGenerator(xmlSchemaList, elementQName);
-            mainXmlNode = xmlNodeGenerator.getMainXmlNode();
-            queue = xmlNodeGenerator.getQueue(mainXmlNode);
-            newNodeMap.put(elementQName, mainXmlNode);
-            configContext.setProperty(JsonConstant.XMLNODES, newNodeMap);
+        if (plan == null) {
+            plan = JsonConversionPlan.getPlan(configContext, xmlSchemaList, elementQName);
         }
+        queue = plan.createQueue();
         isProcessed = true;
         this.jsonWriter.beginObject();
     }
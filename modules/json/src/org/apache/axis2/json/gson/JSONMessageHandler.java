@@ -24,19 +24,17 @@ import org.apache.axiom.om.OMXMLBuilderFactory;
 import org.apache.axiom.om.OMXMLParserWrapper;
 import org.apache.axis2.AxisFault;
 import org.apache.axis2.context.MessageContext;
+import org.apache.axis2.description.AxisMessage;
 import org.apache.axis2.description.AxisOperation;
 import org.apache.axis2.engine.MessageReceiver;
 import org.apache.axis2.handlers.AbstractHandler;
 import org.apache.axis2.json.gson.factory.JsonConstant;
+import org.apache.axis2.json.gson.factory.JsonConversionPlan;
 import org.apache.axis2.json.gson.rpc.JsonInOnlyRPCMessageReceiver;
 import org.apache.axis2.json.gson.rpc.JsonRpcMessageReceiver;
 import org.apache.axis2.wsdl.WSDLConstants;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
-import org.apache.ws.commons.schema.XmlSchema;
-
-import javax.xml.namespace.QName;
-import java.util.List;
 
 public class JSONMessageHandler extends AbstractHandler {
     Log log = LogFactory.getLog(JSONMessageHandler.class);
@@ -75,9 +73,18 @@ public class JSONMessageHandler extends AbstractHandler {
                     Object o = msgContext.getProperty(JsonConstant.GSON_XML_STREAM_READER);
                     if (o != null) {
                         GsonXMLStreamReader gsonXMLStreamReader = (GsonXMLStreamReader) o;
-                        QName elementQname = msgContext.getAxisOperation().getMessage(WSDLConstants.MESSAGE_LABEL_IN_VALUE).getElementQName();
-                        List<XmlSchema> schemas = msgContext.getAxisService().getSchema();
-                        gsonXMLStreamReader.initXmlStreamReader(elementQname, schemas, msgContext.getConfigurationContext());
+                        AxisMessage axisMessage = axisOperation.getMessage(WSDLConstants.MESSAGE_LABEL_IN_VALUE);
+                        JsonConversionPlan plan;
+                        try {
+                            plan = JsonConversionPlan.getPlan(msgContext.getAxisService(), axisMessage);
+                        } catch (AxisFault axisFault) {
+                            throw new AxisFault("Error while initializing XMLStreamReader ", axisFault);
+                        }
+                        if (plan == null) {
+                            throw new AxisFault("No element is defined for the input message of operation "
+                                    + axisOperation.getName());
+                        }
+                        gsonXMLStreamReader.initXmlStreamReader(plan);
                         OMXMLParserWrapper stAXOMBuilder = OMXMLBuilderFactory.createStAXOMBuilder(gsonXMLStreamReader);
                         OMElement omElement = stAXOMBuilder.getDocumentElement();
                         msgContext.getEnvelope().getBody().addChild(omElement);
@@ -0,0 +1,123 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.json.gson;
+
+import org.apache.axiom.om.OMElement;
+import org.apache.axis2.AxisFault;
+import org.apache.axis2.description.AxisMessage;
+import org.apache.axis2.description.AxisModule;
+import org.apache.axis2.description.AxisOperation;
+import org.apache.axis2.description.AxisService;
+import org.apache.axis2.description.AxisServiceGroup;
+import org.apache.axis2.description.Parameter;
+import org.apache.axis2.engine.AxisConfiguration;
+import org.apache.axis2.engine.AxisEvent;
+import org.apache.axis2.engine.AxisObserver;
+import org.apache.axis2.engine.MessageReceiver;
+import org.apache.axis2.json.gson.factory.JsonConversionPlan;
+import org.apache.axis2.json.gson.rpc.JsonInOnlyRPCMessageReceiver;
+import org.apache.axis2.json.gson.rpc.JsonRpcMessageReceiver;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+
+/**
+ * AxisObserver which creates the {@link JsonConversionPlan}s of the operations of a service when
+ * the service is deployed, so that the first JSON requests don't have to process the XmlSchema.
+ * Register it in axis2.xml as
+ * <pre>
+ * &lt;listener class="org.apache.axis2.json.gson.JsonConversionPlanObserver"/&gt;
+ * </pre>
+ * Without this listener, the plans are created when an operation is invoked for the first time,
+ * and discarded when the service is garbage collected rather than when it is undeployed.
+ */
+public class JsonConversionPlanObserver implements AxisObserver {
+    private static final Log log = LogFactory.getLog(JsonConversionPlanObserver.class);
+
+    public void init(AxisConfiguration axisConfiguration) {
+        //Nothing to do
+    }
+
+    public void serviceUpdate(AxisEvent axisEvent, AxisService axisService) {
+        if (axisEvent.getEventType() == AxisEvent.SERVICE_REMOVE) {
+            JsonConversionPlan.removePlans(axisService);
+            return;
+        }
+        if (axisEvent.getEventType() != AxisEvent.SERVICE_DEPLOY) {
+            return;
+        }
+        for (Iterator<AxisOperation> operations = axisService.getOperations(); operations.hasNext(); ) {
+            AxisOperation axisOperation = operations.next();
+            MessageReceiver messageReceiver = axisOperation.getMessageReceiver();
+            if (axisOperation.isControlOperation()
+                    || messageReceiver instanceof JsonRpcMessageReceiver
+                    || messageReceiver instanceof JsonInOnlyRPCMessageReceiver) {
+                // these operations don't use GsonXMLStreamReader and GsonXMLStreamWriter
+                continue;
+            }
+            for (Iterator<AxisMessage> messages = axisOperation.getMessages(); messages.hasNext(); ) {
+                AxisMessage axisMessage = messages.next();
+                try {
+                    JsonConversionPlan.getPlan(axisService, axisMessage);
+                } catch (Exception e) {
+                    // Not every schema can be mapped; the error is reported if the operation is invoked
+                    if (log.isDebugEnabled()) {
+                        log.debug("Unable to create the JSON conversion plan of message "
+                                + axisMessage.getName() + " of service " + axisService.getName(), e);
+                    }
+                }
+            }
+        }
+    }
+
+    public void serviceGroupUpdate(AxisEvent axisEvent, AxisServiceGroup axisServiceGroup) {
+        //Nothing to do
+    }
+
+    public void moduleUpdate(AxisEvent axisEvent, AxisModule axisModule) {
+        //Nothing to do
+    }
+
+    public void addParameter(Parameter parameter) throws AxisFault {
+        //Nothing to do
+    }
+
+    public void removeParameter(Parameter parameter) throws AxisFault {
+        //Nothing to do
+    }
+
+    public void deserializeParameters(OMElement omElement) throws AxisFault {
+        //Nothing to do
+    }
+
+    public Parameter getParameter(String name) {
+        return null;
+    }
+
+    public ArrayList<Parameter> getParameters() {
+        return null;
+    }
+
+    public boolean isParameterLocked(String name) {
+        return false;
+    }
+}
@@ -26,14 +26,14 @@ import org.apache.axiom.om.OMOutputFormat;
 import org.apache.axis2.AxisFault;
 import org.apache.axis2.Constants;
 import org.apache.axis2.context.MessageContext;
+import org.apache.axis2.description.AxisMessage;
 import org.apache.axis2.json.gson.factory.JsonConstant;
+import org.apache.axis2.json.gson.factory.JsonConversionPlan;
 import org.apache.axis2.transport.MessageFormatter;
 import org.apache.axis2.wsdl.WSDLConstants;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
-import org.apache.ws.commons.schema.XmlSchema;
 
-import javax.xml.namespace.QName;
 import javax.xml.stream.XMLStreamException;
 import java.io.IOException;
 import java.io.OutputStream;
@@ -41,7 +41,6 @@ import java.io.OutputStreamWriter;
 import java.io.UnsupportedEncodingException;
 import java.lang.reflect.Type;
 import java.net.URL;
-import java.util.ArrayList;
 import java.util.Iterator;
 
 
@@ -84,14 +83,15 @@ public class JsonFormatter implements MessageFormatter {
 
             } else if (retObj == null) {
                 OMElement element = outMsgCtxt.getEnvelope().getBody().getFirstElement();
-                QName elementQname = outMsgCtxt.getAxisOperation().getMessage
-                        (WSDLConstants.MESSAGE_LABEL_OUT_VALUE).getElementQName();
-
-                ArrayList<XmlSchema> schemas = outMsgCtxt.getAxisService().getSchema();
-                GsonXMLStreamWriter xmlsw = new GsonXMLStreamWriter(jsonWriter,
-                                                                    elementQname,
-                                                                    schemas,
-                                                                    outMsgCtxt.getConfigurationContext());
+                AxisMessage axisMessage = outMsgCtxt.getAxisOperation().getMessage
+                        (WSDLConstants.MESSAGE_LABEL_OUT_VALUE);
+                JsonConversionPlan plan = JsonConversionPlan.getPlan(outMsgCtxt.getAxisService(),
+                                                                   axisMessage);
+                if (plan == null) {
+                    throw new AxisFault("No element is defined for the output message of operation "
+                            + outMsgCtxt.getAxisOperation().getName());
+                }
+                GsonXMLStreamWriter xmlsw = new GsonXMLStreamWriter(jsonWriter, plan);
                 try {
                     xmlsw.writeStartDocument();
                     if (b) {
@@ -106,7 +106,7 @@ public class JsonFormatter implements MessageFormatter {
 
             } else {
                 try {
-                    Gson gson = new Gson();
+                    Gson gson = GsonProvider.getGson(outMsgCtxt.getAxisService());
                     jsonWriter.beginObject();
                     jsonWriter.name(JsonConstant.RESPONSE);
                     Type returnType = (Type) outMsgCtxt.getProperty(JsonConstant.RETURN_TYPE);
@@ -32,8 +32,17 @@ public class JsonConstant {
 
     public static final String GSON_XML_STREAM_READER = "GsonXMLStreamReader";
 
+    /**
+     * @deprecated the intermediate XmlNode representation is no longer cached; see
+     *             {@link JsonConversionPlan}
+     */
     public static final String XMLNODES = "xmlnodes";
 
+    /**
+     * Name of the services.xml parameter listing the Gson type adapters of the service
+     */
+    public static final String GSON_TYPE_ADAPTERS = "gsonTypeAdapters";
+
 
 //    error messages
 
@@ -0,0 +1,163 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.json.gson.factory;
+
+import org.apache.axis2.AxisFault;
+import org.apache.axis2.context.ConfigurationContext;
+import org.apache.axis2.description.AxisMessage;
+import org.apache.axis2.description.AxisOperation;
+import org.apache.axis2.description.AxisService;
+import org.apache.ws.commons.schema.XmlSchema;
+
+import javax.xml.namespace.QName;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * The precompiled JSON to XML mapping of a message, i.e. the sequence of {@link JsonObject}s that
+ * {@link org.apache.axis2.json.gson.GsonXMLStreamReader} and
+ * {@link org.apache.axis2.json.gson.GsonXMLStreamWriter} expect for the element of the message.
+ * The plan is derived from the XmlSchema of the service once and is immutable afterwards, so that
+ * a single instance can be shared by all requests.
+ */
+public final class JsonConversionPlan {
+
+    /**
+     * The plans of the messages whose element is known.
+     */
+    private static final WeakIdentityCache<AxisMessage, JsonConversionPlan> messagePlans =
+            new WeakIdentityCache<AxisMessage, JsonConversionPlan>();
+
+    /**
+     * The plans by element QName, for each configuration context, used when the message is not
+     * known.
+     */
+    private static final WeakIdentityCache<ConfigurationContext,
+            ConcurrentMap<QName, JsonConversionPlan>> elementPlans =
+            new WeakIdentityCache<ConfigurationContext, ConcurrentMap<QName, JsonConversionPlan>>();
+
+    private final QName elementQName;
+
+    private final JsonObject[] jsonObjects;
+
+    private JsonConversionPlan(QName elementQName, Queue<JsonObject> jsonObjects) {
+        this.elementQName = elementQName;
+        this.jsonObjects = jsonObjects.toArray(new JsonObject[jsonObjects.size()]);
+    }
+
+    /**
+     * Create the plan for the given element by processing the XmlSchema list.
+     *
+     * @param xmlSchemaList the schemas of the service
+     * @param elementQName  the QName of the message element
+     * @return the plan
+     * @throws AxisFault if the element can't be resolved
+     */
+    public static JsonConversionPlan create(List<XmlSchema> xmlSchemaList, QName elementQName)
+            throws AxisFault {
+        XmlNodeGenerator xmlNodeGenerator = new XmlNodeGenerator(xmlSchemaList, elementQName);
+        XmlNode mainXmlNode = xmlNodeGenerator.getMainXmlNode();
+        return new JsonConversionPlan(elementQName, xmlNodeGenerator.getQueue(mainXmlNode));
+    }
+
+    /**
+     * Get the plan of the given message. The plan is created only once, normally when the service
+     * is deployed (see {@link org.apache.axis2.json.gson.JsonConversionPlanObserver}), and is
+     * discarded with the message.
+     *
+     * @param axisService the service of the message, providing the schemas
+     * @param axisMessage the message
+     * @return the plan, or <code>null</code> if the message has no element
+     * @throws AxisFault if the plan can't be created
+     */
+    public static JsonConversionPlan getPlan(AxisService axisService, AxisMessage axisMessage)
+            throws AxisFault {
+        JsonConversionPlan plan = messagePlans.get(axisMessage);
+        if (plan != null) {
+            return plan;
+        }
+        QName elementQName = axisMessage.getElementQName();
+        if (elementQName == null) {
+            return null;
+        }
+        return messagePlans.putIfAbsent(axisMessage, create(axisService.getSchema(), elementQName));
+    }
+
+    /**
+     * Get the plan of the given element from the cache of the configuration context. This is used
+     * when the message of the element is not known.
+     *
+     * @param configContext the configuration context
+     * @param xmlSchemaList the schemas of the service
+     * @param elementQName  the QName of the message element
+     * @return the plan
+     * @throws AxisFault if the plan can't be created
+     */
+    public static JsonConversionPlan getPlan(ConfigurationContext configContext,
+                                             List<XmlSchema> xmlSchemaList, QName elementQName)
+            throws AxisFault {
+        ConcurrentMap<QName, JsonConversionPlan> plans = elementPlans.get(configContext);
+        if (plans == null) {
+            plans = elementPlans.putIfAbsent(configContext,
+                    new ConcurrentHashMap<QName, JsonConversionPlan>());
+        }
+        JsonConversionPlan plan = plans.get(elementQName);
+        if (plan == null) {
+            plan = create(xmlSchemaList, elementQName);
+            JsonConversionPlan existing = plans.putIfAbsent(elementQName, plan);
+            if (existing != null) {
+                plan = existing;
+            }
+        }
+        return plan;
+    }
+
+    /**
+     * Discard the plans of the messages of the given service, e.g. because it is undeployed.
+     *
+     * @param axisService the service
+     */
+    public static void removePlans(AxisService axisService) {
+        for (Iterator<AxisOperation> operations = axisService.getOperations(); operations.hasNext(); ) {
+            for (Iterator<AxisMessage> messages = operations.next().getMessages(); messages.hasNext(); ) {
+                messagePlans.remove(messages.next());
+            }
+        }
+    }
+
+    public QName getElementQName() {
+        return elementQName;
+    }
+
+    /**
+     * Create a new queue of the expected {@link JsonObject}s, to be consumed by a single reader or
+     * writer.
+     *
+     * @return a new mutable queue
+     */
+    public Queue<JsonObject> createQueue() {
+        return new LinkedList<JsonObject>(Arrays.asList(jsonObjects));
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.json.gson.factory;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Thread safe cache of values derived from description objects (AxisService, AxisMessage, ...).
+ * Keys are compared by identity and only weakly referenced, so that the entries of undeployed
+ * services are discarded. Lookups don't lock, which makes the cache suitable for the request
+ * path, unlike the parameters of the descriptions, which must not be modified once the service
+ * is deployed.
+ * <p/>
+ * Values must not reference their key, otherwise they are never discarded.
+ *
+ * @param <K> the type of the keys
+ * @param <V> the type of the values
+ */
+public final class WeakIdentityCache<K, V> {
+
+    private static final class Key<K> extends WeakReference<K> {
+        private final int hash;
+
+        Key(K referent, ReferenceQueue<? super K> queue) {
+            super(referent, queue);
+            hash = System.identityHashCode(referent);
+        }
+
+        public int hashCode() {
+            return hash;
+        }
+
+        public boolean equals(Object obj) {
+            if (obj == this) {
+                return true;
+            }
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Object referent = get();
+            return referent != null && referent == ((Key<?>) obj).get();
+        }
+    }
+
+    private final ConcurrentMap<Key<K>, V> values = new ConcurrentHashMap<Key<K>, V>();
+
+    private final ReferenceQueue<K> queue = new ReferenceQueue<K>();
+
+    /**
+     * Get the value of the given key.
+     *
+     * @param key the key
+     * @return the value, or <code>null</code> if there is none
+     */
+    public V get(K key) {
+        return values.get(new Key<K>(key, null));
+    }
+
+    /**
+     * Store the value of the given key, unless another thread has stored one first.
+     *
+     * @param key   the key
+     * @param value the value
+     * @return the value stored in the cache, i.e. either <code>value</code> or the value stored by
+     *         the other thread
+     */
+    public V putIfAbsent(K key, V value) {
+        expungeStaleEntries();
+        V existing = values.putIfAbsent(new Key<K>(key, queue), value);
+        return existing != null ? existing : value;
+    }
+
+    /**
+     * Remove the value of the given key.
+     *
+     * @param key the key
+     */
+    public void remove(K key) {
+        values.remove(new Key<K>(key, null));
+    }
+
+    int size() {
+        expungeStaleEntries();
+        return values.size();
+    }
+
+    private void expungeStaleEntries() {
+        Reference<? extends K> reference;
+        while ((reference = queue.poll()) != null) {
+            values.remove(reference);
+        }
+    }
+}
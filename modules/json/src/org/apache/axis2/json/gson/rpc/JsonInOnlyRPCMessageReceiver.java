@@ -19,10 +19,12 @@
 
 package org.apache.axis2.json.gson.rpc;
 
+import com.google.gson.Gson;
 import com.google.gson.stream.JsonReader;
 import org.apache.axis2.AxisFault;
 import org.apache.axis2.context.MessageContext;
 import org.apache.axis2.description.AxisOperation;
+import org.apache.axis2.json.gson.GsonProvider;
 import org.apache.axis2.json.gson.GsonXMLStreamReader;
 import org.apache.axis2.json.gson.factory.JsonConstant;
 import org.apache.axis2.rpc.receivers.RPCInOnlyMessageReceiver;
@@ -56,8 +58,9 @@ public class JsonInOnlyRPCMessageReceiver extends RPCInOnlyMessageReceiver {
                 }
                 Object serviceObj = getTheImplementationObject(inMessage);
                 AxisOperation op = inMessage.getOperationContext().getAxisOperation();
-                String operation = op.getName().getLocalPart();
-                invokeService(jsonReader, serviceObj, operation);
+                JsonRpcOperation operation = JsonRpcOperation.getOperation(op, serviceObj.getClass());
+                Gson gson = GsonProvider.getGson(inMessage.getAxisService());
+                invokeService(jsonReader, serviceObj, operation, gson);
             } else {
                 throw new AxisFault("GsonXMLStreamReader should have put as a property of messageContext " +
                         "to evaluate JSON message");
@@ -68,14 +71,25 @@ public class JsonInOnlyRPCMessageReceiver extends RPCInOnlyMessageReceiver {
     }
 
     public void invokeService(JsonReader jsonReader, Object serviceObj, String operation_name) throws AxisFault {
-        String msg;
         Class implClass = serviceObj.getClass();
         Method[] allMethods = implClass.getDeclaredMethods();
         Method method = JsonUtils.getOpMethod(operation_name, allMethods);
-        Class[] paramClasses = method.getParameterTypes();
+        invokeService(jsonReader, serviceObj, method, method.getParameterTypes(), new Gson());
+    }
+
+    public void invokeService(JsonReader jsonReader, Object serviceObj, JsonRpcOperation operation,
+                              Gson gson) throws AxisFault {
+        invokeService(jsonReader, serviceObj, operation.getMethod(), operation.getParamClasses(),
+                      gson);
+    }
+
+    private void invokeService(JsonReader jsonReader, Object serviceObj, Method method,
+                               Class[] paramClasses, Gson gson) throws AxisFault {
+        String msg;
         try {
             int paramCount = paramClasses.length;
-            JsonUtils.invokeServiceClass(jsonReader, serviceObj, method, paramClasses, paramCount);
+            JsonUtils.invokeServiceClass(jsonReader, serviceObj, method, paramClasses, paramCount,
+                                         gson);
         } catch (IllegalAccessException e) {
             msg = "Does not have access to " +
                     "the definition of the specified class, field, method or constructor";
@@ -18,10 +18,12 @@
  */
 package org.apache.axis2.json.gson.rpc;
 
+import com.google.gson.Gson;
 import com.google.gson.stream.JsonReader;
 import org.apache.axis2.AxisFault;
 import org.apache.axis2.context.MessageContext;
 import org.apache.axis2.description.AxisOperation;
+import org.apache.axis2.json.gson.GsonProvider;
 import org.apache.axis2.json.gson.GsonXMLStreamReader;
 import org.apache.axis2.json.gson.factory.JsonConstant;
 import org.apache.axis2.rpc.receivers.RPCMessageReceiver;
@@ -56,8 +58,9 @@ public class JsonRpcMessageReceiver extends RPCMessageReceiver {
                 }
                 Object serviceObj = getTheImplementationObject(inMessage);
                 AxisOperation op = inMessage.getOperationContext().getAxisOperation();
-                String operation = op.getName().getLocalPart();
-                invokeService(jsonReader, serviceObj, operation , outMessage);
+                JsonRpcOperation operation = JsonRpcOperation.getOperation(op, serviceObj.getClass());
+                Gson gson = GsonProvider.getGson(inMessage.getAxisService());
+                invokeService(jsonReader, serviceObj, operation, gson, outMessage);
             } else {
                 throw new AxisFault("GsonXMLStreamReader should be put as a property of messageContext " +
                         "to evaluate JSON message");
@@ -69,14 +72,25 @@ public class JsonRpcMessageReceiver extends RPCMessageReceiver {
 
     public void invokeService(JsonReader jsonReader, Object serviceObj, String operation_name,
                                    MessageContext outMes) throws AxisFault {
-        String msg;
         Class implClass = serviceObj.getClass();
         Method[] allMethods = implClass.getDeclaredMethods();
         Method method = JsonUtils.getOpMethod(operation_name, allMethods);
-        Class[] paramClasses = method.getParameterTypes();
+        invokeService(jsonReader, serviceObj, method, method.getParameterTypes(), new Gson(), outMes);
+    }
+
+    public void invokeService(JsonReader jsonReader, Object serviceObj, JsonRpcOperation operation,
+                              Gson gson, MessageContext outMes) throws AxisFault {
+        invokeService(jsonReader, serviceObj, operation.getMethod(), operation.getParamClasses(),
+                      gson, outMes);
+    }
+
+    private void invokeService(JsonReader jsonReader, Object serviceObj, Method method,
+                               Class[] paramClasses, Gson gson, MessageContext outMes) throws AxisFault {
+        String msg;
         try {
             int paramCount = paramClasses.length;
-            Object retObj = JsonUtils.invokeServiceClass(jsonReader, serviceObj, method, paramClasses, paramCount);
+            Object retObj = JsonUtils.invokeServiceClass(jsonReader, serviceObj, method, paramClasses,
+                                                         paramCount, gson);
 
             // handle response
             outMes.setProperty(JsonConstant.RETURN_OBJECT, retObj);
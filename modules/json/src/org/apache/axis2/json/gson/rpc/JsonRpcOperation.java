@@ -0,0 +1,89 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.json.gson.rpc;
+
+import org.apache.axis2.AxisFault;
+import org.apache.axis2.description.AxisOperation;
+import org.apache.axis2.json.gson.factory.WeakIdentityCache;
+
+import java.lang.reflect.Method;
+
+/**
+ * The service class method that implements an operation invoked through
+ * {@link JsonRpcMessageReceiver} or {@link JsonInOnlyRPCMessageReceiver}, together with its
+ * parameter types. It is resolved on the first invocation and cached with the operation, so that
+ * the methods of the service class are not searched for every request.
+ */
+public final class JsonRpcOperation {
+
+    private static final WeakIdentityCache<AxisOperation, JsonRpcOperation> operations =
+            new WeakIdentityCache<AxisOperation, JsonRpcOperation>();
+
+    private final Class<?> implClass;
+
+    private final Method method;
+
+    private final Class<?>[] paramClasses;
+
+    private JsonRpcOperation(Class<?> implClass, Method method) {
+        this.implClass = implClass;
+        this.method = method;
+        this.paramClasses = method.getParameterTypes();
+    }
+
+    /**
+     * Get the method implementing the given operation in the given service class.
+     *
+     * @param axisOperation the invoked operation
+     * @param implClass     the class of the service object
+     * @return the operation
+     * @throws AxisFault if the service class has no method for the operation
+     */
+    public static JsonRpcOperation getOperation(AxisOperation axisOperation, Class<?> implClass)
+            throws AxisFault {
+        JsonRpcOperation cached = operations.get(axisOperation);
+        if (cached != null && cached.implClass == implClass) {
+            return cached;
+        }
+        String operationName = axisOperation.getName().getLocalPart();
+        Method method = JsonUtils.getOpMethod(operationName, implClass.getDeclaredMethods());
+        if (method == null) {
+            throw new AxisFault("No method named " + operationName + " found in class "
+                    + implClass.getName());
+        }
+        JsonRpcOperation operation = new JsonRpcOperation(implClass, method);
+        if (cached != null) {
+            // the service class has changed
+            operations.remove(axisOperation);
+        }
+        return operations.putIfAbsent(axisOperation, operation);
+    }
+
+    public Method getMethod() {
+        return method;
+    }
+
+    /**
+     * @return the parameter types of the method; the array must not be modified
+     */
+    public Class<?>[] getParamClasses() {
+        return paramClasses;
+    }
+}
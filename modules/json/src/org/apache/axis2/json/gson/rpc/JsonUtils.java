@@ -35,9 +35,18 @@ public class JsonUtils {
                                             Class[] paramClasses ,
                                             int paramCount ) throws InvocationTargetException,
             IllegalAccessException, IOException  {
+        return invokeServiceClass(jsonReader, service, operation, paramClasses, paramCount, new Gson());
+    }
+
+    public static Object invokeServiceClass(JsonReader jsonReader,
+                                            Object service,
+                                            Method operation ,
+                                            Class[] paramClasses ,
+                                            int paramCount ,
+                                            Gson gson) throws InvocationTargetException,
+            IllegalAccessException, IOException  {
 
         Object[] methodParam = new Object[paramCount];
-        Gson gson = new Gson();
         String[] argNames = new String[paramCount];
 
         if( ! jsonReader.isLenient()){
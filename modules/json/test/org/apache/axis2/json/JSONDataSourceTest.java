@@ -19,10 +19,13 @@
 
 package org.apache.axis2.json;
 
+import org.apache.axiom.om.OMException;
 import org.apache.axiom.om.OMOutputFormat;
 import org.apache.axiom.om.util.StAXUtils;
 import org.apache.axis2.context.MessageContext;
 import org.apache.axis2.description.AxisService;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
 import org.codehaus.jettison.json.JSONException;
 import org.custommonkey.xmlunit.XMLTestCase;
 import org.xml.sax.SAXException;
@@ -32,11 +35,17 @@ import javax.xml.stream.XMLStreamException;
 import javax.xml.stream.XMLStreamWriter;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.io.OutputStreamWriter;
+import java.io.Reader;
 import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.Writer;
 
 public class JSONDataSourceTest extends XMLTestCase {
 
+    private static final Log log = LogFactory.getLog(JSONDataSourceTest.class);
+
     public void testMappedSerialize1() throws Exception {
         String jsonString = getMappedJSONString();
         ByteArrayOutputStream outStream = new ByteArrayOutputStream();
@@ -100,6 +109,157 @@ public class JSONDataSourceTest extends XMLTestCase {
                 outStream.toString("utf-8"));
     }
 
+    public void testWriteJSONString() throws Exception {
+        String jsonString = getMappedJSONString();
+        JSONDataSource source = getMappedDataSource(jsonString);
+        StringWriter writer = new StringWriter();
+        source.writeJSONString(writer);
+        assertEquals(jsonString, writer.toString());
+        // the JSON string is still available after the input has been consumed
+        assertEquals(jsonString, source.getObject());
+        writer = new StringWriter();
+        source.writeJSONString(writer);
+        assertEquals(jsonString, writer.toString());
+    }
+
+    public void testWriteJSONStringWithoutPreserve() throws Exception {
+        String jsonString = getMappedJSONString();
+        JSONDataSource source = getMappedDataSource(jsonString);
+        StringWriter writer = new StringWriter();
+        source.writeJSONString(writer, false);
+        assertEquals(jsonString, writer.toString());
+        // no copy is kept, so the data source can't be read again
+        try {
+            source.getObject();
+            fail("Expected OMException");
+        } catch (OMException ex) {
+            // expected
+        }
+        try {
+            source.writeJSONString(new StringWriter(), false);
+            fail("Expected OMException");
+        } catch (OMException ex) {
+            // expected
+        }
+    }
+
+    /**
+     * Compares the time to first byte, the total time and the memory retained by the data source
+     * when a multi-MB pass-through JSON payload is written by converting it to a byte array (as
+     * AbstractJSONMessageFormatter did before) and by streaming it. Only run if the
+     * run.json.benchmarks system property is set to true.
+     */
+    public void testBenchmark() throws Exception {
+        if (!Boolean.getBoolean("run.json.benchmarks")) {
+            return;
+        }
+        for (int items : new int[] { 100000, 500000 }) {
+            // The first round warms up the JIT
+            for (int round = 0; round < 2; round++) {
+                long baseline = usedMemory();
+                JSONDataSource source = getMappedDataSource(new LargeJSONReader(items));
+                TimingOutputStream out = new TimingOutputStream();
+                out.write(((String)source.getObject()).getBytes("UTF-8"));
+                long bufferedMemory = usedMemory() - baseline;
+                long bufferedFirstByte = out.firstByte - out.start;
+                long bufferedTotal = System.nanoTime() - out.start;
+                long size = out.count;
+
+                baseline = usedMemory();
+                source = getMappedDataSource(new LargeJSONReader(items));
+                out = new TimingOutputStream();
+                Writer writer = new OutputStreamWriter(out, "UTF-8");
+                source.writeJSONString(writer, false);
+                writer.flush();
+                long streamedMemory = usedMemory() - baseline;
+                long streamedFirstByte = out.firstByte - out.start;
+                long streamedTotal = System.nanoTime() - out.start;
+                assertEquals(size, out.count);
+
+                if (round == 1) {
+                    log.info(size / 1024 + " KB of JSON: byte array: first byte after "
+                            + bufferedFirstByte / 1000000 + " ms, total " + bufferedTotal / 1000000
+                            + " ms, " + bufferedMemory / 1024 + " KB retained; streamed: first"
+                            + " byte after " + streamedFirstByte / 1000000 + " ms, total "
+                            + streamedTotal / 1000000 + " ms, " + streamedMemory / 1024
+                            + " KB retained");
+                }
+                // keep the data source reachable until the memory has been measured
+                assertNotNull(source);
+            }
+        }
+    }
+
+    private static long usedMemory() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    /**
+     * Generates a JSON array of the given number of strings without holding it in memory.
+     */
+    private static class LargeJSONReader extends Reader {
+        private final int items;
+        private int item = -1;
+        private String pending = "{\"data\":[";
+        private int pos;
+
+        LargeJSONReader(int items) {
+            this.items = items;
+        }
+
+        public int read(char[] cbuf, int off, int len) {
+            if (pending == null) {
+                return -1;
+            }
+            int count = 0;
+            while (count < len && pending != null) {
+                int n = Math.min(len - count, pending.length() - pos);
+                pending.getChars(pos, pos + n, cbuf, off + count);
+                pos += n;
+                count += n;
+                if (pos == pending.length()) {
+                    pos = 0;
+                    item++;
+                    if (item < items) {
+                        pending = (item == 0 ? "" : ",") + "\"item number " + item + "\"";
+                    } else if (item == items) {
+                        pending = "]}";
+                    } else {
+                        pending = null;
+                    }
+                }
+            }
+            return count;
+        }
+
+        public void close() {
+        }
+    }
+
+    /**
+     * Counts the bytes written and records when the first one was written.
+     */
+    private static class TimingOutputStream extends OutputStream {
+        final long start = System.nanoTime();
+        long firstByte;
+        long count;
+
+        public void write(int b) {
+            write(new byte[] { (byte)b }, 0, 1);
+        }
+
+        public void write(byte[] b, int off, int len) {
+            if (count == 0 && len > 0) {
+                firstByte = System.nanoTime();
+            }
+            count += len;
+        }
+    }
+
     private JSONBadgerfishDataSource getBadgerfishDataSource(String jsonString) {
         return new JSONBadgerfishDataSource(new StringReader(jsonString));
     }
@@ -109,9 +269,13 @@ public class JSONDataSourceTest extends XMLTestCase {
     }
 
     private JSONDataSource getMappedDataSource(String jsonString) {
+        return getMappedDataSource(new StringReader(jsonString));
+    }
+
+    private JSONDataSource getMappedDataSource(Reader jsonReader) {
         MessageContext messageContext = new MessageContext();
         messageContext.setAxisService(new AxisService());
-        return new JSONDataSource(new StringReader(jsonString), messageContext);
+        return new JSONDataSource(jsonReader, messageContext);
     }
 
     private String getMappedJSONString() {
@@ -0,0 +1,104 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.json.gson.factory;
+
+import org.apache.axis2.context.ConfigurationContext;
+import org.apache.axis2.description.AxisMessage;
+import org.apache.axis2.description.AxisService;
+import org.apache.axis2.engine.AxisConfiguration;
+import org.apache.ws.commons.schema.XmlSchema;
+import org.apache.ws.commons.schema.XmlSchemaCollection;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.xml.namespace.QName;
+import javax.xml.transform.stream.StreamSource;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+
+public class JsonConversionPlanTest {
+
+    private static final QName ELEMENT_QNAME =
+            new QName("http://test.json.axis2.apache.org", "echoPerson");
+
+    private List<XmlSchema> schemaList;
+
+    @Before
+    public void setUp() throws Exception {
+        InputStream is = new FileInputStream("test-resources/custom_schema/testSchema_2.xsd");
+        try {
+            XmlSchemaCollection schemaCol = new XmlSchemaCollection();
+            schemaList = new ArrayList<XmlSchema>();
+            schemaList.add(schemaCol.read(new StreamSource(is)));
+        } finally {
+            is.close();
+        }
+    }
+
+    @Test
+    public void testCreateQueue() throws Exception {
+        JsonConversionPlan plan = JsonConversionPlan.create(schemaList, ELEMENT_QNAME);
+        Assert.assertEquals(ELEMENT_QNAME, plan.getElementQName());
+
+        Queue<JsonObject> queue = plan.createQueue();
+        Assert.assertEquals(5, queue.size());
+        Assert.assertEquals("echoPerson", queue.peek().getName());
+        Assert.assertEquals(JSONType.NESTED_OBJECT, queue.poll().getType());
+        Assert.assertEquals("arg0", queue.poll().getName());
+
+        // every queue is independent of the others
+        Assert.assertEquals(5, plan.createQueue().size());
+    }
+
+    @Test
+    public void testPlanIsCachedByMessage() throws Exception {
+        AxisService axisService = new AxisService("Dummy Service");
+        axisService.addSchema(schemaList);
+        AxisMessage message = new AxisMessage();
+        message.setElementQName(ELEMENT_QNAME);
+
+        JsonConversionPlan plan = JsonConversionPlan.getPlan(axisService, message);
+        Assert.assertNotNull(plan);
+        // the request path must not modify the parameters of the description
+        Assert.assertTrue(message.getParameters().isEmpty());
+        Assert.assertSame(plan, JsonConversionPlan.getPlan(axisService, message));
+
+        AxisMessage otherMessage = new AxisMessage();
+        otherMessage.setElementQName(ELEMENT_QNAME);
+        Assert.assertNotSame(plan, JsonConversionPlan.getPlan(axisService, otherMessage));
+    }
+
+    @Test
+    public void testMessageWithoutElement() throws Exception {
+        Assert.assertNull(JsonConversionPlan.getPlan(new AxisService("Dummy Service"),
+                                                     new AxisMessage()));
+    }
+
+    @Test
+    public void testPlanIsCachedInConfigurationContext() throws Exception {
+        ConfigurationContext configContext = new ConfigurationContext(new AxisConfiguration());
+        JsonConversionPlan plan = JsonConversionPlan.getPlan(configContext, schemaList, ELEMENT_QNAME);
+        Assert.assertSame(plan, JsonConversionPlan.getPlan(configContext, schemaList, ELEMENT_QNAME));
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.json.gson.factory;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.lang.ref.WeakReference;
+
+public class WeakIdentityCacheTest {
+
+    @Test
+    public void testKeysAreComparedByIdentity() {
+        WeakIdentityCache<String, Integer> cache = new WeakIdentityCache<String, Integer>();
+        String key = new String("key");
+        String equalKey = new String("key");
+        Assert.assertEquals(Integer.valueOf(1), cache.putIfAbsent(key, 1));
+        Assert.assertEquals(Integer.valueOf(1), cache.putIfAbsent(key, 2));
+        Assert.assertEquals(Integer.valueOf(1), cache.get(key));
+        Assert.assertNull(cache.get(equalKey));
+        cache.remove(key);
+        Assert.assertNull(cache.get(key));
+    }
+
+    @Test
+    public void testEntriesOfUnreachableKeysAreDiscarded() throws Exception {
+        WeakIdentityCache<Object, String> cache = new WeakIdentityCache<Object, String>();
+        Object key = new Object();
+        cache.putIfAbsent(key, "value");
+        Assert.assertEquals(1, cache.size());
+        WeakReference<Object> reference = new WeakReference<Object>(key);
+        key = null;
+        for (int i = 0; i < 100 && reference.get() != null; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        Assert.assertNull(reference.get());
+        // the reference queue may be processed slightly after the reference is cleared
+        for (int i = 0; i < 100 && cache.size() > 0; i++) {
+            Thread.sleep(10);
+        }
+        Assert.assertEquals(0, cache.size());
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.json.gson.rpc;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonPrimitive;
+import com.google.gson.JsonSerializationContext;
+import com.google.gson.JsonSerializer;
+import org.apache.axis2.AxisFault;
+import org.apache.axis2.description.AxisOperation;
+import org.apache.axis2.description.AxisService;
+import org.apache.axis2.description.InOutAxisOperation;
+import org.apache.axis2.json.gson.GsonProvider;
+import org.apache.axis2.json.gson.factory.JsonConstant;
+import org.junit.Assert;
+import org.junit.Test;
+
+import javax.xml.namespace.QName;
+import java.lang.reflect.Type;
+
+public class JsonRpcOperationTest {
+
+    public static class PersonSerializer implements JsonSerializer<Person> {
+        public JsonElement serialize(Person person, Type type, JsonSerializationContext context) {
+            return new JsonPrimitive(person.getName());
+        }
+    }
+
+    @Test
+    public void testOperationIsCached() throws Exception {
+        AxisOperation axisOperation = new InOutAxisOperation(new QName("echoPerson"));
+        JsonRpcOperation operation = JsonRpcOperation.getOperation(axisOperation, JSONPOJOService.class);
+        Assert.assertEquals("echoPerson", operation.getMethod().getName());
+        Assert.assertArrayEquals(new Class<?>[] { Person.class }, operation.getParamClasses());
+        // the request path must not modify the parameters of the description
+        Assert.assertNull(axisOperation.getParameter("jsonRpcOperation"));
+        Assert.assertSame(operation, JsonRpcOperation.getOperation(axisOperation, JSONPOJOService.class));
+    }
+
+    @Test(expected = AxisFault.class)
+    public void testUnknownOperation() throws Exception {
+        JsonRpcOperation.getOperation(new InOutAxisOperation(new QName("unknown")), JSONPOJOService.class);
+    }
+
+    @Test
+    public void testGsonIsCached() throws Exception {
+        AxisService axisService = new AxisService("Dummy Service");
+        Gson gson = GsonProvider.getGson(axisService);
+        Assert.assertSame(gson, GsonProvider.getGson(axisService));
+        Assert.assertTrue(axisService.getParameters().isEmpty());
+    }
+
+    @Test
+    public void testGsonTypeAdapters() throws Exception {
+        AxisService axisService = new AxisService("Dummy Service");
+        axisService.addParameter(JsonConstant.GSON_TYPE_ADAPTERS,
+                Person.class.getName() + "=" + PersonSerializer.class.getName());
+        Person person = new Person();
+        person.setName("Simon");
+        Assert.assertEquals("\"Simon\"", GsonProvider.getGson(axisService).toJson(person));
+    }
+}
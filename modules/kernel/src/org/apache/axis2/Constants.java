@@ -364,6 +364,15 @@ public class Constants extends org.apache.axis2.namespace.Constants {
 
         public static final String CONFIG_CONTEXT_TIMEOUT_INTERVAL = "ConfigContextTimeoutInterval";
 
+        //Thread pool returned by ConfigurationContext#getThreadPool()
+        public static final String THREAD_POOL_CORE_SIZE = "threadPoolCoreSize";
+        public static final String THREAD_POOL_MAX_SIZE = "threadPoolMaxSize";
+        public static final String THREAD_POOL_QUEUE_CAPACITY = "threadPoolQueueCapacity";
+        public static final String THREAD_POOL_KEEP_ALIVE_TIME = "threadPoolKeepAliveTime";
+        public static final String THREAD_POOL_ALLOW_CORE_THREAD_TIMEOUT = "threadPoolAllowCoreThreadTimeOut";
+        public static final String THREAD_POOL_REJECTION_POLICY = "threadPoolRejectionPolicy";
+        public static final String THREAD_POOL_VIRTUAL_THREADS = "threadPoolVirtualThreads";
+
         public static final String TRANSPORT_IN_URL = "TransportInURL";
 
         public static final String URL_PARAMETER_LIST = "URLParameterList";
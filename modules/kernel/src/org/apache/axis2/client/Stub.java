@@ -43,8 +43,14 @@ import org.apache.axis2.description.RobustOutOnlyAxisOperation;
 import org.apache.axis2.i18n.Messages;
 import org.apache.axis2.transport.http.HTTPConstants;
 
+import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Base class for generated client stubs. This defines several client API
@@ -240,4 +246,45 @@ public abstract class Stub {
         _service.addOperation(outInOperation);
     }
 
+    /**
+     * Run a task once the given delay has elapsed. Generated stubs use this to time out the
+     * futures returned for non-blocking invocations. The tasks are run on a single daemon thread
+     * shared by all stubs and must therefore be short.
+     *
+     * @param task the task to run
+     * @param delay the delay in milliseconds
+     * @return a handle that should be used to cancel the task once the invocation has completed
+     */
+    protected static ScheduledFuture<?> scheduleTimeout(Runnable task, long delay) {
+        return TimeoutScheduler.executor.schedule(task, delay, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Holder for the timer thread used by {@link #scheduleTimeout(Runnable, long)}, so that it is
+     * only started by stubs that actually need it.
+     */
+    private static class TimeoutScheduler {
+        static final ScheduledExecutorService executor;
+
+        static {
+            ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1,
+                    new ThreadFactory() {
+                        public Thread newThread(Runnable r) {
+                            Thread thread = new Thread(r, "Axis2 stub timeout");
+                            thread.setDaemon(true);
+                            return thread;
+                        }
+                    });
+            // Most timeouts are cancelled long before they expire; on Java 7 and later, don't
+            // keep them queued until then
+            try {
+                Method setRemoveOnCancelPolicy = ScheduledThreadPoolExecutor.class.getMethod(
+                        "setRemoveOnCancelPolicy", boolean.class);
+                setRemoveOnCancelPolicy.invoke(scheduler, Boolean.TRUE);
+            } catch (Exception ex) {
+                // Not available; cancelled tasks are removed when they expire
+            }
+            executor = scheduler;
+        }
+    }
 }
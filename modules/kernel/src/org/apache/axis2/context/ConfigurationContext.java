@@ -42,6 +42,7 @@ import org.apache.axis2.util.JavaUtils;
 import org.apache.axis2.util.OnDemandLogger;
 import org.apache.axis2.util.threadpool.ThreadFactory;
 import org.apache.axis2.util.threadpool.ThreadPool;
+import org.apache.axis2.util.threadpool.VirtualThreadPool;
 
 import java.io.File;
 import java.net.URL;
@@ -596,12 +597,76 @@ public class ConfigurationContext extends AbstractContext {
      */
     public ThreadFactory getThreadPool() {
         if (threadPool == null) {
-            threadPool = new ThreadPool();
+            threadPool = createThreadPool();
         }
 
         return threadPool;
     }
 
+    /**
+     * Creates the default thread pool, sized according to the <code>threadPool*</code>
+     * parameters in axis2.xml. Parameters that are not present keep the defaults of
+     * {@link ThreadPool}. If <code>threadPoolVirtualThreads</code> is enabled and the JVM
+     * supports virtual threads, a {@link VirtualThreadPool} is returned instead.
+     *
+     * @return a new thread pool
+     * @throws IllegalArgumentException if a parameter has an invalid value
+     */
+    private ThreadFactory createThreadPool() {
+        if (JavaUtils.isTrueExplicitly(axisConfiguration.getParameterValue(
+                Constants.Configuration.THREAD_POOL_VIRTUAL_THREADS))) {
+            VirtualThreadPool virtualThreadPool = VirtualThreadPool.newInstance("Axis2 Task");
+            if (virtualThreadPool != null) {
+                return virtualThreadPool;
+            }
+            log.info(Messages.getMessage("virtualthreadsunsupported"));
+        }
+        int coreSize = getIntParameter(Constants.Configuration.THREAD_POOL_CORE_SIZE, -1);
+        int maxSize = getIntParameter(Constants.Configuration.THREAD_POOL_MAX_SIZE, -1);
+        int queueCapacity = getIntParameter(Constants.Configuration.THREAD_POOL_QUEUE_CAPACITY, -1);
+        int keepAliveTime = getIntParameter(Constants.Configuration.THREAD_POOL_KEEP_ALIVE_TIME, -1);
+        Object allowCoreThreadTimeOut = axisConfiguration.getParameterValue(
+                Constants.Configuration.THREAD_POOL_ALLOW_CORE_THREAD_TIMEOUT);
+        Object rejectionPolicy = axisConfiguration.getParameterValue(
+                Constants.Configuration.THREAD_POOL_REJECTION_POLICY);
+        if (coreSize == -1 && maxSize == -1 && queueCapacity == -1 && keepAliveTime == -1
+                && allowCoreThreadTimeOut == null && rejectionPolicy == null) {
+            return new ThreadPool();
+        }
+        if (coreSize == -1) {
+            coreSize = maxSize == -1 ? 5 : Math.min(5, maxSize);
+        }
+        if (maxSize == -1) {
+            maxSize = Math.max(100, coreSize);
+        }
+        // The rejection policy is validated by the ThreadPool constructor
+        return new ThreadPool(coreSize, maxSize,
+                queueCapacity == -1 ? Integer.MAX_VALUE : queueCapacity,
+                keepAliveTime == -1 ? 10000 : keepAliveTime,
+                JavaUtils.isTrueExplicitly(allowCoreThreadTimeOut),
+                rejectionPolicy == null ? null : ((String)rejectionPolicy).trim());
+    }
+
+    private int getIntParameter(String name, int defaultValue) {
+        Object value = axisConfiguration.getParameterValue(name);
+        if (value instanceof String) {
+            String text = ((String)value).trim();
+            int intValue;
+            try {
+                intValue = Integer.parseInt(text);
+            } catch (NumberFormatException ex) {
+                throw new IllegalArgumentException(Messages.getMessage(
+                        "threadpoolparameternotinteger", name, text), ex);
+            }
+            if (intValue < 0) {
+                throw new IllegalArgumentException(Messages.getMessage(
+                        "threadpoolparameternegative", name, text));
+            }
+            return intValue;
+        }
+        return defaultValue;
+    }
+
     /**
      * Set the AxisConfiguration to the specified configuration
      *
@@ -213,6 +213,13 @@ public class MessageContext extends AbstractContext
      */
     public static final String TRANSPORT_IN = "TRANSPORT_IN";
 
+    /**
+     * Field TRANSPORT_IN_ENVELOPE. Transports that deliver the response within the same JVM
+     * may use this property to hand over the response envelope as an object tree instead of
+     * providing an InputStream through {@link #TRANSPORT_IN}.
+     */
+    public static final String TRANSPORT_IN_ENVELOPE = "TRANSPORT_IN_ENVELOPE";
+
     /**
      * Field CHARACTER_SET_ENCODING
      */
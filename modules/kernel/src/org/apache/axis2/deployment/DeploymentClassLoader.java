@@ -21,7 +21,6 @@ package org.apache.axis2.deployment;
 
 import org.apache.axis2.classloader.BeanInfoCache;
 import org.apache.axis2.classloader.BeanInfoCachingClassLoader;
-import org.apache.commons.io.IOUtils;
 
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
@@ -33,10 +32,7 @@ import java.net.URLStreamHandler;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Enumeration;
-import java.util.HashMap;
 import java.util.List;
-import java.util.zip.ZipEntry;
-import java.util.zip.ZipInputStream;
 
 public class DeploymentClassLoader extends URLClassLoader implements BeanInfoCachingClassLoader {
     // List of URL's
@@ -45,6 +41,9 @@ public class DeploymentClassLoader extends URLClassLoader implements BeanInfoCac
     // List of jar files inside the jars in the original url
     private List embedded_jars;
 
+    // Index of the entries in the embedded jars; built on first use
+    private volatile EmbeddedJarIndex embeddedJarIndex;
+
     private boolean isChildFirstClassLoading;
 
     private final BeanInfoCache beanInfoCache = new BeanInfoCache();
@@ -111,24 +110,15 @@ public class DeploymentClassLoader extends URLClassLoader implements BeanInfoCac
     public URL findResource(String resource) {
         URL url = super.findResource(resource);
         if (url == null) {
-            for (int i = 0; embedded_jars != null && i < embedded_jars.size(); i++) {
-                String libjar_name = (String) embedded_jars.get(i);
-                try {
-                    InputStream in = getJarAsStream(libjar_name);
-                    ZipInputStream zin = new ZipInputStream(in);
-                    ZipEntry entry;
-                    String entryName;
-                    while ((entry = zin.getNextEntry()) != null) {
-                        entryName = entry.getName();
-                        if (entryName != null &&
-                                entryName.endsWith(resource)) {
-                            byte[] raw = IOUtils.toByteArray(zin);
-                            return new URL("jar", "", -1, urls[0] + "!/" + libjar_name + "!/" + entryName,
-                                    new ByteUrlStreamHandler(raw));
-                        }
+            EmbeddedJarIndex index = getEmbeddedJarIndex();
+            if (index != null) {
+                EmbeddedJarIndex.EntryLocation location = index.find(resource);
+                if (location != null) {
+                    try {
+                        return toURL(index, location);
+                    } catch (Exception e) {
+                        throw new RuntimeException(e);
                     }
-                } catch (Exception e) {
-                    throw new RuntimeException(e);
                 }
             }
         }
@@ -149,21 +139,11 @@ public class DeploymentClassLoader extends URLClassLoader implements BeanInfoCac
         while (e.hasMoreElements()) {
             resources.add(e.nextElement());
         }
-        for (int i = 0; embedded_jars != null && i < embedded_jars.size(); i++) {
-            String libjar_name = (String) embedded_jars.get(i);
+        EmbeddedJarIndex index = getEmbeddedJarIndex();
+        if (index != null) {
             try {
-            InputStream in = getJarAsStream(libjar_name);
-            ZipInputStream zin = new ZipInputStream(in);
-            ZipEntry entry;
-            String entryName;
-                while ((entry = zin.getNextEntry()) != null) {
-                    entryName = entry.getName();
-                    if (entryName != null &&
-                            entryName.endsWith(resource)) {
-                        byte[] raw = IOUtils.toByteArray(zin);
-                        resources.add(new URL("jar", "", -1, urls[0] + "!/" + libjar_name + "!/" + entryName,
-                                new ByteUrlStreamHandler(raw)));
-                    }
+                for (EmbeddedJarIndex.EntryLocation location : index.findAll(resource)) {
+                    resources.add(toURL(index, location));
                 }
             } catch (Exception ex) {
                 throw new RuntimeException(ex);
@@ -172,60 +152,55 @@ public class DeploymentClassLoader extends URLClassLoader implements BeanInfoCac
         return Collections.enumeration(resources);
     }
 
+    private URL toURL(EmbeddedJarIndex index, EmbeddedJarIndex.EntryLocation location)
+            throws IOException {
+        byte[] raw = index.read(location);
+        return new URL("jar", "", -1,
+                urls[0] + "!/" + index.getJarName(location) + "!/" + location.name,
+                new ByteUrlStreamHandler(raw));
+    }
+
     /**
-     * Access the jars file (/lib) one by one , then for each one create a <code>ZipInputStream</code>
-     * and check to see whether there is any entry eith given name. if it is found then
-     * return the byte array for that
+     * Look up the given resource in the jars in the /lib directory of the archive, using an
+     * index of their entries that is built on first use.
      *
      * @param resource <code>String</code>  Name of the file to be found
      * @return byte[]
      * @throws java.io.IOException <code>Exception</code>
      */
     private byte[] getBytes(String resource) throws Exception {
-        for (int i = 0; embedded_jars != null && i < embedded_jars.size(); i++) {
-            String libjar_name = (String) embedded_jars.get(i);
-            InputStream in = getJarAsStream(libjar_name);
-            byte[] bytes = getBytes(in, resource);
-            if(bytes != null) {
-                return bytes;
-            }
+        EmbeddedJarIndex index = getEmbeddedJarIndex();
+        if (index == null) {
+            return null;
         }
-        return null;
+        EmbeddedJarIndex.EntryLocation location = index.find(resource);
+        return location == null ? null : index.read(location);
     }
 
     /**
-     * Get a specific entry's content as a byte array
-     * 
-     * @param in
-     * @param resource
-     * @return
-     * @throws Exception
+     * Get the index of the entries of the jars in the /lib directory of the archive.
+     *
+     * @return the index, or <code>null</code> if there are no embedded jars
      */
-    private byte[] getBytes(InputStream in, String resource) throws Exception {
-        ZipInputStream zin = new ZipInputStream(in);
-        ZipEntry entry;
-        String entryName;
-        while ((entry = zin.getNextEntry()) != null) {
-            entryName = entry.getName();
-            if (entryName != null &&
-                    entryName.endsWith(resource)) {
-                byte[] raw = IOUtils.toByteArray(zin);
-                zin.close();
-                return raw;
+    private EmbeddedJarIndex getEmbeddedJarIndex() {
+        if (embedded_jars == null || embedded_jars.isEmpty()) {
+            return null;
+        }
+        EmbeddedJarIndex index = embeddedJarIndex;
+        if (index == null) {
+            synchronized (this) {
+                index = embeddedJarIndex;
+                if (index == null) {
+                    try {
+                        index = new EmbeddedJarIndex(urls[0], embedded_jars);
+                    } catch (IOException e) {
+                        throw new RuntimeException(e);
+                    }
+                    embeddedJarIndex = index;
+                }
             }
         }
-        return null;
-    }
-
-    /**
-     * Get the specified embedded jar from the main jar 
-     *
-     * @param libjar_name
-     * @return
-     * @throws Exception
-     */
-    private InputStream getJarAsStream(String libjar_name) throws Exception {
-        return new ByteArrayInputStream(getBytes(urls[0].openStream(), libjar_name));
+        return index;
     }
 
     public static class ByteUrlStreamHandler extends URLStreamHandler {
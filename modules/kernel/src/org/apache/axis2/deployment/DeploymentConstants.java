@@ -90,6 +90,10 @@ public interface DeploymentConstants {
     String TAG_HOT_UPDATE = "hotupdate";
     String TAG_ANTI_JAR_LOCKING = "antiJARLocking";
     String TAG_HOT_DEPLOYMENT = "hotdeployment";
+    String TAG_DEPLOYMENT_THREADS = "deploymentThreads";
+    String TAG_HOT_DEPLOYMENT_MODE = "hotdeploymentMode";
+    String TAG_HOT_DEPLOYMENT_DELAY = "hotdeploymentDelay";
+    String HOT_DEPLOYMENT_MODE_WATCH = "watch";
     String TAG_ALLOWOVERRIDE = "allowOverride";
     String TAG_EXPOSE = "expose";
     String TAG_EXTRACT_SERVICE_ARCHIVE = "extractServiceArchive";
@@ -27,6 +27,7 @@ import org.apache.axis2.deployment.repository.util.ArchiveReader;
 import org.apache.axis2.deployment.repository.util.DeploymentFileData;
 import org.apache.axis2.deployment.repository.util.WSInfo;
 import org.apache.axis2.deployment.scheduler.DeploymentIterator;
+import org.apache.axis2.deployment.scheduler.RepositoryWatcher;
 import org.apache.axis2.deployment.scheduler.Scheduler;
 import org.apache.axis2.deployment.scheduler.SchedulerTask;
 import org.apache.axis2.deployment.util.Utils;
@@ -61,6 +62,12 @@ import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.zip.ZipEntry;
@@ -80,6 +87,7 @@ public abstract class DeploymentEngine implements DeploymentConstants {
     protected static String webLocationString = null;
     protected Scheduler scheduler;
     private SchedulerTask schedulerTask;
+    private RepositoryWatcher repositoryWatcher;
 
     public static void setWebLocationString(String webLocationString) {
         DeploymentEngine.webLocationString = webLocationString;
@@ -96,6 +104,11 @@ public abstract class DeploymentEngine implements DeploymentConstants {
      */
     protected boolean hotDeployment = true;
 
+    /**
+     * The number of threads used to deploy services, see {@link #doDeploy()}.
+     */
+    protected int deploymentThreads = 1;
+
     /**
      * Stores all the web Services to deploy.
      */
@@ -374,28 +387,30 @@ public abstract class DeploymentEngine implements DeploymentConstants {
                                        DeploymentFileData currentDeploymentFile,
                                        AxisConfiguration axisConfiguration) throws AxisFault {
 
-        if (isServiceGroupReadyToDeploy(serviceGroup, serviceList, serviceLocation,
-                currentDeploymentFile, axisConfiguration)) {
-
+        // Services may be deployed concurrently (see deployInParallel); adding a service group
+        // must not interleave with another one or with the deployment of a module
+        synchronized (axisConfiguration.getFaultyServicesDuetoModules()) {
+            if (!isServiceGroupReadyToDeploy(serviceGroup, serviceList, serviceLocation,
+                    currentDeploymentFile, axisConfiguration)) {
+                return;
+            }
             fillServiceGroup(serviceGroup, serviceList, serviceLocation, axisConfiguration);
             axisConfiguration.addServiceGroup(serviceGroup);
-
-            if (currentDeploymentFile != null) {
-                addAsWebResources(currentDeploymentFile.getFile(),
-                        serviceGroup.getServiceGroupName(), serviceGroup);
-                // let the system have hidden services
-                if (!JavaUtils.isTrueExplicitly(serviceGroup.getParameterValue(
-                        Constants.HIDDEN_SERVICE_PARAM_NAME))) {
-                    log.info(Messages.getMessage(DeploymentErrorMsgs.DEPLOYING_WS,
-                            currentDeploymentFile.getName(),
-                            serviceLocation.toString()));
-                }
-            } else if (!JavaUtils.isTrueExplicitly(serviceGroup.getParameterValue(
-                            Constants.HIDDEN_SERVICE_PARAM_NAME))) {
+        }
+        if (currentDeploymentFile != null) {
+            addAsWebResources(currentDeploymentFile.getFile(),
+                    serviceGroup.getServiceGroupName(), serviceGroup);
+            // let the system have hidden services
+            if (!JavaUtils.isTrueExplicitly(serviceGroup.getParameterValue(
+                    Constants.HIDDEN_SERVICE_PARAM_NAME))) {
                 log.info(Messages.getMessage(DeploymentErrorMsgs.DEPLOYING_WS,
-                        serviceGroup.getServiceGroupName(), ""));
+                        currentDeploymentFile.getName(),
+                        serviceLocation.toString()));
             }
-
+        } else if (!JavaUtils.isTrueExplicitly(serviceGroup.getParameterValue(
+                        Constants.HIDDEN_SERVICE_PARAM_NAME))) {
+            log.info(Messages.getMessage(DeploymentErrorMsgs.DEPLOYING_WS,
+                    serviceGroup.getServiceGroupName(), ""));
         }
     }
 
@@ -579,13 +594,14 @@ public abstract class DeploymentEngine implements DeploymentConstants {
     public synchronized void doDeploy() {
         try {
             if (wsToDeploy.size() > 0) {
-                for (Object aWsToDeploy : wsToDeploy) {
-                    DeploymentFileData fileToDeploy = (DeploymentFileData) aWsToDeploy;
-                    try {
-                        fileToDeploy.deploy();
-                    } catch (DeploymentException e) {
-                        // TODO : This probably isn't sufficient.  Maybe provide an option to stop?
-                        log.info(e);
+                // The hot deployment task holds the lock of the AxisConfiguration, which the
+                // deployers need to add services; only deploy in parallel without it
+                if (deploymentThreads > 1 && wsToDeploy.size() > 1
+                        && (axisConfig == null || !Thread.holdsLock(axisConfig))) {
+                    deployInParallel(wsToDeploy);
+                } else {
+                    for (DeploymentFileData fileToDeploy : wsToDeploy) {
+                        deployFile(fileToDeploy);
                     }
                 }
             }
@@ -594,6 +610,101 @@ public abstract class DeploymentEngine implements DeploymentConstants {
         }
     }
 
+    private void deployFile(DeploymentFileData fileToDeploy) {
+        long start = System.currentTimeMillis();
+        try {
+            fileToDeploy.deploy();
+        } catch (DeploymentException e) {
+            // TODO : This probably isn't sufficient.  Maybe provide an option to stop?
+            log.info(e);
+        } finally {
+            if (log.isDebugEnabled()) {
+                log.debug("Deployment of " + fileToDeploy.getName() + " took "
+                        + (System.currentTimeMillis() - start) + " ms");
+            }
+        }
+    }
+
+    /**
+     * Deploys the modules in the given list on the calling thread, and then the other artifacts
+     * using a pool of {@link #deploymentThreads} threads. Archive parsing, WSDL processing and
+     * schema generation then run concurrently, while the changes to the AxisConfiguration are
+     * serialized (see {@link #addServiceGroup}).
+     *
+     * @param filesToDeploy the artifacts to deploy
+     */
+    private void deployInParallel(List<DeploymentFileData> filesToDeploy) {
+        long start = System.currentTimeMillis();
+        List<DeploymentFileData> others = new ArrayList<DeploymentFileData>();
+        for (DeploymentFileData fileToDeploy : filesToDeploy) {
+            if (fileToDeploy.getDeployer() instanceof ModuleDeployer) {
+                deployFile(fileToDeploy);
+            } else {
+                others.add(fileToDeploy);
+            }
+        }
+        if (others.size() <= 1) {
+            for (DeploymentFileData fileToDeploy : others) {
+                deployFile(fileToDeploy);
+            }
+            return;
+        }
+
+        int threads = Math.min(deploymentThreads, others.size());
+        ExecutorService executor = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+            private final AtomicInteger count = new AtomicInteger();
+
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable,
+                        "Axis2 deployment thread " + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        final ClassLoader contextClassLoader = Thread.currentThread().getContextClassLoader();
+        Throwable failure = null;
+        try {
+            List<Future<?>> futures = new ArrayList<Future<?>>(others.size());
+            for (final DeploymentFileData fileToDeploy : others) {
+                futures.add(executor.submit(new Runnable() {
+                    public void run() {
+                        Thread thread = Thread.currentThread();
+                        ClassLoader threadClassLoader = thread.getContextClassLoader();
+                        thread.setContextClassLoader(contextClassLoader);
+                        try {
+                            deployFile(fileToDeploy);
+                        } finally {
+                            thread.setContextClassLoader(threadClassLoader);
+                        }
+                    }
+                }));
+            }
+            for (int i = 0; i < futures.size(); i++) {
+                try {
+                    futures.get(i).get();
+                } catch (ExecutionException e) {
+                    log.error("Error while deploying " + others.get(i).getName(), e.getCause());
+                    if (failure == null) {
+                        failure = e.getCause();
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            log.warn("Interrupted while waiting for the deployment of services");
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        } finally {
+            executor.shutdown();
+        }
+        if (failure instanceof RuntimeException) {
+            throw (RuntimeException) failure;
+        } else if (failure instanceof Error) {
+            throw (Error) failure;
+        }
+        log.info("Deployed " + filesToDeploy.size() + " artifacts in "
+                + (System.currentTimeMillis() - start) + " ms using " + threads + " threads");
+    }
+
     /**
      * Checks if the modules, referred by server.xml, exist or that they are deployed.
      *
@@ -644,12 +755,52 @@ public abstract class DeploymentEngine implements DeploymentConstants {
      * @param listener : RepositoryListener
      */
     protected void startSearch(RepositoryListener listener) {
-        scheduler = new Scheduler();
-
         schedulerTask = new SchedulerTask(listener, axisConfig);
+        if (HOT_DEPLOYMENT_MODE_WATCH.equals(axisConfig.getParameterValue(TAG_HOT_DEPLOYMENT_MODE))) {
+            repositoryWatcher = RepositoryWatcher.start(getWatchedDirectories(), schedulerTask,
+                    getHotDeploymentDelay());
+            if (repositoryWatcher != null) {
+                log.info("Watching the repository for hot deployment");
+                return;
+            }
+            log.info("The repository can't be watched; falling back to polling");
+        }
+        scheduler = new Scheduler();
         scheduler.schedule(schedulerTask, new DeploymentIterator());
     }
 
+    /**
+     * @return the directories checked by {@link RepositoryListener#checkServices()}
+     */
+    private List<File> getWatchedDirectories() {
+        List<File> directories = new ArrayList<File>();
+        if (servicesDir != null) {
+            directories.add(servicesDir);
+        }
+        for (String directory : deployerMap.keySet()) {
+            File dir = new File(directory);
+            if (!dir.isAbsolute()) {
+                dir = new File(repositoryDir, directory);
+            }
+            if (!directories.contains(dir)) {
+                directories.add(dir);
+            }
+        }
+        return directories;
+    }
+
+    private long getHotDeploymentDelay() {
+        Object delay = axisConfig.getParameterValue(TAG_HOT_DEPLOYMENT_DELAY);
+        if (delay != null) {
+            try {
+                return Long.parseLong(delay.toString().trim());
+            } catch (NumberFormatException e) {
+                log.warn("Invalid value for parameter " + TAG_HOT_DEPLOYMENT_DELAY + ": " + delay);
+            }
+        }
+        return 1000;
+    }
+
     /**
      * Method to check whether the deployment task is currently running. Will be used is graceful
      * shutdown & restart scenarios.
@@ -839,6 +990,15 @@ public abstract class DeploymentEngine implements DeploymentConstants {
             this.hotUpdate = JavaUtils.isTrue(hotUpdate.getValue(), true);
         }
 
+        Object threads = axisConfig.getParameterValue(TAG_DEPLOYMENT_THREADS);
+        if (threads != null) {
+            try {
+                deploymentThreads = Integer.parseInt(threads.toString().trim());
+            } catch (NumberFormatException e) {
+                log.warn("Invalid value for parameter " + TAG_DEPLOYMENT_THREADS + ": " + threads);
+            }
+        }
+
         String serviceDirPara = (String)
                 axisConfig.getParameterValue(DeploymentConstants.SERVICE_DIR_PATH);
         if (serviceDirPara != null) {
@@ -1176,6 +1336,9 @@ public abstract class DeploymentEngine implements DeploymentConstants {
         if (scheduler != null) {
             scheduler.cleanup(schedulerTask);
         }
+        if (repositoryWatcher != null) {
+            repositoryWatcher.stop();
+        }
         for (Map<String, Deployer> stringDeployerMap : deployerMap.values()) {
             for (Deployer deployer : stringDeployerMap.values()) {
                 try {
@@ -0,0 +1,387 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.deployment;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.ref.SoftReference;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * Index of the entries of the jars embedded (in <tt>lib/</tt>) in a service or module archive.
+ * The index is built with a single pass over the archive and maps each entry name to the
+ * embedded jar and the offset of the entry within that jar, so that {@link DeploymentClassLoader}
+ * can look up classes and resources without rescanning the archive. The content of the embedded
+ * jars is softly cached; it is reloaded from the archive if the garbage collector reclaims it.
+ */
+class EmbeddedJarIndex {
+    private static final Log log = LogFactory.getLog(EmbeddedJarIndex.class);
+
+    private static final int LOCAL_HEADER_SIGNATURE = 0x04034b50;
+    private static final int CENTRAL_HEADER_SIGNATURE = 0x02014b50;
+    private static final int END_HEADER_SIGNATURE = 0x06054b50;
+
+    /**
+     * Location of an entry. Entries with the same name in several jars are chained in
+     * the order of the embedded jars.
+     */
+    static class EntryLocation {
+        final int jar;
+        final String name;
+        // Offset of the local file header, or -1 if the entry must be located by scanning the jar
+        final int offset;
+        final int method;
+        final int compressedSize;
+        final int size;
+        EntryLocation next;
+
+        EntryLocation(int jar, String name, int offset, int method, int compressedSize, int size) {
+            this.jar = jar;
+            this.name = name;
+            this.offset = offset;
+            this.method = method;
+            this.compressedSize = compressedSize;
+            this.size = size;
+        }
+    }
+
+    private static final EntryLocation NOT_FOUND = new EntryLocation(-1, null, -1, 0, 0, 0);
+
+    private final URL archive;
+    private final String[] jarNames;
+    private final SoftReference<byte[]>[] jarContents;
+    private final Map<String, EntryLocation> entries = new HashMap<String, EntryLocation>();
+    /**
+     * Results of lookups that didn't match an entry name exactly, including negative results.
+     */
+    private final Map<String, EntryLocation> suffixLookups =
+            new ConcurrentHashMap<String, EntryLocation>();
+
+    @SuppressWarnings("unchecked")
+    EmbeddedJarIndex(URL archive, List<?> embeddedJars) throws IOException {
+        this.archive = archive;
+        jarNames = new String[embeddedJars.size()];
+        for (int i = 0; i < jarNames.length; i++) {
+            jarNames[i] = (String)embeddedJars.get(i);
+        }
+        jarContents = new SoftReference[jarNames.length];
+        byte[][] contents = loadJars();
+        for (int i = 0; i < jarNames.length; i++) {
+            if (contents[i] == null) {
+                continue;
+            }
+            jarContents[i] = new SoftReference<byte[]>(contents[i]);
+            if (!indexCentralDirectory(i, contents[i])) {
+                indexByScanning(i, contents[i]);
+            }
+        }
+    }
+
+    String getJarName(EntryLocation location) {
+        return jarNames[location.jar];
+    }
+
+    /**
+     * Find the first entry with the given name. For compatibility with previous versions of
+     * {@link DeploymentClassLoader}, an entry whose name ends with the given name is returned if
+     * there is no exact match.
+     *
+     * @param resource the name of the entry
+     * @return the location of the entry, or <code>null</code> if no entry matches
+     */
+    EntryLocation find(String resource) {
+        EntryLocation location = entries.get(resource);
+        if (location != null) {
+            return location;
+        }
+        location = suffixLookups.get(resource);
+        if (location == null) {
+            List<EntryLocation> matches = findBySuffix(resource);
+            location = matches.isEmpty() ? NOT_FOUND : matches.get(0);
+            suffixLookups.put(resource, location);
+        }
+        return location == NOT_FOUND ? null : location;
+    }
+
+    /**
+     * Find all the entries matching the given name, in the order of the embedded jars.
+     *
+     * @param resource the name of the entry
+     * @return the (possibly empty) list of matching entries
+     */
+    List<EntryLocation> findAll(String resource) {
+        List<EntryLocation> result = new ArrayList<EntryLocation>();
+        EntryLocation location = entries.get(resource);
+        if (location != null) {
+            for (; location != null; location = location.next) {
+                result.add(location);
+            }
+            return result;
+        }
+        if (suffixLookups.get(resource) == NOT_FOUND) {
+            return result;
+        }
+        result = findBySuffix(resource);
+        if (result.isEmpty()) {
+            suffixLookups.put(resource, NOT_FOUND);
+        }
+        return result;
+    }
+
+    private List<EntryLocation> findBySuffix(String resource) {
+        List<EntryLocation> result = new ArrayList<EntryLocation>();
+        for (EntryLocation location : entries.values()) {
+            for (; location != null; location = location.next) {
+                if (location.name.endsWith(resource)) {
+                    result.add(location);
+                }
+            }
+        }
+        // Preserve the order of the embedded jars
+        for (int i = 1; i < result.size(); i++) {
+            EntryLocation current = result.get(i);
+            int j = i - 1;
+            while (j >= 0 && result.get(j).jar > current.jar) {
+                result.set(j + 1, result.get(j));
+                j--;
+            }
+            result.set(j + 1, current);
+        }
+        return result;
+    }
+
+    /**
+     * Read the content of an entry.
+     *
+     * @param location the location of the entry
+     * @return the content
+     * @throws IOException if the entry can't be read
+     */
+    byte[] read(EntryLocation location) throws IOException {
+        byte[] jar = getJarContent(location.jar);
+        if (location.offset == -1) {
+            return readByScanning(jar, location.name);
+        }
+        int offset = location.offset;
+        if (readInt(jar, offset) != LOCAL_HEADER_SIGNATURE) {
+            throw new IOException("Invalid local header for " + location.name + " in "
+                    + jarNames[location.jar]);
+        }
+        int dataOffset = offset + 30 + readShort(jar, offset + 26) + readShort(jar, offset + 28);
+        if (location.method == ZipEntry.STORED) {
+            byte[] raw = new byte[location.size];
+            System.arraycopy(jar, dataOffset, raw, 0, location.size);
+            return raw;
+        } else if (location.method == ZipEntry.DEFLATED) {
+            Inflater inflater = new Inflater(true);
+            try {
+                inflater.setInput(jar, dataOffset, location.compressedSize);
+                byte[] raw = new byte[location.size];
+                int count = 0;
+                while (count < raw.length) {
+                    int n = inflater.inflate(raw, count, raw.length - count);
+                    if (n == 0 && (inflater.finished() || inflater.needsInput())) {
+                        break;
+                    }
+                    count += n;
+                }
+                if (count != raw.length) {
+                    throw new IOException("Truncated entry " + location.name + " in "
+                            + jarNames[location.jar]);
+                }
+                return raw;
+            } catch (DataFormatException ex) {
+                IOException ioException = new IOException("Corrupt entry " + location.name
+                        + " in " + jarNames[location.jar]);
+                ioException.initCause(ex);
+                throw ioException;
+            } finally {
+                inflater.end();
+            }
+        } else {
+            return readByScanning(jar, location.name);
+        }
+    }
+
+    private byte[] getJarContent(int jar) throws IOException {
+        byte[] content = jarContents[jar].get();
+        if (content == null) {
+            byte[][] contents = loadJars();
+            for (int i = 0; i < contents.length; i++) {
+                if (contents[i] != null) {
+                    jarContents[i] = new SoftReference<byte[]>(contents[i]);
+                }
+            }
+            content = contents[jar];
+            if (content == null) {
+                throw new IOException(jarNames[jar] + " not found in " + archive);
+            }
+        }
+        return content;
+    }
+
+    /**
+     * Load all embedded jars with a single pass over the archive.
+     */
+    private byte[][] loadJars() throws IOException {
+        Map<String, Integer> jarIndexes = new HashMap<String, Integer>();
+        for (int i = 0; i < jarNames.length; i++) {
+            jarIndexes.put(jarNames[i], Integer.valueOf(i));
+        }
+        byte[][] contents = new byte[jarNames.length][];
+        ZipInputStream zin = new ZipInputStream(archive.openStream());
+        try {
+            ZipEntry entry;
+            while ((entry = zin.getNextEntry()) != null) {
+                Integer index = jarIndexes.get(entry.getName());
+                if (index != null && contents[index.intValue()] == null) {
+                    contents[index.intValue()] = IOUtils.toByteArray(zin);
+                }
+            }
+        } finally {
+            zin.close();
+        }
+        return contents;
+    }
+
+    /**
+     * Index the entries of a jar using its central directory.
+     *
+     * @return <code>false</code> if the central directory could not be parsed
+     */
+    private boolean indexCentralDirectory(int jar, byte[] content) {
+        int end = -1;
+        for (int i = content.length - 22; i >= 0 && i >= content.length - 22 - 65535; i--) {
+            if (readInt(content, i) == END_HEADER_SIGNATURE) {
+                end = i;
+                break;
+            }
+        }
+        if (end == -1) {
+            return false;
+        }
+        int count = readShort(content, end + 10);
+        long centralDirectoryOffset = readInt(content, end + 16) & 0xFFFFFFFFL;
+        if (centralDirectoryOffset >= content.length) {
+            // Probably a ZIP64 archive
+            return false;
+        }
+        List<EntryLocation> locations = new ArrayList<EntryLocation>(count);
+        int pos = (int)centralDirectoryOffset;
+        for (int i = 0; i < count; i++) {
+            if (pos + 46 > content.length || readInt(content, pos) != CENTRAL_HEADER_SIGNATURE) {
+                return false;
+            }
+            int method = readShort(content, pos + 10);
+            int compressedSize = readInt(content, pos + 20);
+            int size = readInt(content, pos + 24);
+            int nameLength = readShort(content, pos + 28);
+            int extraLength = readShort(content, pos + 30);
+            int commentLength = readShort(content, pos + 32);
+            int offset = readInt(content, pos + 42);
+            if (compressedSize < 0 || size < 0 || offset < 0 || offset >= content.length
+                    || pos + 46 + nameLength > content.length) {
+                return false;
+            }
+            String name;
+            try {
+                name = new String(content, pos + 46, nameLength, "UTF-8");
+            } catch (java.io.UnsupportedEncodingException ex) {
+                return false;
+            }
+            if (!name.endsWith("/")) {
+                locations.add(new EntryLocation(jar, name, offset, method, compressedSize, size));
+            }
+            pos += 46 + nameLength + extraLength + commentLength;
+        }
+        for (EntryLocation location : locations) {
+            add(location);
+        }
+        return true;
+    }
+
+    private void indexByScanning(int jar, byte[] content) throws IOException {
+        if (log.isDebugEnabled()) {
+            log.debug("Unable to read the central directory of " + jarNames[jar] + " in "
+                    + archive + "; indexing by scanning its entries");
+        }
+        ZipInputStream zin = new ZipInputStream(new ByteArrayInputStream(content));
+        try {
+            ZipEntry entry;
+            while ((entry = zin.getNextEntry()) != null) {
+                if (!entry.isDirectory()) {
+                    add(new EntryLocation(jar, entry.getName(), -1, -1, -1, -1));
+                }
+            }
+        } finally {
+            zin.close();
+        }
+    }
+
+    private void add(EntryLocation location) {
+        EntryLocation existing = entries.get(location.name);
+        if (existing == null) {
+            entries.put(location.name, location);
+        } else {
+            while (existing.next != null) {
+                existing = existing.next;
+            }
+            existing.next = location;
+        }
+    }
+
+    private static byte[] readByScanning(byte[] jar, String name) throws IOException {
+        ZipInputStream zin = new ZipInputStream(new ByteArrayInputStream(jar));
+        try {
+            ZipEntry entry;
+            while ((entry = zin.getNextEntry()) != null) {
+                if (name.equals(entry.getName())) {
+                    return IOUtils.toByteArray(zin);
+                }
+            }
+        } finally {
+            zin.close();
+        }
+        throw new IOException(name + " not found");
+    }
+
+    private static int readShort(byte[] b, int off) {
+        return (b[off] & 0xFF) | ((b[off + 1] & 0xFF) << 8);
+    }
+
+    private static int readInt(byte[] b, int off) {
+        return (b[off] & 0xFF) | ((b[off + 1] & 0xFF) << 8) | ((b[off + 2] & 0xFF) << 16)
+                | ((b[off + 3] & 0xFF) << 24);
+    }
+}
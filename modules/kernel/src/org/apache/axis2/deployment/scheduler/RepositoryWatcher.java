@@ -0,0 +1,271 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.deployment.scheduler;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.io.File;
+import java.lang.reflect.Array;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs a {@link SchedulerTask} when files change in the repository, as reported by a
+ * <code>java.nio.file.WatchService</code>, instead of polling the repository periodically. Events
+ * are debounced: the task runs once no further change has been reported for the debounce period,
+ * so that an archive that is still being copied is not deployed, and a burst of changes results in
+ * a single check of the repository. The check itself only redeploys the archives whose timestamp
+ * changed.
+ * <p>
+ * Axis2 runs on Java 6, so the WatchService API (Java 7) is accessed through reflection.
+ * {@link #start} returns <code>null</code> if it is not available or if the directories can't be
+ * watched, in which case the caller should fall back to polling with {@link Scheduler}.
+ */
+public class RepositoryWatcher implements Runnable {
+    private static final Log log = LogFactory.getLog(RepositoryWatcher.class);
+
+    private static final String[] EVENT_KINDS = { "ENTRY_CREATE", "ENTRY_DELETE", "ENTRY_MODIFY" };
+
+    private static Api api;
+    private static boolean apiLoaded;
+
+    /**
+     * The reflective handles of the WatchService API.
+     */
+    private static final class Api {
+        final Method toPath;
+        final Method newWatchService;
+        final Object fileSystem;
+        final Method register;
+        final Object kinds;
+        final Method take;
+        final Method poll;
+        final Method close;
+        final Method pollEvents;
+        final Method reset;
+        final Method kind;
+        final Method context;
+        final Object entryCreate;
+
+        Api() throws Exception {
+            toPath = File.class.getMethod("toPath");
+            Class<?> fileSystemsClass = Class.forName("java.nio.file.FileSystems");
+            fileSystem = fileSystemsClass.getMethod("getDefault").invoke(null);
+            newWatchService = Class.forName("java.nio.file.FileSystem").getMethod("newWatchService");
+            Class<?> watchServiceClass = Class.forName("java.nio.file.WatchService");
+            Class<?> kindClass = Class.forName("java.nio.file.WatchEvent$Kind");
+            Class<?> kindsClass = Class.forName("java.nio.file.StandardWatchEventKinds");
+            kinds = Array.newInstance(kindClass, EVENT_KINDS.length);
+            for (int i = 0; i < EVENT_KINDS.length; i++) {
+                Array.set(kinds, i, kindsClass.getField(EVENT_KINDS[i]).get(null));
+            }
+            entryCreate = Array.get(kinds, 0);
+            register = Class.forName("java.nio.file.Path").getMethod("register",
+                    watchServiceClass, kinds.getClass());
+            take = watchServiceClass.getMethod("take");
+            poll = watchServiceClass.getMethod("poll", long.class, TimeUnit.class);
+            close = watchServiceClass.getMethod("close");
+            Class<?> watchKeyClass = Class.forName("java.nio.file.WatchKey");
+            pollEvents = watchKeyClass.getMethod("pollEvents");
+            reset = watchKeyClass.getMethod("reset");
+            Class<?> watchEventClass = Class.forName("java.nio.file.WatchEvent");
+            kind = watchEventClass.getMethod("kind");
+            context = watchEventClass.getMethod("context");
+        }
+    }
+
+    private static synchronized Api getApi() {
+        if (!apiLoaded) {
+            apiLoaded = true;
+            try {
+                api = new Api();
+            } catch (Exception e) {
+                log.debug("The WatchService API is not available", e);
+            }
+        }
+        return api;
+    }
+
+    private final Api watchApi;
+    private final Object watchService;
+    private final SchedulerTask schedulerTask;
+    private final long debounceMillis;
+    /**
+     * The watched directories by WatchKey.
+     */
+    private final Map<Object, File> directories = new HashMap<Object, File>();
+    private Thread thread;
+    private volatile boolean stopped;
+
+    private RepositoryWatcher(Api watchApi, Object watchService, SchedulerTask schedulerTask,
+                              long debounceMillis) {
+        this.watchApi = watchApi;
+        this.watchService = watchService;
+        this.schedulerTask = schedulerTask;
+        this.debounceMillis = debounceMillis;
+    }
+
+    /**
+     * Starts watching the given directories and their sub directories.
+     *
+     * @param roots          the directories to watch; those that don't exist are ignored
+     * @param schedulerTask  the task to run when files change
+     * @param debounceMillis the time without changes after which the task runs
+     * @return the watcher, or <code>null</code> if the directories can't be watched
+     */
+    public static RepositoryWatcher start(List<File> roots, SchedulerTask schedulerTask,
+                                          long debounceMillis) {
+        Api watchApi = getApi();
+        if (watchApi == null) {
+            return null;
+        }
+        RepositoryWatcher watcher;
+        try {
+            Object watchService = watchApi.newWatchService.invoke(watchApi.fileSystem);
+            watcher = new RepositoryWatcher(watchApi, watchService, schedulerTask, debounceMillis);
+        } catch (Exception e) {
+            log.info("Unable to create a WatchService: " + getCause(e));
+            return null;
+        }
+        try {
+            for (File root : roots) {
+                if (root.isDirectory()) {
+                    watcher.registerAll(root);
+                }
+            }
+        } catch (Exception e) {
+            log.info("Unable to watch the repository: " + getCause(e));
+            watcher.close();
+            return null;
+        }
+        watcher.thread = new Thread(watcher, "Axis2 repository watcher");
+        watcher.thread.setDaemon(true);
+        watcher.thread.start();
+        return watcher;
+    }
+
+    private void registerAll(File directory) throws Exception {
+        if (directory.getName().startsWith(".")
+                || directory.getName().equalsIgnoreCase("CVS")) {
+            return;
+        }
+        Object path = watchApi.toPath.invoke(directory);
+        Object key = watchApi.register.invoke(path, watchService, watchApi.kinds);
+        synchronized (directories) {
+            directories.put(key, directory);
+        }
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                if (file.isDirectory()) {
+                    registerAll(file);
+                }
+            }
+        }
+    }
+
+    public void run() {
+        try {
+            while (!stopped) {
+                Object key = watchApi.take.invoke(watchService);
+                processEvents(key);
+                // Wait until the repository is quiet
+                while ((key = watchApi.poll.invoke(watchService, debounceMillis,
+                        TimeUnit.MILLISECONDS)) != null) {
+                    processEvents(key);
+                }
+                if (!stopped) {
+                    if (log.isDebugEnabled()) {
+                        log.debug("Repository changed, checking for updates");
+                    }
+                    try {
+                        schedulerTask.run();
+                    } catch (RuntimeException e) {
+                        log.error("Error while updating the repository", e);
+                    }
+                }
+            }
+        } catch (InvocationTargetException e) {
+            // ClosedWatchServiceException or InterruptedException when stopped
+            if (!stopped) {
+                log.error("The repository watcher failed; hot deployment is disabled",
+                        e.getCause());
+            }
+        } catch (IllegalAccessException e) {
+            log.error("The repository watcher failed; hot deployment is disabled", e);
+        }
+    }
+
+    private void processEvents(Object key) throws InvocationTargetException,
+            IllegalAccessException {
+        File directory;
+        synchronized (directories) {
+            directory = directories.get(key);
+        }
+        for (Object event : (List<?>) watchApi.pollEvents.invoke(key)) {
+            // Register directories created in the repository, e.g. for an exploded service
+            if (directory != null && watchApi.entryCreate.equals(watchApi.kind.invoke(event))) {
+                Object context = watchApi.context.invoke(event);
+                File file = new File(directory, context.toString());
+                if (file.isDirectory()) {
+                    try {
+                        registerAll(file);
+                    } catch (Exception e) {
+                        log.warn("Unable to watch " + file + ": " + getCause(e));
+                    }
+                }
+            }
+        }
+        if (!(Boolean) watchApi.reset.invoke(key)) {
+            // the directory was deleted
+            synchronized (directories) {
+                directories.remove(key);
+            }
+        }
+    }
+
+    /**
+     * Stops watching the repository.
+     */
+    public void stop() {
+        stopped = true;
+        close();
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+
+    private void close() {
+        try {
+            watchApi.close.invoke(watchService);
+        } catch (Exception e) {
+            log.debug("Unable to close the WatchService", e);
+        }
+    }
+
+    private static Throwable getCause(Exception e) {
+        return e instanceof InvocationTargetException ? e.getCause() : e;
+    }
+}
@@ -24,6 +24,7 @@ import java.util.Collection;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.xml.namespace.QName;
 
@@ -34,6 +35,7 @@ import org.apache.axiom.om.OMNamespace;
 import org.apache.axiom.soap.SOAP11Constants;
 import org.apache.axis2.AxisFault;
 import org.apache.axis2.Constants;
+import org.apache.axis2.dispatchers.HTTPLocationRouter;
 import org.apache.axis2.util.PolicyUtil;
 import org.apache.axis2.util.WSDLSerializationUtil;
 import org.apache.neethi.Policy;
@@ -52,6 +54,13 @@ public class AxisBinding extends AxisDescription {
 
     private Map<String, AxisBindingMessage> faults;
 
+    private volatile HTTPLocationRouter httpLocationRouter;
+
+    /**
+     * Modification count of the HTTP_LOCATION_TABLE property, used to rebuild the router.
+     */
+    private final AtomicInteger httpLocationTableVersion = new AtomicInteger();
+
     public AxisBindingMessage getFault(String name) {
         return (AxisBindingMessage) faults.get(name);
     }
@@ -68,6 +77,18 @@ public class AxisBinding extends AxisDescription {
 
     public void setProperty(String name, Object value) {
         options.put(name, value);
+        if (WSDL2Constants.HTTP_LOCATION_TABLE.equals(name)) {
+            httpLocationTableVersion.incrementAndGet();
+        }
+    }
+
+    /**
+     * Signal that the map stored in the HTTP_LOCATION_TABLE property has been modified in place.
+     * Code that modifies the table after the binding is in use must call this method, so that
+     * {@link #getHTTPLocationRouter()} doesn't keep dispatching to the previous mappings.
+     */
+    public void httpLocationTableChanged() {
+        httpLocationTableVersion.incrementAndGet();
     }
 
     /**
@@ -91,6 +112,28 @@ public class AxisBinding extends AxisDescription {
         return obj;
     }
 
+    /**
+     * Get the router that dispatches requests based on the HTTP_LOCATION_TABLE property of this
+     * binding. The router is built on first use and rebuilt whenever the table is replaced, or
+     * {@link #httpLocationTableChanged()} is called.
+     *
+     * @return the router, or null if this binding has no HTTP location table
+     */
+    public HTTPLocationRouter getHTTPLocationRouter() {
+        // Read the version first, so that a concurrent change leaves the new router stale
+        int version = httpLocationTableVersion.get();
+        Map<?, ?> httpLocationTable = (Map<?, ?>)options.get(WSDL2Constants.HTTP_LOCATION_TABLE);
+        if (httpLocationTable == null) {
+            return null;
+        }
+        HTTPLocationRouter router = httpLocationRouter;
+        if (router == null || router.isStale(version)) {
+            router = new HTTPLocationRouter(httpLocationTable, version);
+            httpLocationRouter = router;
+        }
+        return router;
+    }
+
     public QName getName() {
         return name;
     }
@@ -2690,6 +2690,18 @@ public class AxisService extends AxisDescription {
 			}
 			operationsAliasesMap.remove(operation.getName().getLocalPart());
 			invalidOperationsAliases.remove(operation.getName().getLocalPart());
+			// Make sure HTTPLocationBasedDispatcher no longer dispatches to the operation
+			for (AxisEndpoint endpoint : getEndpoints().values()) {
+				AxisBinding binding = endpoint.getBinding();
+				if (binding != null) {
+					Map<?, ?> httpLocationTable = (Map<?, ?>) binding
+							.getProperty(WSDL2Constants.HTTP_LOCATION_TABLE);
+					if (httpLocationTable != null
+							&& httpLocationTable.values().remove(operation)) {
+						binding.httpLocationTableChanged();
+					}
+				}
+			}
 		}
 	}
 
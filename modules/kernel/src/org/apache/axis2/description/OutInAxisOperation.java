@@ -20,6 +20,7 @@
 package org.apache.axis2.description;
 
 import java.util.HashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import javax.xml.namespace.QName;
 
@@ -39,6 +40,8 @@ import org.apache.axis2.context.OperationContext;
 import org.apache.axis2.context.ServiceContext;
 import org.apache.axis2.engine.AxisEngine;
 import org.apache.axis2.i18n.Messages;
+import org.apache.axis2.transport.NonBlockingTransportSender;
+import org.apache.axis2.transport.TransportSender;
 import org.apache.axis2.transport.TransportUtils;
 import org.apache.axis2.transport.http.HTTPConstants;
 import org.apache.axis2.util.CallbackReceiver;
@@ -224,6 +227,9 @@ class OutInAxisOperationClient extends OperationClient {
                 // Send the SOAP Message and receive a response
                 send(mc);
                 completed = true;
+            } else if (isNonBlockingTransport(mc)) {
+                // The transport completes the invocation from its own threads
+                sendNonBlocking(mc);
             } else {
                 sc.getConfigurationContext().getThreadPool().execute(
                         new NonBlockingInvocationWorker(mc, axisCallback));
@@ -380,9 +386,49 @@ class OutInAxisOperationClient extends OperationClient {
      * @throws AxisFault Sends the message using a two way transport and waits for a response
      */
     protected MessageContext send(MessageContext msgContext) throws AxisFault {
+        MessageContext responseMessageContext = createResponseMessageContext(msgContext);
 
-        // create the responseMessageContext
+        //sending the message
+        AxisEngine.send(msgContext);
+
+        completeSend(msgContext, responseMessageContext);
+        return responseMessageContext;
+    }
+
+    /**
+     * Check whether the transport used for the request can complete a non-blocking invocation
+     * without tying up a thread for the whole exchange.
+     */
+    private boolean isNonBlockingTransport(MessageContext msgContext) {
+        if (msgContext.getTransportOut() == null) {
+            return false;
+        }
+        TransportSender sender = msgContext.getTransportOut().getSender();
+        return sender instanceof NonBlockingTransportSender
+                && ((NonBlockingTransportSender) sender).isNonBlocking(msgContext);
+    }
 
+    /**
+     * Send the request through a {@link NonBlockingTransportSender} and return without waiting
+     * for the response. The response is processed and the callback notified by the transport
+     * thread that receives it.
+     */
+    private void sendNonBlocking(MessageContext msgContext) {
+        NonBlockingResponseCallback callback = new NonBlockingResponseCallback(msgContext);
+        msgContext.setProperty(NonBlockingTransportSender.RESPONSE_CALLBACK, callback);
+        try {
+            callback.responseMessageContext = createResponseMessageContext(msgContext);
+            AxisEngine.send(msgContext);
+        } catch (Exception e) {
+            callback.onError(e);
+        }
+    }
+
+    /**
+     * Create the MessageContext for the response to the given request.
+     */
+    private MessageContext createResponseMessageContext(MessageContext msgContext)
+            throws AxisFault {
         MessageContext responseMessageContext =
                 msgContext.getConfigurationContext().createMessageContext();
 
@@ -394,10 +440,14 @@ class OutInAxisOperationClient extends OperationClient {
         responseMessageContext.setServiceContext(msgContext.getServiceContext());
         responseMessageContext.setAxisMessage(
                 axisOp.getMessage(WSDLConstants.MESSAGE_LABEL_IN_VALUE));
+        return responseMessageContext;
+    }
 
-        //sending the message
-        AxisEngine.send(msgContext);
-
+    /**
+     * Process the response once the transport has received it for the given request.
+     */
+    private void completeSend(MessageContext msgContext, MessageContext responseMessageContext)
+            throws AxisFault {
         responseMessageContext.setDoingREST(msgContext.isDoingREST());
 
         // Copy RESPONSE properties which the transport set onto the request message context when it processed
@@ -409,10 +459,87 @@ class OutInAxisOperationClient extends OperationClient {
 
         responseMessageContext.setProperty(MessageContext.TRANSPORT_IN, msgContext
                 .getProperty(MessageContext.TRANSPORT_IN));
+        SOAPEnvelope transportInEnvelope = (SOAPEnvelope) msgContext
+                .getProperty(MessageContext.TRANSPORT_IN_ENVELOPE);
+        if (transportInEnvelope != null) {
+            msgContext.removeProperty(MessageContext.TRANSPORT_IN_ENVELOPE);
+            responseMessageContext.setEnvelope(transportInEnvelope);
+        }
         responseMessageContext.setTransportIn(msgContext.getTransportIn());
         responseMessageContext.setTransportOut(msgContext.getTransportOut());
         handleResponse(responseMessageContext);
-        return responseMessageContext;
+    }
+
+    /**
+     * Notify the callback of a non-blocking invocation about the response.
+     */
+    private void notifyCallback(MessageContext response, AxisCallback axisCallback)
+            throws AxisFault {
+        if (response == null || axisCallback == null) {
+            return;
+        }
+        SOAPEnvelope resenvelope = response.getEnvelope();
+
+        if (resenvelope.hasFault()) {
+            SOAPBody body = resenvelope.getBody();
+            // If a fault was found, create an AxisFault with a MessageContext so that
+            // other programming models can deserialize the fault to an alternative form.
+            AxisFault fault = new AxisFault(body.getFault(), response);
+            if (options.isExceptionToBeThrownOnSOAPFault()) {
+                axisCallback.onError(fault);
+            } else {
+                axisCallback.onFault(response);
+            }
+
+        } else {
+            axisCallback.onMessage(response);
+        }
+    }
+
+    /**
+     * Completes a non-blocking invocation on behalf of a {@link NonBlockingTransportSender}.
+     */
+    private class NonBlockingResponseCallback implements NonBlockingTransportSender.ResponseCallback {
+        private final MessageContext msgctx;
+        private final AxisCallback axisCallback;
+        private final AtomicBoolean done = new AtomicBoolean();
+        MessageContext responseMessageContext;
+
+        NonBlockingResponseCallback(MessageContext msgctx) {
+            this.msgctx = msgctx;
+            this.axisCallback = OutInAxisOperationClient.this.axisCallback;
+        }
+
+        public void onResponse() {
+            if (!done.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                completeSend(msgctx, responseMessageContext);
+                notifyCallback(responseMessageContext, axisCallback);
+            } catch (Exception e) {
+                if (axisCallback != null) {
+                    axisCallback.onError(e);
+                }
+            } finally {
+                if (axisCallback != null) {
+                    axisCallback.onComplete();
+                }
+            }
+        }
+
+        public void onError(Exception e) {
+            if (!done.compareAndSet(false, true)) {
+                return;
+            }
+            if (axisCallback != null) {
+                try {
+                    axisCallback.onError(e);
+                } finally {
+                    axisCallback.onComplete();
+                }
+            }
+        }
     }
 
     /**
@@ -434,29 +561,7 @@ class OutInAxisOperationClient extends OperationClient {
                 // send the request and wait for response
                 MessageContext response = send(msgctx);
                 // call the callback
-                if (response != null) {
-                    SOAPEnvelope resenvelope = response.getEnvelope();
-                    
-                    if (resenvelope.hasFault()) {
-                        SOAPBody body = resenvelope.getBody();
-                        // If a fault was found, create an AxisFault with a MessageContext so that
-                        // other programming models can deserialize the fault to an alternative form.
-                        AxisFault fault = new AxisFault(body.getFault(), response);
-                        if (axisCallback != null) {
-                            if (options.isExceptionToBeThrownOnSOAPFault()) {
-                                axisCallback.onError(fault);
-                            } else {
-                                axisCallback.onFault(response);
-                            }
-                        }
-
-                    } else {
-                        if (axisCallback != null) {
-                            axisCallback.onMessage(response);
-                        }
-
-                    }
-                }
+                notifyCallback(response, axisCallback);
 
             } catch (Exception e) {
                 if (axisCallback != null) {
@@ -0,0 +1,196 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.dispatchers;
+
+import org.apache.axis2.description.AxisOperation;
+
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Radix tree built from the <code>HTTPLocationTable</code> of an
+ * {@link org.apache.axis2.description.AxisBinding}. The keys of that table are the HTTP method
+ * followed by the constant part of the httpLocation template (see
+ * {@link org.apache.axis2.wsdl.WSDLUtil#getConstantFromHTTPLocation(String, String)}); a request
+ * is dispatched to the operation with the longest key that is a prefix of the request's HTTP
+ * method and location. Lookups take time proportional to the length of the request location,
+ * independently of the number of operations.
+ * <p>
+ * Instances are immutable and can be shared between threads. The router is built for a given
+ * version of the table (see {@link org.apache.axis2.description.AxisBinding}); use
+ * {@link #isStale(int)} to detect that the table has been changed since the router was built.
+ */
+public class HTTPLocationRouter {
+    private final int version;
+    private final Node root = new Node("");
+
+    private static class Node {
+        String label;
+        AxisOperation operation;
+        Node[] children = new Node[0];
+
+        Node(String label) {
+            this.label = label;
+        }
+
+        Node getChild(char c) {
+            for (int i = 0; i < children.length; i++) {
+                if (children[i].label.charAt(0) == c) {
+                    return children[i];
+                }
+            }
+            return null;
+        }
+
+        void addChild(Node child) {
+            Node[] newChildren = new Node[children.length + 1];
+            System.arraycopy(children, 0, newChildren, 0, children.length);
+            newChildren[children.length] = child;
+            children = newChildren;
+        }
+
+        void replaceChild(Node oldChild, Node newChild) {
+            for (int i = 0; i < children.length; i++) {
+                if (children[i] == oldChild) {
+                    children[i] = newChild;
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Build a router from the given table.
+     *
+     * @param httpLocationTable a map of HTTP method + httpLocation constant to
+     *                          {@link AxisOperation}
+     */
+    public HTTPLocationRouter(Map<?, ?> httpLocationTable) {
+        this(httpLocationTable, 0);
+    }
+
+    /**
+     * Build a router from the given version of a table.
+     *
+     * @param httpLocationTable a map of HTTP method + httpLocation constant to
+     *                          {@link AxisOperation}
+     * @param version           the modification count of the table when it is read
+     */
+    public HTTPLocationRouter(Map<?, ?> httpLocationTable, int version) {
+        this.version = version;
+        for (Iterator<? extends Map.Entry<?, ?>> it = httpLocationTable.entrySet().iterator();
+                it.hasNext(); ) {
+            Map.Entry<?, ?> entry = it.next();
+            insert((String)entry.getKey(), (AxisOperation)entry.getValue());
+        }
+    }
+
+    private void insert(String key, AxisOperation operation) {
+        Node node = root;
+        int pos = 0;
+        while (pos < key.length()) {
+            Node child = node.getChild(key.charAt(pos));
+            if (child == null) {
+                Node leaf = new Node(key.substring(pos));
+                leaf.operation = operation;
+                node.addChild(leaf);
+                return;
+            }
+            String label = child.label;
+            int common = 0;
+            while (common < label.length() && pos + common < key.length()
+                    && label.charAt(common) == key.charAt(pos + common)) {
+                common++;
+            }
+            if (common < label.length()) {
+                // Split the edge
+                Node split = new Node(label.substring(0, common));
+                child.label = label.substring(common);
+                split.addChild(child);
+                node.replaceChild(child, split);
+                child = split;
+            }
+            node = child;
+            pos += common;
+        }
+        // Keep the first mapping if a key is (unexpectedly) inserted twice
+        if (node.operation == null) {
+            node.operation = operation;
+        }
+    }
+
+    /**
+     * Determine whether this router no longer reflects the table it was built from.
+     *
+     * @param version the current modification count of the table
+     * @return <code>true</code> if the router must be rebuilt
+     */
+    public boolean isStale(int version) {
+        return version != this.version;
+    }
+
+    /**
+     * Find the operation for a request. The request key is the HTTP method followed by the
+     * location, with a trailing '/' appended if the location doesn't end with one.
+     *
+     * @param httpMethod   the HTTP method of the request
+     * @param httpLocation the part of the request URL after the service name
+     * @return the operation with the longest matching key, or <code>null</code> if no key matches
+     */
+    public AxisOperation getOperation(String httpMethod, String httpLocation) {
+        String method = String.valueOf(httpMethod);
+        boolean appendSlash = !httpLocation.endsWith("/");
+        int length = method.length() + httpLocation.length() + (appendSlash ? 1 : 0);
+
+        AxisOperation match = root.operation;
+        Node node = root;
+        int pos = 0;
+        while (pos < length) {
+            Node child = node.getChild(charAt(method, httpLocation, pos));
+            if (child == null) {
+                break;
+            }
+            String label = child.label;
+            if (pos + label.length() > length) {
+                break;
+            }
+            for (int i = 1; i < label.length(); i++) {
+                if (label.charAt(i) != charAt(method, httpLocation, pos + i)) {
+                    return match;
+                }
+            }
+            pos += label.length();
+            node = child;
+            if (node.operation != null) {
+                match = node.operation;
+            }
+        }
+        return match;
+    }
+
+    private static char charAt(String method, String httpLocation, int pos) {
+        int methodLength = method.length();
+        if (pos < methodLength) {
+            return method.charAt(pos);
+        }
+        pos -= methodLength;
+        return pos < httpLocation.length() ? httpLocation.charAt(pos) : '/';
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.transport;
+
+import org.apache.axis2.context.MessageContext;
+
+/**
+ * A {@link TransportSender} that can perform a request-response exchange without blocking the
+ * sending thread until the response arrives.
+ * <p>
+ * For a non-blocking out-in invocation, the client sets a {@link ResponseCallback} as the
+ * {@link #RESPONSE_CALLBACK} property of the outgoing message context. {@link #invoke(MessageContext)}
+ * then returns as soon as the request has been handed over to the transport. Once the response is
+ * available, the transport sets the response properties (in particular
+ * {@link MessageContext#TRANSPORT_IN}) exactly as it would for a blocking invocation and notifies
+ * the callback, typically from one of its I/O threads.
+ */
+public interface NonBlockingTransportSender extends TransportSender {
+    /**
+     * The message context property holding the {@link ResponseCallback} of a non-blocking
+     * invocation.
+     */
+    String RESPONSE_CALLBACK = "NonBlockingTransportSender.ResponseCallback";
+
+    /**
+     * Receives the outcome of a non-blocking invocation. Exactly one of the methods is called.
+     */
+    interface ResponseCallback {
+        /**
+         * Called when the response has been received and the response properties have been set.
+         */
+        void onResponse();
+
+        /**
+         * Called if the request could not be sent or no response was received.
+         *
+         * @param e the cause of the failure
+         */
+        void onError(Exception e);
+    }
+
+    /**
+     * Check whether the given message can be sent without blocking. If this method returns
+     * <code>false</code>, the client falls back to a blocking invocation on a separate thread.
+     *
+     * @param msgContext the outgoing message context
+     * @return <code>true</code> if the message can be sent using a {@link ResponseCallback}
+     */
+    boolean isNonBlocking(MessageContext msgContext);
+}
@@ -482,6 +482,12 @@ public class HTTPConstants {
      */
     public static final String MC_GZIP_REQUEST = "transport.http.gzipRequest";
 
+    /**
+     * The size in bytes above which a request body that is not sent chunked is buffered in a
+     * temporary file instead of memory. By default it is always buffered in memory.
+     */
+    public static final String MC_REQUEST_BUFFER_THRESHOLD = "transport.http.requestBufferThreshold";
+
     /* by default the HTTP response body is not compressed. set this message
     * context property to true to have the response body gzip compressed.
     */
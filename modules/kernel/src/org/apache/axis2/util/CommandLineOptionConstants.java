@@ -30,6 +30,8 @@ public interface CommandLineOptionConstants {
         String CODEGEN_ASYNC_ONLY_OPTION_LONG = "async";
         String CODEGEN_SYNC_ONLY_OPTION = "s";
         String CODEGEN_SYNC_ONLY_OPTION_LONG = "sync";
+        String CODEGEN_ASYNC_FUTURE_OPTION = "af";
+        String CODEGEN_ASYNC_FUTURE_OPTION_LONG = "async-future";
         String DATA_BINDING_TYPE_OPTION = "d";
         String DATA_BINDING_TYPE_OPTION_LONG = "databinding-method";
         String EXTERNAL_MAPPING_OPTION = "em";
@@ -30,26 +30,60 @@ import java.security.PrivilegedActionException;
 import java.security.PrivilegedExceptionAction;
 import java.util.concurrent.Executor;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
 import java.util.concurrent.SynchronousQueue;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * This the thread pool for axis2. This class will be used a singleton
  * across axis2 engine. <code>ThreadPool</code> is accepts <code>AxisWorkers</code> which has
  * run method on them and execute this method, using one of the threads
  * in the thread pool.
+ * <p>
+ * Unlike a plain {@link ThreadPoolExecutor}, the pool first grows from the core size up to the
+ * maximum size and only starts queueing once all threads are busy. The queue may be bounded, in
+ * which case the configured rejection policy decides what happens to work that does not fit
+ * (see {@link #REJECTION_POLICY_ABORT}, {@link #REJECTION_POLICY_CALLER_RUNS} and
+ * {@link #REJECTION_POLICY_DISCARD}).
  */
 public class ThreadPool implements ThreadFactory {
     private static final Log log = LogFactory.getLog(ThreadPool.class);
     protected static long SLEEP_INTERVAL = 1000;
-    private static boolean shutDown;
+
+    /**
+     * Rejection policy that throws a {@link RejectedExecutionException} to the submitter.
+     */
+    public static final String REJECTION_POLICY_ABORT = "abort";
+
+    /**
+     * Rejection policy that runs the task in the submitting thread. This throttles the
+     * producers and is the usual way to apply backpressure.
+     */
+    public static final String REJECTION_POLICY_CALLER_RUNS = "callerRuns";
+
+    /**
+     * Rejection policy that silently drops the task (a warning is logged).
+     */
+    public static final String REJECTION_POLICY_DISCARD = "discard";
+
+    private volatile boolean shutDown;
     protected ThreadPoolExecutor executor;
 
     //integers that define the pool size, with the default values set.
     private int corePoolSize = 5;
     //max pool size is set to 100 to control the maximum number of threads created
     private int maxPoolSize = 100;
+    //capacity of the work queue; Integer.MAX_VALUE means unbounded
+    private int queueCapacity = Integer.MAX_VALUE;
+    private long keepAliveTime = 10000;
+    private boolean allowCoreThreadTimeOut = false;
+    private String rejectionPolicy = REJECTION_POLICY_ABORT;
+
+    private final AtomicLong rejectedCount = new AtomicLong();
 
     public ThreadPool() {
         setExecutor(createDefaultExecutor("Axis2 Task", Thread.NORM_PRIORITY, true));
@@ -61,6 +95,49 @@ public class ThreadPool implements ThreadFactory {
         setExecutor(createDefaultExecutor("Axis2 Task", Thread.NORM_PRIORITY, true));
     }
 
+    /**
+     * Creates a thread pool with full control over its sizing and overload behavior.
+     *
+     * @param corePoolSize           the number of threads kept when the pool is idle (unless
+     *                               <code>allowCoreThreadTimeOut</code> is set)
+     * @param maxPoolSize            the maximum number of threads
+     * @param queueCapacity          the maximum number of tasks waiting for a thread once all
+     *                               threads are busy; use <code>Integer.MAX_VALUE</code> for an
+     *                               unbounded queue
+     * @param keepAliveTime          time in milliseconds an idle thread is kept alive
+     * @param allowCoreThreadTimeOut whether core threads are also released when idle
+     * @param rejectionPolicy        one of {@link #REJECTION_POLICY_ABORT},
+     *                               {@link #REJECTION_POLICY_CALLER_RUNS} or
+     *                               {@link #REJECTION_POLICY_DISCARD}, or <code>null</code> for
+     *                               {@link #REJECTION_POLICY_ABORT}
+     * @throws IllegalArgumentException if a size is out of range or the rejection policy is
+     *                                  unknown
+     */
+    public ThreadPool(int corePoolSize, int maxPoolSize, int queueCapacity, long keepAliveTime,
+                      boolean allowCoreThreadTimeOut, String rejectionPolicy) {
+        if (corePoolSize < 0 || maxPoolSize <= 0 || maxPoolSize < corePoolSize
+                || queueCapacity <= 0 || keepAliveTime < 0) {
+            throw new IllegalArgumentException(Messages.getMessage("threadpoolinvalidconfig",
+                    String.valueOf(corePoolSize), String.valueOf(maxPoolSize),
+                    String.valueOf(queueCapacity)));
+        }
+        if (rejectionPolicy != null && !REJECTION_POLICY_ABORT.equals(rejectionPolicy)
+                && !REJECTION_POLICY_CALLER_RUNS.equals(rejectionPolicy)
+                && !REJECTION_POLICY_DISCARD.equals(rejectionPolicy)) {
+            throw new IllegalArgumentException(Messages.getMessage(
+                    "threadpoolinvalidrejectionpolicy", rejectionPolicy));
+        }
+        this.corePoolSize = corePoolSize;
+        this.maxPoolSize = maxPoolSize;
+        this.queueCapacity = queueCapacity;
+        this.keepAliveTime = keepAliveTime;
+        this.allowCoreThreadTimeOut = allowCoreThreadTimeOut;
+        if (rejectionPolicy != null) {
+            this.rejectionPolicy = rejectionPolicy;
+        }
+        setExecutor(createDefaultExecutor("Axis2 Task", Thread.NORM_PRIORITY, true));
+    }
+
     public Executor getExecutor() {
         return executor;
     }
@@ -76,6 +153,77 @@ public class ThreadPool implements ThreadFactory {
         executor.execute(worker);
     }
 
+    /**
+     * Returns the number of tasks waiting for a thread.
+     *
+     * @return the current queue depth
+     */
+    public int getQueueSize() {
+        return executor.getQueue().size();
+    }
+
+    /**
+     * Returns the approximate number of threads that are actively executing tasks.
+     *
+     * @return the number of active threads
+     */
+    public int getActiveCount() {
+        return executor.getActiveCount();
+    }
+
+    /**
+     * Returns the current number of threads in the pool.
+     *
+     * @return the number of threads
+     */
+    public int getPoolSize() {
+        return executor.getPoolSize();
+    }
+
+    /**
+     * Returns the largest number of threads that have ever simultaneously been in the pool.
+     *
+     * @return the peak number of threads
+     */
+    public int getLargestPoolSize() {
+        return executor.getLargestPoolSize();
+    }
+
+    /**
+     * Returns the approximate number of tasks that have completed execution.
+     *
+     * @return the number of completed tasks
+     */
+    public long getCompletedTaskCount() {
+        return executor.getCompletedTaskCount();
+    }
+
+    /**
+     * Returns the number of tasks that could not be accepted by the pool because both the
+     * threads and the queue were saturated, regardless of the rejection policy applied.
+     *
+     * @return the number of rejected tasks
+     */
+    public long getRejectedCount() {
+        return rejectedCount.get();
+    }
+
+    public int getCorePoolSize() {
+        return corePoolSize;
+    }
+
+    public int getMaxPoolSize() {
+        return maxPoolSize;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public String getRejectionPolicy() {
+        return rejectionPolicy;
+    }
+
     /**
      * A forceful shutdown mechanism for thread pool.
      */
@@ -106,19 +254,117 @@ public class ThreadPool implements ThreadFactory {
                                                        final boolean daemon) {
         ThreadPoolExecutor rc;
         if (maxPoolSize == Integer.MAX_VALUE) {
-            rc = new ThreadPoolExecutor(corePoolSize, maxPoolSize, 10,
-                    TimeUnit.SECONDS, new SynchronousQueue(),
+            rc = new ThreadPoolExecutor(corePoolSize, maxPoolSize, keepAliveTime,
+                    TimeUnit.MILLISECONDS, new SynchronousQueue<Runnable>(),
                     new DefaultThreadFactory(name, daemon, priority));
         } else {
-            rc = new ThreadPoolExecutor(corePoolSize, maxPoolSize, 10,
-                    TimeUnit.SECONDS, new LinkedBlockingQueue(),
-                    new DefaultThreadFactory(name, daemon, priority));
+            ElasticTaskQueue queue = new ElasticTaskQueue(queueCapacity);
+            ElasticExecutor elasticExecutor = new ElasticExecutor(corePoolSize, maxPoolSize,
+                    keepAliveTime, queue, new DefaultThreadFactory(name, daemon, priority));
+            queue.setExecutor(elasticExecutor);
+            rc = elasticExecutor;
+        }
+        rc.setRejectedExecutionHandler(new OverloadHandler());
+        if (corePoolSize > 0 && keepAliveTime > 0) {
+            rc.allowCoreThreadTimeOut(allowCoreThreadTimeOut);
         }
-// FIXME: This API is only in JDK 1.6 - Use reflection?        
-//        rc.allowCoreThreadTimeOut(true);
         return rc;
     }
 
+    /**
+     * Executor that keeps track of the tasks that have been submitted but not yet completed, so
+     * that {@link ElasticTaskQueue} can tell whether an idle thread is available.
+     */
+    private static class ElasticExecutor extends ThreadPoolExecutor {
+        private final AtomicInteger submittedCount = new AtomicInteger();
+
+        public ElasticExecutor(int corePoolSize, int maxPoolSize, long keepAliveTime,
+                               ElasticTaskQueue queue,
+                               java.util.concurrent.ThreadFactory threadFactory) {
+            super(corePoolSize, maxPoolSize, keepAliveTime, TimeUnit.MILLISECONDS, queue,
+                    threadFactory);
+        }
+
+        int getSubmittedCount() {
+            return submittedCount.get();
+        }
+
+        void taskDropped() {
+            submittedCount.decrementAndGet();
+        }
+
+        public void execute(Runnable command) {
+            submittedCount.incrementAndGet();
+            super.execute(command);
+        }
+
+        protected void afterExecute(Runnable r, Throwable t) {
+            submittedCount.decrementAndGet();
+        }
+    }
+
+    /**
+     * Work queue that makes the executor prefer creating new threads (up to the maximum pool
+     * size) over queueing. {@link ThreadPoolExecutor} only adds threads beyond the core size when
+     * the queue refuses an offer, so this queue refuses offers while there are fewer threads than
+     * the maximum and none of them is idle. Tasks refused that way are put back on the queue by
+     * {@link OverloadHandler} if the executor turns out to be unable to create a thread.
+     */
+    private static class ElasticTaskQueue extends LinkedBlockingQueue<Runnable> {
+        private static final long serialVersionUID = 1L;
+
+        private transient volatile ElasticExecutor executor;
+
+        public ElasticTaskQueue(int capacity) {
+            super(capacity);
+        }
+
+        void setExecutor(ElasticExecutor executor) {
+            this.executor = executor;
+        }
+
+        boolean force(Runnable task) {
+            return super.offer(task);
+        }
+
+        public boolean offer(Runnable task) {
+            ElasticExecutor executor = this.executor;
+            if (executor != null) {
+                int poolSize = executor.getPoolSize();
+                if (poolSize < executor.getMaximumPoolSize()
+                        && executor.getSubmittedCount() > poolSize) {
+                    return false;
+                }
+            }
+            return super.offer(task);
+        }
+    }
+
+    private class OverloadHandler implements RejectedExecutionHandler {
+        public void rejectedExecution(Runnable task, ThreadPoolExecutor executor) {
+            if (!executor.isShutdown() && executor.getQueue() instanceof ElasticTaskQueue
+                    && ((ElasticTaskQueue)executor.getQueue()).force(task)) {
+                // The queue refused the task only to get a new thread created, but the pool is
+                // already at its maximum size; the task simply waits for a free thread.
+                return;
+            }
+            if (executor instanceof ElasticExecutor) {
+                ((ElasticExecutor)executor).taskDropped();
+            }
+            rejectedCount.incrementAndGet();
+            if (executor.isShutdown()) {
+                throw new RejectedExecutionException(Messages.getMessage("threadpoolshutdown"));
+            }
+            if (REJECTION_POLICY_CALLER_RUNS.equals(rejectionPolicy)) {
+                task.run();
+            } else if (REJECTION_POLICY_DISCARD.equals(rejectionPolicy)) {
+                log.warn(Messages.getMessage("threadpooltaskdiscarded"));
+            } else {
+                throw new RejectedExecutionException(Messages.getMessage("threadpoolsaturated"));
+            }
+        }
+    }
+
     private static class DefaultThreadFactory implements java.util.concurrent.ThreadFactory {
         private final String name;
         private final boolean daemon;
@@ -0,0 +1,100 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.util.threadpool;
+
+import org.apache.axis2.i18n.Messages;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * {@link ThreadFactory} that runs every task in its own virtual thread. Since virtual threads
+ * are cheap to create and do not pin a platform thread while blocked on I/O, the number of
+ * concurrently executing tasks is not limited by a pool size. Use {@link #newInstance(String)}
+ * to create an instance; it returns <code>null</code> on JVMs without virtual threads.
+ */
+public class VirtualThreadPool implements ThreadFactory {
+    private static final Log log = LogFactory.getLog(VirtualThreadPool.class);
+
+    private final ExecutorService executor;
+    private final AtomicInteger activeCount = new AtomicInteger();
+    private volatile boolean shutDown;
+
+    private VirtualThreadPool(ExecutorService executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Create a new virtual thread pool.
+     *
+     * @param name the prefix for the names of the threads
+     * @return the pool, or <code>null</code> if the JVM doesn't support virtual threads
+     */
+    public static VirtualThreadPool newInstance(String name) {
+        ExecutorService executor = VirtualThreads.newThreadPerTaskExecutor(name + "-");
+        return executor == null ? null : new VirtualThreadPool(executor);
+    }
+
+    public void execute(final Runnable worker) {
+        if (shutDown) {
+            throw new RuntimeException(Messages.getMessage("threadpoolshutdown"));
+        }
+        executor.execute(new Runnable() {
+            public void run() {
+                activeCount.incrementAndGet();
+                try {
+                    worker.run();
+                } finally {
+                    activeCount.decrementAndGet();
+                }
+            }
+        });
+    }
+
+    /**
+     * Returns the number of tasks currently executing.
+     *
+     * @return the number of active tasks
+     */
+    public int getActiveCount() {
+        return activeCount.get();
+    }
+
+    /**
+     * A forceful shutdown mechanism for thread pool.
+     */
+    public void forceShutDown() {
+        if (log.isDebugEnabled()) {
+            log.debug("forceShutDown called. Thread workers will be stopped");
+        }
+        shutDown = true;
+        executor.shutdownNow();
+    }
+
+    /**
+     * Stop accepting new tasks; tasks that have already been submitted run to completion.
+     */
+    public void safeShutDown() {
+        shutDown = true;
+        executor.shutdown();
+    }
+}
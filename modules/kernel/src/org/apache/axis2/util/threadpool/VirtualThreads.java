@@ -0,0 +1,119 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.util.threadpool;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Gives access to the virtual threads of JDK 21 and later. Axis2 is built for older Java
+ * versions, so the relevant APIs are looked up reflectively; on older JDKs
+ * {@link #isSupported()} returns <code>false</code> and callers are expected to fall back to a
+ * platform thread pool.
+ */
+public final class VirtualThreads {
+    private static final Log log = LogFactory.getLog(VirtualThreads.class);
+
+    private static final Method ofVirtualMethod;
+    private static final Method nameMethod;
+    private static final Method factoryMethod;
+    private static final Method newThreadPerTaskExecutorMethod;
+
+    static {
+        Method ofVirtual = null;
+        Method name = null;
+        Method factory = null;
+        Method newThreadPerTaskExecutor = null;
+        try {
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            ofVirtual = Thread.class.getMethod("ofVirtual");
+            name = builderClass.getMethod("name", String.class, long.class);
+            factory = builderClass.getMethod("factory");
+            newThreadPerTaskExecutor = java.util.concurrent.Executors.class.getMethod(
+                    "newThreadPerTaskExecutor", java.util.concurrent.ThreadFactory.class);
+            // Virtual threads are a preview feature in JDK 19 and 20; make sure they can
+            // actually be created before reporting them as supported.
+            factory.invoke(ofVirtual.invoke(null));
+        } catch (Throwable ex) {
+            if (log.isDebugEnabled()) {
+                log.debug("Virtual threads are not available in this JVM: " + ex);
+            }
+            ofVirtual = null;
+        }
+        ofVirtualMethod = ofVirtual;
+        nameMethod = name;
+        factoryMethod = factory;
+        newThreadPerTaskExecutorMethod = newThreadPerTaskExecutor;
+    }
+
+    private VirtualThreads() {}
+
+    /**
+     * Determine whether the JVM supports virtual threads.
+     *
+     * @return <code>true</code> if virtual threads can be created
+     */
+    public static boolean isSupported() {
+        return ofVirtualMethod != null;
+    }
+
+    /**
+     * Create a thread factory that creates virtual threads named <code>namePrefix</code>
+     * followed by a sequence number.
+     *
+     * @param namePrefix the prefix for the thread names
+     * @return the thread factory, or <code>null</code> if virtual threads are not supported
+     */
+    public static java.util.concurrent.ThreadFactory newThreadFactory(String namePrefix) {
+        if (!isSupported()) {
+            return null;
+        }
+        try {
+            Object builder = ofVirtualMethod.invoke(null);
+            builder = nameMethod.invoke(builder, namePrefix, Long.valueOf(0));
+            return (java.util.concurrent.ThreadFactory)factoryMethod.invoke(builder);
+        } catch (Exception ex) {
+            log.warn("Unable to create virtual thread factory", ex);
+            return null;
+        }
+    }
+
+    /**
+     * Create an executor that starts a new virtual thread for each task.
+     *
+     * @param namePrefix the prefix for the thread names
+     * @return the executor, or <code>null</code> if virtual threads are not supported
+     */
+    public static ExecutorService newThreadPerTaskExecutor(String namePrefix) {
+        java.util.concurrent.ThreadFactory threadFactory = newThreadFactory(namePrefix);
+        if (threadFactory == null) {
+            return null;
+        }
+        try {
+            return (ExecutorService)newThreadPerTaskExecutorMethod.invoke(null, threadFactory);
+        } catch (Exception ex) {
+            log.warn("Unable to create virtual thread executor", ex);
+            return null;
+        }
+    }
+}
@@ -0,0 +1,232 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.deployment;
+
+import junit.framework.TestCase;
+import org.apache.axis2.context.ConfigurationContext;
+import org.apache.axis2.context.ConfigurationContextFactory;
+import org.apache.axis2.deployment.repository.util.DeploymentFileData;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Tests class and resource loading from jars embedded in the lib directory of an archive. The
+ * archive has more than 50 embedded jars. {@link #testBenchmark()} times the deployment of the
+ * archive and the lookups on request.
+ */
+public class DeploymentClassLoaderTest extends TestCase {
+    private static final Log log = LogFactory.getLog(DeploymentClassLoaderTest.class);
+
+    private static final int JARS = 60;
+    private static final int ENTRIES_PER_JAR = 200;
+    private static final String CLASS_RESOURCE =
+            ExcludeService.class.getName().replace('.', '/') + ".class";
+
+    private File archive;
+    private List<String> embeddedJars;
+
+    protected void setUp() throws Exception {
+        archive = File.createTempFile("service", ".aar");
+        embeddedJars = new ArrayList<String>();
+        ZipOutputStream out = new ZipOutputStream(new FileOutputStream(archive));
+        try {
+            out.putNextEntry(new ZipEntry("META-INF/services.xml"));
+            out.write(("<service name=\"BenchmarkService\">"
+                    + "<parameter name=\"ServiceClass\">" + ExcludeService.class.getName()
+                    + "</parameter><operation name=\"add\"><messageReceiver class=\""
+                    + "org.apache.axis2.receivers.RawXMLINOutMessageReceiver\"/></operation>"
+                    + "</service>").getBytes("UTF-8"));
+            for (int i = 0; i < JARS; i++) {
+                String name = "lib/lib" + i + ".jar";
+                embeddedJars.add(name);
+                out.putNextEntry(new ZipEntry(name));
+                out.write(createJar(i));
+            }
+        } finally {
+            out.close();
+        }
+    }
+
+    protected void tearDown() throws Exception {
+        archive.delete();
+    }
+
+    private byte[] createJar(int jar) throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        ZipOutputStream out = new ZipOutputStream(baos);
+        for (int i = 0; i < ENTRIES_PER_JAR; i++) {
+            out.putNextEntry(new ZipEntry("org/example/lib" + jar + "/Resource" + i + ".txt"));
+            out.write(("jar " + jar + " entry " + i).getBytes("UTF-8"));
+        }
+        out.putNextEntry(new ZipEntry("META-INF/shared.properties"));
+        out.write(("jar=" + jar).getBytes("UTF-8"));
+        if (jar == JARS - 1) {
+            ZipEntry entry = new ZipEntry(CLASS_RESOURCE);
+            entry.setMethod(ZipEntry.STORED);
+            byte[] classBytes = getClassBytes();
+            entry.setSize(classBytes.length);
+            java.util.zip.CRC32 crc = new java.util.zip.CRC32();
+            crc.update(classBytes);
+            entry.setCrc(crc.getValue());
+            out.putNextEntry(entry);
+            out.write(classBytes);
+        }
+        out.close();
+        return baos.toByteArray();
+    }
+
+    private static byte[] getClassBytes() throws IOException {
+        InputStream in = DeploymentClassLoaderTest.class.getClassLoader()
+                .getResourceAsStream(CLASS_RESOURCE);
+        try {
+            return IOUtils.toByteArray(in);
+        } finally {
+            in.close();
+        }
+    }
+
+    private DeploymentClassLoader createClassLoader() throws Exception {
+        return new DeploymentClassLoader(new URL[] { archive.toURI().toURL() }, embeddedJars,
+                DeploymentClassLoaderTest.class.getClassLoader(), true);
+    }
+
+    private static String read(URL url) throws IOException {
+        InputStream in = url.openStream();
+        try {
+            return new String(IOUtils.toByteArray(in), "UTF-8");
+        } finally {
+            in.close();
+        }
+    }
+
+    public void testFindResource() throws Exception {
+        DeploymentClassLoader loader = createClassLoader();
+        URL url = loader.findResource("org/example/lib42/Resource7.txt");
+        assertNotNull(url);
+        assertEquals("jar 42 entry 7", read(url));
+
+        for (int jar = 0; jar < JARS; jar++) {
+            for (int i = 0; i < ENTRIES_PER_JAR; i += 10) {
+                url = loader.findResource("org/example/lib" + jar + "/Resource" + i + ".txt");
+                assertNotNull(url);
+            }
+        }
+        assertEquals("jar 7 entry 30",
+                read(loader.findResource("org/example/lib7/Resource30.txt")));
+
+        for (int i = 0; i < 100; i++) {
+            assertNull(loader.findResource("org/example/Missing" + i + ".txt"));
+        }
+    }
+
+    public void testFindResourceBySuffix() throws Exception {
+        DeploymentClassLoader loader = createClassLoader();
+        URL url = loader.findResource("lib3/Resource5.txt");
+        assertNotNull(url);
+        assertEquals("jar 3 entry 5", read(url));
+    }
+
+    public void testFindResources() throws Exception {
+        DeploymentClassLoader loader = createClassLoader();
+        List<?> urls = Collections.list(loader.findResources("META-INF/shared.properties"));
+        assertEquals(JARS, urls.size());
+        for (int i = 0; i < JARS; i++) {
+            assertEquals("jar=" + i, read((URL)urls.get(i)));
+        }
+        assertFalse(loader.findResources("META-INF/missing.properties").hasMoreElements());
+    }
+
+    public void testLoadClassFromEmbeddedJar() throws Exception {
+        DeploymentClassLoader loader = createClassLoader();
+        Class<?> clazz = loader.loadClass(ExcludeService.class.getName());
+        assertSame(loader, clazz.getClassLoader());
+        assertNotSame(ExcludeService.class, clazz);
+        try {
+            loader.loadClass("org.example.Missing");
+            fail("Expected ClassNotFoundException");
+        } catch (ClassNotFoundException ex) {
+            // Expected
+        }
+    }
+
+    /**
+     * Times a real deployment of the archive by {@link ServiceDeployer}, which extracts the
+     * embedded jars, and the lookups through the index of the embedded jars, which is used when
+     * they can't be extracted. Only run if the run.deployment.benchmarks system property is set to
+     * true.
+     */
+    public void testBenchmark() throws Exception {
+        if (!Boolean.getBoolean("run.deployment.benchmarks")) {
+            return;
+        }
+        // The first round warms up the JIT
+        for (int round = 0; round < 2; round++) {
+            ConfigurationContext configContext =
+                    ConfigurationContextFactory.createEmptyConfigurationContext();
+            ServiceDeployer deployer = new ServiceDeployer();
+            deployer.init(configContext);
+            long start = System.nanoTime();
+            new DeploymentFileData(archive, deployer).deploy();
+            long deployTime = System.nanoTime() - start;
+            assertNotNull(configContext.getAxisConfiguration().getService("BenchmarkService"));
+            configContext.terminate();
+
+            start = System.nanoTime();
+            DeploymentClassLoader loader = createClassLoader();
+            loader.loadClass(ExcludeService.class.getName());
+            long firstLookupTime = System.nanoTime() - start;
+            start = System.nanoTime();
+            int hits = 0;
+            for (int jar = 0; jar < JARS; jar++) {
+                for (int i = 0; i < ENTRIES_PER_JAR; i += 10) {
+                    assertNotNull(loader.findResource("org/example/lib" + jar + "/Resource" + i
+                            + ".txt"));
+                    hits++;
+                }
+            }
+            long hitTime = System.nanoTime() - start;
+            start = System.nanoTime();
+            for (int i = 0; i < 100; i++) {
+                assertNull(loader.findResource("org/example/Missing" + i + ".txt"));
+            }
+            long missTime = System.nanoTime() - start;
+
+            if (round == 1) {
+                log.info("Archive with " + JARS + " embedded jars: deployment "
+                        + deployTime / 1000000 + " ms; without extraction: first lookup "
+                        + firstLookupTime / 1000000 + " ms, " + hits + " hits "
+                        + hitTime / 1000000 + " ms, 100 misses " + missTime / 1000000 + " ms");
+            }
+        }
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.deployment.scheduler;
+
+import junit.framework.TestCase;
+import org.apache.axis2.AbstractTestCase;
+import org.apache.commons.io.FileUtils;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.util.Collections;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+public class RepositoryWatcherTest extends TestCase {
+    private static class CountingTask extends SchedulerTask {
+        final Semaphore runs = new Semaphore(0);
+
+        CountingTask() {
+            super(null, null);
+        }
+
+        public void run() {
+            runs.release();
+        }
+    }
+
+    private File repo;
+
+    protected void setUp() throws Exception {
+        repo = new File(AbstractTestCase.basedir, "target/test-repository-watcher");
+        FileUtils.deleteDirectory(repo);
+        repo.mkdirs();
+    }
+
+    public void testChangesAreDebounced() throws Exception {
+        CountingTask task = new CountingTask();
+        RepositoryWatcher watcher = RepositoryWatcher.start(Collections.singletonList(repo),
+                task, 500);
+        if (watcher == null) {
+            // The WatchService API is not available on this platform
+            return;
+        }
+        try {
+            new FileOutputStream(new File(repo, "a.aar")).close();
+            new FileOutputStream(new File(repo, "b.aar")).close();
+            assertTrue(task.runs.tryAcquire(10, TimeUnit.SECONDS));
+            assertFalse(task.runs.tryAcquire(1, TimeUnit.SECONDS));
+
+            // Changes in a new sub directory are detected as well
+            File exploded = new File(repo, "exploded");
+            exploded.mkdir();
+            assertTrue(task.runs.tryAcquire(10, TimeUnit.SECONDS));
+            new FileOutputStream(new File(exploded, "services.xml")).close();
+            assertTrue(task.runs.tryAcquire(10, TimeUnit.SECONDS));
+        } finally {
+            watcher.stop();
+        }
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.dispatchers;
+
+import junit.framework.TestCase;
+import org.apache.axis2.Constants;
+import org.apache.axis2.description.AxisBinding;
+import org.apache.axis2.description.AxisOperation;
+import org.apache.axis2.description.InOutAxisOperation;
+import org.apache.axis2.description.WSDL2Constants;
+import org.apache.axis2.wsdl.WSDLUtil;
+
+import javax.xml.namespace.QName;
+import java.util.HashMap;
+import java.util.Map;
+
+public class HTTPLocationRouterTest extends TestCase {
+    private final AxisOperation getStock = new InOutAxisOperation(new QName("getStock"));
+    private final AxisOperation getStockValue = new InOutAxisOperation(new QName("getStockValue"));
+    private final AxisOperation addStock = new InOutAxisOperation(new QName("addStock"));
+    private final AxisOperation query = new InOutAxisOperation(new QName("query"));
+
+    private Map<String, AxisOperation> createTable() {
+        Map<String, AxisOperation> table = new HashMap<String, AxisOperation>();
+        table.put(WSDLUtil.getConstantFromHTTPLocation("stock/{name}",
+                Constants.Configuration.HTTP_METHOD_GET), getStock);
+        table.put(WSDLUtil.getConstantFromHTTPLocation("stock/value/{name}",
+                Constants.Configuration.HTTP_METHOD_GET), getStockValue);
+        table.put(WSDLUtil.getConstantFromHTTPLocation("stock/{name}",
+                Constants.Configuration.HTTP_METHOD_POST), addStock);
+        table.put(WSDLUtil.getConstantFromHTTPLocation("?q={query}",
+                Constants.Configuration.HTTP_METHOD_GET), query);
+        return table;
+    }
+
+    public void testLongestPrefixMatch() {
+        HTTPLocationRouter router = new HTTPLocationRouter(createTable());
+        assertSame(getStock, router.getOperation("GET", "/stock/IBM"));
+        assertSame(getStockValue, router.getOperation("GET", "/stock/value/IBM"));
+        assertSame(getStock, router.getOperation("GET", "/stock/valuation"));
+        assertSame(addStock, router.getOperation("POST", "/stock/IBM"));
+        assertSame(query, router.getOperation("GET", "?q=IBM"));
+    }
+
+    public void testTrailingSlash() {
+        HTTPLocationRouter router = new HTTPLocationRouter(createTable());
+        assertSame(getStock, router.getOperation("GET", "/stock"));
+        assertSame(getStockValue, router.getOperation("GET", "/stock/value"));
+    }
+
+    public void testNoMatch() {
+        HTTPLocationRouter router = new HTTPLocationRouter(createTable());
+        assertNull(router.getOperation("GET", "/quote/IBM"));
+        assertNull(router.getOperation("DELETE", "/stock/IBM"));
+        assertNull(router.getOperation("GE", "/"));
+        assertNull(router.getOperation(null, "/stock/IBM"));
+    }
+
+    public void testRebuiltWhenTableChanges() {
+        AxisBinding binding = new AxisBinding();
+        Map<String, AxisOperation> table = createTable();
+        binding.setProperty(WSDL2Constants.HTTP_LOCATION_TABLE, table);
+        HTTPLocationRouter router = binding.getHTTPLocationRouter();
+        assertSame(router, binding.getHTTPLocationRouter());
+        assertSame(getStock, router.getOperation("GET", "/stock/IBM"));
+
+        table.values().remove(getStock);
+        binding.httpLocationTableChanged();
+        router = binding.getHTTPLocationRouter();
+        assertNull(router.getOperation("GET", "/stock/IBM"));
+        assertSame(getStockValue, router.getOperation("GET", "/stock/value/IBM"));
+
+        Map<String, AxisOperation> newTable = new HashMap<String, AxisOperation>();
+        newTable.put("GET/", query);
+        binding.setProperty(WSDL2Constants.HTTP_LOCATION_TABLE, newTable);
+        assertSame(query, binding.getHTTPLocationRouter().getOperation("GET", "/stock/IBM"));
+    }
+
+    public void testRebuiltWhenMappingReplaced() {
+        AxisBinding binding = new AxisBinding();
+        Map<String, AxisOperation> table = createTable();
+        binding.setProperty(WSDL2Constants.HTTP_LOCATION_TABLE, table);
+        assertSame(getStock, binding.getHTTPLocationRouter().getOperation("GET", "/stock/IBM"));
+
+        // same size, different mapping
+        table.put(WSDLUtil.getConstantFromHTTPLocation("stock/{name}",
+                Constants.Configuration.HTTP_METHOD_GET), getStockValue);
+        binding.httpLocationTableChanged();
+        assertSame(getStockValue,
+                binding.getHTTPLocationRouter().getOperation("GET", "/stock/IBM"));
+    }
+}
@@ -0,0 +1,165 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.util.threadpool;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import junit.framework.TestCase;
+
+import org.apache.axis2.Constants;
+import org.apache.axis2.context.ConfigurationContext;
+import org.apache.axis2.context.ConfigurationContextFactory;
+import org.apache.axis2.description.Parameter;
+
+public class ThreadPoolTest extends TestCase {
+    private static class BlockingWorker implements Runnable {
+        private final CountDownLatch started;
+        private final CountDownLatch release;
+
+        BlockingWorker(CountDownLatch started, CountDownLatch release) {
+            this.started = started;
+            this.release = release;
+        }
+
+        public void run() {
+            started.countDown();
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static class FlagWorker implements Runnable {
+        private volatile boolean workDone;
+
+        public void run() {
+            workDone = true;
+        }
+
+        public boolean isWorkDone() {
+            return workDone;
+        }
+    }
+
+    public void testGrowsBeyondCoreSizeBeforeQueueing() throws Exception {
+        ThreadPool pool = new ThreadPool(1, 4, 10, 1000, false,
+                ThreadPool.REJECTION_POLICY_ABORT);
+        CountDownLatch started = new CountDownLatch(4);
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            for (int i = 0; i < 4; i++) {
+                pool.execute(new BlockingWorker(started, release));
+            }
+            assertTrue(started.await(10, TimeUnit.SECONDS));
+            assertEquals(4, pool.getPoolSize());
+            assertEquals(4, pool.getActiveCount());
+            assertEquals(0, pool.getQueueSize());
+
+            pool.execute(new FlagWorker());
+            assertEquals(1, pool.getQueueSize());
+        } finally {
+            release.countDown();
+            pool.forceShutDown();
+        }
+    }
+
+    public void testAbortWhenSaturated() throws Exception {
+        ThreadPool pool = new ThreadPool(1, 1, 1, 1000, false,
+                ThreadPool.REJECTION_POLICY_ABORT);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            pool.execute(new BlockingWorker(started, release));
+            assertTrue(started.await(10, TimeUnit.SECONDS));
+            pool.execute(new FlagWorker());
+            try {
+                pool.execute(new FlagWorker());
+                fail("Expected RejectedExecutionException");
+            } catch (RejectedExecutionException ex) {
+                // Expected
+            }
+            assertEquals(1, pool.getRejectedCount());
+        } finally {
+            release.countDown();
+            pool.forceShutDown();
+        }
+    }
+
+    public void testCallerRunsWhenSaturated() throws Exception {
+        ThreadPool pool = new ThreadPool(1, 1, 1, 1000, false,
+                ThreadPool.REJECTION_POLICY_CALLER_RUNS);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            pool.execute(new BlockingWorker(started, release));
+            assertTrue(started.await(10, TimeUnit.SECONDS));
+            pool.execute(new FlagWorker());
+            FlagWorker worker = new FlagWorker();
+            pool.execute(worker);
+            assertTrue(worker.isWorkDone());
+            assertEquals(1, pool.getRejectedCount());
+        } finally {
+            release.countDown();
+            pool.forceShutDown();
+        }
+    }
+
+    public void testInvalidConfiguration() {
+        try {
+            new ThreadPool(10, 5, 100, 1000, false, null);
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException ex) {
+            // Expected
+        }
+    }
+
+    public void testUnknownRejectionPolicy() {
+        try {
+            new ThreadPool(1, 5, 100, 1000, false, "block");
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException ex) {
+            assertTrue(ex.getMessage().contains("block"));
+        }
+    }
+
+    private static void assertInvalidParameter(String name, String value) throws Exception {
+        ConfigurationContext configContext =
+                ConfigurationContextFactory.createEmptyConfigurationContext();
+        configContext.getAxisConfiguration().addParameter(new Parameter(name, value));
+        try {
+            configContext.getThreadPool();
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException ex) {
+            assertTrue(ex.getMessage(), ex.getMessage().contains(value));
+        } finally {
+            configContext.terminate();
+        }
+    }
+
+    public void testInvalidParameters() throws Exception {
+        assertInvalidParameter(Constants.Configuration.THREAD_POOL_MAX_SIZE, "many");
+        assertInvalidParameter(Constants.Configuration.THREAD_POOL_QUEUE_CAPACITY, "-5");
+        assertInvalidParameter(Constants.Configuration.THREAD_POOL_REJECTION_POLICY, "block");
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.util.threadpool;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import junit.framework.TestCase;
+
+/**
+ * Compares the number of blocking tasks that can be in flight at the same time with
+ * {@link VirtualThreadPool} and with the default {@link ThreadPool}. The test does nothing on
+ * JVMs that don't support virtual threads.
+ */
+public class VirtualThreadPoolTest extends TestCase {
+    private static final int TASKS = 10000;
+
+    private static final int PLATFORM_THREADS = 10;
+
+    /**
+     * The statistics collected by the tasks submitted to a pool.
+     */
+    private static class Measurement {
+        final AtomicInteger inFlight = new AtomicInteger();
+        final AtomicInteger maxInFlight = new AtomicInteger();
+        final AtomicInteger virtualThreads = new AtomicInteger();
+        final AtomicInteger completed = new AtomicInteger();
+    }
+
+    /**
+     * Simulates a request that blocks on a backend call until released.
+     */
+    private static class BlockingTask implements Runnable {
+        private final Measurement measurement;
+        private final CountDownLatch release;
+        private final CountDownLatch done;
+
+        BlockingTask(Measurement measurement, CountDownLatch release, CountDownLatch done) {
+            this.measurement = measurement;
+            this.release = release;
+            this.done = done;
+        }
+
+        public void run() {
+            if (isVirtual(Thread.currentThread())) {
+                measurement.virtualThreads.incrementAndGet();
+            }
+            int current = measurement.inFlight.incrementAndGet();
+            int max;
+            while ((max = measurement.maxInFlight.get()) < current
+                    && !measurement.maxInFlight.compareAndSet(max, current)) {
+                // retry
+            }
+            try {
+                if (release.await(30, TimeUnit.SECONDS)) {
+                    measurement.completed.incrementAndGet();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                measurement.inFlight.decrementAndGet();
+                done.countDown();
+            }
+        }
+    }
+
+    private static boolean isVirtual(Thread thread) {
+        try {
+            return ((Boolean) Thread.class.getMethod("isVirtual").invoke(thread)).booleanValue();
+        } catch (NoSuchMethodException e) {
+            return false;
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private Measurement measure(ThreadFactory pool) throws InterruptedException {
+        Measurement measurement = new Measurement();
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(TASKS);
+        for (int i = 0; i < TASKS; i++) {
+            pool.execute(new BlockingTask(measurement, release, done));
+        }
+        // Give the pool a chance to start as many tasks as it can
+        long deadline = System.currentTimeMillis() + 5000;
+        int last = -1;
+        while (System.currentTimeMillis() < deadline) {
+            Thread.sleep(100);
+            int current = measurement.maxInFlight.get();
+            if (current == TASKS || current == last) {
+                break;
+            }
+            last = current;
+        }
+        release.countDown();
+        assertTrue(done.await(60, TimeUnit.SECONDS));
+        assertEquals(TASKS, measurement.completed.get());
+        return measurement;
+    }
+
+    public void testInFlightConcurrency() throws Exception {
+        VirtualThreadPool virtualThreadPool = VirtualThreadPool.newInstance("test");
+        if (virtualThreadPool == null) {
+            assertFalse(VirtualThreads.isSupported());
+            return;
+        }
+        ThreadPool platformPool = new ThreadPool(PLATFORM_THREADS, PLATFORM_THREADS);
+        try {
+            Measurement platform = measure(platformPool);
+            assertEquals(PLATFORM_THREADS, platform.maxInFlight.get());
+            assertEquals(0, platform.virtualThreads.get());
+
+            Measurement virtual = measure(virtualThreadPool);
+            assertEquals(TASKS, virtual.maxInFlight.get());
+            assertEquals(TASKS, virtual.virtualThreads.get());
+        } finally {
+            platformPool.forceShutDown();
+            virtualThreadPool.forceShutDown();
+        }
+    }
+}
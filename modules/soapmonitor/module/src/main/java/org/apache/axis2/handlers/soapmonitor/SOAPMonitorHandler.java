@@ -19,18 +19,37 @@
 
 package org.apache.axis2.handlers.soapmonitor;
 
+import org.apache.axiom.soap.SOAPEnvelope;
 import org.apache.axis2.AxisFault;
 import org.apache.axis2.addressing.EndpointReference;
 import org.apache.axis2.context.MessageContext;
 import org.apache.axis2.handlers.AbstractHandler;
 import org.apache.axis2.soapmonitor.servlet.SOAPMonitorConstants;
 import org.apache.axis2.soapmonitor.servlet.SOAPMonitorService;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
 
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Captures the SOAP messages for the SOAP monitor applet. Messages are only serialized if an
+ * applet is connected to {@link SOAPMonitorService}, and only for the sampled share of the
+ * requests (see {@link SOAPMonitorModule#SAMPLING_RATE}). The captured text may be truncated
+ * (see {@link SOAPMonitorModule#MAX_MESSAGE_SIZE}).
+ */
 public class SOAPMonitorHandler extends AbstractHandler {
 
+    private static final Log log = LogFactory.getLog(SOAPMonitorHandler.class);
+
     private String name;
 
-    private static long next_message_id = 1;
+    private static final AtomicLong next_message_id = new AtomicLong(1);
+
+    private static final AtomicLong request_count = new AtomicLong();
+
+    private static volatile double samplingRate = 1.0;
+
+    private static volatile int maxMessageSize = -1;
 
     /**
      * Constructor
@@ -51,11 +70,28 @@ public class SOAPMonitorHandler extends AbstractHandler {
     }
 
 
+    /**
+     * Configure the capture of all SOAPMonitorHandler instances.
+     *
+     * @param samplingRate   the share of the requests to capture, between 0 and 1
+     * @param maxMessageSize the maximum number of characters to capture per message, or -1 for
+     *                       no limit
+     */
+    static void configure(double samplingRate, int maxMessageSize) {
+        SOAPMonitorHandler.samplingRate = samplingRate;
+        SOAPMonitorHandler.maxMessageSize = maxMessageSize;
+    }
+
     /**
      * Process and SOAP message
      */
     public InvocationResponse invoke(MessageContext messageContext) throws AxisFault {
 
+        // Nobody is listening, don't serialize anything
+        if (!hasListeners()) {
+            return InvocationResponse.CONTINUE;
+        }
+
         EndpointReference ref = null;
 
         // Get id, type and content
@@ -63,6 +99,10 @@ public class SOAPMonitorHandler extends AbstractHandler {
         Integer type;
         // 'soap request' must be called first
         if (messageContext.getFLOW() == MessageContext.IN_FLOW) {
+            // The responses of requests that are not sampled have no id and are skipped as well
+            if (!isSampled()) {
+                return InvocationResponse.CONTINUE;
+            }
             // show soap message inside the 'soap request' pane in the applet
             id = assignMessageId(messageContext);
             type = new Integer(SOAPMonitorConstants.SOAP_MONITOR_REQUEST);
@@ -97,26 +137,71 @@ public class SOAPMonitorHandler extends AbstractHandler {
 
         // Get the SOAP portion of the message
         String soap = null;
-        if (messageContext.getEnvelope() != null) {
-            soap = messageContext.getEnvelope().toString();
+        if (id != null && messageContext.getEnvelope() != null) {
+            soap = serialize(messageContext.getEnvelope());
         }
         // If we have an id and a SOAP portion, then send the
         // message to the SOAP monitor service
         if ((id != null) && (soap != null)) {
-            SOAPMonitorService.publishMessage(id, type, target, soap);
+            publish(id, type, target, soap);
         }
         return InvocationResponse.CONTINUE;
     }
 
+    /**
+     * Check whether any applet is connected to {@link SOAPMonitorService}
+     */
+    boolean hasListeners() {
+        return SOAPMonitorService.hasListeners();
+    }
+
+    /**
+     * Send a captured message to {@link SOAPMonitorService}
+     */
+    void publish(Long id, Integer type, String target, String soap) {
+        SOAPMonitorService.publishMessage(id, type, target, soap);
+    }
+
+    /**
+     * Decide whether the current request is captured. The requests are counted so that exactly the
+     * configured share of them is sampled.
+     */
+    static boolean isSampled() {
+        double rate = samplingRate;
+        if (rate >= 1.0) {
+            return true;
+        } else if (rate <= 0.0) {
+            return false;
+        }
+        long n = request_count.incrementAndGet();
+        return (long) (n * rate) != (long) ((n - 1) * rate);
+    }
+
+    /**
+     * Serialize the envelope, stopping after the configured maximum size
+     */
+    static String serialize(SOAPEnvelope envelope) {
+        int limit = maxMessageSize;
+        if (limit < 0) {
+            return envelope.toString();
+        }
+        TruncatingWriter writer = new TruncatingWriter(limit);
+        try {
+            envelope.serialize(writer);
+        } catch (Exception ex) {
+            if (!writer.isTruncated()) {
+                log.debug("Unable to serialize the message for the SOAP monitor", ex);
+                return null;
+            }
+        }
+        return writer.isTruncated() ? writer.toString() + "..." : writer.toString();
+    }
+
     /**
      * Assign a new message id
      */
     private Long assignMessageId(MessageContext messageContext) {
-        Long id;
-        synchronized (SOAPMonitorConstants.SOAP_MONITOR_ID) {
-            id = new Long(next_message_id);
-            next_message_id++;
-        }
+        Long id = new Long(next_message_id.getAndIncrement());
         messageContext.getOperationContext().setProperty(
                 SOAPMonitorConstants.SOAP_MONITOR_ID, id);
         return id;
@@ -24,15 +24,48 @@ import org.apache.axis2.AxisFault;
 import org.apache.axis2.context.ConfigurationContext;
 import org.apache.axis2.description.AxisDescription;
 import org.apache.axis2.description.AxisModule;
+import org.apache.axis2.description.Parameter;
 import org.apache.axis2.modules.Module;
 import org.apache.neethi.Assertion;
 import org.apache.neethi.Policy;
 
 public class SOAPMonitorModule implements Module {
 
+    /**
+     * Module parameter with the share of the requests that are captured, between 0 and 1
+     * (default: 1, i.e. all requests)
+     */
+    public static final String SAMPLING_RATE = "samplingRate";
+
+    /**
+     * Module parameter with the maximum number of characters captured per message (default: -1,
+     * i.e. no limit)
+     */
+    public static final String MAX_MESSAGE_SIZE = "maxMessageSize";
 
      // initialize the module
     public void init(ConfigurationContext configContext, AxisModule module) throws AxisFault {
+        double samplingRate = 1.0;
+        int maxMessageSize = -1;
+        Parameter param = module.getParameter(SAMPLING_RATE);
+        if (param != null) {
+            try {
+                samplingRate = Double.parseDouble(((String) param.getValue()).trim());
+            } catch (NumberFormatException ex) {
+                throw new AxisFault("Invalid value for the " + SAMPLING_RATE + " parameter: "
+                        + param.getValue());
+            }
+        }
+        param = module.getParameter(MAX_MESSAGE_SIZE);
+        if (param != null) {
+            try {
+                maxMessageSize = Integer.parseInt(((String) param.getValue()).trim());
+            } catch (NumberFormatException ex) {
+                throw new AxisFault("Invalid value for the " + MAX_MESSAGE_SIZE + " parameter: "
+                        + param.getValue());
+            }
+        }
+        SOAPMonitorHandler.configure(samplingRate, maxMessageSize);
     }
 
     public void engageNotify(AxisDescription axisDescription) throws AxisFault {
@@ -0,0 +1,65 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.handlers.soapmonitor;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * A writer that keeps at most a given number of characters. Once the limit is reached, every
+ * further write fails with an {@link IOException}, so that the serialization of a large message
+ * is aborted instead of being completed for nothing.
+ */
+class TruncatingWriter extends Writer {
+
+    private final StringBuilder buffer = new StringBuilder();
+
+    private final int limit;
+
+    private boolean truncated;
+
+    TruncatingWriter(int limit) {
+        this.limit = limit;
+    }
+
+    public void write(char[] cbuf, int off, int len) throws IOException {
+        int remaining = limit - buffer.length();
+        if (len > remaining) {
+            buffer.append(cbuf, off, remaining);
+            truncated = true;
+            throw new IOException("Message truncated after " + limit + " characters");
+        }
+        buffer.append(cbuf, off, len);
+    }
+
+    public void flush() {
+    }
+
+    public void close() {
+    }
+
+    boolean isTruncated() {
+        return truncated;
+    }
+
+    public String toString() {
+        return buffer.toString();
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.handlers.soapmonitor;
+
+import junit.framework.TestCase;
+import org.apache.axiom.om.OMAbstractFactory;
+import org.apache.axiom.soap.SOAPEnvelope;
+import org.apache.axiom.soap.SOAPFactory;
+import org.apache.axis2.context.MessageContext;
+import org.apache.axis2.context.OperationContext;
+import org.apache.axis2.context.ServiceContext;
+import org.apache.axis2.description.InOutAxisOperation;
+import org.apache.axis2.soapmonitor.servlet.SOAPMonitorConstants;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class SOAPMonitorHandlerTest extends TestCase {
+
+    /**
+     * Records the published messages instead of sending them to the SOAP monitor service
+     */
+    private static class RecordingHandler extends SOAPMonitorHandler {
+        final List<Long> ids = new ArrayList<Long>();
+        final List<Integer> types = new ArrayList<Integer>();
+        boolean listening = true;
+
+        boolean hasListeners() {
+            return listening;
+        }
+
+        void publish(Long id, Integer type, String target, String soap) {
+            ids.add(id);
+            types.add(type);
+        }
+    }
+
+    private RecordingHandler handler;
+
+    protected void setUp() throws Exception {
+        handler = new RecordingHandler();
+    }
+
+    protected void tearDown() throws Exception {
+        SOAPMonitorHandler.configure(1.0, -1);
+    }
+
+    private static SOAPEnvelope createEnvelope() {
+        SOAPFactory factory = OMAbstractFactory.getSOAP11Factory();
+        SOAPEnvelope envelope = factory.getDefaultEnvelope();
+        factory.createOMElement("echo", factory.createOMNamespace("urn:test", "t"),
+                envelope.getBody()).setText("0123456789012345678901234567890123456789");
+        return envelope;
+    }
+
+    private static MessageContext createMessageContext(OperationContext operationContext,
+                                                       int flow) throws Exception {
+        MessageContext messageContext = new MessageContext();
+        messageContext.setOperationContext(operationContext);
+        messageContext.setFLOW(flow);
+        messageContext.setEnvelope(createEnvelope());
+        return messageContext;
+    }
+
+    private void exchange() throws Exception {
+        OperationContext operationContext = new OperationContext(new InOutAxisOperation(),
+                new ServiceContext());
+        handler.invoke(createMessageContext(operationContext, MessageContext.IN_FLOW));
+        handler.invoke(createMessageContext(operationContext, MessageContext.OUT_FLOW));
+    }
+
+    public void testSamplingRate() {
+        SOAPMonitorHandler.configure(0.25, -1);
+        int sampled = 0;
+        for (int i = 0; i < 100; i++) {
+            if (SOAPMonitorHandler.isSampled()) {
+                sampled++;
+            }
+        }
+        assertEquals(25, sampled);
+    }
+
+    public void testSamplingRateBounds() {
+        SOAPMonitorHandler.configure(0.0, -1);
+        for (int i = 0; i < 10; i++) {
+            assertFalse(SOAPMonitorHandler.isSampled());
+        }
+        SOAPMonitorHandler.configure(1.0, -1);
+        for (int i = 0; i < 10; i++) {
+            assertTrue(SOAPMonitorHandler.isSampled());
+        }
+    }
+
+    public void testRequestAndResponseArePublished() throws Exception {
+        exchange();
+        assertEquals(2, handler.ids.size());
+        assertNotNull(handler.ids.get(0));
+        assertEquals(handler.ids.get(0), handler.ids.get(1));
+        assertEquals(SOAPMonitorConstants.SOAP_MONITOR_REQUEST, handler.types.get(0).intValue());
+        assertEquals(SOAPMonitorConstants.SOAP_MONITOR_RESPONSE, handler.types.get(1).intValue());
+    }
+
+    public void testResponseOfUnsampledRequestIsSkipped() throws Exception {
+        SOAPMonitorHandler.configure(0.0, -1);
+        exchange();
+        assertTrue(handler.ids.isEmpty());
+    }
+
+    public void testNothingPublishedWithoutListeners() throws Exception {
+        handler.listening = false;
+        exchange();
+        assertTrue(handler.ids.isEmpty());
+    }
+
+    public void testSerializeTruncated() {
+        SOAPEnvelope envelope = createEnvelope();
+        SOAPMonitorHandler.configure(1.0, 20);
+        String soap = SOAPMonitorHandler.serialize(envelope);
+        assertEquals(23, soap.length());
+        assertTrue(soap.endsWith("..."));
+        assertTrue(envelope.toString().startsWith(soap.substring(0, 20)));
+    }
+
+    public void testSerializeNotTruncated() {
+        SOAPEnvelope envelope = createEnvelope();
+        String expected = envelope.toString();
+        SOAPMonitorHandler.configure(1.0, expected.length());
+        assertEquals(expected, SOAPMonitorHandler.serialize(envelope));
+        SOAPMonitorHandler.configure(1.0, -1);
+        assertEquals(expected, SOAPMonitorHandler.serialize(envelope));
+    }
+}
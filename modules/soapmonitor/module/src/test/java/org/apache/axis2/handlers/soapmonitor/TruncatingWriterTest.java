@@ -0,0 +1,65 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.handlers.soapmonitor;
+
+import junit.framework.TestCase;
+
+import java.io.IOException;
+
+public class TruncatingWriterTest extends TestCase {
+
+    public void testWithinLimit() throws Exception {
+        TruncatingWriter writer = new TruncatingWriter(10);
+        writer.write("abcde");
+        writer.write("fghij");
+        assertFalse(writer.isTruncated());
+        assertEquals("abcdefghij", writer.toString());
+    }
+
+    public void testPartialAppend() throws Exception {
+        TruncatingWriter writer = new TruncatingWriter(8);
+        writer.write("abcde");
+        try {
+            writer.write("fghij");
+            fail("Expected IOException");
+        } catch (IOException ex) {
+            // expected
+        }
+        assertTrue(writer.isTruncated());
+        assertEquals("abcdefgh", writer.toString());
+    }
+
+    public void testWriteAfterTruncation() throws Exception {
+        TruncatingWriter writer = new TruncatingWriter(3);
+        try {
+            writer.write("abcde");
+            fail("Expected IOException");
+        } catch (IOException ex) {
+            // expected
+        }
+        try {
+            writer.write('f');
+            fail("Expected IOException");
+        } catch (IOException ex) {
+            // expected
+        }
+        assertEquals("abc", writer.toString());
+    }
+}
@@ -41,6 +41,12 @@ public class SOAPMonitorConstants {
      */
     public static final String SOAP_MONITOR_HOST_NAME = "SOAPMonitorHostName";
 
+    /**
+     * Servlet initialization parameter for the maximum number of messages waiting to be
+     * published; if the listeners can't keep up, the oldest messages are dropped
+     */
+    public static final String SOAP_MONITOR_BUFFER_SIZE = "SOAPMonitorBufferSize";
+
     /**
      * Unique SOAP monitor id tag
      */
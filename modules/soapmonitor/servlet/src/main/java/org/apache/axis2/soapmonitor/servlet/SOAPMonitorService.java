@@ -35,6 +35,8 @@ import java.net.ServerSocket;
 import java.net.Socket;
 import java.util.Enumeration;
 import java.util.Vector;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 
 /**
  * This is a SOAP Monitor Service class.
@@ -57,8 +59,11 @@ import java.util.Vector;
  * The publishMethod routine is invoked by the SOAP monitor
  * handler when a SOAP message request or response is
  * detected.  The information about the SOAP message is
- * then forwared to all current socket connections for
- * display by the applet.
+ * added to a bounded buffer and then forwarded by a
+ * background thread to all current socket connections for
+ * display by the applet, so that the request threads never
+ * wait for the applets.  If the buffer is full, the oldest
+ * message is dropped.
  */
 
 public class SOAPMonitorService extends HttpServlet {
@@ -67,7 +72,15 @@ public class SOAPMonitorService extends HttpServlet {
      * Private data
      */
     private static ServerSocket serverSocket = null;
-    private static Vector connections = null;
+    private static Thread publisherThread = null;
+
+    /**
+     * Package visible for the tests
+     */
+    static Vector connections = null;
+    static BlockingQueue<Message> messages = null;
+
+    private static final int DEFAULT_BUFFER_SIZE = 1000;
 
     private static final Log log = LogFactory.getLog(SOAPMonitorService.class);
 
@@ -79,18 +92,33 @@ public class SOAPMonitorService extends HttpServlet {
 
 
     /**
-     * Publish a SOAP message to listeners
+     * Check whether any applet is connected. If not, there is no need to capture messages.
+     */
+    public static boolean hasListeners() {
+        Vector c = connections;
+        return c != null && !c.isEmpty();
+    }
+
+    /**
+     * Publish a SOAP message to listeners. The message is queued and sent
+     * to the listeners by the publisher thread.
      */
     public static void publishMessage(Long id,
                                       Integer type,
                                       String target,
                                       String soap) {
-        if (connections != null) {
-            Enumeration e = connections.elements();
-            while (e.hasMoreElements()) {
-                ConnectionThread ct = (ConnectionThread) e.nextElement();
-                ct.publishMessage(id, type, target, soap);
-            }
+        BlockingQueue<Message> queue = messages;
+        if (queue != null && hasListeners()) {
+            enqueue(queue, new Message(id, type, target, soap));
+        }
+    }
+
+    /**
+     * Add a message to the queue, dropping the oldest messages if the publisher can't keep up
+     */
+    static void enqueue(BlockingQueue<Message> queue, Message message) {
+        while (!queue.offer(message)) {
+            queue.poll();
         }
     }
 
@@ -102,6 +130,24 @@ public class SOAPMonitorService extends HttpServlet {
             // Create vector to hold connection information
             connections = new Vector();
         }
+        if (messages == null) {
+            int bufferSize = DEFAULT_BUFFER_SIZE;
+            String size = getServletConfig().getInitParameter(
+                    SOAPMonitorConstants.SOAP_MONITOR_BUFFER_SIZE);
+            if (size != null) {
+                try {
+                    bufferSize = Integer.parseInt(size.trim());
+                } catch (NumberFormatException ex) {
+                    log.error("Invalid value for SOAPMonitorService init parameter '"
+                            + SOAPMonitorConstants.SOAP_MONITOR_BUFFER_SIZE + "': " + size);
+                }
+            }
+            messages = new ArrayBlockingQueue<Message>(Math.max(bufferSize, 1));
+            // Start the thread that forwards the messages to the applets
+            publisherThread = new Thread(new PublisherThread(messages), "SOAPMonitorPublisher");
+            publisherThread.setDaemon(true);
+            publisherThread.start();
+        }
         if (serverSocket == null) {
             // Get the server socket port from the init params
             ServletConfig config = super.getServletConfig();
@@ -145,6 +191,12 @@ public class SOAPMonitorService extends HttpServlet {
             ConnectionThread ct = (ConnectionThread) e.nextElement();
             ct.close();
         }
+        // End the publisher thread
+        if (publisherThread != null) {
+            publisherThread.interrupt();
+            publisherThread = null;
+        }
+        messages = null;
         // End main server socket thread
         if (serverSocket != null) {
             try {
@@ -188,6 +240,54 @@ public class SOAPMonitorService extends HttpServlet {
         response.getWriter().println("</html>");
     }
 
+    /**
+     * A captured SOAP message waiting to be published
+     */
+    static class Message {
+        final Long id;
+        final Integer type;
+        final String target;
+        final String soap;
+
+        Message(Long id, Integer type, String target, String soap) {
+            this.id = id;
+            this.type = type;
+            this.target = target;
+            this.soap = soap;
+        }
+    }
+
+    /**
+     * Thread class for publishing the queued messages to the socket connections
+     */
+    static class PublisherThread implements Runnable {
+
+        private final BlockingQueue<Message> queue;
+
+        PublisherThread(BlockingQueue<Message> queue) {
+            this.queue = queue;
+        }
+
+        public void run() {
+            try {
+                while (true) {
+                    Message message = queue.take();
+                    Vector c = connections;
+                    if (c == null) {
+                        continue;
+                    }
+                    Object[] cts = c.toArray();
+                    for (int i = 0; i < cts.length; i++) {
+                        ((ConnectionThread) cts[i]).publishMessage(message.id, message.type,
+                                message.target, message.soap);
+                    }
+                }
+            } catch (InterruptedException ex) {
+                // The servlet has been destroyed
+            }
+        }
+    }
+
     /**
      * Thread class for handling the server socket
      */
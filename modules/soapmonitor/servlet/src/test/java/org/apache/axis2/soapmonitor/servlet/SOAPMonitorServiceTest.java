@@ -0,0 +1,74 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.soapmonitor.servlet;
+
+import junit.framework.TestCase;
+
+import java.util.Vector;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+public class SOAPMonitorServiceTest extends TestCase {
+
+    protected void tearDown() throws Exception {
+        SOAPMonitorService.connections = null;
+        SOAPMonitorService.messages = null;
+    }
+
+    private static SOAPMonitorService.Message createMessage(long id) {
+        return new SOAPMonitorService.Message(new Long(id),
+                new Integer(SOAPMonitorConstants.SOAP_MONITOR_REQUEST), "target", "<soap/>");
+    }
+
+    public void testQueueOverflowDropsOldest() {
+        BlockingQueue<SOAPMonitorService.Message> queue =
+                new ArrayBlockingQueue<SOAPMonitorService.Message>(3);
+        for (int i = 1; i <= 5; i++) {
+            SOAPMonitorService.enqueue(queue, createMessage(i));
+        }
+        assertEquals(3, queue.size());
+        assertEquals(3, queue.poll().id.longValue());
+        assertEquals(4, queue.poll().id.longValue());
+        assertEquals(5, queue.poll().id.longValue());
+    }
+
+    public void testHasListeners() {
+        assertFalse(SOAPMonitorService.hasListeners());
+        SOAPMonitorService.connections = new Vector();
+        assertFalse(SOAPMonitorService.hasListeners());
+        SOAPMonitorService.connections.add(new Object());
+        assertTrue(SOAPMonitorService.hasListeners());
+    }
+
+    public void testPublishWithoutListeners() {
+        BlockingQueue<SOAPMonitorService.Message> queue =
+                new ArrayBlockingQueue<SOAPMonitorService.Message>(10);
+        SOAPMonitorService.messages = queue;
+        SOAPMonitorService.connections = new Vector();
+        SOAPMonitorService.publishMessage(new Long(1),
+                new Integer(SOAPMonitorConstants.SOAP_MONITOR_REQUEST), "target", "<soap/>");
+        assertTrue(queue.isEmpty());
+        SOAPMonitorService.connections.add(new Object());
+        SOAPMonitorService.publishMessage(new Long(2),
+                new Integer(SOAPMonitorConstants.SOAP_MONITOR_REQUEST), "target", "<soap/>");
+        assertEquals(1, queue.size());
+        assertEquals(2, queue.peek().id.longValue());
+    }
+}
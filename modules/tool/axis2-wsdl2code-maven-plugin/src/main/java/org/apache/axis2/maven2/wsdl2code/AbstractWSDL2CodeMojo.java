@@ -102,6 +102,15 @@ public abstract class AbstractWSDL2CodeMojo extends AbstractMojo {
      */
     private String syncMode;
 
+    /**
+     * Whether the stubs should also offer non-blocking methods returning a
+     * <code>CompletableFuture</code>. The generated sources require Java 8. This can't be
+     * combined with the syncMode "sync".
+     *
+     * @parameter expression="${axis2.wsdl2code.generateAsyncFuture}" default-value="false"
+     */
+    private boolean generateAsyncFuture;
+
     /**
      * Whether server side sources are being generated.
      *
@@ -292,6 +301,14 @@ public abstract class AbstractWSDL2CodeMojo extends AbstractMojo {
             throw new MojoFailureException("Invalid syncMode: " + syncMode +
                     ", expected either of 'sync', 'async' or 'both'.");
         }
+        if (generateAsyncFuture) {
+            if ("sync".equals(syncMode)) {
+                throw new MojoFailureException("generateAsyncFuture requires the asynchronous"
+                        + " methods and can't be combined with syncMode 'sync'.");
+            }
+            config.setAsyncOn(true);
+            config.setAsyncFutureOn(true);
+        }
 
         config.setPackageName(packageName);
         config.setOutputLanguage(language);
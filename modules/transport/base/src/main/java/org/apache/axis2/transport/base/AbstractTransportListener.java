@@ -107,7 +107,8 @@ public abstract class AbstractTransportListener implements TransportListener {
                         config.getServerKeepalive(),
                         config.getServerQueueLen(),
                         getTransportName() + "Server Worker thread group",
-                        getTransportName() + "-Worker");
+                        getTransportName() + "-Worker",
+                        config.isServerVirtualThreads());
             }
             
         }
@@ -308,6 +309,7 @@ public abstract class AbstractTransportListener implements TransportListener {
         msgCtx.setProperty(MessageContext.TRANSPORT_HEADERS, trpHeaders);
 
         // send the message context through the axis engine
+        long start = System.nanoTime();
         try {
             // check if an Axis2 callback has been registered for this message
             Map callBackMap = (Map) msgCtx.getConfigurationContext().
@@ -335,6 +337,10 @@ public abstract class AbstractTransportListener implements TransportListener {
             if (msgCtx.isServerSide()) {
                 AxisEngine.sendFault(MessageContextBuilder.createFaultMessageContext(msgCtx, e));
             }
+        } finally {
+            if (metrics != null) {
+                metrics.notifyMessageProcessingTime(System.nanoTime() - start);
+            }
         }
     }
 
@@ -506,6 +512,50 @@ public abstract class AbstractTransportListener implements TransportListener {
         return null;
     }
 
+    /**
+     * Get percentiles of the time (in microseconds) spent processing received messages
+     * @return a map with count, min, mean, p50, p90, p99, p99.9 and max
+     */
+    public Map getProcessingTimePercentiles() {
+        if (metrics != null) {
+            return metrics.getProcessingTimeHistogram().getPercentiles();
+        }
+        return null;
+    }
+
+    /**
+     * Get percentiles of the time (in microseconds) spent sending messages
+     * @return a map with count, min, mean, p50, p90, p99, p99.9 and max
+     */
+    public Map getSendingTimePercentiles() {
+        if (metrics != null) {
+            return metrics.getSendingTimeHistogram().getPercentiles();
+        }
+        return null;
+    }
+
+    /**
+     * Get percentiles of the size (in bytes) of received messages
+     * @return a map with count, min, mean, p50, p90, p99, p99.9 and max
+     */
+    public Map getSizeReceivedPercentiles() {
+        if (metrics != null) {
+            return metrics.getSizeReceivedHistogram().getPercentiles();
+        }
+        return null;
+    }
+
+    /**
+     * Get percentiles of the size (in bytes) of sent messages
+     * @return a map with count, min, mean, p50, p90, p99, p99.9 and max
+     */
+    public Map getSizeSentPercentiles() {
+        if (metrics != null) {
+            return metrics.getSizeSentHistogram().getPercentiles();
+        }
+        return null;
+    }
+
     public void resetStatistics() {
         if (metrics != null) {
             metrics.reset();
@@ -103,6 +103,7 @@ public abstract class AbstractTransportSender extends AbstractHandler implements
         String targetAddress = (String) msgContext.getProperty(
             Constants.Configuration.TRANSPORT_URL);
 
+        long start = System.nanoTime();
         if (targetAddress != null) {
             sendMessage(msgContext, targetAddress, null);
         } else if (msgContext.getTo() != null && !msgContext.getTo().hasAnonymousAddress()) {
@@ -118,6 +119,11 @@ public abstract class AbstractTransportSender extends AbstractHandler implements
             // get the out transport info for server side when target EPR is unknown
             sendMessage(msgContext, null,
                 (OutTransportInfo) msgContext.getProperty(Constants.OUT_TRANSPORT_INFO));
+        } else {
+            return InvocationResponse.CONTINUE;
+        }
+        if (metrics != null) {
+            metrics.notifyMessageSendingTime(System.nanoTime() - start);
         }
 
         return InvocationResponse.CONTINUE;
@@ -378,6 +384,50 @@ public abstract class AbstractTransportSender extends AbstractHandler implements
         return null;
     }
 
+    /**
+     * Get percentiles of the time (in microseconds) spent processing received messages
+     * @return a map with count, min, mean, p50, p90, p99, p99.9 and max
+     */
+    public Map getProcessingTimePercentiles() {
+        if (metrics != null) {
+            return metrics.getProcessingTimeHistogram().getPercentiles();
+        }
+        return null;
+    }
+
+    /**
+     * Get percentiles of the time (in microseconds) spent sending messages
+     * @return a map with count, min, mean, p50, p90, p99, p99.9 and max
+     */
+    public Map getSendingTimePercentiles() {
+        if (metrics != null) {
+            return metrics.getSendingTimeHistogram().getPercentiles();
+        }
+        return null;
+    }
+
+    /**
+     * Get percentiles of the size (in bytes) of received messages
+     * @return a map with count, min, mean, p50, p90, p99, p99.9 and max
+     */
+    public Map getSizeReceivedPercentiles() {
+        if (metrics != null) {
+            return metrics.getSizeReceivedHistogram().getPercentiles();
+        }
+        return null;
+    }
+
+    /**
+     * Get percentiles of the size (in bytes) of sent messages
+     * @return a map with count, min, mean, p50, p90, p99, p99.9 and max
+     */
+    public Map getSizeSentPercentiles() {
+        if (metrics != null) {
+            return metrics.getSizeSentHistogram().getPercentiles();
+        }
+        return null;
+    }
+
     public void resetStatistics() {
         if (metrics != null) {
             metrics.reset();
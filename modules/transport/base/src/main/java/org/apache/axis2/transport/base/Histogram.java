@@ -0,0 +1,201 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *   * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+
+package org.apache.axis2.transport.base;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free histogram of non-negative long values with a bounded relative error, suitable to
+ * compute percentiles of latencies and message sizes. Values below 32 are counted exactly;
+ * larger values are counted in buckets whose width is 1/32 of their magnitude, so that a
+ * reported percentile is at most about 3% above the actual value, whatever the range of the
+ * recorded values. Like {@link StripedCounter}, the counts are striped by thread to avoid
+ * contention on frequently used buckets.
+ */
+public class Histogram {
+
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKETS = (64 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    /** The percentiles reported by {@link #getPercentiles()} */
+    private static final double[] PERCENTILES = { 50, 90, 99, 99.9 };
+
+    private static final int HISTOGRAM_STRIPES = Math.min(StripedCounter.STRIPES, 4);
+
+    private final AtomicLongArray[] counts = new AtomicLongArray[HISTOGRAM_STRIPES];
+    private final StripedCounter count = new StripedCounter();
+    private final StripedCounter sum = new StripedCounter();
+    private final AtomicLong min = new AtomicLong(Long.MAX_VALUE);
+    private final AtomicLong max = new AtomicLong(0);
+
+    public Histogram() {
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = new AtomicLongArray(BUCKETS);
+        }
+    }
+
+    static int bucketIndex(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int)value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int subBucket = (int)(value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    /**
+     * Get the largest value that falls into the given bucket.
+     */
+    static long bucketUpperBound(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int exponent = index / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        int subBucket = index % SUB_BUCKETS;
+        long width = 1L << (exponent - SUB_BUCKET_BITS);
+        return ((long)(SUB_BUCKETS + subBucket) << (exponent - SUB_BUCKET_BITS)) + width - 1;
+    }
+
+    /**
+     * Record a value. Negative values are recorded as 0.
+     *
+     * @param value the value
+     */
+    public void record(long value) {
+        if (value < 0) {
+            value = 0;
+        }
+        counts[StripedCounter.stripe() % HISTOGRAM_STRIPES].incrementAndGet(bucketIndex(value));
+        count.increment();
+        sum.add(value);
+        long current;
+        while (value < (current = min.get()) && !min.compareAndSet(current, value)) {
+            // retry
+        }
+        while (value > (current = max.get()) && !max.compareAndSet(current, value)) {
+            // retry
+        }
+    }
+
+    public long getCount() {
+        return count.get();
+    }
+
+    public long getMin() {
+        long value = min.get();
+        return value == Long.MAX_VALUE ? 0 : value;
+    }
+
+    public long getMax() {
+        return max.get();
+    }
+
+    public double getMean() {
+        long n = count.get();
+        return n == 0 ? 0 : (double)sum.get() / n;
+    }
+
+    /**
+     * Get the value below which the given percentage of the recorded values fall.
+     *
+     * @param percentile the percentile, between 0 and 100
+     * @return the value, or 0 if no values have been recorded
+     */
+    public long getPercentile(double percentile) {
+        return getPercentiles(snapshot(), new double[] { percentile })[0];
+    }
+
+    /**
+     * Get a summary of the distribution suitable for display in a management console.
+     *
+     * @return a map with the keys "count", "min", "mean", "p50", "p90", "p99", "p99.9" and
+     *         "max"
+     */
+    public Map<String,Number> getPercentiles() {
+        long[] percentiles = getPercentiles(snapshot(), PERCENTILES);
+        Map<String,Number> result = new LinkedHashMap<String,Number>();
+        result.put("count", getCount());
+        result.put("min", getMin());
+        result.put("mean", getMean());
+        for (int i = 0; i < PERCENTILES.length; i++) {
+            double p = PERCENTILES[i];
+            result.put("p" + (p == Math.floor(p) ? String.valueOf((long)p) : String.valueOf(p)),
+                    percentiles[i]);
+        }
+        result.put("max", getMax());
+        return result;
+    }
+
+    private long[] snapshot() {
+        long[] snapshot = new long[BUCKETS];
+        for (AtomicLongArray stripe : counts) {
+            for (int i = 0; i < BUCKETS; i++) {
+                snapshot[i] += stripe.get(i);
+            }
+        }
+        return snapshot;
+    }
+
+    private long[] getPercentiles(long[] snapshot, double[] percentiles) {
+        long total = 0;
+        for (long c : snapshot) {
+            total += c;
+        }
+        long[] result = new long[percentiles.length];
+        if (total == 0) {
+            return result;
+        }
+        long max = getMax();
+        for (int p = 0; p < percentiles.length; p++) {
+            long rank = (long)Math.ceil(percentiles[p] / 100 * total);
+            if (rank < 1) {
+                rank = 1;
+            }
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += snapshot[i];
+                if (seen >= rank) {
+                    result[p] = Math.min(bucketUpperBound(i), max);
+                    break;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Reset the histogram. Values recorded concurrently may or may not be lost.
+     */
+    public void reset() {
+        for (AtomicLongArray stripe : counts) {
+            for (int i = 0; i < BUCKETS; i++) {
+                stripe.set(i, 0);
+            }
+        }
+        count.reset();
+        sum.reset();
+        min.set(Long.MAX_VALUE);
+        max.set(0);
+    }
+}
@@ -43,6 +43,10 @@ public interface ManagementSupport {
     public long getMaxSizeSent();
     public double getAvgSizeSent();
     public Map getResponseCodeTable();
+    public Map getProcessingTimePercentiles();
+    public Map getSendingTimePercentiles();
+    public Map getSizeReceivedPercentiles();
+    public Map getSizeSentPercentiles();
 
     public void resetStatistics();
     public long getLastResetTime();
@@ -20,60 +20,64 @@
 package org.apache.axis2.transport.base;
 import org.apache.axis2.context.MessageContext;
 
-import java.util.Map;
-import java.util.Collections;
 import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
- * Collects metrics related to a transport that has metrics support enabled
+ * Collects metrics related to a transport that has metrics support enabled. All methods are
+ * lock-free: counters are striped by thread and message sizes and latencies are recorded in
+ * {@link Histogram}s, so that transport threads don't contend with each other when updating
+ * metrics.
  */
 public class MetricsCollector {
 
     public static final int LEVEL_NONE = 0;
     public static final int LEVEL_TRANSPORT = 1;
     public static final int LEVEL_FULL = 2;
-    private static final Long ONE = (long) 1;
 
     /** By default, full metrics collection is enabled */
     private int level = LEVEL_FULL;
 
-    private long messagesReceived;
-    private long faultsReceiving;
-    private long timeoutsReceiving;
-    private long bytesReceived;
-    private long minSizeReceived;
-    private long maxSizeReceived;
-    private double avgSizeReceived;
+    private final StripedCounter messagesReceived = new StripedCounter();
+    private final StripedCounter faultsReceiving = new StripedCounter();
+    private final StripedCounter timeoutsReceiving = new StripedCounter();
+    private final StripedCounter bytesReceived = new StripedCounter();
+    private final Histogram sizeReceived = new Histogram();
+
+    private final StripedCounter messagesSent = new StripedCounter();
+    private final StripedCounter faultsSending = new StripedCounter();
+    private final StripedCounter timeoutsSending = new StripedCounter();
+    private final StripedCounter bytesSent = new StripedCounter();
+    private final Histogram sizeSent = new Histogram();
 
-    private long messagesSent;
-    private long faultsSending;
-    private long timeoutsSending;
-    private long bytesSent;
-    private long minSizeSent;
-    private long maxSizeSent;
-    private double avgSizeSent;
+    /** Time (in microseconds) spent processing received messages */
+    private final Histogram processingTime = new Histogram();
+    /** Time (in microseconds) spent sending messages (including synchronous responses) */
+    private final Histogram sendingTime = new Histogram();
 
-    private final Map<Integer, Long> responseCodeTable =
-        Collections.synchronizedMap(new HashMap<Integer, Long>());
+    private final ConcurrentMap<Integer, AtomicLong> responseCodeTable =
+        new ConcurrentHashMap<Integer, AtomicLong>();
 
-    private long lastResetTime = System.currentTimeMillis();
+    private volatile long lastResetTime = System.currentTimeMillis();
 
     public void reset() {
-        messagesReceived  = 0;
-        faultsReceiving   = 0;
-        timeoutsReceiving = 0;
-        bytesReceived     = 0;
-        minSizeReceived   = 0;
-        maxSizeReceived   = 0;
-        avgSizeReceived   = 0;
-
-        messagesSent      = 0;
-        faultsSending     = 0;
-        timeoutsSending   = 0;
-        bytesSent         = 0;
-        minSizeSent       = 0;
-        maxSizeSent       = 0;
-        avgSizeSent       = 0;
+        messagesReceived.reset();
+        faultsReceiving.reset();
+        timeoutsReceiving.reset();
+        bytesReceived.reset();
+        sizeReceived.reset();
+
+        messagesSent.reset();
+        faultsSending.reset();
+        timeoutsSending.reset();
+        bytesSent.reset();
+        sizeSent.reset();
+
+        processingTime.reset();
+        sendingTime.reset();
 
         responseCodeTable.clear();
         lastResetTime = System.currentTimeMillis();
@@ -92,19 +96,19 @@ public class MetricsCollector {
     }
 
     public long getMessagesReceived() {
-        return messagesReceived;
+        return messagesReceived.get();
     }
 
     public long getFaultsReceiving() {
-        return faultsReceiving;
+        return faultsReceiving.get();
     }
 
     public long getTimeoutsReceiving() {
-        return timeoutsReceiving;
+        return timeoutsReceiving.get();
     }
 
     public long getBytesReceived() {
-        return bytesReceived;
+        return bytesReceived.get();
     }
 
     /**
@@ -114,110 +118,163 @@ public class MetricsCollector {
      * @return the number of messages sent
      */
     public long getMessagesSent() {
-        return messagesSent;
+        return messagesSent.get();
     }
 
     public long getFaultsSending() {
-        return faultsSending;
+        return faultsSending.get();
     }
 
     public long getTimeoutsSending() {
-        return timeoutsSending;
+        return timeoutsSending.get();
     }
 
     public long getBytesSent() {
-        return bytesSent;
+        return bytesSent.get();
     }
 
     public long getMinSizeReceived() {
-        return minSizeReceived;
+        return sizeReceived.getMin();
     }
 
     public long getMaxSizeReceived() {
-        return maxSizeReceived;
+        return sizeReceived.getMax();
     }
 
     public long getMinSizeSent() {
-        return minSizeSent;
+        return sizeSent.getMin();
     }
 
     public long getMaxSizeSent() {
-        return maxSizeSent;
+        return sizeSent.getMax();
     }
 
     public double getAvgSizeReceived() {
-        return avgSizeReceived;
+        return sizeReceived.getMean();
     }
 
     public double getAvgSizeSent() {
-        return avgSizeSent;
+        return sizeSent.getMean();
+    }
+
+    /**
+     * Get the distribution of the sizes of received messages.
+     *
+     * @return the histogram of message sizes in bytes
+     */
+    public Histogram getSizeReceivedHistogram() {
+        return sizeReceived;
+    }
+
+    /**
+     * Get the distribution of the sizes of sent messages.
+     *
+     * @return the histogram of message sizes in bytes
+     */
+    public Histogram getSizeSentHistogram() {
+        return sizeSent;
+    }
+
+    /**
+     * Get the distribution of the time spent processing received messages.
+     *
+     * @return the histogram of processing times in microseconds
+     */
+    public Histogram getProcessingTimeHistogram() {
+        return processingTime;
+    }
+
+    /**
+     * Get the distribution of the time spent sending messages. For synchronous request-response
+     * exchanges this includes the time spent waiting for the response.
+     *
+     * @return the histogram of sending times in microseconds
+     */
+    public Histogram getSendingTimeHistogram() {
+        return sendingTime;
     }
 
+    /**
+     * Get a snapshot of the number of times each response code has been reported.
+     *
+     * @return a map from response code to count
+     */
     public Map<Integer, Long> getResponseCodeTable() {
-        return responseCodeTable;
+        Map<Integer, Long> table = new HashMap<Integer, Long>();
+        for (Map.Entry<Integer, AtomicLong> entry : responseCodeTable.entrySet()) {
+            table.put(entry.getKey(), entry.getValue().get());
+        }
+        return table;
     }
 
-    public synchronized void incrementMessagesReceived() {
-        messagesReceived++;
+    public void incrementMessagesReceived() {
+        messagesReceived.increment();
     }
 
-    public synchronized void incrementFaultsReceiving() {
-        faultsReceiving++;
+    public void incrementFaultsReceiving() {
+        faultsReceiving.increment();
     }
 
-    public synchronized void incrementTimeoutsReceiving() {
-        timeoutsReceiving++;
+    public void incrementTimeoutsReceiving() {
+        timeoutsReceiving.increment();
     }
 
-    public synchronized void incrementBytesReceived(long size) {
-        bytesReceived += size;
+    public void incrementBytesReceived(long size) {
+        bytesReceived.add(size);
     }
 
-    public synchronized void incrementMessagesSent() {
-        messagesSent++;
+    public void incrementMessagesSent() {
+        messagesSent.increment();
     }
 
-    public synchronized void incrementFaultsSending() {
-        faultsSending++;
+    public void incrementFaultsSending() {
+        faultsSending.increment();
     }
 
-    public synchronized void incrementTimeoutsSending() {
-        timeoutsSending++;
+    public void incrementTimeoutsSending() {
+        timeoutsSending.increment();
     }
 
-    public synchronized void incrementBytesSent(long size) {
-        bytesSent += size;
+    public void incrementBytesSent(long size) {
+        bytesSent.add(size);
     }
     
-    public synchronized void notifyReceivedMessageSize(long size) {
-        if (minSizeReceived == 0 || size < minSizeReceived) {
-            minSizeReceived = size;
-        }
-        if (size > maxSizeReceived) {
-            maxSizeReceived = size;
-        }
-        avgSizeReceived = (avgSizeReceived == 0 ? size : (avgSizeReceived + size) / 2);
+    public void notifyReceivedMessageSize(long size) {
+        sizeReceived.record(size);
     }
 
-    public synchronized void notifySentMessageSize(long size) {
-        if (minSizeSent == 0 || size < minSizeSent) {
-            minSizeSent = size;
-        }
-        if (size > maxSizeSent) {
-            maxSizeSent = size;
-        }
-        avgSizeSent = (avgSizeSent == 0 ? size : (avgSizeSent + size) / 2);
+    public void notifySentMessageSize(long size) {
+        sizeSent.record(size);
+    }
+
+    /**
+     * Record the time spent processing a received message.
+     *
+     * @param nanos the processing time in nanoseconds
+     */
+    public void notifyMessageProcessingTime(long nanos) {
+        processingTime.record(nanos / 1000);
+    }
+
+    /**
+     * Record the time spent sending a message.
+     *
+     * @param nanos the sending time in nanoseconds
+     */
+    public void notifyMessageSendingTime(long nanos) {
+        sendingTime.record(nanos / 1000);
     }
 
     public void reportResponseCode(int respCode) {
-        synchronized(responseCodeTable) {
-            Object o = responseCodeTable.get(respCode);
-            if (o == null) {
-                responseCodeTable.put(respCode, ONE);
-            } else {
-                responseCodeTable.put(respCode, (Long) o + 1);
+        AtomicLong count = responseCodeTable.get(respCode);
+        if (count == null) {
+            AtomicLong newCount = new AtomicLong();
+            count = responseCodeTable.putIfAbsent(respCode, newCount);
+            if (count == null) {
+                count = newCount;
             }
         }
+        count.incrementAndGet();
     }
 
     // --- enhanced methods ---
@@ -42,6 +42,7 @@ public class TransportConfiguration {
     private static final String S_T_MAX      = "snd_t_max";
     private static final String S_T_ALIVE    = "snd_alive_sec";
     private static final String S_T_QLEN     = "snd_qlen";
+    private static final String S_T_VIRTUAL  = "snd_virtual_threads";
 
     // client sender
     private static final String C_T_CORE     = "lst_t_core";
@@ -86,6 +87,10 @@ public class TransportConfiguration {
         return getProperty(S_T_QLEN, BLOCKING_QUEUE_LENGTH);
     }
 
+    public boolean isServerVirtualThreads() {
+        return getBooleanValue(S_T_VIRTUAL, false);
+    }
+
     public int getClientCoreThreads() {
         return getProperty(C_T_CORE, WORKERS_CORE_THREADS);
     }
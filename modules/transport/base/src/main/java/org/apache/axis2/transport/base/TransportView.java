@@ -71,7 +71,7 @@ public class TransportView implements TransportViewMBean {
 
     public long getTimeoutsSending() {
         if (managementSupport != null) {
-            managementSupport.getTimeoutsSending();
+            return managementSupport.getTimeoutsSending();
         }
         return -1;
     }
@@ -153,6 +153,34 @@ public class TransportView implements TransportViewMBean {
         return null;
     }    
 
+    public Map getProcessingTimePercentiles() {
+        if (managementSupport != null) {
+            return managementSupport.getProcessingTimePercentiles();
+        }
+        return null;
+    }
+
+    public Map getSendingTimePercentiles() {
+        if (managementSupport != null) {
+            return managementSupport.getSendingTimePercentiles();
+        }
+        return null;
+    }
+
+    public Map getSizeReceivedPercentiles() {
+        if (managementSupport != null) {
+            return managementSupport.getSizeReceivedPercentiles();
+        }
+        return null;
+    }
+
+    public Map getSizeSentPercentiles() {
+        if (managementSupport != null) {
+            return managementSupport.getSizeSentPercentiles();
+        }
+        return null;
+    }
+
     public int getActiveThreadCount() {
         if (managementSupport != null) {
             return managementSupport.getActiveThreadCount();
@@ -40,6 +40,10 @@ public interface TransportViewMBean {
     public int  getActiveThreadCount();
     public int getQueueSize();
     public Map getResponseCodeTable();
+    public Map getProcessingTimePercentiles();
+    public Map getSendingTimePercentiles();
+    public Map getSizeReceivedPercentiles();
+    public Map getSizeSentPercentiles();
 
     // JMX Operations
     public void start() throws Exception;
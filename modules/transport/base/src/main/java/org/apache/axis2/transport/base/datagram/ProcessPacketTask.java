@@ -57,6 +57,7 @@ public class ProcessPacketTask implements Runnable {
     
     public void run() {
         MetricsCollector metrics = endpoint.getMetrics();
+        long start = System.nanoTime();
         try {
             InputStream inputStream = new ByteArrayInputStream(data, 0, length);
             MessageContext msgContext = endpoint.createMessageContext();
@@ -73,11 +74,14 @@ public class ProcessPacketTask implements Runnable {
             AxisEngine.receive(msgContext);
             metrics.incrementMessagesReceived();
             metrics.incrementBytesReceived(length);
+            metrics.notifyReceivedMessageSize(length);
         } catch (Exception ex) {
             metrics.incrementFaultsReceiving();
             StringBuilder buffer = new StringBuilder("Error during processing of datagram:\n");
             Utils.hexDump(buffer, data, length);
             log.error(buffer.toString(), ex);
+        } finally {
+            metrics.notifyMessageProcessingTime(System.nanoTime() - start);
         }
     }
 }
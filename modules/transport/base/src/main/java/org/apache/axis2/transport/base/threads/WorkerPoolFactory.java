@@ -19,15 +19,42 @@
 
 package org.apache.axis2.transport.base.threads;
 
+import org.apache.axis2.util.threadpool.VirtualThreads;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
 
 /**
  * Worker pool factory.
- * For the moment this always creates {@link NativeWorkerPool} instances since
- * we assume that we are running on Java 1.5 or above.
+ * This creates {@link NativeWorkerPool} instances since we assume that we are running
+ * on Java 1.5 or above, or {@link VirtualThreadWorkerPool} instances if virtual threads
+ * are requested and supported by the JVM.
  */
 public class WorkerPoolFactory {
 
+    private static final Log log = LogFactory.getLog(WorkerPoolFactory.class);
+
+    /**
+     * Create a worker pool that executes each task in its own virtual thread. If the JVM doesn't
+     * support virtual threads, a {@link NativeWorkerPool} with the given parameters is returned
+     * instead.
+     */
+    public static WorkerPool getWorkerPool(int core, int max, int keepAlive,
+                                           int queueLength, String threadGroupName,
+                                           String threadGroupId, boolean virtualThreads) {
+        if (virtualThreads) {
+            ExecutorService executor = VirtualThreads.newThreadPerTaskExecutor(threadGroupId + "-");
+            if (executor != null) {
+                return new VirtualThreadWorkerPool(executor);
+            }
+            log.info("Virtual threads are not supported by this JVM; using a thread pool for "
+                    + threadGroupName);
+        }
+        return getWorkerPool(core, max, keepAlive, queueLength, threadGroupName, threadGroupId);
+    }
+
     public static WorkerPool getWorkerPool(int core, int max, int keepAlive,
                                            int queueLength, String threadGroupName,
                                            String threadGroupId) {
@@ -0,0 +1,114 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *   * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+
+package org.apache.axis2.transport.base;
+
+import junit.framework.TestCase;
+
+import java.util.Map;
+import java.util.Random;
+
+public class MetricsCollectorTest extends TestCase {
+
+    public void testHistogramBuckets() {
+        long previous = -1;
+        for (long value = 0; value < 100000; value++) {
+            int index = Histogram.bucketIndex(value);
+            long upperBound = Histogram.bucketUpperBound(index);
+            assertTrue(upperBound >= value);
+            // relative error of at most 1/32
+            assertTrue(upperBound - value <= value / 32);
+            if (value > 0) {
+                assertTrue(index >= Histogram.bucketIndex(previous));
+            }
+            previous = value;
+        }
+        assertEquals(Long.MAX_VALUE, Histogram.bucketUpperBound(Histogram.bucketIndex(Long.MAX_VALUE)));
+    }
+
+    public void testPercentiles() {
+        Histogram histogram = new Histogram();
+        for (int i = 1; i <= 10000; i++) {
+            histogram.record(i);
+        }
+        assertEquals(10000, histogram.getCount());
+        assertEquals(1, histogram.getMin());
+        assertEquals(10000, histogram.getMax());
+        assertEquals(5000.5, histogram.getMean(), 0.001);
+        assertWithinError(5000, histogram.getPercentile(50));
+        assertWithinError(9900, histogram.getPercentile(99));
+        assertWithinError(9990, histogram.getPercentile(99.9));
+        Map<String,Number> percentiles = histogram.getPercentiles();
+        assertEquals(Long.valueOf(10000), percentiles.get("count"));
+        assertTrue(percentiles.containsKey("p99.9"));
+        histogram.reset();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getPercentile(50));
+    }
+
+    private static void assertWithinError(long expected, long actual) {
+        assertTrue("expected " + expected + " but was " + actual,
+                actual >= expected && actual <= expected + expected / 32);
+    }
+
+    public void testConcurrentUpdates() throws Exception {
+        final MetricsCollector metrics = new MetricsCollector();
+        final int threads = 8;
+        final int iterations = 100000;
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            workers[t] = new Thread() {
+                public void run() {
+                    Random random = new Random();
+                    for (int i = 0; i < iterations; i++) {
+                        metrics.incrementMessagesReceived();
+                        metrics.incrementBytesReceived(10);
+                        metrics.notifyReceivedMessageSize(1 + random.nextInt(1000));
+                        metrics.notifyMessageProcessingTime(random.nextInt(1000000));
+                        metrics.reportResponseCode(200 + i % 2);
+                    }
+                }
+            };
+        }
+        long start = System.nanoTime();
+        for (Thread worker : workers) {
+            worker.start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        System.out.println("Recorded " + threads * iterations + " messages in "
+                + (System.nanoTime() - start) / 1000000 + " ms");
+
+        assertEquals(threads * iterations, metrics.getMessagesReceived());
+        assertEquals(threads * iterations * 10L, metrics.getBytesReceived());
+        assertEquals(threads * iterations, metrics.getSizeReceivedHistogram().getCount());
+        assertEquals(threads * iterations, metrics.getProcessingTimeHistogram().getCount());
+        assertTrue(metrics.getMinSizeReceived() >= 1);
+        assertTrue(metrics.getMaxSizeReceived() <= 1000);
+        Map<Integer,Long> responseCodes = metrics.getResponseCodeTable();
+        assertEquals(Long.valueOf(threads * iterations / 2), responseCodes.get(200));
+        assertEquals(Long.valueOf(threads * iterations / 2), responseCodes.get(201));
+
+        metrics.reset();
+        assertEquals(0, metrics.getMessagesReceived());
+        assertEquals(0, metrics.getMaxSizeReceived());
+        assertTrue(metrics.getResponseCodeTable().isEmpty());
+    }
+}
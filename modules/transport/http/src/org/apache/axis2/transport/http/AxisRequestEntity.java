@@ -26,7 +26,6 @@ import org.apache.axis2.transport.MessageFormatter;
 import org.apache.axis2.util.JavaUtils;
 
 import javax.xml.stream.FactoryConfigurationError;
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
@@ -44,7 +43,10 @@ public abstract class AxisRequestEntity  {
 
     private MessageContext messageContext;
 
-    private byte[] bytes;
+    /**
+     * The serialized message if the request is not chunked.
+     */
+    private MessageBuffer buffer;
 
     private boolean isAllowedRetry;
 
@@ -84,10 +86,7 @@ public abstract class AxisRequestEntity  {
             if (chunked) {
                 messageFormatter.writeTo(messageContext, format, outStream, isAllowedRetry);
             } else {
-                if (bytes == null) {
-                    bytes = messageFormatter.getBytes(messageContext, format);
-                }
-                outStream.write(bytes);
+                getBuffer().writeTo(outStream);
             }
             if (outStream instanceof GZIPOutputStream) {
                 ((GZIPOutputStream) outStream).finish();
@@ -105,14 +104,58 @@ public abstract class AxisRequestEntity  {
         if (chunked) {
             return -1;
         }
-        if (bytes == null) {
+        try {
+            return getBuffer().size();
+        } catch (AxisFault e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Serialize the message into a {@link MessageBuffer} on first use, so that the content length
+     * is known and the request can be repeated without serializing the message again.
+     */
+    private MessageBuffer getBuffer() throws AxisFault {
+        if (buffer == null) {
+            MessageBuffer newBuffer = new MessageBuffer(getBufferThreshold());
             try {
-                bytes = messageFormatter.getBytes(messageContext, format);
-            } catch (AxisFault e) {
+                messageFormatter.writeTo(messageContext, format, newBuffer, true);
+                newBuffer.close();
+            } catch (IOException e) {
+                newBuffer.release();
+                throw AxisFault.makeFault(e);
+            } catch (RuntimeException e) {
+                newBuffer.release();
+                throw e;
+            }
+            buffer = newBuffer;
+        }
+        return buffer;
+    }
+
+    private long getBufferThreshold() {
+        Object threshold = messageContext.getProperty(HTTPConstants.MC_REQUEST_BUFFER_THRESHOLD);
+        if (threshold instanceof Number) {
+            return ((Number) threshold).longValue();
+        } else if (threshold instanceof String) {
+            try {
+                return Long.parseLong(((String) threshold).trim());
+            } catch (NumberFormatException e) {
                 return -1;
             }
         }
-        return bytes.length;
+        return -1;
+    }
+
+    /**
+     * Release the buffer holding the serialized message. This should be called once the request
+     * has been sent and will not be retried.
+     */
+    public void release() {
+        if (buffer != null) {
+            buffer.release();
+            buffer = null;
+        }
     }
 
     public String getContentTypeAsString() {
@@ -128,7 +171,7 @@ public abstract class AxisRequestEntity  {
     }
 
     public InputStream getRequestEntityContent() throws IOException {
-        return new ByteArrayInputStream(messageFormatter.getBytes(messageContext, format));
+        return getBuffer().getInputStream();
     }
     
     
@@ -90,6 +90,19 @@ public class AxisServlet extends HttpServlet {
     static final OnDemandLogger log = new OnDemandLogger(AxisServlet.class);
     public static final String CONFIGURATION_CONTEXT = "CONFIGURATION_CONTEXT";
     public static final String SESSION_ID = "SessionId";
+    /**
+     * Parameter (in <tt>axis2.xml</tt>) enabling asynchronous processing of requests whose
+     * response is held back (see {@link RequestResponseTransport#HOLD_RESPONSE}). If the
+     * container supports Servlet 3.0 and the servlet is declared async-supported, the container
+     * thread is then released instead of waiting for the response.
+     */
+    public static final String ASYNC_PROCESSING = "axis2.servlet.async";
+    /**
+     * Parameter (in <tt>axis2.xml</tt>) specifying the timeout in milliseconds of asynchronous
+     * requests. Defaults to 0, i.e. no timeout, in line with the synchronous behavior. A request
+     * whose response isn't ready when the timeout expires is completed with a 500 error.
+     */
+    public static final String ASYNC_TIMEOUT = "axis2.servlet.async.timeout";
 
     private static final Set<String> metadataQueryParamNames;
 
@@ -105,6 +118,8 @@ public class AxisServlet extends HttpServlet {
     private static final String LIST_SERVICES_SUFFIX = "/services/listServices";
     private static final String LIST_FAULTY_SERVICES_SUFFIX = "/services/ListFaultyServices";
     private boolean closeReader = true;
+    private boolean asyncProcessing = false;
+    private long asyncTimeout = 0;
 
     private static final int BUFFER_SIZE = 1024 * 8;
 
@@ -153,6 +168,7 @@ public class AxisServlet extends HttpServlet {
         if (!HTTPTransportUtils.isRESTRequest(contentType)) {
             msgContext = createMessageContext(request, response);
             msgContext.setProperty(Constants.Configuration.CONTENT_TYPE, contentType);
+            boolean async = false;
             try {
                 // adding ServletContext into msgContext;
                 String url = request.getRequestURL().toString();
@@ -172,79 +188,219 @@ public class AxisServlet extends HttpServlet {
 
                 if (pi.equals(InvocationResponse.SUSPEND) ||
                         (holdResponse != null && Boolean.TRUE.equals(holdResponse))) {
-                    ((RequestResponseTransport) msgContext
-                            .getProperty(RequestResponseTransport.TRANSPORT_CONTROL))
-                            .awaitResponse();
+                    RequestResponseTransport transport = (RequestResponseTransport) msgContext
+                            .getProperty(RequestResponseTransport.TRANSPORT_CONTROL);
+                    if (asyncProcessing && transport instanceof ServletRequestResponseTransport
+                            && ServletAsyncSupport.isAsyncSupported(request)) {
+                        startAsync(request, response, msgContext,
+                                (ServletRequestResponseTransport) transport, out, bufferedOut);
+                        // the response is completed (and cleaned up) by the signalling thread
+                        async = true;
+                        return;
+                    } else {
+                        transport.awaitResponse();
+                    }
                 }
 
-                // if data has not been sent back and this is not a signal response
-                if (!TransportUtils.isResponseWritten(msgContext)
-                		&& (((RequestResponseTransport)
-                				msgContext.getProperty(
-                						RequestResponseTransport.TRANSPORT_CONTROL)).
-                						getStatus() != RequestResponseTransport.
-                						RequestResponseTransportStatus.SIGNALLED)) {
-                    response.setStatus(HttpServletResponse.SC_ACCEPTED);
-                    // only set contentType in this scenario, not if response already set
-                    log.debug("Response not written. Setting response contentType to text/xml; " +
-                            "charset=" +msgContext.getProperty(Constants.Configuration.CHARACTER_SET_ENCODING));
-                    response.setContentType("text/xml; charset="
-                            + msgContext
-                            .getProperty(Constants.Configuration.CHARACTER_SET_ENCODING));
+                completeResponse(msgContext, response, bufferedOut);
+
+            } catch (AxisFault e) {
+                processPostFault(msgContext, response, out, e);
+            } catch (Throwable t) {
+                processPostError(msgContext, response, out, t);
+            } finally {
+                if (!async) {
+                    closeStaxBuilder(msgContext);
+                    TransportUtils.deleteAttachments(msgContext);
                 }
+            }
+        } else {
+            if (!disableREST) {
+                new RestRequestProcessor(Constants.Configuration.HTTP_METHOD_POST, request, response)
+                        .processXMLRequest();
+            } else {
+                showRestDisabledErrorMessage(response);
+            }
+        }
+    }
+
+    /**
+     * Put the request into asynchronous mode and complete it once the held response has been
+     * signalled, instead of blocking the container thread until then.
+     */
+    private void startAsync(HttpServletRequest request,
+                            HttpServletResponse response,
+                            MessageContext msgContext,
+                            ServletRequestResponseTransport transport,
+                            OutputStream out,
+                            OutputStream bufferedOut) {
+        final AsyncResponse asyncResponse =
+                new AsyncResponse(msgContext, response, transport, out, bufferedOut);
+        asyncResponse.asyncContext = ServletAsyncSupport.startAsync(request, response,
+                asyncTimeout, new Runnable() {
+                    public void run() {
+                        asyncResponse.timeout();
+                    }
+                });
+        if (!transport.notifyResponseReady(asyncResponse)) {
+            // The response was signalled in the meantime; complete it on the container thread
+            asyncResponse.run();
+        }
+    }
 
-                // Make sure that no data remains in the BufferedOutputStream even if the message
-                // formatter doesn't call flush
-                bufferedOut.flush();
+    /**
+     * Completes an asynchronous request, either when its held response is signalled or when the
+     * container reports that the request has timed out, whichever comes first.
+     */
+    private class AsyncResponse implements Runnable {
+        private final MessageContext msgContext;
+        private final HttpServletResponse response;
+        private final ServletRequestResponseTransport transport;
+        private final OutputStream out;
+        private final OutputStream bufferedOut;
+        private final CountDownLatch completed = new CountDownLatch(1);
+        Object asyncContext;
+        private boolean started;
+        private boolean timedOut;
+
+        AsyncResponse(MessageContext msgContext, HttpServletResponse response,
+                      ServletRequestResponseTransport transport, OutputStream out,
+                      OutputStream bufferedOut) {
+            this.msgContext = msgContext;
+            this.response = response;
+            this.transport = transport;
+            this.out = out;
+            this.bufferedOut = bufferedOut;
+        }
 
+        /**
+         * Invoked once the response is ready.
+         */
+        public void run() {
+            boolean abandoned;
+            synchronized (this) {
+                abandoned = timedOut;
+                started = true;
+            }
+            if (abandoned) {
+                // The request has already been completed by timeout(); only release the resources
+                closeStaxBuilder(msgContext);
+                TransportUtils.deleteAttachments(msgContext);
+                return;
+            }
+            try {
+                transport.awaitResponse();
+                completeResponse(msgContext, response, bufferedOut);
             } catch (AxisFault e) {
-                setResponseState(msgContext, response);
-                log.debug(e);
-                if (msgContext != null) {
-                    processAxisFault(msgContext, response, out, e);
-                } else {
-                    throw new ServletException(e);
-                }
+                processPostFault(msgContext, response, out, e);
             } catch (Throwable t) {
-                log.error(t.getMessage(), t);
                 try {
-                    // If the fault is not going along the back channel we should be 202ing
-                    if (AddressingHelper.isFaultRedirected(msgContext)) {
-                        response.setStatus(HttpServletResponse.SC_ACCEPTED);
-                    } else {
-                        response.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
-
-                        AxisBindingOperation axisBindingOperation =
-                                (AxisBindingOperation) msgContext
-                                        .getProperty(Constants.AXIS_BINDING_OPERATION);
-                        if (axisBindingOperation != null) {
-                            AxisBindingMessage axisBindingMessage = axisBindingOperation.getFault(
-                                    (String) msgContext.getProperty(Constants.FAULT_NAME));
-                            if(axisBindingMessage != null){
-                                Integer code = (Integer) axisBindingMessage
-                                        .getProperty(WSDL2Constants.ATTR_WHTTP_CODE);
-                                if (code != null) {
-                                    response.setStatus(code.intValue());
-                                }
-                            }
-                        }
-                    }
-                    handleFault(msgContext, out, new AxisFault(t.toString(), t));
-                } catch (AxisFault e2) {
-                    log.info(e2);
-                    throw new ServletException(e2);
+                    processPostError(msgContext, response, out, t);
+                } catch (ServletException ex) {
+                    log.error(ex.getMessage(), ex);
                 }
             } finally {
                 closeStaxBuilder(msgContext);
                 TransportUtils.deleteAttachments(msgContext);
+                ServletAsyncSupport.complete(asyncContext);
+                completed.countDown();
             }
-        } else {
-            if (!disableREST) {
-                new RestRequestProcessor(Constants.Configuration.HTTP_METHOD_POST, request, response)
-                        .processXMLRequest();
+        }
+
+        /**
+         * Invoked by the container when the request times out.
+         */
+        void timeout() {
+            boolean completing;
+            synchronized (this) {
+                completing = started;
+                timedOut = true;
+            }
+            if (completing) {
+                // The response became ready just in time; let run() complete the request
+                try {
+                    completed.await();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+                return;
+            }
+            log.warn("No response for " + msgContext.getTo() + " within " + asyncTimeout
+                    + " ms; completing the request with an error");
+            try {
+                response.sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+            } catch (IOException ex) {
+                log.debug(ex);
+            } finally {
+                // The resources of the message context are released by run() once the engine
+                // signals the response, since the engine may still be using them
+                ServletAsyncSupport.complete(asyncContext);
+            }
+        }
+    }
+
+    /**
+     * Finish a SOAP POST request whose response (if any) has been written.
+     */
+    private void completeResponse(MessageContext msgContext, HttpServletResponse response,
+                                  OutputStream bufferedOut) throws IOException {
+        // if data has not been sent back and this is not a signal response
+        if (!TransportUtils.isResponseWritten(msgContext)
+                && (((RequestResponseTransport)
+                        msgContext.getProperty(
+                                RequestResponseTransport.TRANSPORT_CONTROL)).
+                                getStatus() != RequestResponseTransport.
+                                RequestResponseTransportStatus.SIGNALLED)) {
+            response.setStatus(HttpServletResponse.SC_ACCEPTED);
+            // only set contentType in this scenario, not if response already set
+            log.debug("Response not written. Setting response contentType to text/xml; " +
+                    "charset=" +msgContext.getProperty(Constants.Configuration.CHARACTER_SET_ENCODING));
+            response.setContentType("text/xml; charset="
+                    + msgContext
+                    .getProperty(Constants.Configuration.CHARACTER_SET_ENCODING));
+        }
+
+        // Make sure that no data remains in the BufferedOutputStream even if the message
+        // formatter doesn't call flush
+        bufferedOut.flush();
+    }
+
+    private void processPostFault(MessageContext msgContext, HttpServletResponse response,
+                                  OutputStream out, AxisFault e) {
+        setResponseState(msgContext, response);
+        log.debug(e);
+        processAxisFault(msgContext, response, out, e);
+    }
+
+    private void processPostError(MessageContext msgContext, HttpServletResponse response,
+                                  OutputStream out, Throwable t) throws ServletException {
+        log.error(t.getMessage(), t);
+        try {
+            // If the fault is not going along the back channel we should be 202ing
+            if (AddressingHelper.isFaultRedirected(msgContext)) {
+                response.setStatus(HttpServletResponse.SC_ACCEPTED);
             } else {
-                showRestDisabledErrorMessage(response);
+                response.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+
+                AxisBindingOperation axisBindingOperation =
+                        (AxisBindingOperation) msgContext
+                                .getProperty(Constants.AXIS_BINDING_OPERATION);
+                if (axisBindingOperation != null) {
+                    AxisBindingMessage axisBindingMessage = axisBindingOperation.getFault(
+                            (String) msgContext.getProperty(Constants.FAULT_NAME));
+                    if(axisBindingMessage != null){
+                        Integer code = (Integer) axisBindingMessage
+                                .getProperty(WSDL2Constants.ATTR_WHTTP_CODE);
+                        if (code != null) {
+                            response.setStatus(code.intValue());
+                        }
+                    }
+                }
             }
+            handleFault(msgContext, out, new AxisFault(t.toString(), t));
+        } catch (AxisFault e2) {
+            log.info(e2);
+            throw new ServletException(e2);
         }
     }
 
@@ -541,6 +697,9 @@ public class AxisServlet extends HttpServlet {
      */
     @Override
     public void destroy() {
+        if (agent != null) {
+            agent.destroy();
+        }
         //stoping listner manager
         try {
             if (configContext != null) {
@@ -597,6 +756,25 @@ public class AxisServlet extends HttpServlet {
             closeReader = JavaUtils.isTrueExplicitly(parameter.getValue());
         }
 
+        // Should we release the container thread while waiting for held responses
+        parameter = axisConfiguration.getParameter(ASYNC_PROCESSING);
+        if (parameter != null) {
+            asyncProcessing = JavaUtils.isTrueExplicitly(parameter.getValue());
+        }
+        parameter = axisConfiguration.getParameter(ASYNC_TIMEOUT);
+        if (parameter != null) {
+            String value = String.valueOf(parameter.getValue()).trim();
+            try {
+                asyncTimeout = Long.parseLong(value);
+            } catch (NumberFormatException ex) {
+                asyncTimeout = -1;
+            }
+            if (asyncTimeout < 0) {
+                throw new IllegalArgumentException("Invalid value '" + value + "' for parameter "
+                        + ASYNC_TIMEOUT + ": expected a number of milliseconds, or 0 for no timeout");
+            }
+        }
+
     }
 
     /**
@@ -784,10 +962,41 @@ public class AxisServlet extends HttpServlet {
 		// signals that come in before this thread gets to the awaitResponse call.
         private RequestResponseTransportStatus status = RequestResponseTransportStatus.WAITING;
         AxisFault faultToBeThrownOut = null;
+        // Invoked instead of waking up a blocked thread when the servlet runs asynchronously
+        private Runnable responseReadyListener;
 
         public void acknowledgeMessage(MessageContext msgContext) throws AxisFault {
             status = RequestResponseTransportStatus.ACKED;
             responseReadySignal.countDown();
+            fireResponseReady();
+        }
+
+        /**
+         * Register a listener to be invoked (by the signalling thread) once the response is
+         * ready, as an alternative to {@link #awaitResponse()}.
+         *
+         * @param listener the listener
+         * @return <code>false</code> if the response is already ready, in which case the
+         *         listener is not invoked
+         */
+        public synchronized boolean notifyResponseReady(Runnable listener) {
+            if (responseReadySignal.getCount() == 0) {
+                return false;
+            }
+            responseReadyListener = listener;
+            return true;
+        }
+
+        private void fireResponseReady() {
+            Runnable listener;
+            synchronized (this) {
+                listener = responseReadyListener;
+                responseReadyListener = null;
+            }
+            if (listener != null) {
+                log.debug("Completing asynchronous servlet request");
+                listener.run();
+            }
         }
 
         public void awaitResponse()
@@ -804,6 +1013,7 @@ public class AxisServlet extends HttpServlet {
             log.debug("Signalling response available");
             status = RequestResponseTransportStatus.SIGNALLED;
             responseReadySignal.countDown();
+            fireResponseReady();
         }
 
         public RequestResponseTransportStatus getStatus() {
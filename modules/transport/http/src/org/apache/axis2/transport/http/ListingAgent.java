@@ -43,6 +43,7 @@ import javax.xml.stream.FactoryConfigurationError;
 import javax.xml.stream.XMLOutputFactory;
 import javax.xml.stream.XMLStreamException;
 import javax.xml.stream.XMLStreamWriter;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
@@ -60,8 +61,19 @@ public class ListingAgent extends AbstractAgent {
             "listServices.jsp";
     private static final String LIST_FAULTY_SERVICES_JSP_NAME = "listFaultyService.jsp";
 
+    private final ServiceMetadataCache metadataCache;
+
     public ListingAgent(ConfigurationContext aConfigContext) {
         super(aConfigContext);
+        metadataCache = new ServiceMetadataCache(
+                aConfigContext == null ? null : aConfigContext.getAxisConfiguration());
+    }
+
+    /**
+     * Release the resources of this agent. The agent must not be used afterwards.
+     */
+    public void destroy() {
+        metadataCache.destroy();
     }
 
     public void handle(HttpServletRequest httpServletRequest,
@@ -282,16 +294,25 @@ public class ListingAgent extends AbstractAgent {
             res.sendError(HttpServletResponse.SC_FORBIDDEN);
             return;
         }
-        res.setContentType("text/xml");
-        int ret = axisService.printXSD(res.getOutputStream(), getParamtereIgnoreCase(req ,"xsd"));
-        if (ret == 0) {
-            //multiple schemas are present and the user specified
-            //no name - in this case we cannot possibly pump a schema
-            //so redirect to the service root
-            res.sendRedirect("");
-        } else if (ret == -1) {
-            res.sendError(HttpServletResponse.SC_NOT_FOUND);
+        String xsdName = getParamtereIgnoreCase(req ,"xsd");
+        ServiceMetadataCache.Document document =
+                metadataCache.get(axisService, "xsd", xsdName, null);
+        if (document == null) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            int ret = axisService.printXSD(out, xsdName);
+            if (ret == 0) {
+                //multiple schemas are present and the user specified
+                //no name - in this case we cannot possibly pump a schema
+                //so redirect to the service root
+                res.sendRedirect("");
+                return;
+            } else if (ret == -1) {
+                res.sendError(HttpServletResponse.SC_NOT_FOUND);
+                return;
+            }
+            document = metadataCache.put(axisService, "xsd", xsdName, null, out.toByteArray());
         }
+        sendDocument(req, res, document);
     }
 
     private void handleWSDLRequest(HttpServletRequest req,
@@ -302,16 +323,20 @@ public class ListingAgent extends AbstractAgent {
             res.sendError(HttpServletResponse.SC_FORBIDDEN);
             return;
         }
-        OutputStream out = res.getOutputStream();
-        res.setContentType("text/xml");
         String ip = extractHost(url);
         String wsdlName = getParamtereIgnoreCase(req , "wsdl");
-
-        if (wsdlName != null && wsdlName.length()>0) {
-            axisService.printUserWSDL(out, wsdlName, ip);
-        } else {
-            axisService.printWSDL(out, ip);
+        ServiceMetadataCache.Document document =
+                metadataCache.get(axisService, "wsdl", wsdlName, ip);
+        if (document == null) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            if (wsdlName != null && wsdlName.length()>0) {
+                axisService.printUserWSDL(out, wsdlName, ip);
+            } else {
+                axisService.printWSDL(out, ip);
+            }
+            document = metadataCache.put(axisService, "wsdl", wsdlName, ip, out.toByteArray());
         }
+        sendDocument(req, res, document);
     }
 
     private void handleWSDL2Request(HttpServletRequest req,
@@ -322,16 +347,101 @@ public class ListingAgent extends AbstractAgent {
             res.sendError(HttpServletResponse.SC_FORBIDDEN);
             return;
         }
-        res.setContentType("text/xml");
         String ip = extractHost(url);
         String wsdlName = getParamtereIgnoreCase(req , "wsdl2");
+        ServiceMetadataCache.Document document =
+                metadataCache.get(axisService, "wsdl2", wsdlName, ip);
+        if (document == null) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            int ret = axisService.printWSDL2(out, ip, wsdlName);
+            if (ret == 0) {
+                res.sendRedirect("");
+                return;
+            } else if (ret == -1) {
+                res.sendError(HttpServletResponse.SC_NOT_FOUND);
+                return;
+            }
+            document = metadataCache.put(axisService, "wsdl2", wsdlName, ip, out.toByteArray());
+        }
+        sendDocument(req, res, document);
+    }
 
-        int ret = axisService.printWSDL2(res.getOutputStream(), ip, wsdlName);
-        if (ret == 0) {
-            res.sendRedirect("");
-        } else if (ret == -1) {
-            res.sendError(HttpServletResponse.SC_NOT_FOUND);
+    /**
+     * Sends a cached metadata document. Answers with 304 (Not Modified) if the client already has
+     * the current version and sends the precomputed gzip encoding if the client accepts it.
+     */
+    private void sendDocument(HttpServletRequest req, HttpServletResponse res,
+                              ServiceMetadataCache.Document document) throws IOException {
+        boolean gzip = acceptsGzip(req.getHeader("Accept-Encoding"));
+        String etag = gzip ? document.getGzipETag() : document.getETag();
+        res.setHeader("ETag", etag);
+        res.setDateHeader("Last-Modified", document.getLastModified());
+        res.setHeader("Vary", "Accept-Encoding");
+        if (isNotModified(req, etag, document.getLastModified())) {
+            res.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+        res.setContentType("text/xml");
+        byte[] content;
+        if (gzip) {
+            res.setHeader("Content-Encoding", "gzip");
+            content = document.getGzipContent();
+        } else {
+            content = document.getContent();
+        }
+        res.setContentLength(content.length);
+        OutputStream out = res.getOutputStream();
+        out.write(content);
+        out.flush();
+    }
+
+    private static boolean isNotModified(HttpServletRequest req, String documentETag,
+                                         long lastModified) {
+        String ifNoneMatch = req.getHeader("If-None-Match");
+        if (ifNoneMatch != null) {
+            // If-None-Match takes precedence over If-Modified-Since
+            for (String etag : ifNoneMatch.split(",")) {
+                etag = etag.trim();
+                if (etag.startsWith("W/")) {
+                    etag = etag.substring(2);
+                }
+                if (etag.equals("*") || etag.equals(documentETag)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        long ifModifiedSince;
+        try {
+            ifModifiedSince = req.getDateHeader("If-Modified-Since");
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+        return ifModifiedSince != -1 && lastModified <= ifModifiedSince;
+    }
+
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.split(";");
+            String name = parts[0].trim();
+            if (name.equalsIgnoreCase("gzip") || name.equalsIgnoreCase("x-gzip")) {
+                for (int i = 1; i < parts.length; i++) {
+                    String param = parts[i].trim();
+                    if (param.startsWith("q=")) {
+                        try {
+                            return Double.parseDouble(param.substring(2)) > 0;
+                        } catch (NumberFormatException e) {
+                            return false;
+                        }
+                    }
+                }
+                return true;
+            }
         }
+        return false;
     }
 
     public String getParamtereIgnoreCase(HttpServletRequest req ,String paraName){
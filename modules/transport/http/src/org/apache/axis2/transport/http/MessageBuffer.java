@@ -0,0 +1,265 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.transport.http;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * An output stream that buffers a serialized message so that it can be sent with a known
+ * content length, and sent again if the request is retried. The content is stored in fixed size
+ * segments taken from a shared pool instead of a single growing array, so that large messages
+ * don't cause large transient allocations; the segments are returned to the pool by
+ * {@link #release()}. If a threshold is set, content beyond that size is moved to a temporary
+ * file.
+ * <p>
+ * Instances are not thread safe. After {@link #release()} has been called, the buffer and any
+ * stream obtained from {@link #getInputStream()} must no longer be used.
+ */
+final class MessageBuffer extends OutputStream {
+    private static final Log log = LogFactory.getLog(MessageBuffer.class);
+
+    static final int SEGMENT_SIZE = 8192;
+
+    /**
+     * Maximum number of idle segments kept in the pool, i.e. 4MB.
+     */
+    static final int MAX_POOLED_SEGMENTS = 512;
+
+    private static final Queue<byte[]> pool = new ConcurrentLinkedQueue<byte[]>();
+
+    private static final AtomicInteger poolSize = new AtomicInteger();
+
+    private final long threshold;
+
+    private final List<byte[]> segments = new ArrayList<byte[]>();
+
+    /**
+     * The number of bytes used in the last segment.
+     */
+    private int position = SEGMENT_SIZE;
+
+    private long size;
+
+    private File file;
+
+    private OutputStream fileOutputStream;
+
+    /**
+     * @param threshold the size in bytes above which the content is moved to a temporary file, or
+     *                  -1 to always keep it in memory
+     */
+    MessageBuffer(long threshold) {
+        this.threshold = threshold;
+    }
+
+    static byte[] allocateSegment() {
+        byte[] segment = pool.poll();
+        if (segment == null) {
+            return new byte[SEGMENT_SIZE];
+        }
+        poolSize.decrementAndGet();
+        return segment;
+    }
+
+    static void recycleSegment(byte[] segment) {
+        if (poolSize.incrementAndGet() <= MAX_POOLED_SEGMENTS) {
+            pool.offer(segment);
+        } else {
+            poolSize.decrementAndGet();
+        }
+    }
+
+    public void write(int b) throws IOException {
+        if (fileOutputStream == null && (threshold < 0 || size < threshold)) {
+            if (position == SEGMENT_SIZE) {
+                segments.add(allocateSegment());
+                position = 0;
+            }
+            segments.get(segments.size() - 1)[position++] = (byte) b;
+        } else {
+            getFileOutputStream().write(b);
+        }
+        size++;
+    }
+
+    public void write(byte[] b, int off, int len) throws IOException {
+        if (fileOutputStream != null || (threshold >= 0 && size + len > threshold)) {
+            getFileOutputStream().write(b, off, len);
+            size += len;
+            return;
+        }
+        size += len;
+        while (len > 0) {
+            if (position == SEGMENT_SIZE) {
+                segments.add(allocateSegment());
+                position = 0;
+            }
+            int count = Math.min(len, SEGMENT_SIZE - position);
+            System.arraycopy(b, off, segments.get(segments.size() - 1), position, count);
+            position += count;
+            off += count;
+            len -= count;
+        }
+    }
+
+    private OutputStream getFileOutputStream() throws IOException {
+        if (fileOutputStream == null) {
+            if (file != null) {
+                throw new IOException("The buffer has already been closed");
+            }
+            file = File.createTempFile("axis2", ".msg");
+            if (log.isDebugEnabled()) {
+                log.debug("Buffering message larger than " + threshold + " bytes in " + file);
+            }
+            fileOutputStream = new BufferedOutputStream(new FileOutputStream(file));
+            writeSegments(fileOutputStream);
+            recycleSegments();
+        }
+        return fileOutputStream;
+    }
+
+    /**
+     * Complete the content of the buffer. Further writes are not allowed.
+     */
+    public void close() throws IOException {
+        if (fileOutputStream != null) {
+            fileOutputStream.close();
+            fileOutputStream = null;
+        }
+    }
+
+    /**
+     * @return the number of bytes written to the buffer
+     */
+    long size() {
+        return size;
+    }
+
+    /**
+     * Write the content of the buffer to the given stream. This may be called more than once.
+     */
+    void writeTo(OutputStream out) throws IOException {
+        if (file == null) {
+            writeSegments(out);
+        } else {
+            close();
+            InputStream in = new FileInputStream(file);
+            try {
+                byte[] segment = allocateSegment();
+                int count;
+                while ((count = in.read(segment)) != -1) {
+                    out.write(segment, 0, count);
+                }
+                recycleSegment(segment);
+            } finally {
+                in.close();
+            }
+        }
+    }
+
+    private void writeSegments(OutputStream out) throws IOException {
+        int last = segments.size() - 1;
+        for (int i = 0; i <= last; i++) {
+            out.write(segments.get(i), 0, i == last ? position : SEGMENT_SIZE);
+        }
+    }
+
+    /**
+     * @return a new stream reading the content of the buffer
+     */
+    InputStream getInputStream() throws IOException {
+        if (file == null) {
+            return new SegmentInputStream();
+        }
+        close();
+        return new FileInputStream(file);
+    }
+
+    /**
+     * Return the segments to the pool and delete the temporary file, if any.
+     */
+    void release() {
+        recycleSegments();
+        if (fileOutputStream != null) {
+            try {
+                fileOutputStream.close();
+            } catch (IOException e) {
+                log.debug("Unable to close " + file, e);
+            }
+            fileOutputStream = null;
+        }
+        if (file != null && !file.delete()) {
+            log.warn("Unable to delete the temporary file " + file);
+        }
+    }
+
+    private void recycleSegments() {
+        for (byte[] segment : segments) {
+            recycleSegment(segment);
+        }
+        segments.clear();
+        position = SEGMENT_SIZE;
+    }
+
+    private final class SegmentInputStream extends InputStream {
+        private long offset;
+
+        public int read() {
+            if (offset >= size) {
+                return -1;
+            }
+            byte b = segments.get((int) (offset / SEGMENT_SIZE))[(int) (offset % SEGMENT_SIZE)];
+            offset++;
+            return b & 0xFF;
+        }
+
+        public int read(byte[] b, int off, int len) {
+            if (len == 0) {
+                return 0;
+            }
+            if (offset >= size) {
+                return -1;
+            }
+            int index = (int) (offset % SEGMENT_SIZE);
+            int count = (int) Math.min(Math.min(len, SEGMENT_SIZE - index), size - offset);
+            System.arraycopy(segments.get((int) (offset / SEGMENT_SIZE)), index, b, off, count);
+            offset += count;
+            return count;
+        }
+
+        public int available() {
+            return (int) Math.min(Integer.MAX_VALUE, size - offset);
+        }
+    }
+}
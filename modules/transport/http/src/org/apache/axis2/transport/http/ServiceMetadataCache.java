@@ -0,0 +1,287 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.transport.http;
+
+import org.apache.axiom.om.OMElement;
+import org.apache.axis2.AxisFault;
+import org.apache.axis2.description.AxisDescription;
+import org.apache.axis2.description.AxisModule;
+import org.apache.axis2.description.AxisService;
+import org.apache.axis2.description.AxisServiceGroup;
+import org.apache.axis2.description.Parameter;
+import org.apache.axis2.description.ParameterObserver;
+import org.apache.axis2.engine.AxisConfiguration;
+import org.apache.axis2.engine.AxisEvent;
+import org.apache.axis2.engine.AxisObserver;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Caches the metadata documents (?wsdl, ?wsdl2 and ?xsd) served by {@link ListingAgent}, so that
+ * they are generated and serialized once per service, WSDL flavour, document name and requested
+ * host instead of on every request. Each cached {@link Document} also carries its gzip encoded
+ * form, an ETag per encoding and a Last-Modified time for conditional requests.
+ * <p>
+ * The documents of a service are dropped when the service is redeployed, started or stopped, when
+ * a module is engaged on or disengaged from it (or from its group or the configuration) and when
+ * one of its parameters changes. Entries are held weakly by service, so removed services don't
+ * stay in the cache. The cache registers itself as an observer of the {@link AxisConfiguration}
+ * and of the services; {@link #destroy} must be called when it is no longer used.
+ */
+final class ServiceMetadataCache implements AxisObserver {
+
+    /**
+     * Maximum number of documents cached per service. The requested host is part of the key, so
+     * this bounds the memory used when clients send many different host names.
+     */
+    static final int MAX_DOCUMENTS_PER_SERVICE = 32;
+
+    private final AxisConfiguration axisConfiguration;
+
+    private final Map<AxisService, ServiceEntry> entries =
+            Collections.synchronizedMap(new WeakHashMap<AxisService, ServiceEntry>());
+
+    /**
+     * A serialized metadata document. Instances are immutable.
+     */
+    static final class Document {
+        private final byte[] content;
+        private final byte[] gzipContent;
+        private final String etag;
+        private final String gzipETag;
+        private final long lastModified;
+
+        Document(byte[] content) throws IOException {
+            this.content = content;
+            ByteArrayOutputStream baos = new ByteArrayOutputStream(content.length / 4 + 64);
+            GZIPOutputStream gzip = new GZIPOutputStream(baos);
+            gzip.write(content);
+            gzip.close();
+            this.gzipContent = baos.toByteArray();
+            this.etag = computeETag(content);
+            // The encodings are different representations, which need different entity tags
+            this.gzipETag = etag.substring(0, etag.length() - 1) + "-gzip\"";
+            // HTTP dates have a resolution of one second
+            this.lastModified = System.currentTimeMillis() / 1000 * 1000;
+        }
+
+        byte[] getContent() {
+            return content;
+        }
+
+        byte[] getGzipContent() {
+            return gzipContent;
+        }
+
+        String getETag() {
+            return etag;
+        }
+
+        String getGzipETag() {
+            return gzipETag;
+        }
+
+        long getLastModified() {
+            return lastModified;
+        }
+    }
+
+    private static final class ServiceEntry implements ParameterObserver {
+        final ConcurrentMap<String, Document> documents =
+                new ConcurrentHashMap<String, Document>();
+
+        public void parameterChanged(String name, Object value) {
+            documents.clear();
+        }
+    }
+
+    ServiceMetadataCache(AxisConfiguration axisConfiguration) {
+        this.axisConfiguration = axisConfiguration;
+        if (axisConfiguration != null) {
+            axisConfiguration.addObservers(this);
+        }
+    }
+
+    /**
+     * Get a cached document.
+     *
+     * @param service the service
+     * @param flavour the kind of document, e.g. <tt>wsdl</tt> or <tt>xsd</tt>
+     * @param name    the name of the requested document, or <code>null</code>
+     * @param host    the host the addresses in the document are rewritten to, or <code>null</code>
+     * @return the document, or <code>null</code> if it isn't cached
+     */
+    Document get(AxisService service, String flavour, String name, String host) {
+        ServiceEntry entry = entries.get(service);
+        return entry == null ? null : entry.documents.get(key(flavour, name, host));
+    }
+
+    /**
+     * Create a document from the given content and cache it, unless the service already has
+     * {@link #MAX_DOCUMENTS_PER_SERVICE} documents.
+     *
+     * @return the document, which can be sent even if it wasn't cached
+     * @throws IOException if the content can't be compressed
+     */
+    Document put(AxisService service, String flavour, String name, String host, byte[] content)
+            throws IOException {
+        Document document = new Document(content);
+        ServiceEntry entry;
+        synchronized (entries) {
+            entry = entries.get(service);
+            if (entry == null) {
+                entry = new ServiceEntry();
+                service.addParameterObserver(entry);
+                entries.put(service, entry);
+            }
+        }
+        if (entry.documents.size() < MAX_DOCUMENTS_PER_SERVICE) {
+            Document existing = entry.documents.putIfAbsent(key(flavour, name, host), document);
+            if (existing != null) {
+                return existing;
+            }
+        }
+        return document;
+    }
+
+    /**
+     * Drop the cached documents of the given service.
+     */
+    void invalidate(AxisService service) {
+        ServiceEntry entry = entries.get(service);
+        if (entry != null) {
+            entry.documents.clear();
+        }
+    }
+
+    /**
+     * Drop all cached documents.
+     */
+    void invalidateAll() {
+        synchronized (entries) {
+            for (ServiceEntry entry : entries.values()) {
+                entry.documents.clear();
+            }
+        }
+    }
+
+    /**
+     * Drop all cached documents and unregister the observers added by this cache.
+     */
+    void destroy() {
+        if (axisConfiguration != null) {
+            axisConfiguration.removeObserver(this);
+        }
+        synchronized (entries) {
+            for (Map.Entry<AxisService, ServiceEntry> entry : entries.entrySet()) {
+                entry.getKey().removeParameterObserver(entry.getValue());
+            }
+            entries.clear();
+        }
+    }
+
+    private static String key(String flavour, String name, String host) {
+        StringBuilder key = new StringBuilder(flavour);
+        key.append('\n');
+        if (name != null) {
+            key.append(name);
+        }
+        key.append('\n');
+        if (host != null) {
+            key.append(host);
+        }
+        return key.toString();
+    }
+
+    private static String computeETag(byte[] content) {
+        StringBuilder etag = new StringBuilder("\"");
+        try {
+            byte[] digest = MessageDigest.getInstance("MD5").digest(content);
+            for (byte b : digest) {
+                etag.append(Character.forDigit((b >> 4) & 0xF, 16));
+                etag.append(Character.forDigit(b & 0xF, 16));
+            }
+        } catch (NoSuchAlgorithmException e) {
+            etag.append(Integer.toHexString(Arrays.hashCode(content)));
+            etag.append('-').append(content.length);
+        }
+        return etag.append('"').toString();
+    }
+
+    public void init(AxisConfiguration axisConfig) {
+        //Nothing to do
+    }
+
+    public void serviceUpdate(AxisEvent event, AxisService service) {
+        invalidate(service);
+    }
+
+    public void serviceGroupUpdate(AxisEvent event, AxisServiceGroup serviceGroup) {
+        invalidateAll();
+    }
+
+    public void moduleUpdate(AxisEvent event, AxisModule module) {
+        AxisDescription description = event.getAxisDescription();
+        while (description != null && !(description instanceof AxisService)) {
+            description = description.getParent();
+        }
+        if (description == null) {
+            // engaged globally or on a service group
+            invalidateAll();
+        } else {
+            invalidate((AxisService) description);
+        }
+    }
+
+    public void addParameter(Parameter param) throws AxisFault {
+        //Nothing to do
+    }
+
+    public void removeParameter(Parameter param) throws AxisFault {
+        //Nothing to do
+    }
+
+    public void deserializeParameters(OMElement parameterElement) throws AxisFault {
+        //Nothing to do
+    }
+
+    public Parameter getParameter(String name) {
+        return null;
+    }
+
+    public ArrayList<Parameter> getParameters() {
+        return null;
+    }
+
+    public boolean isParameterLocked(String parameterName) {
+        return false;
+    }
+}
@@ -0,0 +1,162 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.transport.http;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+
+/**
+ * Access to the asynchronous request processing of Servlet 3.0 containers. Axis2 is compiled
+ * against an older Servlet API, so the methods are looked up reflectively; on older containers
+ * {@link #isAsyncSupported(ServletRequest)} simply returns false.
+ */
+final class ServletAsyncSupport {
+    private static final Log log = LogFactory.getLog(ServletAsyncSupport.class);
+
+    private static final Method isAsyncSupported;
+    private static final Method startAsync;
+    private static final Method setTimeout;
+    private static final Method complete;
+    private static final Method addListener;
+    private static final Class<?> asyncListenerClass;
+
+    static {
+        Method isAsyncSupportedMethod = null;
+        Method startAsyncMethod = null;
+        Method setTimeoutMethod = null;
+        Method completeMethod = null;
+        Method addListenerMethod = null;
+        Class<?> listenerClass = null;
+        try {
+            isAsyncSupportedMethod = ServletRequest.class.getMethod("isAsyncSupported");
+            startAsyncMethod = ServletRequest.class.getMethod("startAsync",
+                    ServletRequest.class, ServletResponse.class);
+            Class<?> asyncContextClass = startAsyncMethod.getReturnType();
+            setTimeoutMethod = asyncContextClass.getMethod("setTimeout", long.class);
+            completeMethod = asyncContextClass.getMethod("complete");
+            listenerClass = Class.forName("javax.servlet.AsyncListener", false,
+                    asyncContextClass.getClassLoader());
+            addListenerMethod = asyncContextClass.getMethod("addListener", listenerClass);
+        } catch (NoSuchMethodException ex) {
+            log.debug("Servlet API without support for asynchronous processing");
+            isAsyncSupportedMethod = null;
+        } catch (ClassNotFoundException ex) {
+            log.debug("Servlet API without support for asynchronous processing");
+            isAsyncSupportedMethod = null;
+        }
+        isAsyncSupported = isAsyncSupportedMethod;
+        startAsync = startAsyncMethod;
+        setTimeout = setTimeoutMethod;
+        complete = completeMethod;
+        addListener = addListenerMethod;
+        asyncListenerClass = listenerClass;
+    }
+
+    private ServletAsyncSupport() {}
+
+    /**
+     * Check whether the given request may be put into asynchronous mode, i.e. the container
+     * implements Servlet 3.0 and the servlet (and its filters) are declared async-supported.
+     *
+     * @param request the request
+     * @return <code>true</code> if
+     *         {@link #startAsync(ServletRequest, ServletResponse, long, Runnable)}
+     *         may be called
+     */
+    static boolean isAsyncSupported(ServletRequest request) {
+        if (isAsyncSupported == null) {
+            return false;
+        }
+        try {
+            return (Boolean)isAsyncSupported.invoke(request);
+        } catch (Exception ex) {
+            return false;
+        }
+    }
+
+    /**
+     * Put the request into asynchronous mode. The container will not commit the response when
+     * the servlet returns, but only once {@link #complete(Object)} is called.
+     *
+     * @param request the request
+     * @param response the response
+     * @param timeout the timeout in milliseconds, or 0 for no timeout
+     * @param timeoutHandler invoked by the container when the request times out; it must
+     *            complete the request
+     * @return the <code>AsyncContext</code>
+     * @throws IllegalStateException if the request can't be put into asynchronous mode
+     */
+    static Object startAsync(ServletRequest request, ServletResponse response, long timeout,
+                             final Runnable timeoutHandler) {
+        Object asyncContext = invoke(startAsync, request, request, response);
+        Object listener = Proxy.newProxyInstance(asyncListenerClass.getClassLoader(),
+                new Class<?>[] { asyncListenerClass }, new InvocationHandler() {
+                    public Object invoke(Object proxy, Method method, Object[] args) {
+                        String name = method.getName();
+                        if (name.equals("onTimeout")) {
+                            timeoutHandler.run();
+                        } else if (name.equals("equals")) {
+                            return proxy == args[0];
+                        } else if (name.equals("hashCode")) {
+                            return System.identityHashCode(proxy);
+                        } else if (name.equals("toString")) {
+                            return "AsyncListener[" + timeoutHandler + "]";
+                        }
+                        return null;
+                    }
+                });
+        invoke(addListener, asyncContext, listener);
+        invoke(setTimeout, asyncContext, timeout);
+        return asyncContext;
+    }
+
+    /**
+     * Complete the asynchronous processing of a request and let the container commit the
+     * response.
+     *
+     * @param asyncContext the <code>AsyncContext</code> returned by
+     *            {@link #startAsync(ServletRequest, ServletResponse, long, Runnable)}
+     */
+    static void complete(Object asyncContext) {
+        invoke(complete, asyncContext);
+    }
+
+    private static Object invoke(Method method, Object target, Object... args) {
+        try {
+            return method.invoke(target, args);
+        } catch (IllegalAccessException ex) {
+            throw new IllegalStateException(ex);
+        } catch (InvocationTargetException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException)cause;
+            } else {
+                throw new IllegalStateException(cause);
+            }
+        }
+    }
+}
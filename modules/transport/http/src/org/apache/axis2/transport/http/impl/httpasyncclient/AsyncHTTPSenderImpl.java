@@ -0,0 +1,172 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.transport.http.impl.httpasyncclient;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URL;
+
+import org.apache.axis2.AxisFault;
+import org.apache.axis2.context.MessageContext;
+import org.apache.axis2.transport.MessageFormatter;
+import org.apache.axis2.transport.NonBlockingTransportSender;
+import org.apache.axis2.transport.http.HTTPConstants;
+import org.apache.axis2.transport.http.impl.httpclient4.AxisRequestEntityImpl;
+import org.apache.axis2.transport.http.impl.httpclient4.HTTPSenderImpl;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.concurrent.FutureCallback;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.apache.http.nio.entity.NByteArrayEntity;
+
+/**
+ * An {@link HTTPSenderImpl} that sends POST requests of non-blocking invocations through an
+ * HttpAsyncClient. The response is processed on the I/O reactor thread that receives it, after
+ * which the {@link NonBlockingTransportSender.ResponseCallback} of the invocation is notified.
+ * All other requests are sent with the blocking client.
+ */
+public class AsyncHTTPSenderImpl extends HTTPSenderImpl {
+
+    private static final Log log = LogFactory.getLog(AsyncHTTPSenderImpl.class);
+
+    private final CloseableHttpAsyncClient asyncClient;
+
+    public AsyncHTTPSenderImpl(CloseableHttpAsyncClient asyncClient) {
+        this.asyncClient = asyncClient;
+    }
+
+    @Override
+    protected void sendViaPost(final MessageContext msgContext, final URL url,
+                               String soapActionString) throws AxisFault {
+        final NonBlockingTransportSender.ResponseCallback callback =
+                (NonBlockingTransportSender.ResponseCallback) msgContext
+                        .getProperty(NonBlockingTransportSender.RESPONSE_CALLBACK);
+        if (callback == null || asyncClient == null) {
+            super.sendViaPost(msgContext, url, soapActionString);
+            return;
+        }
+
+        HttpPost postMethod = new HttpPost();
+        // The HTTP client is only used to switch to HTTP/1.0, which is never sent this way
+        MessageFormatter messageFormatter = populateCommonProperties(msgContext, url, postMethod,
+                                                                     null, soapActionString);
+
+        // Serialize the message on the calling thread; the reactor threads must not block
+        final AxisRequestEntityImpl requestEntity =
+                new AxisRequestEntityImpl(messageFormatter, msgContext, format,
+                                          soapActionString, chunked, isAllowedRetry);
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        try {
+            requestEntity.writeTo(buffer);
+        } catch (IOException e) {
+            requestEntity.release();
+            throw AxisFault.makeFault(e);
+        } catch (RuntimeException e) {
+            requestEntity.release();
+            throw e;
+        }
+        NByteArrayEntity entity = new NByteArrayEntity(buffer.toByteArray());
+        entity.setChunked(chunked);
+        postMethod.setEntity(entity);
+
+        String soapAction = messageFormatter.formatSOAPAction(msgContext, format, soapActionString);
+        if (soapAction != null && !msgContext.isDoingREST()) {
+            postMethod.setHeader(HTTPConstants.HEADER_SOAP_ACTION, soapAction);
+        }
+
+        addCustomHeaders(postMethod, msgContext);
+        if (msgContext.isPropertyTrue(HTTPConstants.MC_ACCEPT_GZIP)) {
+            postMethod.addHeader(HTTPConstants.HEADER_ACCEPT_ENCODING,
+                                 HTTPConstants.COMPRESSION_GZIP);
+        }
+        if (msgContext.isPropertyTrue(HTTPConstants.MC_GZIP_REQUEST)) {
+            postMethod.addHeader(HTTPConstants.HEADER_CONTENT_ENCODING,
+                                 HTTPConstants.COMPRESSION_GZIP);
+        }
+        postMethod.setConfig(createRequestConfig(msgContext));
+
+        if (log.isTraceEnabled()) {
+            log.trace(Thread.currentThread() + " Submitting non-blocking POST to " + url);
+        }
+        try {
+            asyncClient.execute(postMethod, new FutureCallback<HttpResponse>() {
+                public void completed(HttpResponse response) {
+                    try {
+                        handleResponse(msgContext, response);
+                    } catch (Exception e) {
+                        log.info("Unable to sendViaPost to url[" + url + "]", e);
+                        cleanup(msgContext, response);
+                        requestEntity.release();
+                        callback.onError(e);
+                        return;
+                    }
+                    cleanup(msgContext, response);
+                    requestEntity.release();
+                    callback.onResponse();
+                }
+
+                public void failed(Exception e) {
+                    log.info("Unable to sendViaPost to url[" + url + "]", e);
+                    requestEntity.release();
+                    callback.onError(AxisFault.makeFault(e));
+                }
+
+                public void cancelled() {
+                    requestEntity.release();
+                    callback.onError(new AxisFault("The request to " + url + " was cancelled"));
+                }
+            });
+        } catch (RuntimeException e) {
+            // e.g. the client has been stopped; none of the callbacks is invoked
+            requestEntity.release();
+            throw AxisFault.makeFault(e);
+        }
+    }
+
+    /**
+     * Create the per request configuration, applying the same timeout rules as the blocking
+     * client: the {@link HTTPConstants#SO_TIMEOUT} and {@link HTTPConstants#CONNECTION_TIMEOUT}
+     * properties take precedence over the timeout of the client options.
+     *
+     * @param msgContext the active MessageContext
+     * @return the request configuration
+     */
+    protected RequestConfig createRequestConfig(MessageContext msgContext) {
+        Integer soTimeout = (Integer) msgContext.getProperty(HTTPConstants.SO_TIMEOUT);
+        Integer connTimeout = (Integer) msgContext.getProperty(HTTPConstants.CONNECTION_TIMEOUT);
+        long timeout = msgContext.getOptions().getTimeOutInMilliSeconds();
+
+        RequestConfig.Builder builder = RequestConfig.custom();
+        if (connTimeout != null) {
+            builder.setConnectTimeout(connTimeout.intValue());
+        } else if (timeout > 0) {
+            builder.setConnectTimeout((int) timeout);
+        }
+        if (soTimeout != null) {
+            builder.setSocketTimeout(soTimeout.intValue());
+        } else if (timeout > 0) {
+            builder.setSocketTimeout((int) timeout);
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,185 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.transport.http.impl.httpasyncclient;
+
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.net.URL;
+
+import org.apache.axis2.AxisFault;
+import org.apache.axis2.Constants;
+import org.apache.axis2.addressing.EndpointReference;
+import org.apache.axis2.context.ConfigurationContext;
+import org.apache.axis2.context.MessageContext;
+import org.apache.axis2.description.Parameter;
+import org.apache.axis2.description.TransportOutDescription;
+import org.apache.axis2.transport.NonBlockingTransportSender;
+import org.apache.axis2.transport.http.AbstractHTTPSender;
+import org.apache.axis2.transport.http.HTTPConstants;
+import org.apache.axis2.transport.http.impl.httpclient4.HTTPClient4TransportSender;
+import org.apache.axis2.transport.http.impl.httpclient4.HTTPProxyConfigurator;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.apache.http.impl.nio.client.HttpAsyncClients;
+import org.apache.http.impl.nio.reactor.IOReactorConfig;
+
+/**
+ * A transport sender based on HttpComponents HttpAsyncClient. Blocking invocations are handled
+ * exactly like {@link HTTPClient4TransportSender}, but non-blocking out-in invocations
+ * (<code>sendReceiveNonBlocking</code>) are executed on the I/O reactor of the async client, so
+ * that no thread is held while waiting for the response.
+ * <p>
+ * The request is serialized into memory before it is submitted, and the response is buffered
+ * by the reactor before it is handed to the engine. The callback of the client is therefore
+ * invoked on one of the reactor threads and should not block. Requests that need authentication,
+ * a proxy, HTTP/1.0 or an HTTP method other than POST are sent with the blocking client on the
+ * client thread pool as before.
+ * <p>
+ * The following parameters may be set on the transport sender in <tt>axis2.xml</tt>:
+ * <ul>
+ * <li>{@link #MAX_CONNECTIONS_TOTAL}: the maximum number of connections (default 200)</li>
+ * <li>{@link #MAX_CONNECTIONS_PER_ROUTE}: the maximum number of connections per host
+ * (default 200)</li>
+ * <li>{@link #IO_THREAD_COUNT}: the number of I/O reactor threads (default: the number of
+ * processors)</li>
+ * </ul>
+ */
+public class HTTPAsyncClientTransportSender extends HTTPClient4TransportSender
+        implements NonBlockingTransportSender {
+
+    private static final Log log = LogFactory.getLog(HTTPAsyncClientTransportSender.class);
+
+    public static final String MAX_CONNECTIONS_TOTAL = "maxConnectionsTotal";
+    public static final String MAX_CONNECTIONS_PER_ROUTE = "maxConnectionsPerRoute";
+    public static final String IO_THREAD_COUNT = "ioThreadCount";
+
+    private static final int DEFAULT_MAX_CONNECTIONS = 200;
+
+    private CloseableHttpAsyncClient asyncClient;
+
+    /**
+     * Whether HTTP/1.0 is configured as the default protocol version in <tt>axis2.xml</tt>.
+     */
+    private boolean defaultHttp10;
+
+    @Override
+    public void init(ConfigurationContext confContext,
+                     TransportOutDescription transportOut) throws AxisFault {
+        super.init(confContext, transportOut);
+
+        Parameter version = transportOut.getParameter(HTTPConstants.PROTOCOL_VERSION);
+        defaultHttp10 = version != null
+                && HTTPConstants.HEADER_PROTOCOL_10.equals(version.getValue());
+
+        int maxTotal = getIntParameter(transportOut, MAX_CONNECTIONS_TOTAL,
+                                       DEFAULT_MAX_CONNECTIONS);
+        int maxPerRoute = getIntParameter(transportOut, MAX_CONNECTIONS_PER_ROUTE,
+                                          DEFAULT_MAX_CONNECTIONS);
+        int ioThreadCount = getIntParameter(transportOut, IO_THREAD_COUNT,
+                                            Runtime.getRuntime().availableProcessors());
+
+        IOReactorConfig ioReactorConfig = IOReactorConfig.custom()
+                .setIoThreadCount(ioThreadCount)
+                .build();
+        asyncClient = HttpAsyncClients.custom()
+                .setDefaultIOReactorConfig(ioReactorConfig)
+                .setMaxConnTotal(maxTotal)
+                .setMaxConnPerRoute(maxPerRoute)
+                .build();
+        asyncClient.start();
+        if (log.isDebugEnabled()) {
+            log.debug("Started HttpAsyncClient with " + ioThreadCount + " I/O threads and "
+                      + maxTotal + " connections");
+        }
+    }
+
+    @Override
+    public void stop() {
+        if (asyncClient != null) {
+            try {
+                asyncClient.close();
+            } catch (IOException e) {
+                log.warn("Error while stopping HttpAsyncClient", e);
+            }
+            asyncClient = null;
+        }
+        super.stop();
+    }
+
+    public boolean isNonBlocking(MessageContext msgContext) {
+        CloseableHttpAsyncClient client = asyncClient;
+        if (client == null || !client.isRunning()) {
+            return false;
+        }
+        String httpMethod = (String) msgContext.getProperty(Constants.Configuration.HTTP_METHOD);
+        if (httpMethod != null
+                && !Constants.Configuration.HTTP_METHOD_POST.equalsIgnoreCase(httpMethod)) {
+            return false;
+        }
+        Object httpVersion = msgContext.getProperty(HTTPConstants.HTTP_PROTOCOL_VERSION);
+        if (httpVersion != null ? HTTPConstants.HEADER_PROTOCOL_10.equals(httpVersion)
+                                : defaultHttp10) {
+            return false;
+        }
+        if (msgContext.getProperty(HTTPConstants.AUTHENTICATE) != null
+                || msgContext.getProperty(HTTPConstants.HTTP_METHOD_PARAMS) != null) {
+            return false;
+        }
+        // Same target selection as in invoke(); without an address there is no response to wait for
+        EndpointReference epr;
+        String transportURL = (String) msgContext.getProperty(Constants.Configuration.TRANSPORT_URL);
+        if (transportURL != null) {
+            epr = new EndpointReference(transportURL);
+        } else {
+            epr = msgContext.getTo();
+            if (epr == null || epr.hasAnonymousAddress()) {
+                return false;
+            }
+        }
+        if (epr.getAddress() == null || epr.hasNoneAddress()) {
+            return false;
+        }
+        try {
+            return !HTTPProxyConfigurator.isProxyEnabled(msgContext, new URL(epr.getAddress()));
+        } catch (MalformedURLException e) {
+            return false;
+        }
+    }
+
+    @Override
+    protected AbstractHTTPSender createHTTPSender() {
+        return new AsyncHTTPSenderImpl(asyncClient);
+    }
+
+    private static int getIntParameter(TransportOutDescription transportOut, String name,
+                                       int defaultValue) {
+        Parameter param = transportOut.getParameter(name);
+        if (param == null) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(((String) param.getValue()).trim());
+        } catch (NumberFormatException e) {
+            log.error("Invalid value for parameter " + name + ": not a number", e);
+            return defaultValue;
+        }
+    }
+}
@@ -242,6 +242,7 @@ public class HTTPSenderImpl extends HTTPSender {
             throw AxisFault.makeFault(e);
         } finally {
             cleanup(msgContext, response);
+            requestEntity.release();
         }
     }
 
@@ -297,6 +298,7 @@ public class HTTPSenderImpl extends HTTPSender {
             throw AxisFault.makeFault(e);
         } finally {
             cleanup(msgContext, response);
+            requestEntity.release();
         }
     }
 
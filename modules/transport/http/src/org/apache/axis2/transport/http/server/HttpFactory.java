@@ -26,6 +26,9 @@ import org.apache.axis2.description.Parameter;
 import org.apache.axis2.description.TransportInDescription;
 import org.apache.axis2.engine.ListenerManager;
 import org.apache.axis2.transport.http.HTTPWorkerFactory;
+import org.apache.axis2.util.threadpool.VirtualThreads;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
 import org.apache.http.ConnectionReuseStrategy;
 import org.apache.http.HttpResponseFactory;
 import org.apache.http.impl.DefaultConnectionReuseStrategy;
@@ -100,6 +103,13 @@ public class HttpFactory {
      */
     public static final String PARAMETER_THREAD_KEEP_ALIVE_TIME_UNIT = "threadKeepAliveTimeUnit";
 
+    /**
+     * Name of axis2.xml requestVirtualThreads parameter for SimpleHTTPServer configuration
+     */
+    public static final String PARAMETER_REQUEST_VIRTUAL_THREADS = "requestVirtualThreads";
+
+    private static final Log log = LogFactory.getLog(HttpFactory.class);
+
     private ConfigurationContext configurationContext;
     private TransportInDescription httpConfiguration;
     private int port;
@@ -111,6 +121,7 @@ public class HttpFactory {
     private int requestMaxThreadPoolSize;
     private long threadKeepAliveTime;
     private TimeUnit threadKeepAliveTimeUnit;
+    private boolean requestVirtualThreads;
 
     private WorkerFactory requestWorkerFactory = null;
 
@@ -130,6 +141,7 @@ public class HttpFactory {
         threadKeepAliveTime = getLongParam(PARAMETER_THREAD_KEEP_ALIVE_TIME, 180L);
         threadKeepAliveTimeUnit =
                 getTimeUnitParam(PARAMETER_THREAD_KEEP_ALIVE_TIME_UNIT, TimeUnit.SECONDS);
+        requestVirtualThreads = getBooleanParam(PARAMETER_REQUEST_VIRTUAL_THREADS, false);
     }
 
     /**
@@ -269,9 +281,20 @@ public class HttpFactory {
     }
 
     /**
-     * Create the executor use the manage request processing threads
+     * Create the executor use the manage request processing threads. If requestVirtualThreads
+     * is enabled and the JVM supports virtual threads, each request is processed in its own
+     * virtual thread and the thread pool size parameters are ignored.
      */
     public ExecutorService newRequestExecutor(int port) {
+        if (requestVirtualThreads) {
+            ExecutorService executor = VirtualThreads.newThreadPerTaskExecutor(
+                    "HttpConnection-" + port + "-");
+            if (executor != null) {
+                return executor;
+            }
+            log.info("Virtual threads are not supported by this JVM; using a thread pool with "
+                    + requestMaxThreadPoolSize + " threads for request processing");
+        }
         return new ThreadPoolExecutor(requestCoreThreadPoolSize, requestMaxThreadPoolSize,
                                       threadKeepAliveTime, threadKeepAliveTimeUnit,
                                       newRequestBlockingQueue(),
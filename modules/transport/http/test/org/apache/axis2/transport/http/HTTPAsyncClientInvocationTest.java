@@ -0,0 +1,124 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axis2.transport.http;
+
+import java.net.ServerSocket;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.axiom.om.OMElement;
+import org.apache.axis2.addressing.EndpointReference;
+import org.apache.axis2.client.Options;
+import org.apache.axis2.client.ServiceClient;
+import org.apache.axis2.client.async.AxisCallback;
+import org.apache.axis2.context.ConfigurationContext;
+import org.apache.axis2.context.ConfigurationContextFactory;
+import org.apache.axis2.context.MessageContext;
+import org.apache.axis2.description.TransportOutDescription;
+import org.apache.axis2.transport.http.impl.httpasyncclient.HTTPAsyncClientTransportSender;
+import org.apache.axis2.transport.http.mock.server.AbstractHTTPServerTest;
+import org.apache.axis2.transport.http.mock.server.BasicHttpServer;
+
+/**
+ * Tests non-blocking invocations completed by {@link HTTPAsyncClientTransportSender}, from
+ * {@link ServiceClient#sendReceiveNonBlocking} to the {@link AxisCallback}.
+ */
+public class HTTPAsyncClientInvocationTest extends AbstractHTTPServerTest {
+
+    private static class TestCallback implements AxisCallback {
+        final CountDownLatch completed = new CountDownLatch(1);
+        volatile MessageContext message;
+        volatile Exception error;
+        volatile Thread thread;
+
+        public void onMessage(MessageContext msgContext) {
+            message = msgContext;
+        }
+
+        public void onFault(MessageContext msgContext) {
+            message = msgContext;
+        }
+
+        public void onError(Exception e) {
+            error = e;
+        }
+
+        public void onComplete() {
+            thread = Thread.currentThread();
+            completed.countDown();
+        }
+    }
+
+    private ConfigurationContext configContext;
+    private HTTPAsyncClientTransportSender sender;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        configContext = ConfigurationContextFactory.createEmptyConfigurationContext();
+        TransportOutDescription transportOut = new TransportOutDescription("http");
+        sender = new HTTPAsyncClientTransportSender();
+        transportOut.setSender(sender);
+        sender.init(configContext, transportOut);
+        configContext.getAxisConfiguration().addTransportOut(transportOut);
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        sender.stop();
+        configContext.terminate();
+        super.tearDown();
+    }
+
+    private TestCallback invoke(String address) throws Exception {
+        ServiceClient serviceClient = new ServiceClient(configContext, null);
+        Options options = serviceClient.getOptions();
+        options.setTo(new EndpointReference(address));
+        options.setAction("urn:echo");
+        options.setTimeOutInMilliSeconds(10000);
+        TestCallback callback = new TestCallback();
+        serviceClient.sendReceiveNonBlocking(getEnvelope().getBody().getFirstElement(), callback);
+        assertTrue("The callback was not notified",
+                   callback.completed.await(30, TimeUnit.SECONDS));
+        return callback;
+    }
+
+    public void testOnResponse() throws Exception {
+        getBasicHttpServer().setResponseTemplate(BasicHttpServer.RESPONSE_HTTP_OK_LOOP_BACK);
+        TestCallback callback = invoke("http://localhost:" + getBasicHttpServer().getPort()
+                                       + "/axis2/services/Echo");
+        assertNull(callback.error);
+        assertNotNull(callback.message);
+        OMElement response = callback.message.getEnvelope().getBody().getFirstElement();
+        assertEquals("message", response.getLocalName());
+        assertEquals("sample data", response.getFirstElement().getText());
+        // completed by the I/O reactor, not by a worker of the client thread pool
+        assertTrue(callback.thread.getName().startsWith("I/O dispatcher"));
+    }
+
+    public void testOnError() throws Exception {
+        // find a port nobody listens on
+        ServerSocket serverSocket = new ServerSocket(0);
+        int port = serverSocket.getLocalPort();
+        serverSocket.close();
+        TestCallback callback = invoke("http://localhost:" + port + "/axis2/services/Echo");
+        assertNull(callback.message);
+        assertNotNull(callback.error);
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axis2.transport.http;
+
+import org.apache.axis2.Constants;
+import org.apache.axis2.addressing.AddressingConstants;
+import org.apache.axis2.addressing.EndpointReference;
+import org.apache.axis2.context.ConfigurationContext;
+import org.apache.axis2.context.ConfigurationContextFactory;
+import org.apache.axis2.context.MessageContext;
+import org.apache.axis2.description.TransportOutDescription;
+import org.apache.axis2.transport.TransportSender;
+import org.apache.axis2.transport.http.impl.httpasyncclient.HTTPAsyncClientTransportSender;
+
+public class HTTPAsyncClientTransportSenderTest extends HTTPClient4TransportSenderTest {
+
+    @Override
+    protected TransportSender getTransportSender() {
+        return new HTTPAsyncClientTransportSender();
+    }
+
+    public void testIsNonBlocking() throws Exception {
+        ConfigurationContext confContext = ConfigurationContextFactory
+                .createEmptyConfigurationContext();
+        HTTPAsyncClientTransportSender sender = new HTTPAsyncClientTransportSender();
+        MessageContext msgContext = new MessageContext();
+        msgContext.setConfigurationContext(confContext);
+        msgContext.setTo(new EndpointReference("http://localhost:8080/axis2/services/Echo"));
+
+        // not started yet
+        assertFalse(sender.isNonBlocking(msgContext));
+
+        sender.init(confContext, new TransportOutDescription("http"));
+        try {
+            assertTrue(sender.isNonBlocking(msgContext));
+
+            msgContext.setProperty(Constants.Configuration.HTTP_METHOD,
+                                   Constants.Configuration.HTTP_METHOD_GET);
+            assertFalse(sender.isNonBlocking(msgContext));
+            msgContext.removeProperty(Constants.Configuration.HTTP_METHOD);
+
+            msgContext.setProperty(HTTPConstants.HTTP_PROTOCOL_VERSION,
+                                   HTTPConstants.HEADER_PROTOCOL_10);
+            assertFalse(sender.isNonBlocking(msgContext));
+            msgContext.removeProperty(HTTPConstants.HTTP_PROTOCOL_VERSION);
+
+            msgContext.setTo(new EndpointReference(AddressingConstants.Final.WSA_NONE_URI));
+            assertFalse(sender.isNonBlocking(msgContext));
+        } finally {
+            sender.stop();
+        }
+        assertFalse(sender.isNonBlocking(new MessageContext()));
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.transport.http;
+
+import junit.framework.TestCase;
+import org.apache.axis2.util.IOUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.Random;
+
+public class MessageBufferTest extends TestCase {
+    private static byte[] createContent(int size) {
+        byte[] content = new byte[size];
+        new Random(size).nextBytes(content);
+        return content;
+    }
+
+    private static void assertContent(byte[] expected, MessageBuffer buffer) throws Exception {
+        assertEquals(expected.length, buffer.size());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        buffer.writeTo(out);
+        assertTrue(Arrays.equals(expected, out.toByteArray()));
+        // the content can be written more than once
+        out.reset();
+        buffer.writeTo(out);
+        assertTrue(Arrays.equals(expected, out.toByteArray()));
+        out.reset();
+        IOUtils.copy(buffer.getInputStream(), out, true);
+        assertTrue(Arrays.equals(expected, out.toByteArray()));
+    }
+
+    private static void write(MessageBuffer buffer, byte[] content) throws Exception {
+        // mix single byte and block writes that cross segment boundaries
+        buffer.write(content[0]);
+        int offset = 1;
+        while (offset < content.length) {
+            int len = Math.min(1000, content.length - offset);
+            buffer.write(content, offset, len);
+            offset += len;
+        }
+        buffer.close();
+    }
+
+    public void testEmpty() throws Exception {
+        MessageBuffer buffer = new MessageBuffer(-1);
+        buffer.close();
+        assertContent(new byte[0], buffer);
+        buffer.release();
+    }
+
+    public void testInMemory() throws Exception {
+        byte[] content = createContent(MessageBuffer.SEGMENT_SIZE * 3 + 17);
+        MessageBuffer buffer = new MessageBuffer(-1);
+        write(buffer, content);
+        assertContent(content, buffer);
+        buffer.release();
+    }
+
+    public void testExactSegmentSize() throws Exception {
+        byte[] content = createContent(MessageBuffer.SEGMENT_SIZE * 2);
+        MessageBuffer buffer = new MessageBuffer(-1);
+        write(buffer, content);
+        assertContent(content, buffer);
+        buffer.release();
+    }
+
+    public void testOverflowToFile() throws Exception {
+        byte[] content = createContent(MessageBuffer.SEGMENT_SIZE * 5 + 3);
+        MessageBuffer buffer = new MessageBuffer(MessageBuffer.SEGMENT_SIZE * 2);
+        write(buffer, content);
+        assertContent(content, buffer);
+        buffer.release();
+    }
+
+    public void testSegmentsAreRecycled() throws Exception {
+        MessageBuffer buffer = new MessageBuffer(-1);
+        buffer.write(1);
+        buffer.close();
+        buffer.release();
+        byte[] segment = MessageBuffer.allocateSegment();
+        assertEquals(MessageBuffer.SEGMENT_SIZE, segment.length);
+        MessageBuffer.recycleSegment(segment);
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.transport.http;
+
+import junit.framework.TestCase;
+import org.apache.axis2.description.AxisModule;
+import org.apache.axis2.description.AxisService;
+import org.apache.axis2.description.ParameterObserver;
+import org.apache.axis2.engine.AxisConfiguration;
+import org.apache.axis2.engine.AxisEvent;
+import org.apache.axis2.util.IOUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+public class ServiceMetadataCacheTest extends TestCase {
+    private static final byte[] CONTENT = "<definitions/>".getBytes();
+
+    private AxisConfiguration axisConfiguration;
+    private AxisService service;
+    private ServiceMetadataCache cache;
+
+    @Override
+    protected void setUp() throws Exception {
+        axisConfiguration = new AxisConfiguration();
+        service = new AxisService("test_service");
+        axisConfiguration.addService(service);
+        cache = new ServiceMetadataCache(axisConfiguration);
+    }
+
+    public void testDocumentIsCachedPerHost() throws Exception {
+        ServiceMetadataCache.Document document =
+                cache.put(service, "wsdl", null, "host1", CONTENT);
+        assertSame(document, cache.get(service, "wsdl", null, "host1"));
+        assertNull(cache.get(service, "wsdl", null, "host2"));
+        assertNull(cache.get(service, "wsdl2", null, "host1"));
+        assertNull(cache.get(service, "xsd", "host1", null));
+    }
+
+    public void testDocument() throws Exception {
+        ServiceMetadataCache.Document document = cache.put(service, "xsd", "xsd0", null, CONTENT);
+        assertTrue(Arrays.equals(CONTENT, document.getContent()));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        IOUtils.copy(new GZIPInputStream(new ByteArrayInputStream(document.getGzipContent())),
+                out, true);
+        assertTrue(Arrays.equals(CONTENT, out.toByteArray()));
+        assertTrue(document.getETag().startsWith("\""));
+        assertEquals(document.getETag(), new ServiceMetadataCache.Document(CONTENT).getETag());
+        assertTrue(document.getGzipETag().startsWith("\""));
+        assertTrue(document.getGzipETag().endsWith("\""));
+        assertFalse(document.getETag().equals(document.getGzipETag()));
+        assertEquals(0, document.getLastModified() % 1000);
+    }
+
+    public void testInvalidatedByParameterChange() throws Exception {
+        cache.put(service, "wsdl", null, "host", CONTENT);
+        service.addParameter("modifyUserWSDLPortAddress", "false");
+        assertNull(cache.get(service, "wsdl", null, "host"));
+    }
+
+    public void testInvalidatedByServiceEvent() throws Exception {
+        cache.put(service, "wsdl", null, "host", CONTENT);
+        axisConfiguration.notifyObservers(new AxisEvent(AxisEvent.SERVICE_STOP, service), service);
+        assertNull(cache.get(service, "wsdl", null, "host"));
+    }
+
+    public void testInvalidatedByModuleEngagement() throws Exception {
+        AxisService otherService = new AxisService("other_service");
+        axisConfiguration.addService(otherService);
+        cache.put(service, "wsdl", null, "host", CONTENT);
+        cache.put(otherService, "wsdl", null, "host", CONTENT);
+        axisConfiguration.notifyObservers(new AxisEvent(AxisEvent.MODULE_ENGAGED, service),
+                new AxisModule("test_module"));
+        assertNull(cache.get(service, "wsdl", null, "host"));
+        assertNotNull(cache.get(otherService, "wsdl", null, "host"));
+        axisConfiguration.notifyObservers(new AxisEvent(AxisEvent.MODULE_ENGAGED,
+                axisConfiguration), new AxisModule("test_module"));
+        assertNull(cache.get(otherService, "wsdl", null, "host"));
+    }
+
+    public void testNumberOfDocumentsIsBounded() throws Exception {
+        for (int i = 0; i < ServiceMetadataCache.MAX_DOCUMENTS_PER_SERVICE; i++) {
+            cache.put(service, "wsdl", null, "host" + i, CONTENT);
+        }
+        assertNotNull(cache.put(service, "wsdl", null, "other", CONTENT));
+        assertNull(cache.get(service, "wsdl", null, "other"));
+        assertNotNull(cache.get(service, "wsdl", null, "host0"));
+    }
+
+    public void testDestroy() throws Exception {
+        final List<ParameterObserver> observers = new ArrayList<ParameterObserver>();
+        AxisService observedService = new AxisService("observed_service") {
+            public void addParameterObserver(ParameterObserver observer) {
+                super.addParameterObserver(observer);
+                observers.add(observer);
+            }
+
+            public void removeParameterObserver(ParameterObserver observer) {
+                super.removeParameterObserver(observer);
+                observers.remove(observer);
+            }
+        };
+        axisConfiguration.addService(observedService);
+        cache.put(observedService, "wsdl", null, "host", CONTENT);
+        assertEquals(1, observers.size());
+        cache.destroy();
+        assertNull(cache.get(observedService, "wsdl", null, "host"));
+        assertTrue(observers.isEmpty());
+        assertFalse(axisConfiguration.getObserversList().contains(cache));
+    }
+
+    public void testAcceptsGzip() {
+        assertFalse(ListingAgent.acceptsGzip(null));
+        assertFalse(ListingAgent.acceptsGzip("identity"));
+        assertTrue(ListingAgent.acceptsGzip("gzip"));
+        assertTrue(ListingAgent.acceptsGzip("deflate, GZIP;q=0.5"));
+        assertFalse(ListingAgent.acceptsGzip("gzip;q=0"));
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.transport.http;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.servlet.http.HttpServletRequest;
+
+import junit.framework.TestCase;
+
+import org.apache.axis2.AxisFault;
+import org.apache.axis2.description.Parameter;
+import org.apache.axis2.engine.AxisConfiguration;
+import org.apache.axis2.transport.RequestResponseTransport.RequestResponseTransportStatus;
+
+public class ServletRequestResponseTransportTest extends TestCase {
+    private AxisServlet.ServletRequestResponseTransport transport;
+    private AtomicInteger notifications;
+    private Runnable listener;
+
+    @Override
+    protected void setUp() throws Exception {
+        transport = new AxisServlet().new ServletRequestResponseTransport();
+        notifications = new AtomicInteger();
+        listener = new Runnable() {
+            public void run() {
+                notifications.incrementAndGet();
+            }
+        };
+    }
+
+    public void testListenerInvokedOnSignal() throws Exception {
+        assertTrue(transport.notifyResponseReady(listener));
+        assertEquals(0, notifications.get());
+        transport.signalResponseReady();
+        assertEquals(1, notifications.get());
+        assertEquals(RequestResponseTransportStatus.SIGNALLED, transport.getStatus());
+        // the listener is only invoked once
+        transport.signalResponseReady();
+        assertEquals(1, notifications.get());
+    }
+
+    public void testListenerInvokedOnAcknowledge() throws Exception {
+        assertTrue(transport.notifyResponseReady(listener));
+        transport.acknowledgeMessage(null);
+        assertEquals(1, notifications.get());
+    }
+
+    public void testAlreadySignalled() throws Exception {
+        transport.signalResponseReady();
+        assertFalse(transport.notifyResponseReady(listener));
+        assertEquals(0, notifications.get());
+    }
+
+    public void testFault() throws Exception {
+        assertTrue(transport.notifyResponseReady(listener));
+        AxisFault fault = new AxisFault("test");
+        transport.signalFaultReady(fault);
+        assertEquals(1, notifications.get());
+        try {
+            transport.awaitResponse();
+            fail("Expected AxisFault");
+        } catch (AxisFault ex) {
+            assertSame(fault, ex);
+        }
+    }
+
+    public void testInvalidAsyncTimeout() throws Exception {
+        AxisServlet servlet = new AxisServlet();
+        servlet.axisConfiguration = new AxisConfiguration();
+        servlet.axisConfiguration.addParameter(
+                new Parameter(AxisServlet.ASYNC_TIMEOUT, "30s"));
+        try {
+            servlet.initParams();
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException ex) {
+            assertTrue(ex.getMessage().contains(AxisServlet.ASYNC_TIMEOUT));
+        }
+    }
+
+    public void testAsyncNotSupportedByServletAPI() {
+        HttpServletRequest request = (HttpServletRequest)Proxy.newProxyInstance(
+                ServletRequestResponseTransportTest.class.getClassLoader(),
+                new Class<?>[] { HttpServletRequest.class },
+                new InvocationHandler() {
+                    public Object invoke(Object proxy, Method method, Object[] args) {
+                        return null;
+                    }
+                });
+        // The module is built against a pre-3.0 Servlet API
+        assertFalse(ServletAsyncSupport.isAsyncSupported(request));
+    }
+}
@@ -31,6 +31,8 @@ import javax.naming.Context;
 import javax.naming.InitialContext;
 import javax.naming.NamingException;
 import java.util.Hashtable;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Encapsulate a JMS Connection factory definition within an Axis2.xml
@@ -64,6 +66,9 @@ public class JMSConnectionFactory {
     private Destination sharedDestination = null;
     /** The shared JMS connection for this JMS connection factory */
     private int cacheLevel = JMSConstants.CACHE_CONNECTION;
+    /** The Session pools for sending, keyed by destination name, if pooling is enabled */
+    private final Map<String, JMSSessionPool> sessionPools =
+        new ConcurrentHashMap<String, JMSSessionPool>();
 
     /**
      * Digest a JMS CF definition from an axis2.xml 'Parameter' and construct
@@ -133,6 +138,10 @@ public class JMSConnectionFactory {
      * Close all connections, sessions etc.. and stop this connection factory
      */
     public synchronized void stop() {
+        for (JMSSessionPool pool : sessionPools.values()) {
+            pool.close();
+        }
+        sessionPools.clear();
         if (sharedConnection != null) {
             try {
             	sharedConnection.close();
@@ -218,6 +227,99 @@ public class JMSConnectionFactory {
                 JMSConstants.DESTINATION_TYPE_GENERIC;
     }
 
+    /**
+     * Get the maximum number of pooled Sessions per destination from the PARAM_SESSION_POOL_SIZE
+     * parameter
+     * @return the pool size, or 0 if Sessions are not pooled
+     */
+    public int getSessionPoolSize() {
+        String val = parameters.get(JMSConstants.PARAM_SESSION_POOL_SIZE);
+        try {
+            return val == null ? 0 : Integer.parseInt(val);
+        } catch (NumberFormatException e) {
+            throw new AxisJMSException("Invalid " + JMSConstants.PARAM_SESSION_POOL_SIZE + " : " +
+                val + " for JMS CF : " + name);
+        }
+    }
+
+    /**
+     * Get the pool of Sessions and MessageProducers sending to the given destination, creating it
+     * on first use. All pools share the Connection of this JMS CF
+     * @param destinationName JNDI name of the Destination, or null for the shared Destination
+     * @return the Session pool, or null if Sessions are not pooled for this JMS CF
+     */
+    public JMSSessionPool getSessionPool(String destinationName) {
+        int size = getSessionPoolSize();
+        if (size <= 0) {
+            return null;
+        }
+        String key = destinationName == null ? "" : destinationName;
+        JMSSessionPool pool = sessionPools.get(key);
+        if (pool == null) {
+            synchronized (this) {
+                pool = sessionPools.get(key);
+                if (pool == null) {
+                    Destination destination = destinationName == null ? sharedDestination :
+                        getDestination(destinationName, JMSConstants.DESTINATION_TYPE_GENERIC);
+                    pool = new JMSSessionPool(name + "/" + key, getSharedConnection(),
+                        destination, isSessionTransacted(), isJmsSpec11(), isQueue(), size,
+                        getLongParameter(JMSConstants.PARAM_SESSION_POOL_IDLE_TIMEOUT,
+                            JMSConstants.DEFAULT_SESSION_POOL_IDLE_TIMEOUT),
+                        getLongParameter(JMSConstants.PARAM_SESSION_POOL_MAX_WAIT,
+                            JMSConstants.DEFAULT_SESSION_POOL_MAX_WAIT));
+                    sessionPools.put(key, pool);
+                    log.info("JMS Session pool of size " + size + " created for JMS CF : " +
+                        name + " and destination : " + destination);
+                }
+            }
+        }
+        return pool;
+    }
+
+    /**
+     * Return the Session pools of this JMS CF, e.g. to monitor them
+     * @return the Session pools keyed by destination name
+     */
+    public Map<String, JMSSessionPool> getSessionPools() {
+        return sessionPools;
+    }
+
+    private long getLongParameter(String key, long defaultValue) {
+        String val = parameters.get(key);
+        try {
+            return val == null ? defaultValue : Long.parseLong(val);
+        } catch (NumberFormatException e) {
+            throw new AxisJMSException("Invalid " + key + " : " + val + " for JMS CF : " + name);
+        }
+    }
+
+    /**
+     * Should the replies to synchronous requests be received through a {@link JMSReplyDispatcher}?
+     * @param namedReplyDestination is a reply destination configured for the request?
+     * @return the PARAM_REPLY_MULTIPLEXING parameter, defaulting to true only for temporary
+     *         reply destinations
+     */
+    public boolean isReplyMultiplexing(boolean namedReplyDestination) {
+        String val = parameters.get(JMSConstants.PARAM_REPLY_MULTIPLEXING);
+        return val == null ? !namedReplyDestination : Boolean.valueOf(val);
+    }
+
+    /**
+     * Create a dispatcher receiving replies on the given destination through a Connection of
+     * its own
+     * @param replyDestination the reply destination, or null to use a temporary destination
+     * @return a new reply dispatcher
+     */
+    public JMSReplyDispatcher createReplyDispatcher(Destination replyDestination) {
+        try {
+            return new JMSReplyDispatcher(
+                name, createConnection(), replyDestination, isJmsSpec11(), isQueue());
+        } catch (JMSException e) {
+            handleException("Error creating a JMS reply dispatcher for JMS CF : " + name, e);
+        }
+        return null;
+    }
+
     private void handleException(String msg, Exception e) {
         log.error(msg, e);
         throw new AxisJMSException(msg, e);
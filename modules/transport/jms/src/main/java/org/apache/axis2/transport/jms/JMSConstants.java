@@ -92,6 +92,14 @@ public class JMSConstants {
      * also see {@link DESTINATION_TYPE_QUEUE}, {@link DESTINATION_TYPE_TOPIC}
      */
     public static final String PARAM_REPLY_DEST_TYPE = "transport.jms.ReplyDestinationType";
+    /**
+     * The connection factory Parameter name indicating whether the replies to synchronous
+     * requests are received through a single shared consumer (see {@link JMSReplyDispatcher})
+     * instead of a consumer with a correlation ID selector per request. Defaults to "true"
+     * when replies go to a temporary destination, and to "false" when a reply destination is
+     * configured, since the shared consumer then takes every message arriving on it.
+     */
+    public static final String PARAM_REPLY_MULTIPLEXING = "transport.jms.ReplyMultiplexing";
     /**
      * The Parameter name of an Axis2 service, indicating the JMS connection
      * factory which should be used to listen for messages for it. This is
@@ -148,6 +156,20 @@ public class JMSConstants {
      * {@link CACHE_CONSUMER}, or {@link CACHE_AUTO} - to let the transport decide
      */
     public static final String PARAM_CACHE_LEVEL = "transport.jms.CacheLevel";
+    /**
+     * The maximum number of Sessions (each with a MessageProducer) pooled per destination for
+     * sending through a connection factory. Defaults to 0, in which case the cache level alone
+     * decides how Sessions are shared. See {@link JMSSessionPool}
+     */
+    public static final String PARAM_SESSION_POOL_SIZE = "transport.jms.SessionPoolSize";
+    /** The time in milliseconds after which an unused pooled Session is closed */
+    public static final String PARAM_SESSION_POOL_IDLE_TIMEOUT = "transport.jms.SessionPoolIdleTimeout";
+    /** The maximum time in milliseconds to wait for a pooled Session when all are in use */
+    public static final String PARAM_SESSION_POOL_MAX_WAIT = "transport.jms.SessionPoolMaxWait";
+    /** The default idle timeout of pooled Sessions */
+    public static final long DEFAULT_SESSION_POOL_IDLE_TIMEOUT = 60000;
+    /** The default time to wait for a pooled Session */
+    public static final long DEFAULT_SESSION_POOL_MAX_WAIT = 30000;
     /** Should a pub-sub connection receive messages published by itself? */
     public static final String PARAM_PUBSUB_NO_LOCAL = "transport.jms.PubSubNoLocal";
     /**
@@ -99,7 +99,9 @@ public class JMSMessageReceiver {
 
         // update transport level metrics
         try {
-            metrics.incrementBytesReceived(JMSUtils.getMessageSize(message));
+            long size = JMSUtils.getMessageSize(message);
+            metrics.incrementBytesReceived(size);
+            metrics.notifyReceivedMessageSize(size);
         } catch (JMSException e) {
             log.warn("Error reading JMS message size to update transport metrics", e);
         }
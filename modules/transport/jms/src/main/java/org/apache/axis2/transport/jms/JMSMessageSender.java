@@ -50,6 +50,10 @@ public class JMSMessageSender {
     private boolean jmsSpec11 = true;
     /** Are we sending to a Queue ? */
     private Boolean isQueue = null;
+    /** The pool the Session and MessageProducer were borrowed from, if any */
+    private JMSSessionPool sessionPool = null;
+    /** The borrowed Session and MessageProducer, if any */
+    private JMSSessionPool.PooledSession pooledSession = null;
 
     /**
      * This is a low-end method to support the one-time sends using JMS 1.0.2b
@@ -83,6 +87,20 @@ public class JMSMessageSender {
 
         this.cacheLevel  = jmsConnectionFactory.getCacheLevel();
         this.jmsSpec11   = jmsConnectionFactory.isJmsSpec11();
+
+        // borrow a Session and MessageProducer for the target if the JMS CF pools them
+        this.sessionPool = jmsConnectionFactory.getSessionPool(
+            jmsConnectionFactory.getSharedDestination() == null ?
+                JMSUtils.getDestination(targetAddress) : null);
+        if (sessionPool != null) {
+            this.pooledSession = sessionPool.borrow();
+            this.connection    = sessionPool.getConnection();
+            this.session       = pooledSession.getSession();
+            this.producer      = pooledSession.getProducer();
+            this.destination   = sessionPool.getDestination();
+            return;
+        }
+
         this.connection  = jmsConnectionFactory.getConnection();
         this.session     = jmsConnectionFactory.getSession(connection);
         this.destination =
@@ -169,6 +187,9 @@ public class JMSMessageSender {
         } catch (JMSException e) {
             log.error("Error sending message with MessageContext ID : " +
                 msgCtx.getMessageID() + " to destination : " + destination, e);
+            if (pooledSession != null) {
+                pooledSession.invalidate();
+            }
 
         } finally {
 
@@ -222,9 +243,18 @@ public class JMSMessageSender {
     }
 
     /**
-     * Close non-shared producer, session and connection if any
+     * Close non-shared producer, session and connection if any, or return them to their pool
      */
     public void close() {
+        if (pooledSession != null) {
+            sessionPool.release(pooledSession);
+            pooledSession = null;
+            producer = null;
+            session = null;
+            connection = null;
+            return;
+        }
+
         if (producer != null && cacheLevel < JMSConstants.CACHE_PRODUCER) {
             try {
                 producer.close();
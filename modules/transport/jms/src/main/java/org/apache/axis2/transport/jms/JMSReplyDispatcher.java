@@ -0,0 +1,346 @@
+/*
+* Copyright 2004,2005 The Apache Software Foundation.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*      http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.apache.axis2.transport.jms;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import javax.jms.Connection;
+import javax.jms.Destination;
+import javax.jms.ExceptionListener;
+import javax.jms.JMSException;
+import javax.jms.Message;
+import javax.jms.MessageConsumer;
+import javax.jms.MessageListener;
+import javax.jms.Session;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Timer;
+import java.util.TimerTask;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Receives the replies to synchronous JMS requests through a single long lived consumer
+ * on a reply destination, and hands each reply to the caller waiting for its correlation ID.
+ * This replaces a consumer with a <code>JMSCorrelationID</code> selector per request.
+ * <p>
+ * The dispatcher owns its Connection and Session. If no reply destination is given, a
+ * temporary queue (or topic) private to this dispatcher is used, so that the consumer never
+ * sees messages meant for anybody else. When a named destination is used, every message
+ * arriving on it is consumed by this dispatcher, and the destination must therefore not be
+ * shared with other clients.
+ * <p>
+ * Since the JMS message ID of a request is only known after it has been sent, a reply may
+ * arrive before the caller registers for it. Such replies are kept for a while and handed
+ * out on registration; replies that nobody claims are discarded after
+ * {@link #UNCLAIMED_REPLY_TIMEOUT} ms.
+ */
+public class JMSReplyDispatcher implements MessageListener, ExceptionListener {
+
+    private static final Log log = LogFactory.getLog(JMSReplyDispatcher.class);
+
+    /** How long a reply that no caller has registered for is kept, in milliseconds */
+    public static final long UNCLAIMED_REPLY_TIMEOUT = JMSConstants.DEFAULT_JMS_TIMEOUT;
+    /** How often expired requests and unclaimed replies are looked for, in milliseconds */
+    private static final long SWEEP_INTERVAL = 1000;
+
+    /**
+     * Notified of the outcome of an asynchronous request. Methods are invoked on the JMS
+     * delivery thread of the dispatcher or on its timer thread, and should return quickly.
+     */
+    public interface ReplyListener {
+        /**
+         * A reply has been received for the request
+         * @param reply the JMS reply message
+         */
+        void onReply(Message reply);
+
+        /**
+         * No reply was received before the timeout expired, or the dispatcher was closed
+         * @param correlationId the JMS correlation ID of the request
+         */
+        void onTimeout(String correlationId);
+    }
+
+    /** A caller waiting for the reply with a given correlation ID */
+    private static class PendingReply {
+        private final String correlationId;
+        private final long deadline;
+        private final ReplyListener listener;
+        private final CountDownLatch latch = new CountDownLatch(1);
+        private final AtomicBoolean done = new AtomicBoolean();
+        private volatile Message reply;
+
+        PendingReply(String correlationId, long deadline, ReplyListener listener) {
+            this.correlationId = correlationId;
+            this.deadline = deadline;
+            this.listener = listener;
+        }
+
+        /**
+         * Complete this request with the given reply, or with a timeout if it is null
+         * @return false if the request had already been completed
+         */
+        boolean complete(Message reply) {
+            if (!done.compareAndSet(false, true)) {
+                return false;
+            }
+            this.reply = reply;
+            latch.countDown();
+            if (listener != null) {
+                try {
+                    if (reply != null) {
+                        listener.onReply(reply);
+                    } else {
+                        listener.onTimeout(correlationId);
+                    }
+                } catch (RuntimeException e) {
+                    log.warn("Error notifying the listener of JMS correlation ID : " +
+                        correlationId, e);
+                }
+            }
+            return true;
+        }
+    }
+
+    /** A reply that arrived before anybody registered for it */
+    private static class UnclaimedReply {
+        private final Message message;
+        private final long received = System.currentTimeMillis();
+
+        UnclaimedReply(Message message) {
+            this.message = message;
+        }
+    }
+
+    private final String name;
+    private final Connection connection;
+    private final Session session;
+    private final MessageConsumer consumer;
+    private final Destination replyDestination;
+    private final Timer timer;
+
+    private final Map<String, PendingReply> pending =
+        new ConcurrentHashMap<String, PendingReply>();
+    private final Map<String, UnclaimedReply> unclaimed =
+        new ConcurrentHashMap<String, UnclaimedReply>();
+
+    private volatile boolean closed = false;
+
+    /**
+     * Start listening for replies
+     * @param name a name for this dispatcher, used for logging
+     * @param connection the Connection to use, which will be owned (and closed) by the dispatcher
+     * @param replyDestination the reply destination, or null to use a temporary destination
+     * @param jmsSpec11 should the JMS 1.1 API be used?
+     * @param isQueue TRUE for a queue, FALSE for a topic and null for a generic destination
+     * @throws JMSException on error, in which case the connection is closed
+     */
+    public JMSReplyDispatcher(String name, Connection connection, Destination replyDestination,
+        boolean jmsSpec11, Boolean isQueue) throws JMSException {
+
+        this.name = name;
+        this.connection = connection;
+        try {
+            session = JMSUtils.createSession(
+                connection, false, Session.AUTO_ACKNOWLEDGE, jmsSpec11, isQueue);
+            if (replyDestination == null) {
+                replyDestination = Boolean.FALSE.equals(isQueue) ?
+                    session.createTemporaryTopic() : session.createTemporaryQueue();
+            }
+            this.replyDestination = replyDestination;
+            consumer = JMSUtils.createConsumer(
+                session, replyDestination, isQueue, null, null, false, false, jmsSpec11);
+            consumer.setMessageListener(this);
+            connection.setExceptionListener(this);
+            connection.start();
+        } catch (JMSException e) {
+            closeConnection();
+            throw e;
+        }
+
+        timer = new Timer("JMSReplyDispatcher-" + name, true);
+        timer.schedule(new TimerTask() {
+            public void run() {
+                sweep();
+            }
+        }, SWEEP_INTERVAL, SWEEP_INTERVAL);
+
+        if (log.isDebugEnabled()) {
+            log.debug("JMS reply dispatcher : " + name + " listening on : " + replyDestination);
+        }
+    }
+
+    /**
+     * Return the destination on which replies are expected. This should be set as the
+     * JMSReplyTo of the requests
+     * @return the reply destination
+     */
+    public Destination getReplyDestination() {
+        return replyDestination;
+    }
+
+    /**
+     * Wait for the reply with the given correlation ID
+     * @param correlationId the JMS correlation ID of the reply
+     * @param timeout the maximum time to wait in milliseconds
+     * @return the reply, or null if none was received in time
+     * @throws InterruptedException if the calling thread is interrupted while waiting
+     */
+    public Message receive(String correlationId, long timeout) throws InterruptedException {
+        PendingReply p = register(correlationId, timeout, null);
+        try {
+            p.latch.await(timeout, TimeUnit.MILLISECONDS);
+        } finally {
+            pending.remove(correlationId);
+            p.complete(null);
+        }
+        return p.reply;
+    }
+
+    /**
+     * Register a listener to be notified of the reply with the given correlation ID, without
+     * blocking the calling thread
+     * @param correlationId the JMS correlation ID of the reply
+     * @param timeout the time after which the listener is told about a timeout, in milliseconds
+     * @param listener the listener to notify
+     */
+    public void receive(String correlationId, long timeout, ReplyListener listener) {
+        register(correlationId, timeout, listener);
+    }
+
+    /**
+     * Return the number of requests waiting for their reply
+     * @return number of pending requests
+     */
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    /**
+     * Is this dispatcher closed, either explicitly or because its connection failed?
+     * @return true if no further replies will be received
+     */
+    public boolean isClosed() {
+        return closed;
+    }
+
+    private PendingReply register(String correlationId, long timeout, ReplyListener listener) {
+        PendingReply p = new PendingReply(
+            correlationId, System.currentTimeMillis() + timeout, listener);
+        if (closed) {
+            p.complete(null);
+            return p;
+        }
+        pending.put(correlationId, p);
+        // the reply may already be here; onMessage does the mirror image check
+        UnclaimedReply u = unclaimed.remove(correlationId);
+        if (u != null) {
+            pending.remove(correlationId);
+            p.complete(u.message);
+        }
+        return p;
+    }
+
+    public void onMessage(Message message) {
+        String correlationId;
+        try {
+            correlationId = message.getJMSCorrelationID();
+        } catch (JMSException e) {
+            log.warn("Error reading the JMS correlation ID of a reply on : " + replyDestination, e);
+            return;
+        }
+        if (correlationId == null) {
+            log.warn("Discarding a reply without a JMS correlation ID on : " + replyDestination);
+            return;
+        }
+
+        PendingReply p = pending.remove(correlationId);
+        if (p == null) {
+            UnclaimedReply u = new UnclaimedReply(message);
+            unclaimed.put(correlationId, u);
+            // the caller may have registered in the meantime
+            p = pending.remove(correlationId);
+            if (p == null) {
+                return;
+            }
+            unclaimed.remove(correlationId);
+        }
+        p.complete(message);
+    }
+
+    public void onException(JMSException e) {
+        log.warn("JMS reply dispatcher : " + name + " lost its connection", e);
+        close();
+    }
+
+    /**
+     * Time out requests past their deadline and discard unclaimed replies
+     */
+    private void sweep() {
+        long now = System.currentTimeMillis();
+        for (Iterator<PendingReply> it = pending.values().iterator(); it.hasNext(); ) {
+            PendingReply p = it.next();
+            if (p.deadline <= now) {
+                it.remove();
+                if (p.complete(null) && p.listener != null) {
+                    log.warn("Did not receive a JMS response within the timeout on : " +
+                        replyDestination + " with JMS correlation ID : " + p.correlationId);
+                }
+            }
+        }
+        for (Iterator<Map.Entry<String, UnclaimedReply>> it = unclaimed.entrySet().iterator();
+             it.hasNext(); ) {
+            Map.Entry<String, UnclaimedReply> e = it.next();
+            if (e.getValue().received + UNCLAIMED_REPLY_TIMEOUT <= now) {
+                it.remove();
+                if (log.isDebugEnabled()) {
+                    log.debug("Discarding unclaimed reply with JMS correlation ID : " +
+                        e.getKey() + " on : " + replyDestination);
+                }
+            }
+        }
+    }
+
+    /**
+     * Stop listening for replies. Requests still waiting are completed with a timeout
+     */
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        timer.cancel();
+        closeConnection();
+        for (Iterator<PendingReply> it = pending.values().iterator(); it.hasNext(); ) {
+            PendingReply p = it.next();
+            it.remove();
+            p.complete(null);
+        }
+        unclaimed.clear();
+    }
+
+    private void closeConnection() {
+        try {
+            connection.close();
+        } catch (JMSException e) {
+            log.warn("Error closing the connection of JMS reply dispatcher : " + name, e);
+        }
+    }
+}
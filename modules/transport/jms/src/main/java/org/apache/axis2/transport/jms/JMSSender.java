@@ -49,6 +49,9 @@ public class JMSSender extends AbstractTransportSender implements ManagementSupp
 
     /** The JMS connection factory manager to be used when sending messages out */
     private JMSConnectionFactoryManager connFacManager;
+    /** Reply dispatchers in use, keyed by connection factory name and reply destination */
+    private final Map<String, JMSReplyDispatcher> replyDispatchers =
+        new HashMap<String, JMSReplyDispatcher>();
 
     /**
      * Initialize the transport sender by reading pre-defined connection factories for
@@ -68,6 +71,14 @@ public class JMSSender extends AbstractTransportSender implements ManagementSupp
     @Override
     public void stop() {
         
+        // stop listening for replies
+        synchronized (replyDispatchers) {
+            for (JMSReplyDispatcher replyDispatcher : replyDispatchers.values()) {
+                replyDispatcher.close();
+            }
+            replyDispatchers.clear();
+        }
+
         // clean up any shared JMS resources in this sender's connection factories
         connFacManager.stop();
         
@@ -148,22 +159,114 @@ public class JMSSender extends AbstractTransportSender implements ManagementSupp
             contentTypeProperty = jmsOut.getContentTypeProperty();
         }
 
+        // if the replies can be multiplexed over a shared consumer, the wait for the reply
+        // does not need to hold on to the session
+        JMSReplyDispatcher replyDispatcher = null;
+        if (jmsConnectionFactory != null && waitForSynchronousResponse(msgCtx)) {
+            replyDispatcher = getReplyDispatcher(msgCtx, jmsConnectionFactory, jmsOut);
+        }
+
+        String correlationId;
         // need to synchronize as Sessions are not thread safe
         synchronized (messageSender.getSession()) {
             try {
-                sendOverJMS(msgCtx, messageSender, contentTypeProperty, jmsConnectionFactory, jmsOut);
+                correlationId = sendOverJMS(msgCtx, messageSender, contentTypeProperty,
+                    jmsConnectionFactory, jmsOut, replyDispatcher);
             } finally {
                 messageSender.close();
             }
         }
+
+        if (replyDispatcher != null) {
+            long timeout = getReplyTimeout(msgCtx);
+            if (log.isDebugEnabled()) {
+                log.debug("Waiting for a maximum of " + timeout +
+                    "ms for a response message to destination : " +
+                    replyDispatcher.getReplyDestination() +
+                    " with JMS correlation ID : " + correlationId);
+            }
+            Message reply;
+            try {
+                reply = replyDispatcher.receive(correlationId, timeout);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                metrics.incrementFaultsReceiving();
+                throw new AxisFault("Interrupted while waiting for a JMS response with " +
+                    "JMS correlation ID : " + correlationId, e);
+            }
+            processResponse(msgCtx, reply, contentTypeProperty, timeout,
+                replyDispatcher.getReplyDestination(), correlationId);
+        }
     }
 
     /**
-     * Perform actual sending of the JMS message
+     * Return the reply dispatcher to use for a synchronous request, creating it if needed. The
+     * reply destination is chosen as for requests whose replies are not multiplexed: the
+     * JMS_REPLY_TO message context property, the reply destination of the connection factory or
+     * the reply destination specified by the EPR, in this order
+     * @param msgCtx the outgoing message
+     * @param jmsConnectionFactory the connection factory used to send the message
+     * @param jmsOut the transport information of the target EPR
+     * @return the reply dispatcher, or null if replies should not be multiplexed
      */
-    private void sendOverJMS(MessageContext msgCtx, JMSMessageSender messageSender,
+    private JMSReplyDispatcher getReplyDispatcher(MessageContext msgCtx,
+        JMSConnectionFactory jmsConnectionFactory, JMSOutTransportInfo jmsOut) {
+
+        String replyDestName = (String) msgCtx.getProperty(JMSConstants.JMS_REPLY_TO);
+        if (replyDestName == null) {
+            replyDestName = jmsConnectionFactory.getReplyToDestination();
+        }
+        Destination eprReplyDestination = null;
+        if (replyDestName == null && jmsOut.getReplyDestination() != null) {
+            eprReplyDestination = jmsOut.getReplyDestination();
+            replyDestName = jmsOut.getReplyDestinationName() != null ?
+                jmsOut.getReplyDestinationName() : eprReplyDestination.toString();
+        }
+        if (!jmsConnectionFactory.isReplyMultiplexing(replyDestName != null)) {
+            return null;
+        }
+
+        String key = jmsConnectionFactory.getName() +
+            (replyDestName == null ? "" : "/" + replyDestName);
+        synchronized (replyDispatchers) {
+            JMSReplyDispatcher replyDispatcher = replyDispatchers.get(key);
+            if (replyDispatcher != null && !replyDispatcher.isClosed()) {
+                return replyDispatcher;
+            }
+        }
+
+        // creating the dispatcher connects to the broker; don't block the other destinations
+        Destination replyDestination = eprReplyDestination;
+        if (replyDestination == null && replyDestName != null) {
+            String replyDestType = (String) msgCtx.getProperty(JMSConstants.JMS_REPLY_TO_TYPE);
+            if (replyDestType == null) {
+                replyDestType = jmsConnectionFactory.getReplyDestinationType();
+            }
+            replyDestination = jmsConnectionFactory.getDestination(replyDestName, replyDestType);
+        }
+        JMSReplyDispatcher newReplyDispatcher =
+            jmsConnectionFactory.createReplyDispatcher(replyDestination);
+
+        JMSReplyDispatcher replyDispatcher;
+        synchronized (replyDispatchers) {
+            replyDispatcher = replyDispatchers.get(key);
+            if (replyDispatcher == null || replyDispatcher.isClosed()) {
+                replyDispatchers.put(key, newReplyDispatcher);
+                return newReplyDispatcher;
+            }
+        }
+        // another thread has created a dispatcher for the same destination meanwhile
+        newReplyDispatcher.close();
+        return replyDispatcher;
+    }
+
+    /**
+     * Perform actual sending of the JMS message. If a reply dispatcher is given, the reply is
+     * not waited for, and the JMS correlation ID it will carry is returned instead
+     */
+    private String sendOverJMS(MessageContext msgCtx, JMSMessageSender messageSender,
         String contentTypeProperty, JMSConnectionFactory jmsConnectionFactory,
-        JMSOutTransportInfo jmsOut) throws AxisFault {
+        JMSOutTransportInfo jmsOut, JMSReplyDispatcher replyDispatcher) throws AxisFault {
         
         // convert the axis message context into a JMS Message that we can send over JMS
         Message message = null;
@@ -178,8 +281,12 @@ public class JMSSender extends AbstractTransportSender implements ManagementSupp
         boolean waitForResponse = waitForSynchronousResponse(msgCtx);
         Destination replyDestination = jmsOut.getReplyDestination();
 
+        if (replyDispatcher != null) {
+            JMSUtils.setReplyDestination(
+                replyDispatcher.getReplyDestination(), messageSender.getSession(), message);
+
         // if this is a synchronous out-in, prepare to listen on the response destination
-        if (waitForResponse) {
+        } else if (waitForResponse) {
 
             String replyDestName = (String) msgCtx.getProperty(JMSConstants.JMS_REPLY_TO);
             if (replyDestName == null && jmsConnectionFactory != null) {
@@ -213,22 +320,15 @@ public class JMSSender extends AbstractTransportSender implements ManagementSupp
         }
 
         try {
-            metrics.incrementBytesSent(msgCtx, JMSUtils.getMessageSize(message));
+            long size = JMSUtils.getMessageSize(message);
+            metrics.incrementBytesSent(msgCtx, size);
+            metrics.notifySentMessageSize(msgCtx, size);
         } catch (JMSException e) {
             log.warn("Error reading JMS message size to update transport metrics", e);
         }
 
         // if we are expecting a synchronous response back for the message sent out
         if (waitForResponse) {
-            // TODO ********************************************************************************
-            // TODO **** replace with asynchronous polling via a poller task to process this *******
-            // information would be given. Then it should poll (until timeout) the
-            // requested destination for the response message and inject it from a
-            // asynchronous worker thread
-            try {
-                messageSender.getConnection().start();  // multiple calls are safely ignored
-            } catch (JMSException ignore) {}
-
             try {
                 String jmsCorrelationID = message.getJMSCorrelationID();
                 if (jmsCorrelationID != null && jmsCorrelationID.length() > 0) {
@@ -238,12 +338,30 @@ public class JMSSender extends AbstractTransportSender implements ManagementSupp
                 }
             } catch(JMSException ignore) {}
 
+            if (replyDispatcher != null) {
+                return correlationId;
+            }
+
+            try {
+                messageSender.getConnection().start();  // multiple calls are safely ignored
+            } catch (JMSException ignore) {}
+
             // We assume here that the response uses the same message property to
             // specify the content type of the message.
             waitForResponseAndProcess(messageSender.getSession(), replyDestination,
                 msgCtx, correlationId, contentTypeProperty);
-            // TODO ********************************************************************************
         }
+        return correlationId;
+    }
+
+    /**
+     * How long are we willing to wait for the sync response?
+     * @param msgCtx the outgoing message
+     * @return the JMS_WAIT_REPLY property, or the default timeout
+     */
+    private long getReplyTimeout(MessageContext msgCtx) {
+        String waitReply = (String) msgCtx.getProperty(JMSConstants.JMS_WAIT_REPLY);
+        return waitReply != null ? Long.parseLong(waitReply) : JMSConstants.DEFAULT_JMS_TIMEOUT;
     }
 
     /**
@@ -261,17 +379,12 @@ public class JMSSender extends AbstractTransportSender implements ManagementSupp
             MessageContext msgCtx, String correlationId,
             String contentTypeProperty) throws AxisFault {
 
+        MessageConsumer consumer = null;
         try {
-            MessageConsumer consumer;
             consumer = JMSUtils.createConsumer(session, replyDestination,
                 "JMSCorrelationID = '" + correlationId + "'");
 
-            // how long are we willing to wait for the sync response
-            long timeout = JMSConstants.DEFAULT_JMS_TIMEOUT;
-            String waitReply = (String) msgCtx.getProperty(JMSConstants.JMS_WAIT_REPLY);
-            if (waitReply != null) {
-                timeout = Long.valueOf(waitReply).longValue();
-            }
+            long timeout = getReplyTimeout(msgCtx);
 
             if (log.isDebugEnabled()) {
                 log.debug("Waiting for a maximum of " + timeout +
@@ -280,37 +393,65 @@ public class JMSSender extends AbstractTransportSender implements ManagementSupp
             }
 
             Message reply = consumer.receive(timeout);
+            processResponse(msgCtx, reply, contentTypeProperty, timeout,
+                replyDestination, correlationId);
 
-            if (reply != null) {
-
-                // update transport level metrics
-                metrics.incrementMessagesReceived();                
+        } catch (JMSException e) {
+            metrics.incrementFaultsReceiving();
+            handleException("Error creating a consumer, or receiving a synchronous reply " +
+                "for outgoing MessageContext ID : " + msgCtx.getMessageID() +
+                " and reply Destination : " + replyDestination, e);
+        } finally {
+            if (consumer != null) {
                 try {
-                    metrics.incrementBytesReceived(JMSUtils.getMessageSize(reply));
+                    consumer.close();
                 } catch (JMSException e) {
-                    log.warn("Error reading JMS message size to update transport metrics", e);
+                    log.warn("Error closing the JMS consumer for reply Destination : " +
+                        replyDestination, e);
                 }
+            }
+        }
+    }
 
-                try {
-                    processSyncResponse(msgCtx, reply, contentTypeProperty);
-                    metrics.incrementMessagesReceived();
-                } catch (AxisFault e) {
-                    metrics.incrementFaultsReceiving();
-                    throw e;
-                }
+    /**
+     * Process the response to a synchronous request through Axis2, or record a timeout
+     * @param msgCtx the outgoing message for which we are expecting the response
+     * @param reply the response JMS message, or null if none arrived in time
+     * @param contentTypeProperty the message property used to determine the content type
+     *                            of the response message
+     * @param timeout the time waited for the response
+     * @param replyDestination the JMS reply Destination
+     * @param correlationId the JMS correlation ID of the response
+     * @throws AxisFault on error
+     */
+    private void processResponse(MessageContext msgCtx, Message reply, String contentTypeProperty,
+            long timeout, Destination replyDestination, String correlationId) throws AxisFault {
 
-            } else {
-                log.warn("Did not receive a JMS response within " +
-                    timeout + " ms to destination : " + replyDestination +
-                    " with JMS correlation ID : " + correlationId);
-                metrics.incrementTimeoutsReceiving();
+        if (reply != null) {
+
+            // update transport level metrics
+            metrics.incrementMessagesReceived();
+            try {
+                long size = JMSUtils.getMessageSize(reply);
+                metrics.incrementBytesReceived(size);
+                metrics.notifyReceivedMessageSize(size);
+            } catch (JMSException e) {
+                log.warn("Error reading JMS message size to update transport metrics", e);
             }
 
-        } catch (JMSException e) {
-            metrics.incrementFaultsReceiving();
-            handleException("Error creating a consumer, or receiving a synchronous reply " +
-                "for outgoing MessageContext ID : " + msgCtx.getMessageID() +
-                " and reply Destination : " + replyDestination, e);
+            try {
+                processSyncResponse(msgCtx, reply, contentTypeProperty);
+                metrics.incrementMessagesReceived();
+            } catch (AxisFault e) {
+                metrics.incrementFaultsReceiving();
+                throw e;
+            }
+
+        } else {
+            log.warn("Did not receive a JMS response within " +
+                timeout + " ms to destination : " + replyDestination +
+                " with JMS correlation ID : " + correlationId);
+            metrics.incrementTimeoutsReceiving();
         }
     }
 
@@ -0,0 +1,321 @@
+/*
+* Copyright 2004,2005 The Apache Software Foundation.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*      http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.apache.axis2.transport.jms;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import javax.jms.Connection;
+import javax.jms.Destination;
+import javax.jms.JMSException;
+import javax.jms.MessageProducer;
+import javax.jms.Session;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A bounded pool of Session and MessageProducer pairs, sending to a single Destination over
+ * a shared Connection. Since a JMS Session must only be used by one thread at a time, each
+ * pair is borrowed for the duration of a send and returned afterwards, which lets concurrent
+ * senders proceed in parallel up to the size of the pool.
+ * <p>
+ * Idle pairs are reused most recently used first, so that the ones left over after a burst
+ * stay idle and are closed once they have not been used for the idle timeout.
+ */
+public class JMSSessionPool {
+
+    private static final Log log = LogFactory.getLog(JMSSessionPool.class);
+
+    /** A Session with a MessageProducer bound to the destination of the pool */
+    public static class PooledSession {
+        private final Session session;
+        private final MessageProducer producer;
+        private final int deliveryMode;
+        private final int priority;
+        private final long timeToLive;
+        private long lastUsed;
+        private boolean valid = true;
+
+        PooledSession(Session session, MessageProducer producer) throws JMSException {
+            this.session = session;
+            this.producer = producer;
+            this.deliveryMode = producer.getDeliveryMode();
+            this.priority = producer.getPriority();
+            this.timeToLive = producer.getTimeToLive();
+        }
+
+        public Session getSession() {
+            return session;
+        }
+
+        public MessageProducer getProducer() {
+            return producer;
+        }
+
+        /**
+         * Mark this pair as unusable, e.g. after a send failed, so that it is closed instead
+         * of being returned to the pool
+         */
+        public void invalidate() {
+            valid = false;
+        }
+
+        /**
+         * Undo any per message settings made on the producer
+         */
+        void reset() throws JMSException {
+            if (producer.getDeliveryMode() != deliveryMode) {
+                producer.setDeliveryMode(deliveryMode);
+            }
+            if (producer.getPriority() != priority) {
+                producer.setPriority(priority);
+            }
+            if (producer.getTimeToLive() != timeToLive) {
+                producer.setTimeToLive(timeToLive);
+            }
+        }
+
+        void close() {
+            try {
+                session.close();
+            } catch (JMSException e) {
+                log.warn("Error closing pooled JMS Session", e);
+            }
+        }
+    }
+
+    private final String name;
+    private final Connection connection;
+    private final Destination destination;
+    private final boolean transacted;
+    private final boolean jmsSpec11;
+    private final Boolean isQueue;
+    private final int maxSize;
+    private final long idleTimeout;
+    private final long maxWait;
+
+    /** Bounds the number of pairs borrowed at the same time */
+    private final Semaphore permits;
+    /** Idle pairs, most recently used first */
+    private final LinkedBlockingDeque<PooledSession> idle = new LinkedBlockingDeque<PooledSession>();
+    private volatile boolean closed = false;
+
+    private final AtomicLong borrowed = new AtomicLong();
+    private final AtomicLong created = new AtomicLong();
+    private final AtomicLong evicted = new AtomicLong();
+    private final AtomicLong waits = new AtomicLong();
+    private final AtomicLong timeouts = new AtomicLong();
+
+    /**
+     * Create a pool
+     * @param name a name for the pool, used for logging
+     * @param connection the shared Connection to create Sessions on
+     * @param destination the Destination the producers send to
+     * @param transacted should the Sessions be transacted?
+     * @param jmsSpec11 should the JMS 1.1 API be used?
+     * @param isQueue TRUE for a queue, FALSE for a topic and null for a generic destination
+     * @param maxSize the maximum number of Sessions
+     * @param idleTimeout the time after which an unused Session is closed, in milliseconds
+     * @param maxWait the maximum time to wait for a Session when all are in use, in milliseconds
+     */
+    public JMSSessionPool(String name, Connection connection, Destination destination,
+        boolean transacted, boolean jmsSpec11, Boolean isQueue,
+        int maxSize, long idleTimeout, long maxWait) {
+
+        this.name = name;
+        this.connection = connection;
+        this.destination = destination;
+        this.transacted = transacted;
+        this.jmsSpec11 = jmsSpec11;
+        this.isQueue = isQueue;
+        this.maxSize = maxSize;
+        this.idleTimeout = idleTimeout;
+        this.maxWait = maxWait;
+        this.permits = new Semaphore(maxSize);
+    }
+
+    /**
+     * Return the Connection the Sessions of this pool are created on
+     * @return the shared Connection
+     */
+    public Connection getConnection() {
+        return connection;
+    }
+
+    /**
+     * Return the Destination the producers of this pool send to
+     * @return the target Destination
+     */
+    public Destination getDestination() {
+        return destination;
+    }
+
+    /**
+     * Borrow a Session and MessageProducer, creating them if none is idle. Every call must be
+     * followed by a call to {@link #release(PooledSession)}
+     * @return a Session and MessageProducer for the exclusive use of the caller
+     */
+    public PooledSession borrow() {
+        if (closed) {
+            throw new AxisJMSException("JMS Session pool : " + name + " is closed");
+        }
+        if (!permits.tryAcquire()) {
+            waits.incrementAndGet();
+            boolean acquired;
+            try {
+                acquired = permits.tryAcquire(maxWait, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new AxisJMSException("Interrupted while waiting for a JMS Session from " +
+                    "pool : " + name, e);
+            }
+            if (!acquired) {
+                timeouts.incrementAndGet();
+                throw new AxisJMSException("Timed out after " + maxWait +
+                    " ms waiting for a JMS Session from pool : " + name);
+            }
+        }
+
+        // release() only evicts while the pool is in use; this closes the Sessions that have
+        // expired while nothing was sent
+        evictIdle();
+        PooledSession ps = idle.pollFirst();
+        if (ps == null) {
+            try {
+                ps = create();
+            } catch (JMSException e) {
+                permits.release();
+                throw new AxisJMSException("Error creating a JMS Session and MessageProducer " +
+                    "for pool : " + name, e);
+            }
+        }
+        borrowed.incrementAndGet();
+        return ps;
+    }
+
+    /**
+     * Return a Session and MessageProducer obtained from {@link #borrow()}
+     * @param ps the pair to return
+     */
+    public void release(PooledSession ps) {
+        try {
+            if (ps.valid && !closed) {
+                try {
+                    ps.reset();
+                    ps.lastUsed = System.currentTimeMillis();
+                    idle.offerFirst(ps);
+                } catch (JMSException e) {
+                    log.warn("Discarding JMS Session of pool : " + name + " after error", e);
+                    ps.close();
+                }
+            } else {
+                ps.close();
+            }
+        } finally {
+            permits.release();
+        }
+        evictIdle();
+    }
+
+    private PooledSession create() throws JMSException {
+        Session session = JMSUtils.createSession(
+            connection, transacted, Session.AUTO_ACKNOWLEDGE, jmsSpec11, isQueue);
+        try {
+            MessageProducer producer = JMSUtils.createProducer(
+                session, destination, isQueue, jmsSpec11);
+            PooledSession ps = new PooledSession(session, producer);
+            created.incrementAndGet();
+            if (log.isDebugEnabled()) {
+                log.debug("Created JMS Session " + created.get() + " for pool : " + name);
+            }
+            return ps;
+        } catch (JMSException e) {
+            session.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Close the least recently used idle pairs that have been unused for the idle timeout
+     */
+    private void evictIdle() {
+        long limit = System.currentTimeMillis() - idleTimeout;
+        PooledSession ps;
+        while ((ps = idle.peekLast()) != null && ps.lastUsed < limit) {
+            if (idle.removeLastOccurrence(ps)) {
+                ps.close();
+                evicted.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Close all idle pairs. Pairs still borrowed are closed when they are returned
+     */
+    public void close() {
+        closed = true;
+        PooledSession ps;
+        while ((ps = idle.pollFirst()) != null) {
+            ps.close();
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("Closed JMS Session pool : " + name + " after " + borrowed.get() +
+                " borrows, " + created.get() + " Sessions created, " + waits.get() + " waits");
+        }
+    }
+
+    /** @return the maximum number of Sessions */
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /** @return the number of Sessions currently borrowed */
+    public int getActiveCount() {
+        return maxSize - permits.availablePermits();
+    }
+
+    /** @return the number of idle Sessions */
+    public int getIdleCount() {
+        return idle.size();
+    }
+
+    /** @return the number of successful borrows */
+    public long getBorrowedCount() {
+        return borrowed.get();
+    }
+
+    /** @return the number of Sessions created */
+    public long getCreatedCount() {
+        return created.get();
+    }
+
+    /** @return the number of idle Sessions closed after the idle timeout */
+    public long getEvictedCount() {
+        return evicted.get();
+    }
+
+    /** @return the number of borrows that had to wait for a Session */
+    public long getWaitCount() {
+        return waits.get();
+    }
+
+    /** @return the number of borrows that timed out */
+    public long getTimeoutCount() {
+        return timeouts.get();
+    }
+}
@@ -0,0 +1,232 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *   * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+
+package org.apache.axis2.transport.jms;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.jms.Connection;
+import javax.jms.Message;
+import javax.jms.MessageConsumer;
+import javax.jms.MessageProducer;
+import javax.jms.Queue;
+import javax.jms.Session;
+import javax.jms.TextMessage;
+
+import junit.framework.TestCase;
+
+import org.apache.activemq.ActiveMQConnectionFactory;
+import org.apache.activemq.broker.BrokerService;
+import org.apache.activemq.store.memory.MemoryPersistenceAdapter;
+
+/**
+ * Tests {@link JMSReplyDispatcher} against an embedded ActiveMQ broker, with a responder that
+ * answers batches of requests in reverse order.
+ */
+public class JMSReplyDispatcherTest extends TestCase {
+    private static final String BROKER_NAME = "replydispatcher";
+    private static final int CLIENTS = 8;
+    private static final int REQUESTS_PER_CLIENT = 25;
+
+    private BrokerService broker;
+    private ActiveMQConnectionFactory connectionFactory;
+    private Connection responderConnection;
+    private JMSReplyDispatcher dispatcher;
+
+    @Override
+    protected void setUp() throws Exception {
+        broker = new BrokerService();
+        broker.setBrokerName(BROKER_NAME);
+        broker.setDataDirectory("target/activemq-data");
+        broker.setPersistenceAdapter(new MemoryPersistenceAdapter());
+        broker.setUseJmx(false);
+        broker.start();
+        connectionFactory = new ActiveMQConnectionFactory("vm://" + BROKER_NAME);
+        dispatcher = new JMSReplyDispatcher("test", connectionFactory.createConnection(),
+                null, true, null);
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        dispatcher.close();
+        if (responderConnection != null) {
+            responderConnection.close();
+        }
+        broker.stop();
+    }
+
+    /**
+     * Start a responder that collects <code>batchSize</code> requests and then replies to
+     * them in reverse order, echoing the request text.
+     */
+    private Queue startResponder(final int batchSize) throws Exception {
+        responderConnection = connectionFactory.createConnection();
+        final Session session = responderConnection.createSession(false, Session.AUTO_ACKNOWLEDGE);
+        Queue requests = session.createQueue("requests");
+        final MessageConsumer consumer = session.createConsumer(requests);
+        final MessageProducer producer = session.createProducer(null);
+        responderConnection.start();
+        Thread responder = new Thread("responder") {
+            @Override
+            public void run() {
+                List<Message> batch = new ArrayList<Message>();
+                try {
+                    while (true) {
+                        Message request = consumer.receive();
+                        if (request == null) {
+                            return;
+                        }
+                        batch.add(request);
+                        if (batch.size() == batchSize) {
+                            Collections.reverse(batch);
+                            for (Message m : batch) {
+                                TextMessage reply = session.createTextMessage(
+                                        ((TextMessage) m).getText());
+                                reply.setJMSCorrelationID(m.getJMSMessageID());
+                                producer.send(m.getJMSReplyTo(), reply);
+                            }
+                            batch.clear();
+                        }
+                    }
+                } catch (Exception e) {
+                    // connection closed at the end of the test
+                }
+            }
+        };
+        responder.setDaemon(true);
+        responder.start();
+        return requests;
+    }
+
+    public void testConcurrentRequestsWithOutOfOrderReplies() throws Exception {
+        final Queue requests = startResponder(CLIENTS);
+        final Connection clientConnection = connectionFactory.createConnection();
+        final AtomicInteger errors = new AtomicInteger();
+        Thread[] clients = new Thread[CLIENTS];
+        try {
+            for (int i = 0; i < CLIENTS; i++) {
+                final int client = i;
+                clients[i] = new Thread() {
+                    @Override
+                    public void run() {
+                        try {
+                            Session session = clientConnection.createSession(
+                                    false, Session.AUTO_ACKNOWLEDGE);
+                            MessageProducer producer = session.createProducer(requests);
+                            for (int j = 0; j < REQUESTS_PER_CLIENT; j++) {
+                                String text = client + "-" + j;
+                                TextMessage request = session.createTextMessage(text);
+                                request.setJMSReplyTo(dispatcher.getReplyDestination());
+                                producer.send(request);
+                                Message reply = dispatcher.receive(
+                                        request.getJMSMessageID(), 10000);
+                                if (reply == null || !text.equals(((TextMessage) reply).getText())) {
+                                    errors.incrementAndGet();
+                                }
+                            }
+                        } catch (Exception e) {
+                            errors.incrementAndGet();
+                        }
+                    }
+                };
+                clients[i].start();
+            }
+            for (Thread t : clients) {
+                t.join();
+            }
+        } finally {
+            clientConnection.close();
+        }
+        assertEquals(0, errors.get());
+        assertEquals(0, dispatcher.getPendingCount());
+    }
+
+    public void testAsynchronousCompletion() throws Exception {
+        Queue requests = startResponder(2);
+        Connection clientConnection = connectionFactory.createConnection();
+        try {
+            Session session = clientConnection.createSession(false, Session.AUTO_ACKNOWLEDGE);
+            MessageProducer producer = session.createProducer(requests);
+            final CountDownLatch latch = new CountDownLatch(2);
+            final List<String> replies = Collections.synchronizedList(new ArrayList<String>());
+            JMSReplyDispatcher.ReplyListener listener = new JMSReplyDispatcher.ReplyListener() {
+                public void onReply(Message reply) {
+                    try {
+                        replies.add(((TextMessage) reply).getText());
+                    } catch (Exception e) {
+                        replies.add(e.toString());
+                    }
+                    latch.countDown();
+                }
+
+                public void onTimeout(String correlationId) {
+                    latch.countDown();
+                }
+            };
+            for (String text : new String[] { "first", "second" }) {
+                TextMessage request = session.createTextMessage(text);
+                request.setJMSReplyTo(dispatcher.getReplyDestination());
+                producer.send(request);
+                dispatcher.receive(request.getJMSMessageID(), 10000, listener);
+            }
+            assertTrue(latch.await(10, TimeUnit.SECONDS));
+            assertEquals(2, replies.size());
+            assertEquals("second", replies.get(0));
+            assertEquals("first", replies.get(1));
+        } finally {
+            clientConnection.close();
+        }
+    }
+
+    public void testReplyBeforeRegistration() throws Exception {
+        Connection connection = connectionFactory.createConnection();
+        try {
+            Session session = connection.createSession(false, Session.AUTO_ACKNOWLEDGE);
+            TextMessage reply = session.createTextMessage("early");
+            reply.setJMSCorrelationID("early-id");
+            session.createProducer(dispatcher.getReplyDestination()).send(reply);
+            Thread.sleep(500);
+            Message received = dispatcher.receive("early-id", 1000);
+            assertNotNull(received);
+            assertEquals("early", ((TextMessage) received).getText());
+        } finally {
+            connection.close();
+        }
+    }
+
+    public void testTimeout() throws Exception {
+        assertNull(dispatcher.receive("unknown", 200));
+        final CountDownLatch latch = new CountDownLatch(1);
+        dispatcher.receive("unknown", 200, new JMSReplyDispatcher.ReplyListener() {
+            public void onReply(Message reply) {
+            }
+
+            public void onTimeout(String correlationId) {
+                latch.countDown();
+            }
+        });
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertEquals(0, dispatcher.getPendingCount());
+    }
+}
@@ -0,0 +1,210 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *   * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+
+package org.apache.axis2.transport.jms;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.jms.Connection;
+import javax.jms.DeliveryMode;
+import javax.jms.MessageConsumer;
+import javax.jms.Queue;
+import javax.jms.Session;
+
+import junit.framework.TestCase;
+
+import org.apache.activemq.ActiveMQConnectionFactory;
+import org.apache.activemq.broker.BrokerService;
+import org.apache.activemq.command.ActiveMQQueue;
+import org.apache.activemq.store.memory.MemoryPersistenceAdapter;
+
+public class JMSSessionPoolTest extends TestCase {
+    private static final String BROKER_NAME = "sessionpool";
+
+    private BrokerService broker;
+    private Connection connection;
+    private Queue queue;
+
+    @Override
+    protected void setUp() throws Exception {
+        broker = new BrokerService();
+        broker.setBrokerName(BROKER_NAME);
+        broker.setDataDirectory("target/activemq-data");
+        broker.setPersistenceAdapter(new MemoryPersistenceAdapter());
+        broker.setUseJmx(false);
+        broker.start();
+        connection = new ActiveMQConnectionFactory("vm://" + BROKER_NAME).createConnection();
+        queue = new ActiveMQQueue("pooled");
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        connection.close();
+        broker.stop();
+    }
+
+    private JMSSessionPool createPool(int size, long idleTimeout, long maxWait) {
+        return new JMSSessionPool("test", connection, queue, false, true, null,
+                size, idleTimeout, maxWait);
+    }
+
+    public void testReuse() throws Exception {
+        JMSSessionPool pool = createPool(2, 60000, 1000);
+        JMSSessionPool.PooledSession ps = pool.borrow();
+        pool.release(ps);
+        assertSame(ps, pool.borrow());
+        assertEquals(1, pool.getCreatedCount());
+        assertEquals(2, pool.getBorrowedCount());
+        assertEquals(1, pool.getActiveCount());
+        pool.close();
+    }
+
+    public void testBound() throws Exception {
+        JMSSessionPool pool = createPool(2, 60000, 100);
+        JMSSessionPool.PooledSession ps1 = pool.borrow();
+        pool.borrow();
+        try {
+            pool.borrow();
+            fail("Expected a timeout");
+        } catch (AxisJMSException e) {
+            // expected
+        }
+        assertEquals(1, pool.getWaitCount());
+        assertEquals(1, pool.getTimeoutCount());
+        pool.release(ps1);
+        assertSame(ps1, pool.borrow());
+        pool.close();
+    }
+
+    public void testInvalidate() throws Exception {
+        JMSSessionPool pool = createPool(1, 60000, 1000);
+        JMSSessionPool.PooledSession ps = pool.borrow();
+        ps.invalidate();
+        pool.release(ps);
+        assertEquals(0, pool.getIdleCount());
+        assertNotSame(ps, pool.borrow());
+        assertEquals(2, pool.getCreatedCount());
+        pool.close();
+    }
+
+    public void testProducerSettingsAreReset() throws Exception {
+        JMSSessionPool pool = createPool(1, 60000, 1000);
+        JMSSessionPool.PooledSession ps = pool.borrow();
+        int deliveryMode = ps.getProducer().getDeliveryMode();
+        ps.getProducer().setDeliveryMode(deliveryMode == DeliveryMode.PERSISTENT ?
+                DeliveryMode.NON_PERSISTENT : DeliveryMode.PERSISTENT);
+        ps.getProducer().setPriority(9);
+        pool.release(ps);
+        ps = pool.borrow();
+        assertEquals(deliveryMode, ps.getProducer().getDeliveryMode());
+        assertEquals(4, ps.getProducer().getPriority());
+        pool.close();
+    }
+
+    public void testIdleEviction() throws Exception {
+        JMSSessionPool pool = createPool(2, 50, 1000);
+        JMSSessionPool.PooledSession ps1 = pool.borrow();
+        JMSSessionPool.PooledSession ps2 = pool.borrow();
+        pool.release(ps1);
+        Thread.sleep(200);
+        // returning the second one evicts the first, which has been idle too long
+        pool.release(ps2);
+        assertEquals(1, pool.getEvictedCount());
+        assertEquals(1, pool.getIdleCount());
+        pool.close();
+    }
+
+    public void testIdleEvictionOnBorrow() throws Exception {
+        JMSSessionPool pool = createPool(2, 50, 1000);
+        JMSSessionPool.PooledSession ps1 = pool.borrow();
+        JMSSessionPool.PooledSession ps2 = pool.borrow();
+        pool.release(ps1);
+        pool.release(ps2);
+        Thread.sleep(200);
+        // both have been idle too long, so a new one is created
+        JMSSessionPool.PooledSession ps3 = pool.borrow();
+        assertNotSame(ps1, ps3);
+        assertNotSame(ps2, ps3);
+        assertEquals(2, pool.getEvictedCount());
+        assertEquals(0, pool.getIdleCount());
+        pool.release(ps3);
+        pool.close();
+    }
+
+    public void testInterruptedBorrow() throws Exception {
+        JMSSessionPool pool = createPool(1, 60000, 10000);
+        JMSSessionPool.PooledSession ps = pool.borrow();
+        Thread.currentThread().interrupt();
+        try {
+            pool.borrow();
+            fail("Expected an AxisJMSException");
+        } catch (AxisJMSException e) {
+            assertTrue(e.getCause() instanceof InterruptedException);
+            // the interrupt status is restored
+            assertTrue(Thread.interrupted());
+        }
+        assertEquals(0, pool.getTimeoutCount());
+        pool.release(ps);
+        pool.close();
+    }
+
+    public void testConcurrentSends() throws Exception {
+        final JMSSessionPool pool = createPool(4, 60000, 10000);
+        final int threads = 16;
+        final int messages = 50;
+        final AtomicInteger errors = new AtomicInteger();
+        Thread[] senders = new Thread[threads];
+        for (int i = 0; i < threads; i++) {
+            senders[i] = new Thread() {
+                @Override
+                public void run() {
+                    for (int j = 0; j < messages; j++) {
+                        try {
+                            JMSSessionPool.PooledSession ps = pool.borrow();
+                            try {
+                                ps.getProducer().send(ps.getSession().createTextMessage("m"));
+                            } finally {
+                                pool.release(ps);
+                            }
+                        } catch (Exception e) {
+                            errors.incrementAndGet();
+                        }
+                    }
+                }
+            };
+            senders[i].start();
+        }
+        for (Thread t : senders) {
+            t.join();
+        }
+        assertEquals(0, errors.get());
+        assertTrue(pool.getCreatedCount() <= 4);
+        assertEquals(threads * messages, pool.getBorrowedCount());
+        pool.close();
+
+        Session session = connection.createSession(false, Session.AUTO_ACKNOWLEDGE);
+        MessageConsumer consumer = session.createConsumer(queue);
+        connection.start();
+        int received = 0;
+        while (consumer.receive(1000) != null) {
+            received++;
+        }
+        assertEquals(threads * messages, received);
+    }
+}
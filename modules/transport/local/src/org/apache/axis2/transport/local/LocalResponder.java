@@ -44,10 +44,27 @@ public class LocalResponder extends AbstractHandler implements TransportSender {
     //  fixed for Executing LocalTransport in MulthThread. 
     private OutputStream out;
 
+    // if set, the response envelope is handed over to this (request) message context
+    private MessageContext requestMessageContext;
+
     public LocalResponder(OutputStream response) {
         this.out = response;        
     }
 
+    /**
+     * Create a responder that passes the response envelope back to the caller without
+     * serializing it, by setting the {@link MessageContext#TRANSPORT_IN_ENVELOPE} property on
+     * the request message context. Responses using SwA are still written to
+     * <code>response</code>.
+     *
+     * @param response the stream for serialized responses
+     * @param requestMessageContext the request message context on the sending side
+     */
+    public LocalResponder(OutputStream response, MessageContext requestMessageContext) {
+        this.out = response;
+        this.requestMessageContext = requestMessageContext;
+    }
+
     public void init(ConfigurationContext confContext, TransportOutDescription transportOut)
             throws AxisFault {
     }
@@ -82,7 +99,12 @@ public class LocalResponder extends AbstractHandler implements TransportSender {
                 log.debug("Response - " + msgContext.getEnvelope().toString());
             }
 
-            if (epr != null) {
+            if (requestMessageContext != null && !msgContext.isDoingSwA()) {
+                if (epr == null || !epr.hasNoneAddress()) {
+                    requestMessageContext.setProperty(MessageContext.TRANSPORT_IN_ENVELOPE,
+                            msgContext.getEnvelope());
+                }
+            } else if (epr != null) {
                 if (!epr.hasNoneAddress()) {
                     TransportUtils.writeMessage(msgContext, out);
                 }
@@ -62,6 +62,30 @@ public class LocalTransportReceiver {
         processMessage(in, to, action, response);
     }
 
+    /**
+     * Process a request envelope without parsing it. The response envelope is handed back as
+     * the {@link MessageContext#TRANSPORT_IN_ENVELOPE} property of <code>inMessageContext</code>,
+     * unless it needs to be serialized (SwA), in which case it is written to
+     * <code>response</code>.
+     *
+     * @param inMessageContext the request message context on the sending side
+     * @param envelope the request envelope
+     * @param response the stream for serialized responses
+     * @throws AxisFault
+     */
+    public void processMessage(MessageContext inMessageContext,
+                               SOAPEnvelope envelope,
+                               OutputStream response) throws AxisFault {
+        if (this.confContext == null) {
+            this.confContext = inMessageContext.getConfigurationContext();
+        }
+        this.inMessageContext = inMessageContext;
+        EndpointReference to = inMessageContext.getTo();
+        String action = inMessageContext.getOptions().getAction();
+        processMessage(null, envelope, to, action, response,
+                new LocalResponder(response, inMessageContext));
+    }
+
     public void processMessage(ConfigurationContext configurationContext,
                                InputStream in,
                                EndpointReference to,
@@ -76,6 +100,12 @@ public class LocalTransportReceiver {
     public void processMessage(InputStream in, EndpointReference to, String action,
                                OutputStream response)
             throws AxisFault {
+        processMessage(in, null, to, action, response, new LocalResponder(response));
+    }
+
+    private void processMessage(InputStream in, SOAPEnvelope envelope, EndpointReference to,
+                                String action, OutputStream response, LocalResponder responder)
+            throws AxisFault {
         MessageContext msgCtx = confContext.createMessageContext();
         if (inMessageContext != null) {
             msgCtx.setProperty(HTTPConstants.MC_HTTP_SERVLETREQUEST,
@@ -94,7 +124,7 @@ public class LocalTransportReceiver {
         // We escaped this problem by the following code.
         LocalResponseTransportOutDescription localTransportResOut = new LocalResponseTransportOutDescription(
                 tOut);
-        localTransportResOut.setSender(new LocalResponder(response));
+        localTransportResOut.setSender(responder);
 
         try {
             msgCtx.setIncomingTransportName(Constants.TRANSPORT_LOCAL);
@@ -111,8 +141,10 @@ public class LocalTransportReceiver {
             msgCtx.setWSAAction(action);
             msgCtx.setServerSide(true);
 
-            InputStreamReader streamReader = new InputStreamReader(in);
-            SOAPEnvelope envelope = OMXMLBuilderFactory.createSOAPModelBuilder(streamReader).getSOAPEnvelope();
+            if (envelope == null) {
+                InputStreamReader streamReader = new InputStreamReader(in);
+                envelope = OMXMLBuilderFactory.createSOAPModelBuilder(streamReader).getSOAPEnvelope();
+            }
 
             msgCtx.setEnvelope(envelope);
 
@@ -20,10 +20,13 @@
 
 package org.apache.axis2.transport.local;
 
+import org.apache.axiom.soap.SOAPCloneOptions;
+import org.apache.axiom.soap.SOAPEnvelope;
 import org.apache.axis2.AxisFault;
 import org.apache.axis2.addressing.EndpointReference;
 import org.apache.axis2.context.ConfigurationContext;
 import org.apache.axis2.context.MessageContext;
+import org.apache.axis2.description.Parameter;
 import org.apache.axis2.description.TransportOutDescription;
 import org.apache.axis2.handlers.AbstractHandler;
 import org.apache.axis2.transport.TransportSender;
@@ -40,6 +43,34 @@ import java.io.OutputStream;
 public class LocalTransportSender extends AbstractHandler implements TransportSender {
     protected static final Log log = LogFactory.getLog(LocalTransportSender.class);
 
+    /**
+     * Name of the transport sender parameter (or message context property) that determines how
+     * messages are passed to the receiving side. One of {@link #MESSAGE_PASSING_SERIALIZE}
+     * (the default), {@link #MESSAGE_PASSING_COPY} or {@link #MESSAGE_PASSING_REFERENCE}.
+     */
+    public static final String MESSAGE_PASSING = "transport.local.messagePassing";
+
+    /**
+     * Serialize the request and parse it again on the receiving side (and the same for the
+     * response), exactly as a remote transport would.
+     */
+    public static final String MESSAGE_PASSING_SERIALIZE = "serialize";
+
+    /**
+     * Hand over a copy of the request envelope. The copy shares nothing with the original that a
+     * handler or service could modify; OMDataSources are copied without being expanded. The
+     * response envelope is handed over as is.
+     */
+    public static final String MESSAGE_PASSING_COPY = "copy";
+
+    /**
+     * Hand over the request envelope itself. Handlers and services on the receiving side may
+     * modify it (e.g. move body elements into the response), so this should only be used if
+     * the caller doesn't reuse the envelope after the invocation, which is the case for
+     * {@link org.apache.axis2.client.ServiceClient}. The response envelope is handed over as is.
+     */
+    public static final String MESSAGE_PASSING_REFERENCE = "reference";
+
     public void init(ConfigurationContext confContext, TransportOutDescription transportOut)
             throws AxisFault {
     }
@@ -72,9 +103,19 @@ public class LocalTransportSender extends AbstractHandler implements TransportSe
 
         if (epr != null) {
             if (!epr.hasNoneAddress()) {
-                out = new ByteArrayOutputStream();
-                TransportUtils.writeMessage(msgContext, out);
-                finalizeSendWithToAddress(msgContext, (ByteArrayOutputStream)out);
+                String messagePassing = getMessagePassing(msgContext);
+                // SwA attachments only travel with the serialized message
+                if (MESSAGE_PASSING_SERIALIZE.equals(messagePassing) || msgContext.isDoingSwA()) {
+                    out = new ByteArrayOutputStream();
+                    TransportUtils.writeMessage(msgContext, out);
+                    finalizeSendWithToAddress(msgContext, (ByteArrayOutputStream)out);
+                } else {
+                    SOAPEnvelope envelope = msgContext.getEnvelope();
+                    if (MESSAGE_PASSING_COPY.equals(messagePassing)) {
+                        envelope = copyEnvelope(envelope);
+                    }
+                    finalizeSendWithToAddress(msgContext, envelope);
+                }
             }
         } else {
             out = (OutputStream) msgContext.getProperty(MessageContext.TRANSPORT_OUT);
@@ -92,6 +133,56 @@ public class LocalTransportSender extends AbstractHandler implements TransportSe
         return InvocationResponse.CONTINUE;
     }
 
+    private String getMessagePassing(MessageContext msgContext) throws AxisFault {
+        Object value = msgContext.getProperty(MESSAGE_PASSING);
+        if (value == null && msgContext.getTransportOut() != null) {
+            Parameter param = msgContext.getTransportOut().getParameter(MESSAGE_PASSING);
+            if (param != null) {
+                value = param.getValue();
+            }
+        }
+        if (value == null) {
+            return MESSAGE_PASSING_SERIALIZE;
+        }
+        String messagePassing = value.toString().trim();
+        if (!MESSAGE_PASSING_SERIALIZE.equals(messagePassing)
+                && !MESSAGE_PASSING_COPY.equals(messagePassing)
+                && !MESSAGE_PASSING_REFERENCE.equals(messagePassing)) {
+            throw new AxisFault("Invalid value '" + messagePassing + "' for "
+                    + MESSAGE_PASSING);
+        }
+        return messagePassing;
+    }
+
+    private static SOAPEnvelope copyEnvelope(SOAPEnvelope envelope) {
+        SOAPCloneOptions options = new SOAPCloneOptions();
+        options.setPreserveModel(true);
+        options.setCopyOMDataSources(true);
+        return (SOAPEnvelope)envelope.clone(options);
+    }
+
+    /**
+     * Pass the envelope to the receiving side without serializing it.
+     *
+     * @param msgContext the request message context
+     * @param envelope the envelope to deliver; ownership is transferred to the receiving side
+     * @throws AxisFault
+     */
+    public void finalizeSendWithToAddress(MessageContext msgContext, SOAPEnvelope envelope)
+            throws AxisFault {
+        ByteArrayOutputStream response = new ByteArrayOutputStream();
+
+        LocalTransportReceiver localTransportReceiver = new LocalTransportReceiver(this);
+        localTransportReceiver.processMessage(msgContext, envelope, response);
+
+        // the response is only serialized if it couldn't be passed as an object
+        if (msgContext.getProperty(MessageContext.TRANSPORT_IN_ENVELOPE) == null
+                && response.size() > 0) {
+            msgContext.setProperty(MessageContext.TRANSPORT_IN,
+                    new ByteArrayInputStream(response.toByteArray()));
+        }
+    }
+
     public void finalizeSendWithToAddress(MessageContext msgContext, ByteArrayOutputStream out)
             throws AxisFault {
         try {
@@ -34,9 +34,11 @@ import org.apache.axis2.description.InOutAxisOperation;
 import org.custommonkey.xmlunit.XMLAssert;
 import org.junit.Test;
 
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
 public class LocalTransportTest {
-    @Test
-    public void test() throws Exception {
+    private ConfigurationContext createConfigurationContext() throws Exception {
         ConfigurationContext configurationContext =
             ConfigurationContextFactory.createConfigurationContextFromURIs(
                     LocalTransportTest.class.getResource("axis2.xml"), null);
@@ -47,17 +49,53 @@ public class LocalTransportTest {
         service.addOperation(operation);
         service.addParameter(AxisService.SUPPORT_SINGLE_OP, true);
         configurationContext.getAxisConfiguration().addService(service);
-        
+        return configurationContext;
+    }
+
+    private OMElement createRequest() {
         OMFactory factory = OMAbstractFactory.getOMFactory();
         OMElement requestElement = factory.createOMElement("test", "urn:test", "t");
         requestElement.setText("Hi there!");
-        
+        return requestElement;
+    }
+
+    private OMElement sendReceive(OMElement requestElement, String messagePassing)
+            throws Exception {
         Options options = new Options();
         options.setTo(new EndpointReference("local://localhost/axis2/services/Echo"));
-        ServiceClient serviceClient = new ServiceClient(configurationContext, null);
+        if (messagePassing != null) {
+            options.setProperty(LocalTransportSender.MESSAGE_PASSING, messagePassing);
+        }
+        ServiceClient serviceClient = new ServiceClient(createConfigurationContext(), null);
         serviceClient.setOptions(options);
-        OMElement responseElement = serviceClient.sendReceive(requestElement);
+        return serviceClient.sendReceive(requestElement);
+    }
+
+    @Test
+    public void test() throws Exception {
+        OMElement requestElement = createRequest();
+        OMElement responseElement = sendReceive(requestElement, null);
         
         XMLAssert.assertXMLEqual(requestElement.toString(), responseElement.toString());
     }
+
+    @Test
+    public void testMessagePassingByReference() throws Exception {
+        OMElement requestElement = createRequest();
+        OMElement responseElement = sendReceive(requestElement,
+                LocalTransportSender.MESSAGE_PASSING_REFERENCE);
+
+        // the echo service returns the request envelope, which was never serialized
+        assertSame(requestElement, responseElement);
+    }
+
+    @Test
+    public void testMessagePassingByCopy() throws Exception {
+        OMElement requestElement = createRequest();
+        OMElement responseElement = sendReceive(requestElement,
+                LocalTransportSender.MESSAGE_PASSING_COPY);
+
+        assertNotSame(requestElement, responseElement);
+        XMLAssert.assertXMLEqual(requestElement.toString(), responseElement.toString());
+    }
 }
@@ -493,6 +493,7 @@ public class MailTransportSender extends AbstractTransportSender
             long bytesSent = message.getBytesSent();
             if (bytesSent != -1) {
                 metrics.incrementBytesSent(msgContext, bytesSent);
+                metrics.notifySentMessageSize(msgContext, bytesSent);
             }
 
         } catch (MessagingException e) {
@@ -0,0 +1,135 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.transport.tcp;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Pool of {@link TCPFramedConnection}s, keyed by host and port. Since each connection can carry
+ * any number of concurrent requests, the pool only opens additional connections (up to the
+ * configured maximum per endpoint) when all existing connections have requests in flight.
+ * Connections that fail are replaced transparently.
+ */
+public class TCPConnectionPool {
+
+    private final int maxConnectionsPerEndpoint;
+    private final int maxFrameSize;
+    private final Map<String, TCPFramedConnection[]> connections =
+            new HashMap<String, TCPFramedConnection[]>();
+
+    public TCPConnectionPool(int maxConnectionsPerEndpoint) {
+        this(maxConnectionsPerEndpoint, TCPConstants.TCP_DEFAULT_MAX_FRAME_SIZE);
+    }
+
+    /**
+     * @param maxConnectionsPerEndpoint the maximum number of connections to a single endpoint
+     * @param maxFrameSize the maximum size of the responses received on the connections
+     */
+    public TCPConnectionPool(int maxConnectionsPerEndpoint, int maxFrameSize) {
+        this.maxConnectionsPerEndpoint = Math.max(1, maxConnectionsPerEndpoint);
+        this.maxFrameSize = maxFrameSize;
+    }
+
+    /**
+     * Get a connection to the given endpoint. New connections are established without holding
+     * the lock of the pool, so that a slow or unreachable host doesn't delay the requests sent to
+     * other hosts.
+     *
+     * @param host the host
+     * @param port the port
+     * @param connectTimeout the connect timeout in milliseconds, or -1 for no timeout
+     * @return an open connection
+     * @throws IOException if a new connection is needed and can't be established
+     */
+    public TCPFramedConnection getConnection(String host, int port, int connectTimeout)
+            throws IOException {
+        String key = host + ":" + port;
+        synchronized (this) {
+            TCPFramedConnection connection = findConnection(key);
+            if (connection != null) {
+                return connection;
+            }
+        }
+        TCPFramedConnection newConnection =
+                new TCPFramedConnection(host, port, connectTimeout, maxFrameSize);
+        synchronized (this) {
+            // Other threads may have opened connections to the endpoint meanwhile
+            TCPFramedConnection connection = findConnection(key);
+            if (connection != null) {
+                newConnection.close();
+                return connection;
+            }
+            TCPFramedConnection[] endpointConnections = connections.get(key);
+            for (int i = 0; i < endpointConnections.length; i++) {
+                if (endpointConnections[i] == null) {
+                    endpointConnections[i] = newConnection;
+                    break;
+                }
+            }
+            return newConnection;
+        }
+    }
+
+    /**
+     * Find the connection to use for the given endpoint. Must be called with the lock held.
+     *
+     * @return the least busy connection, or <code>null</code> if a new connection should be
+     *         opened
+     */
+    private TCPFramedConnection findConnection(String key) {
+        TCPFramedConnection[] endpointConnections = connections.get(key);
+        if (endpointConnections == null) {
+            endpointConnections = new TCPFramedConnection[maxConnectionsPerEndpoint];
+            connections.put(key, endpointConnections);
+        }
+        TCPFramedConnection leastBusy = null;
+        boolean freeSlot = false;
+        for (int i = 0; i < endpointConnections.length; i++) {
+            TCPFramedConnection connection = endpointConnections[i];
+            if (connection == null || connection.isClosed()) {
+                endpointConnections[i] = null;
+                freeSlot = true;
+            } else if (leastBusy == null
+                    || connection.getPendingCount() < leastBusy.getPendingCount()) {
+                leastBusy = connection;
+            }
+        }
+        if (leastBusy != null && (leastBusy.getPendingCount() == 0 || !freeSlot)) {
+            return leastBusy;
+        }
+        return null;
+    }
+
+    /**
+     * Close all connections.
+     */
+    public synchronized void shutdown() {
+        for (TCPFramedConnection[] endpointConnections : connections.values()) {
+            for (int i = 0; i < endpointConnections.length; i++) {
+                if (endpointConnections[i] != null) {
+                    endpointConnections[i].close();
+                }
+            }
+        }
+        connections.clear();
+    }
+}
@@ -25,9 +25,30 @@ public class TCPConstants {
     public static final String PARAM_HOST = "transport.tcp.hostname";
     public static final String PARAM_BACKLOG = "transport.tcp.backlog";
     public static final String PARAM_CONTENT_TYPE = "transport.tcp.contentType";
+    public static final String PARAM_FRAMING = "transport.tcp.framing";
+    public static final String PARAM_MAX_FRAME_SIZE = "transport.tcp.maxFrameSize";
+    public static final String PARAM_MAX_CONNECTIONS_PER_ENDPOINT =
+            "transport.tcp.maxConnectionsPerEndpoint";
+    public static final String PARAM_MAX_CONNECTIONS = "transport.tcp.maxConnections";
+    public static final String PARAM_READ_TIMEOUT = "transport.tcp.readTimeout";
+    public static final String PARAM_NIO = "transport.tcp.nio";
+    public static final String PARAM_SELECTOR_THREADS = "transport.tcp.selectorThreads";
+
+    /** Messages are delimited by closing the connection (one message per connection) */
+    public static final String FRAMING_NONE = "none";
+    /** Messages are length-prefixed frames on persistent, multiplexed connections */
+    public static final String FRAMING_LENGTH = "length";
+
+    /** Name of the URL parameter that selects the framing mode on the client side */
+    public static final String URL_PARAM_FRAMING = "framing";
 
     public static final int TCP_DEFAULT_BACKLOG = 50;
     public static final String TCP_DEFAULT_CONTENT_TYPE = "text/xml";
+    public static final int TCP_DEFAULT_MAX_FRAME_SIZE = 64 * 1024 * 1024;
+    public static final int TCP_DEFAULT_MAX_CONNECTIONS_PER_ENDPOINT = 2;
+    public static final int TCP_DEFAULT_MAX_CONNECTIONS = 100;
+    public static final int TCP_DEFAULT_READ_TIMEOUT = 60000;
+    public static final int TCP_DEFAULT_SELECTOR_THREADS = 2;
 
     public static final String TCP_OUTPUT_SOCKET = "transport.tcp.outputSocket";
 }
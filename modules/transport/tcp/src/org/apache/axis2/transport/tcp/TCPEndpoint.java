@@ -36,6 +36,11 @@ public class TCPEndpoint extends ProtocolEndpoint {
     private int port = -1;
     private int backlog = TCPConstants.TCP_DEFAULT_BACKLOG;
     private String contentType;
+    private boolean framed;
+    private int maxFrameSize = TCPConstants.TCP_DEFAULT_MAX_FRAME_SIZE;
+    private int maxConnections = TCPConstants.TCP_DEFAULT_MAX_CONNECTIONS;
+    private boolean nio;
+    private int selectorThreads = TCPConstants.TCP_DEFAULT_SELECTOR_THREADS;
 
     public TCPEndpoint() {
 
@@ -63,6 +68,26 @@ public class TCPEndpoint extends ProtocolEndpoint {
         return contentType;
     }
 
+    public boolean isFramed() {
+        return framed;
+    }
+
+    public int getMaxFrameSize() {
+        return maxFrameSize;
+    }
+
+    public int getMaxConnections() {
+        return maxConnections;
+    }
+
+    public boolean isNio() {
+        return nio;
+    }
+
+    public int getSelectorThreads() {
+        return selectorThreads;
+    }
+
     public boolean loadConfiguration(ParameterInclude params) throws AxisFault {
         port = ParamUtils.getOptionalParamInt(params, TCPConstants.PARAM_PORT, -1);
         if (port == -1) {
@@ -77,6 +102,31 @@ public class TCPEndpoint extends ProtocolEndpoint {
         host = ParamUtils.getOptionalParam(params, TCPConstants.PARAM_HOST);
         backlog = ParamUtils.getOptionalParamInt(params, TCPConstants.PARAM_BACKLOG,
                 TCPConstants.TCP_DEFAULT_BACKLOG);
+
+        String framing = ParamUtils.getOptionalParam(params, TCPConstants.PARAM_FRAMING);
+        if (framing == null || TCPConstants.FRAMING_NONE.equals(framing)) {
+            framed = false;
+        } else if (TCPConstants.FRAMING_LENGTH.equals(framing)) {
+            framed = true;
+        } else {
+            throw new AxisFault("Invalid value '" + framing + "' for parameter "
+                    + TCPConstants.PARAM_FRAMING + "; expected '" + TCPConstants.FRAMING_NONE
+                    + "' or '" + TCPConstants.FRAMING_LENGTH + "'");
+        }
+        maxFrameSize = ParamUtils.getOptionalParamInt(params, TCPConstants.PARAM_MAX_FRAME_SIZE,
+                TCPConstants.TCP_DEFAULT_MAX_FRAME_SIZE);
+        maxConnections = ParamUtils.getOptionalParamInt(params, TCPConstants.PARAM_MAX_CONNECTIONS,
+                TCPConstants.TCP_DEFAULT_MAX_CONNECTIONS);
+
+        nio = ParamUtils.getOptionalParamBoolean(params, TCPConstants.PARAM_NIO, false);
+        if (nio && !framed) {
+            // without framing the end of a message can only be found by parsing it
+            throw new AxisFault("Parameter " + TCPConstants.PARAM_NIO + " requires "
+                    + TCPConstants.PARAM_FRAMING + " to be set to '"
+                    + TCPConstants.FRAMING_LENGTH + "'");
+        }
+        selectorThreads = ParamUtils.getOptionalParamInt(params,
+                TCPConstants.PARAM_SELECTOR_THREADS, TCPConstants.TCP_DEFAULT_SELECTOR_THREADS);
         return true;
     }
 
@@ -97,8 +147,16 @@ public class TCPEndpoint extends ProtocolEndpoint {
                 (context.endsWith("/") ? "" : "/") +
                 (getService() == null ? service.getName() : getServiceName());
 
+        String query = null;
         if (!contentType.equals(TCPConstants.TCP_DEFAULT_CONTENT_TYPE)) {
-            url += "?contentType=" + contentType;
+            query = "contentType=" + contentType;
+        }
+        if (framed) {
+            String framing = TCPConstants.URL_PARAM_FRAMING + "=" + TCPConstants.FRAMING_LENGTH;
+            query = query == null ? framing : query + "&" + framing;
+        }
+        if (query != null) {
+            url += "?" + query;
         }
 
         return new EndpointReference[] { new EndpointReference(url) };
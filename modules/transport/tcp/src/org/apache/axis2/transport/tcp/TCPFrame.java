@@ -0,0 +1,136 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.transport.tcp;
+
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.Socket;
+
+/**
+ * A message exchanged in the {@link TCPConstants#FRAMING_LENGTH} framing mode. On the wire a
+ * frame consists of the length of the payload (4 bytes), a correlation id (8 bytes) and the
+ * payload. The correlation id is chosen by the client; the server sends the response with the
+ * correlation id of the request, which allows several requests to be in flight on the same
+ * connection and responses to be sent in any order.
+ */
+public class TCPFrame {
+
+    /** The length of the frame header (payload length and correlation id) */
+    public static final int HEADER_LENGTH = 12;
+
+    private final long correlationId;
+    private final byte[] payload;
+
+    public TCPFrame(long correlationId, byte[] payload) {
+        this.correlationId = correlationId;
+        this.payload = payload;
+    }
+
+    public long getCorrelationId() {
+        return correlationId;
+    }
+
+    public byte[] getPayload() {
+        return payload;
+    }
+
+    /**
+     * Read the next frame.
+     *
+     * @param in the input stream of the connection
+     * @param maxFrameSize the maximum accepted payload length
+     * @return the frame, or <code>null</code> if the connection was closed between two frames
+     * @throws IOException if an I/O error occurs or the frame is invalid
+     */
+    public static TCPFrame read(DataInputStream in, int maxFrameSize) throws IOException {
+        int length;
+        try {
+            length = in.readInt();
+        } catch (EOFException e) {
+            return null;
+        }
+        if (length < 0 || length > maxFrameSize) {
+            throw new IOException("Invalid frame length " + length + " (maximum is "
+                    + maxFrameSize + ")");
+        }
+        long correlationId = in.readLong();
+        byte[] payload = new byte[length];
+        in.readFully(payload);
+        return new TCPFrame(correlationId, payload);
+    }
+
+    /**
+     * Write a frame to a connection. Frames written concurrently by several threads to the same
+     * socket are not interleaved.
+     *
+     * @param socket the connection
+     * @param correlationId the correlation id
+     * @param payload the payload
+     * @throws IOException if an I/O error occurs
+     */
+    public static void write(Socket socket, long correlationId, byte[] payload)
+            throws IOException {
+        // Header and payload are written with a single call so that they end up in the same
+        // TCP segment for small messages
+        byte[] frame = encode(correlationId, payload);
+        synchronized (socket) {
+            OutputStream out = socket.getOutputStream();
+            out.write(frame);
+            out.flush();
+        }
+    }
+
+    /**
+     * Get the wire representation of a frame.
+     *
+     * @param correlationId the correlation id
+     * @param payload the payload
+     * @return the header followed by the payload
+     */
+    public static byte[] encode(long correlationId, byte[] payload) {
+        byte[] frame = new byte[HEADER_LENGTH + payload.length];
+        int length = payload.length;
+        frame[0] = (byte)(length >>> 24);
+        frame[1] = (byte)(length >>> 16);
+        frame[2] = (byte)(length >>> 8);
+        frame[3] = (byte)length;
+        for (int i = 0; i < 8; i++) {
+            frame[4 + i] = (byte)(correlationId >>> (56 - 8 * i));
+        }
+        System.arraycopy(payload, 0, frame, HEADER_LENGTH, length);
+        return frame;
+    }
+
+    /**
+     * Get a {@link TCPFrameWriter} that writes frames to a blocking socket.
+     *
+     * @param socket the connection
+     * @return the writer
+     */
+    public static TCPFrameWriter writer(final Socket socket) {
+        return new TCPFrameWriter() {
+            public void write(long correlationId, byte[] payload) throws IOException {
+                TCPFrame.write(socket, correlationId, payload);
+            }
+        };
+    }
+}
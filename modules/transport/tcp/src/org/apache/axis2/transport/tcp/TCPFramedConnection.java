@@ -0,0 +1,227 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.transport.tcp;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Client side of a persistent connection in the {@link TCPConstants#FRAMING_LENGTH} framing
+ * mode. Any number of threads may send requests concurrently; a reader thread dispatches the
+ * responses to the waiting callers based on their correlation ids.
+ */
+public class TCPFramedConnection implements Runnable {
+
+    private static final Log log = LogFactory.getLog(TCPFramedConnection.class);
+
+    private static class PendingResponse {
+        private final CountDownLatch latch = new CountDownLatch(1);
+        private volatile byte[] payload;
+        private volatile IOException error;
+    }
+
+    private final String key;
+    private final Socket socket;
+    private final DataInputStream in;
+    private final int maxFrameSize;
+    private final AtomicLong nextCorrelationId = new AtomicLong();
+    private final Map<Long, PendingResponse> pendingResponses =
+            new ConcurrentHashMap<Long, PendingResponse>();
+    private volatile boolean closed;
+
+    /**
+     * Open a connection and start its reader thread.
+     *
+     * @param host the host to connect to
+     * @param port the port to connect to
+     * @param connectTimeout the connect timeout in milliseconds, or -1 for no timeout
+     * @throws IOException if the connection can't be established
+     */
+    public TCPFramedConnection(String host, int port, int connectTimeout) throws IOException {
+        this(host, port, connectTimeout, TCPConstants.TCP_DEFAULT_MAX_FRAME_SIZE);
+    }
+
+    /**
+     * Open a connection and start its reader thread.
+     *
+     * @param host the host to connect to
+     * @param port the port to connect to
+     * @param connectTimeout the connect timeout in milliseconds, or -1 for no timeout
+     * @param maxFrameSize the maximum size of the responses; larger frames close the connection
+     * @throws IOException if the connection can't be established
+     */
+    public TCPFramedConnection(String host, int port, int connectTimeout, int maxFrameSize)
+            throws IOException {
+        key = host + ":" + port;
+        this.maxFrameSize = maxFrameSize;
+        socket = new Socket();
+        socket.setTcpNoDelay(true);
+        socket.setKeepAlive(true);
+        socket.connect(new InetSocketAddress(host, port), connectTimeout == -1 ? 0 : connectTimeout);
+        in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+        Thread reader = new Thread(this, "TCP connection reader " + key);
+        reader.setDaemon(true);
+        reader.start();
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Get the number of requests waiting for a response on this connection.
+     *
+     * @return the number of pending requests
+     */
+    public int getPendingCount() {
+        return pendingResponses.size();
+    }
+
+    /**
+     * Send a message that doesn't expect a response.
+     *
+     * @param payload the message
+     * @throws IOException if the message can't be sent
+     */
+    public void send(byte[] payload) throws IOException {
+        checkOpen();
+        try {
+            TCPFrame.write(socket, nextCorrelationId.incrementAndGet(), payload);
+        } catch (IOException e) {
+            close(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Send a request and wait for the corresponding response.
+     *
+     * @param payload the request
+     * @param timeout the maximum time to wait for the response in milliseconds, or -1 to wait
+     *                indefinitely
+     * @return the response
+     * @throws IOException if the request can't be sent, the connection fails or the timeout
+     *                     expires
+     */
+    public byte[] sendReceive(byte[] payload, int timeout) throws IOException {
+        checkOpen();
+        Long correlationId = Long.valueOf(nextCorrelationId.incrementAndGet());
+        PendingResponse response = new PendingResponse();
+        pendingResponses.put(correlationId, response);
+        try {
+            if (closed) {
+                checkOpen();
+            }
+            try {
+                TCPFrame.write(socket, correlationId.longValue(), payload);
+            } catch (IOException e) {
+                close(e);
+                throw e;
+            }
+            try {
+                if (timeout == -1) {
+                    response.latch.await();
+                } else if (!response.latch.await(timeout, TimeUnit.MILLISECONDS)) {
+                    throw new SocketTimeoutException("No response received from " + key
+                            + " within " + timeout + " ms");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new java.io.InterruptedIOException(
+                        "Interrupted while waiting for a response from " + key);
+            }
+            if (response.error != null) {
+                IOException error = new IOException("Connection to " + key + " failed");
+                error.initCause(response.error);
+                throw error;
+            }
+            return response.payload;
+        } finally {
+            pendingResponses.remove(correlationId);
+        }
+    }
+
+    public void run() {
+        try {
+            TCPFrame frame;
+            while ((frame = TCPFrame.read(in, maxFrameSize)) != null) {
+                PendingResponse response =
+                        pendingResponses.remove(Long.valueOf(frame.getCorrelationId()));
+                if (response != null) {
+                    response.payload = frame.getPayload();
+                    response.latch.countDown();
+                } else if (log.isDebugEnabled()) {
+                    log.debug("Discarding unexpected response with correlation id "
+                            + frame.getCorrelationId() + " from " + key);
+                }
+            }
+            close(new IOException("Connection closed by " + key));
+        } catch (IOException e) {
+            close(e);
+        }
+    }
+
+    /**
+     * Close the connection. Callers waiting for a response get an exception.
+     */
+    public void close() {
+        close(new IOException("Connection to " + key + " closed"));
+    }
+
+    private void close(IOException cause) {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (log.isDebugEnabled()) {
+            log.debug("Closing TCP connection to " + key + ": " + cause.getMessage());
+        }
+        try {
+            socket.close();
+        } catch (IOException e) {
+            log.error("Error while closing a TCP socket", e);
+        }
+        for (Iterator<PendingResponse> it = pendingResponses.values().iterator(); it.hasNext(); ) {
+            PendingResponse response = it.next();
+            it.remove();
+            response.error = cause;
+            response.latch.countDown();
+        }
+    }
+
+    private void checkOpen() throws IOException {
+        if (closed) {
+            throw new IOException("Connection to " + key + " is closed");
+        }
+    }
+}
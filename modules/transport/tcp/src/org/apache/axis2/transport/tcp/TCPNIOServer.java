@@ -0,0 +1,420 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.transport.tcp;
+
+import org.apache.axis2.transport.base.threads.WorkerPool;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.CancelledKeyException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Variant of {@link TCPServer} that multiplexes all connections of an endpoint on a small number
+ * of selector threads. Frames are assembled without blocking and only complete requests are
+ * handed over to the worker pool, so idle or slow clients don't tie up worker threads. Requires
+ * the {@link TCPConstants#FRAMING_LENGTH} framing mode. As with the blocking server, connections
+ * beyond {@link TCPEndpoint#getMaxConnections()} are closed as soon as they are accepted.
+ */
+public class TCPNIOServer extends TCPServer {
+
+    private static final Log log = LogFactory.getLog(TCPNIOServer.class);
+
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Maximum number of bytes of responses queued for a connection whose client doesn't read them
+     * fast enough. Once it is exceeded, the connection is closed.
+     */
+    private static final int MAX_QUEUED_BYTES = 16 * 1024 * 1024;
+
+    private ServerSocketChannel serverChannel;
+    private SelectorLoop[] selectorLoops;
+    private int nextSelectorLoop;
+    private final AtomicInteger connectionCount = new AtomicInteger();
+
+    public TCPNIOServer(TCPEndpoint endpoint, WorkerPool workerPool) {
+        super(endpoint, workerPool);
+    }
+
+    @Override
+    public void startServer() throws IOException {
+        TCPEndpoint endpoint = getEndpoint();
+        serverChannel = ServerSocketChannel.open();
+        InetSocketAddress address;
+        if (endpoint.getHost() != null) {
+            address = new InetSocketAddress(InetAddress.getByName(endpoint.getHost()),
+                    endpoint.getPort());
+        } else {
+            address = new InetSocketAddress(endpoint.getPort());
+        }
+        serverChannel.socket().bind(address, endpoint.getBacklog());
+        serverChannel.configureBlocking(false);
+
+        selectorLoops = new SelectorLoop[Math.max(1, endpoint.getSelectorThreads())];
+        for (int i = 0; i < selectorLoops.length; i++) {
+            selectorLoops[i] = new SelectorLoop();
+        }
+        // the first selector also accepts new connections
+        serverChannel.register(selectorLoops[0].selector, SelectionKey.OP_ACCEPT);
+
+        setStarted(true);
+        for (SelectorLoop selectorLoop : selectorLoops) {
+            endpoint.getListener().getConfigurationContext().getThreadPool().execute(
+                    selectorLoop);
+        }
+        log.info("TCP NIO server started on port : " + endpoint.getPort() + " with "
+                + selectorLoops.length + " selector thread(s)");
+    }
+
+    @Override
+    public void stopServer() throws IOException {
+        setStarted(false);
+        try {
+            serverChannel.close();
+        } finally {
+            for (SelectorLoop selectorLoop : selectorLoops) {
+                selectorLoop.selector.wakeup();
+            }
+            serverChannel = null;
+        }
+        log.info("TCP NIO server stopped on port : " + getEndpoint().getPort());
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel;
+        while ((channel = serverChannel.accept()) != null) {
+            try {
+                channel.configureBlocking(false);
+                channel.socket().setTcpNoDelay(true);
+            } catch (IOException e) {
+                log.error("Error while configuring an accepted TCP connection", e);
+                try {
+                    channel.close();
+                } catch (IOException ex) {
+                    log.error("Error while closing a TCP socket", ex);
+                }
+                continue;
+            }
+            if (connectionCount.get() >= getEndpoint().getMaxConnections()) {
+                log.warn("Rejecting TCP connection from "
+                        + channel.socket().getRemoteSocketAddress() + ": the maximum of "
+                        + getEndpoint().getMaxConnections() + " connections has been reached");
+                try {
+                    channel.close();
+                } catch (IOException ex) {
+                    log.error("Error while closing a TCP socket", ex);
+                }
+                continue;
+            }
+            connectionCount.incrementAndGet();
+            SelectorLoop selectorLoop = selectorLoops[nextSelectorLoop];
+            nextSelectorLoop = (nextSelectorLoop + 1) % selectorLoops.length;
+            selectorLoop.register(new Connection(selectorLoop, channel));
+        }
+    }
+
+    /**
+     * A selector and the thread that services it.
+     */
+    private class SelectorLoop implements Runnable {
+
+        private final Selector selector;
+        private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<Runnable>();
+        private final ByteBuffer readBuffer = ByteBuffer.allocateDirect(READ_BUFFER_SIZE);
+
+        SelectorLoop() throws IOException {
+            selector = Selector.open();
+        }
+
+        void register(final Connection connection) {
+            execute(new Runnable() {
+                public void run() {
+                    try {
+                        connection.key = connection.channel.register(selector,
+                                SelectionKey.OP_READ, connection);
+                    } catch (ClosedChannelException e) {
+                        connection.close();
+                    }
+                }
+            });
+        }
+
+        /**
+         * Run a task on the selector thread.
+         */
+        void execute(Runnable task) {
+            tasks.add(task);
+            selector.wakeup();
+        }
+
+        public void run() {
+            try {
+                while (isStarted()) {
+                    selector.select();
+                    Runnable task;
+                    while ((task = tasks.poll()) != null) {
+                        try {
+                            task.run();
+                        } catch (RuntimeException e) {
+                            // a task only affects a single connection; keep serving the others
+                            log.error("Error in a TCP selector task", e);
+                        }
+                    }
+                    Iterator<SelectionKey> it = selector.selectedKeys().iterator();
+                    while (it.hasNext()) {
+                        SelectionKey key = it.next();
+                        it.remove();
+                        if (!key.isValid()) {
+                            continue;
+                        }
+                        if (key.isAcceptable()) {
+                            try {
+                                accept();
+                            } catch (IOException e) {
+                                // e.g. too many open files; keep serving the existing connections
+                                log.error("Error while accepting a TCP connection", e);
+                            }
+                            continue;
+                        }
+                        Connection connection = (Connection)key.attachment();
+                        try {
+                            if (key.isReadable()) {
+                                connection.read(readBuffer);
+                            }
+                            if (key.isValid() && key.isWritable()) {
+                                connection.flush();
+                            }
+                        } catch (CancelledKeyException e) {
+                            // closed by a worker thread in the meantime
+                            connection.close();
+                        } catch (RuntimeException e) {
+                            log.error("Error while processing a TCP connection; closing it", e);
+                            connection.close();
+                        }
+                    }
+                }
+            } catch (IOException e) {
+                if (isStarted()) {
+                    log.error("Error in the TCP selector loop", e);
+                }
+            } finally {
+                for (SelectionKey key : selector.keys()) {
+                    if (key.attachment() instanceof Connection) {
+                        ((Connection)key.attachment()).close();
+                    }
+                }
+                try {
+                    selector.close();
+                } catch (IOException e) {
+                    log.error("Error while closing a selector", e);
+                }
+            }
+        }
+    }
+
+    /**
+     * State of a single connection. Reads are only performed by the selector thread; writes may
+     * be initiated by any worker thread.
+     */
+    private class Connection implements TCPFrameWriter {
+
+        private final SelectorLoop selectorLoop;
+        private final SocketChannel channel;
+        private volatile SelectionKey key;
+
+        private final ByteBuffer header = ByteBuffer.allocate(TCPFrame.HEADER_LENGTH);
+        private ByteBuffer payload;
+
+        private final Queue<ByteBuffer> writeQueue = new LinkedList<ByteBuffer>();
+        private int queuedBytes;
+        private boolean writeInterest;
+        private boolean closed;
+
+        Connection(SelectorLoop selectorLoop, SocketChannel channel) {
+            this.selectorLoop = selectorLoop;
+            this.channel = channel;
+        }
+
+        void read(ByteBuffer readBuffer) {
+            try {
+                int count;
+                do {
+                    readBuffer.clear();
+                    count = channel.read(readBuffer);
+                    readBuffer.flip();
+                    while (readBuffer.hasRemaining()) {
+                        consume(readBuffer);
+                    }
+                } while (count == READ_BUFFER_SIZE);
+                if (count == -1) {
+                    close();
+                }
+            } catch (IOException e) {
+                if (log.isDebugEnabled()) {
+                    log.debug("Error while reading from a TCP connection", e);
+                }
+                close();
+            }
+        }
+
+        private void consume(ByteBuffer data) throws IOException {
+            if (payload == null) {
+                transfer(data, header);
+                if (header.hasRemaining()) {
+                    return;
+                }
+                header.flip();
+                int length = header.getInt();
+                if (length < 0 || length > getEndpoint().getMaxFrameSize()) {
+                    throw new IOException("Invalid frame length " + length + " (maximum is "
+                            + getEndpoint().getMaxFrameSize() + ")");
+                }
+                payload = ByteBuffer.allocate(length);
+            } else {
+                transfer(data, payload);
+            }
+            if (!payload.hasRemaining()) {
+                long correlationId = header.getLong(4);
+                TCPFrame frame = new TCPFrame(correlationId, payload.array());
+                header.clear();
+                payload = null;
+                try {
+                    getWorkerPool().execute(new TCPWorker(getEndpoint(), this, frame));
+                } catch (RejectedExecutionException e) {
+                    log.warn("Closing the TCP connection from "
+                            + channel.socket().getRemoteSocketAddress()
+                            + ": the worker pool rejected a request");
+                    throw new IOException("The worker pool rejected a request", e);
+                }
+            }
+        }
+
+        private void transfer(ByteBuffer src, ByteBuffer dst) {
+            int count = Math.min(src.remaining(), dst.remaining());
+            ByteBuffer slice = src.slice();
+            slice.limit(count);
+            dst.put(slice);
+            src.position(src.position() + count);
+        }
+
+        public void write(long correlationId, byte[] data) throws IOException {
+            ByteBuffer frame = ByteBuffer.wrap(TCPFrame.encode(correlationId, data));
+            synchronized (writeQueue) {
+                if (!channel.isOpen()) {
+                    throw new ClosedChannelException();
+                }
+                if (writeQueue.isEmpty()) {
+                    // try to write directly; fall back to the selector if the socket buffer is full
+                    channel.write(frame);
+                    if (!frame.hasRemaining()) {
+                        return;
+                    }
+                }
+                if (!writeQueue.isEmpty() && queuedBytes + frame.remaining() > MAX_QUEUED_BYTES) {
+                    IOException e = new IOException("More than " + MAX_QUEUED_BYTES + " bytes of"
+                            + " responses are pending on the TCP connection from "
+                            + channel.socket().getRemoteSocketAddress() + "; closing it");
+                    close();
+                    throw e;
+                }
+                writeQueue.add(frame);
+                queuedBytes += frame.remaining();
+                if (!writeInterest) {
+                    writeInterest = true;
+                    selectorLoop.execute(new Runnable() {
+                        public void run() {
+                            SelectionKey key = Connection.this.key;
+                            try {
+                                if (key != null && key.isValid()) {
+                                    key.interestOps(key.interestOps() | SelectionKey.OP_WRITE);
+                                }
+                            } catch (CancelledKeyException e) {
+                                // the connection has been closed in the meantime
+                            }
+                        }
+                    });
+                }
+            }
+        }
+
+        void flush() {
+            try {
+                synchronized (writeQueue) {
+                    while (!writeQueue.isEmpty()) {
+                        ByteBuffer frame = writeQueue.peek();
+                        queuedBytes -= channel.write(frame);
+                        if (frame.hasRemaining()) {
+                            return;
+                        }
+                        writeQueue.remove();
+                    }
+                    writeInterest = false;
+                    key.interestOps(key.interestOps() & ~SelectionKey.OP_WRITE);
+                }
+            } catch (CancelledKeyException e) {
+                close();
+            } catch (IOException e) {
+                if (log.isDebugEnabled()) {
+                    log.debug("Error while writing to a TCP connection", e);
+                }
+                close();
+            }
+        }
+
+        /**
+         * Close the connection. May be called several times, from any thread.
+         */
+        void close() {
+            synchronized (writeQueue) {
+                if (closed) {
+                    return;
+                }
+                closed = true;
+                writeQueue.clear();
+                queuedBytes = 0;
+            }
+            connectionCount.decrementAndGet();
+            SelectionKey key = this.key;
+            if (key != null) {
+                key.cancel();
+            }
+            try {
+                channel.close();
+            } catch (IOException e) {
+                log.error("Error while closing a TCP socket", e);
+            }
+        }
+    }
+}
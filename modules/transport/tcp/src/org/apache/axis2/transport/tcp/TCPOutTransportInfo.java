@@ -28,6 +28,8 @@ public class TCPOutTransportInfo implements OutTransportInfo {
 
     private Socket socket;
     private String contentType;
+    private TCPFrameWriter frameWriter;
+    private long correlationId;
 
     public Socket getSocket() {
         return socket;
@@ -44,4 +46,30 @@ public class TCPOutTransportInfo implements OutTransportInfo {
     public String getContentType() {
         return contentType;
     }
+
+    /**
+     * Check whether the response must be sent as a frame on a persistent connection.
+     *
+     * @return <code>true</code> if the request was received in the
+     *         {@link TCPConstants#FRAMING_LENGTH} framing mode
+     */
+    public boolean isFramed() {
+        return frameWriter != null;
+    }
+
+    public TCPFrameWriter getFrameWriter() {
+        return frameWriter;
+    }
+
+    public void setFrameWriter(TCPFrameWriter frameWriter) {
+        this.frameWriter = frameWriter;
+    }
+
+    public long getCorrelationId() {
+        return correlationId;
+    }
+
+    public void setCorrelationId(long correlationId) {
+        this.correlationId = correlationId;
+    }
 }
@@ -20,6 +20,7 @@
 
 package org.apache.axis2.transport.tcp;
 
+import org.apache.axis2.transport.base.threads.NativeThreadFactory;
 import org.apache.axis2.transport.base.threads.WorkerPool;
 import org.apache.commons.logging.LogFactory;
 import org.apache.commons.logging.Log;
@@ -27,14 +28,33 @@ import org.apache.commons.logging.Log;
 import java.net.ServerSocket;
 import java.net.Socket;
 import java.net.InetAddress;
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
 import java.io.IOException;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 public class TCPServer implements Runnable {
     
     private TCPEndpoint endpoint;
     private ServerSocket serverSocket;
     private WorkerPool workerPool;
-    private boolean started = false;
+    private volatile boolean started = false;
+
+    /**
+     * Runs the readers of the persistent connections in the framed mode. Each of them occupies a
+     * thread for the lifetime of its connection, so they get their own pool, bounded by the
+     * maximum number of connections, instead of using the configuration context's thread pool
+     * that also runs the accept loop and the workers.
+     */
+    private volatile ThreadPoolExecutor connectionReaders;
+    private final Set<Socket> framedConnections =
+            Collections.synchronizedSet(new HashSet<Socket>());
 
     private static final Log log = LogFactory.getLog(TCPServer.class);
 
@@ -43,7 +63,24 @@ public class TCPServer implements Runnable {
         this.workerPool = workerPool;
     }
 
+    protected TCPEndpoint getEndpoint() {
+        return endpoint;
+    }
+
+    protected WorkerPool getWorkerPool() {
+        return workerPool;
+    }
+
+    protected boolean isStarted() {
+        return started;
+    }
+
+    protected void setStarted(boolean started) {
+        this.started = started;
+    }
+
     public void run() {
+        ThreadPoolExecutor connectionReaders = this.connectionReaders;
         while (started) {
             Socket socket = null;
 
@@ -57,11 +94,66 @@ public class TCPServer implements Runnable {
             }
 
             if (socket != null) {
-                workerPool.execute(new TCPWorker(endpoint, socket));
+                if (endpoint.isFramed()) {
+                    framedConnections.add(socket);
+                    try {
+                        connectionReaders.execute(new FramedConnectionReader(socket));
+                    } catch (RejectedExecutionException e) {
+                        framedConnections.remove(socket);
+                        log.warn("Rejecting TCP connection from " + socket.getRemoteSocketAddress()
+                                + ": the maximum of " + endpoint.getMaxConnections()
+                                + " connections has been reached");
+                        closeSocket(socket);
+                    }
+                } else {
+                    workerPool.execute(new TCPWorker(endpoint, socket));
+                }
             }
         }
     }
 
+    /**
+     * Reads the frames sent on a persistent connection and hands each of them over to a
+     * {@link TCPWorker}. Requests received on the same connection are therefore processed
+     * concurrently and their responses may be sent in any order.
+     */
+    private class FramedConnectionReader implements Runnable {
+
+        private final Socket socket;
+
+        FramedConnectionReader(Socket socket) {
+            this.socket = socket;
+        }
+
+        public void run() {
+            try {
+                socket.setTcpNoDelay(true);
+                DataInputStream in =
+                        new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+                TCPFrameWriter frameWriter = TCPFrame.writer(socket);
+                TCPFrame frame;
+                while ((frame = TCPFrame.read(in, endpoint.getMaxFrameSize())) != null) {
+                    workerPool.execute(new TCPWorker(endpoint, frameWriter, frame));
+                }
+            } catch (IOException e) {
+                if (log.isDebugEnabled()) {
+                    log.debug("Error while reading from a TCP connection", e);
+                }
+            } finally {
+                framedConnections.remove(socket);
+                closeSocket(socket);
+            }
+        }
+    }
+
+    private static void closeSocket(Socket socket) {
+        try {
+            socket.close();
+        } catch (IOException e) {
+            log.error("Error while closing a TCP socket", e);
+        }
+    }
+
     public void startServer() throws IOException {
         if (serverSocket == null) {
             if (endpoint.getHost() != null) {
@@ -71,6 +163,13 @@ public class TCPServer implements Runnable {
                 serverSocket = new ServerSocket(endpoint.getPort(), endpoint.getBacklog());
             }
         }
+        if (endpoint.isFramed()) {
+            int maxConnections = Math.max(1, endpoint.getMaxConnections());
+            connectionReaders = new ThreadPoolExecutor(0, maxConnections, 60, TimeUnit.SECONDS,
+                    new SynchronousQueue<Runnable>(),
+                    new NativeThreadFactory(new ThreadGroup("TCP connection readers"),
+                            "tcp-connection-reader-" + endpoint.getPort()));
+        }
         started = true;
         endpoint.getListener().getConfigurationContext().getThreadPool().execute(this);
         log.info("TCP server started on port : " + endpoint.getPort());
@@ -80,6 +179,17 @@ public class TCPServer implements Runnable {
         started = false;
         serverSocket.close();
         serverSocket = null;
+        if (connectionReaders != null) {
+            connectionReaders.shutdown();
+            connectionReaders = null;
+            Socket[] sockets;
+            synchronized (framedConnections) {
+                sockets = framedConnections.toArray(new Socket[framedConnections.size()]);
+            }
+            for (Socket socket : sockets) {
+                closeSocket(socket);
+            }
+        }
         log.info("TCP server stopped on port : " + endpoint.getPort());
     }
 }
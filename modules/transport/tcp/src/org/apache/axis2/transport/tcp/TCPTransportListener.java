@@ -40,7 +40,8 @@ public class TCPTransportListener extends AbstractTransportListenerEx<TCPEndpoin
 
     protected void startEndpoint(TCPEndpoint endpoint) throws AxisFault {
         try {
-            TCPServer server = new TCPServer(endpoint, workerPool);
+            TCPServer server = endpoint.isNio() ? new TCPNIOServer(endpoint, workerPool)
+                    : new TCPServer(endpoint, workerPool);
             server.startServer();
             serverTable.put(endpoint, server);
         } catch (IOException e) {
@@ -21,7 +21,11 @@
 package org.apache.axis2.transport.tcp;
 
 import org.apache.axis2.AxisFault;
+import org.apache.axis2.context.ConfigurationContext;
+import org.apache.axis2.description.AxisOperation;
 import org.apache.axis2.description.OutInAxisOperation;
+import org.apache.axis2.description.WSDL2Constants;
+import org.apache.axis2.description.TransportOutDescription;
 import org.apache.axis2.engine.AxisEngine;
 import org.apache.axis2.context.MessageContext;
 import org.apache.axis2.transport.OutTransportInfo;
@@ -29,11 +33,14 @@ import org.apache.axis2.transport.TransportUtils;
 import org.apache.axis2.transport.MessageFormatter;
 import org.apache.axis2.transport.base.AbstractTransportSender;
 import org.apache.axis2.transport.base.BaseUtils;
+import org.apache.axis2.transport.base.ParamUtils;
 import org.apache.axiom.soap.SOAPEnvelope;
 import org.apache.axiom.om.OMOutputFormat;
 import org.apache.axis2.util.MessageProcessorSelector;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.InetSocketAddress;
 import java.net.Socket;
@@ -45,6 +52,40 @@ import java.util.HashMap;
 
 public class TCPTransportSender extends AbstractTransportSender {
 
+    /** Persistent connections used for endpoints with framing=length */
+    private TCPConnectionPool connectionPool;
+
+    /** Time to wait for a response when the URL doesn't specify a timeout */
+    private int readTimeout = TCPConstants.TCP_DEFAULT_READ_TIMEOUT;
+
+    @Override
+    public void init(ConfigurationContext cfgCtx, TransportOutDescription transportOut)
+            throws AxisFault {
+        super.init(cfgCtx, transportOut);
+        int maxConnections = ParamUtils.getOptionalParamInt(transportOut,
+                TCPConstants.PARAM_MAX_CONNECTIONS_PER_ENDPOINT,
+                TCPConstants.TCP_DEFAULT_MAX_CONNECTIONS_PER_ENDPOINT);
+        int maxFrameSize = ParamUtils.getOptionalParamInt(transportOut,
+                TCPConstants.PARAM_MAX_FRAME_SIZE, TCPConstants.TCP_DEFAULT_MAX_FRAME_SIZE);
+        int timeout = ParamUtils.getOptionalParamInt(transportOut,
+                TCPConstants.PARAM_READ_TIMEOUT, TCPConstants.TCP_DEFAULT_READ_TIMEOUT);
+        synchronized (this) {
+            connectionPool = new TCPConnectionPool(maxConnections, maxFrameSize);
+            readTimeout = timeout;
+        }
+    }
+
+    @Override
+    public void stop() {
+        synchronized (this) {
+            if (connectionPool != null) {
+                connectionPool.shutdown();
+                connectionPool = null;
+            }
+        }
+        super.stop();
+    }
+
     public void sendMessage(MessageContext msgContext, String targetEPR,
                             OutTransportInfo outTransportInfo) throws AxisFault {
 
@@ -54,14 +95,20 @@ public class TCPTransportSender extends AbstractTransportSender {
             if (params.containsKey("timeout")) {
                 timeout = Integer.parseInt(params.get("timeout"));
             }
-            Socket socket = openTCPConnection(targetEPR, timeout);
-            msgContext.setProperty(TCPConstants.TCP_OUTPUT_SOCKET, socket);
 
             String contentType = params.get("contentType");
             if (contentType == null) {
                 contentType = TCPConstants.TCP_DEFAULT_CONTENT_TYPE;
             }
 
+            if (TCPConstants.FRAMING_LENGTH.equals(params.get(TCPConstants.URL_PARAM_FRAMING))) {
+                sendFramed(msgContext, targetEPR, timeout, contentType);
+                return;
+            }
+
+            Socket socket = openTCPConnection(targetEPR, timeout);
+            msgContext.setProperty(TCPConstants.TCP_OUTPUT_SOCKET, socket);
+
             try {
                 writeOut(msgContext, socket, contentType);
                 if (!msgContext.getOptions().isUseSeparateListener() && !msgContext.isServerSide()){
@@ -73,6 +120,16 @@ public class TCPTransportSender extends AbstractTransportSender {
 
         } else if (outTransportInfo != null && (outTransportInfo instanceof TCPOutTransportInfo)) {
             TCPOutTransportInfo outInfo = (TCPOutTransportInfo) outTransportInfo;
+            if (outInfo.isFramed()) {
+                // the connection is persistent; only the frame of this response is written
+                try {
+                    outInfo.getFrameWriter().write(outInfo.getCorrelationId(),
+                            getPayload(msgContext, outInfo.getContentType()));
+                } catch (IOException e) {
+                    handleException("Error while sending a TCP response", e);
+                }
+                return;
+            }
             try {
                 writeOut(msgContext, outInfo.getSocket(), outInfo.getContentType());
             } catch (IOException e) {
@@ -83,12 +140,57 @@ public class TCPTransportSender extends AbstractTransportSender {
         }
     }
 
-    private void writeOut(MessageContext msgContext, Socket socket,
-                          String contentType) throws IOException {
+    private void sendFramed(MessageContext msgContext, String url, int timeout,
+                            String contentType) throws AxisFault {
+        TCPFramedConnection connection = null;
+        try {
+            URI tcpUrl = new URI(url);
+            if (!tcpUrl.getScheme().equals("tcp")) {
+                throw new Exception("Invalid protocol prefix : " + tcpUrl.getScheme());
+            }
+            connection = getConnectionPool().getConnection(tcpUrl.getHost(), tcpUrl.getPort(),
+                    timeout);
+        } catch (Exception e) {
+            handleException("Error while opening TCP connection to : " + url, e);
+        }
+
+        try {
+            byte[] payload = getPayload(msgContext, contentType);
+            if (!msgContext.getOptions().isUseSeparateListener() && !msgContext.isServerSide()
+                    && isReplyExpected(msgContext) && !isRobustOutOnly(msgContext)) {
+                byte[] response = connection.sendReceive(payload,
+                        timeout == -1 ? getReadTimeout() : timeout);
+                processReply(msgContext, new ByteArrayInputStream(response), contentType);
+            } else {
+                connection.send(payload);
+            }
+        } catch (IOException e) {
+            handleException("Error while sending a TCP request", e);
+        }
+    }
+
+    private synchronized int getReadTimeout() {
+        return readTimeout;
+    }
+
+    private synchronized TCPConnectionPool getConnectionPool() {
+        if (connectionPool == null) {
+            connectionPool = new TCPConnectionPool(
+                    TCPConstants.TCP_DEFAULT_MAX_CONNECTIONS_PER_ENDPOINT);
+        }
+        return connectionPool;
+    }
+
+    private byte[] getPayload(MessageContext msgContext, String contentType) throws AxisFault {
         MessageFormatter messageFormatter = MessageProcessorSelector.getMessageFormatter(msgContext);
         OMOutputFormat format = BaseUtils.getOMOutputFormat(msgContext);
         format.setContentType(contentType);
-        byte[] payload = messageFormatter.getBytes(msgContext, format);
+        return messageFormatter.getBytes(msgContext, format);
+    }
+
+    private void writeOut(MessageContext msgContext, Socket socket,
+                          String contentType) throws IOException {
+        byte[] payload = getPayload(msgContext, contentType);
         OutputStream out = socket.getOutputStream();
         out.write(payload);
         out.flush();
@@ -102,18 +204,44 @@ public class TCPTransportSender extends AbstractTransportSender {
         }
     }
 
+    private boolean isReplyExpected(MessageContext msgContext) {
+        return msgContext.getAxisOperation() instanceof OutInAxisOperation ||
+                msgContext.getProperty(org.apache.axis2.Constants.PIGGYBACK_MESSAGE) != null;
+    }
+
+    /**
+     * RobustOutOnlyAxisOperation extends OutInAxisOperation, but the server only responds if a
+     * fault occurs. Without framing this is detected when the server closes the connection; on a
+     * persistent connection the caller would wait for a response that never arrives.
+     */
+    private boolean isRobustOutOnly(MessageContext msgContext) {
+        AxisOperation axisOperation = msgContext.getAxisOperation();
+        return axisOperation != null && WSDL2Constants.MEP_URI_ROBUST_OUT_ONLY.equals(
+                axisOperation.getMessageExchangePattern());
+    }
+
     private void waitForReply(MessageContext msgContext, Socket socket,
                               String contentType) throws AxisFault {
 
-        if (!(msgContext.getAxisOperation() instanceof OutInAxisOperation) &&
-                msgContext.getProperty(org.apache.axis2.Constants.PIGGYBACK_MESSAGE) == null) {
+        if (!isReplyExpected(msgContext)) {
             return;
         }
 
+        InputStream in = null;
+        try {
+            in = socket.getInputStream();
+        } catch (IOException e) {
+            handleException("Error while processing response", e);
+        }
+        processReply(msgContext, in, contentType);
+    }
+
+    private void processReply(MessageContext msgContext, InputStream in,
+                              String contentType) throws AxisFault {
         try {
             MessageContext responseMsgCtx = createResponseMessageContext(msgContext);
             SOAPEnvelope envelope = TransportUtils.createSOAPMessage(msgContext,
-                        socket.getInputStream(), contentType);
+                        in, contentType);
             responseMsgCtx.setEnvelope(envelope);
             AxisEngine.receive(responseMsgCtx);
         } catch (Exception e) {
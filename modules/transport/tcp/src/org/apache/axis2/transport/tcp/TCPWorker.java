@@ -28,7 +28,9 @@ import org.apache.axis2.util.MessageContextBuilder;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.Socket;
 
 /**
@@ -40,12 +42,28 @@ public class TCPWorker implements Runnable {
 
     private TCPEndpoint endpoint;
     private Socket socket;
+    private TCPFrameWriter frameWriter;
+    private TCPFrame frame;
 
     public TCPWorker(TCPEndpoint endpoint, Socket socket) {
         this.endpoint = endpoint;
         this.socket = socket;
     }
 
+    /**
+     * Create a worker that processes a single frame received on a persistent connection. The
+     * connection is left open when the request has been processed.
+     *
+     * @param endpoint the endpoint
+     * @param frameWriter used to send the response on the connection the frame was received on
+     * @param frame the frame containing the request
+     */
+    public TCPWorker(TCPEndpoint endpoint, TCPFrameWriter frameWriter, TCPFrame frame) {
+        this.endpoint = endpoint;
+        this.frameWriter = frameWriter;
+        this.frame = frame;
+    }
+
     public void run() {
 
         MessageContext msgContext = null;
@@ -58,11 +76,19 @@ public class TCPWorker implements Runnable {
             TCPOutTransportInfo outInfo = new TCPOutTransportInfo();
             outInfo.setSocket(socket);
             outInfo.setContentType(endpoint.getContentType());
+            InputStream in;
+            if (frame != null) {
+                outInfo.setFrameWriter(frameWriter);
+                outInfo.setCorrelationId(frame.getCorrelationId());
+                in = new ByteArrayInputStream(frame.getPayload());
+            } else {
+                in = socket.getInputStream();
+            }
             msgContext.setProperty(Constants.OUT_TRANSPORT_INFO, outInfo);
 
             // create the SOAP Envelope
             SOAPEnvelope envelope = TransportUtils.createSOAPMessage(msgContext,
-                    socket.getInputStream(), endpoint.getContentType());
+                    in, endpoint.getContentType());
             msgContext.setEnvelope(envelope);
 
             AxisEngine.receive(msgContext);
@@ -71,10 +97,12 @@ public class TCPWorker implements Runnable {
             sendFault(msgContext, e);
 
         } finally {
-            try {
-                socket.close();
-            } catch (IOException e) {
-                log.error("Error while closing a TCP socket", e);
+            if (frame == null) {
+                try {
+                    socket.close();
+                } catch (IOException e) {
+                    log.error("Error while closing a TCP socket", e);
+                }
             }
         }
     }
@@ -83,7 +111,10 @@ public class TCPWorker implements Runnable {
         log.error("Error while processing TCP request through the Axis2 engine", fault);
         try {
             if (msgContext != null) {
-                msgContext.setProperty(MessageContext.TRANSPORT_OUT, socket.getOutputStream());
+                if (frame == null) {
+                    // In framed mode the fault is sent as a frame through the OUT_TRANSPORT_INFO
+                    msgContext.setProperty(MessageContext.TRANSPORT_OUT, socket.getOutputStream());
+                }
 
                 MessageContext faultContext =
                         MessageContextBuilder.createFaultMessageContext(msgContext, fault);
@@ -0,0 +1,226 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.transport.tcp;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import junit.framework.TestCase;
+
+public class TCPFramedConnectionTest extends TestCase {
+
+    private ServerSocket serverSocket;
+    private final AtomicInteger acceptedConnections = new AtomicInteger();
+    private volatile boolean respond = true;
+
+    @Override
+    protected void setUp() throws Exception {
+        serverSocket = new ServerSocket(0);
+        Thread acceptor = new Thread(new Runnable() {
+            public void run() {
+                try {
+                    while (true) {
+                        final Socket socket = serverSocket.accept();
+                        acceptedConnections.incrementAndGet();
+                        Thread reader = new Thread(new Runnable() {
+                            public void run() {
+                                serve(socket);
+                            }
+                        });
+                        reader.setDaemon(true);
+                        reader.start();
+                    }
+                } catch (IOException e) {
+                    // server socket closed
+                }
+            }
+        });
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        serverSocket.close();
+    }
+
+    /**
+     * Echoes every frame back in reverse byte order, after a delay that depends on the payload so
+     * that responses are sent out of order.
+     */
+    private void serve(final Socket socket) {
+        try {
+            DataInputStream in =
+                    new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            TCPFrame frame;
+            while ((frame = TCPFrame.read(in, 1024 * 1024)) != null) {
+                if (!respond) {
+                    continue;
+                }
+                final TCPFrame request = frame;
+                Thread worker = new Thread(new Runnable() {
+                    public void run() {
+                        byte[] payload = request.getPayload();
+                        byte[] response = new byte[payload.length];
+                        for (int i = 0; i < payload.length; i++) {
+                            response[i] = payload[payload.length - 1 - i];
+                        }
+                        try {
+                            Thread.sleep(payload.length % 7);
+                            TCPFrame.write(socket, request.getCorrelationId(), response);
+                        } catch (Exception e) {
+                            // connection closed
+                        }
+                    }
+                });
+                worker.start();
+            }
+            socket.close();
+        } catch (IOException e) {
+            // connection closed
+        }
+    }
+
+    private static String reverse(String s) {
+        return new StringBuilder(s).reverse().toString();
+    }
+
+    public void testConcurrentRequestsOnSingleConnection() throws Exception {
+        final TCPFramedConnection connection =
+                new TCPFramedConnection("localhost", serverSocket.getLocalPort(), 5000);
+        try {
+            final int threadCount = 20;
+            final int requestsPerThread = 50;
+            final List<Throwable> errors = new ArrayList<Throwable>();
+            final CountDownLatch done = new CountDownLatch(threadCount);
+            for (int t = 0; t < threadCount; t++) {
+                final int threadId = t;
+                new Thread(new Runnable() {
+                    public void run() {
+                        try {
+                            for (int i = 0; i < requestsPerThread; i++) {
+                                String request = "request " + threadId + "/" + i;
+                                byte[] response =
+                                        connection.sendReceive(request.getBytes("UTF-8"), 10000);
+                                assertEquals(reverse(request), new String(response, "UTF-8"));
+                            }
+                        } catch (Throwable e) {
+                            synchronized (errors) {
+                                errors.add(e);
+                            }
+                        } finally {
+                            done.countDown();
+                        }
+                    }
+                }).start();
+            }
+            done.await();
+            assertEquals(errors.toString(), 0, errors.size());
+            assertEquals(0, connection.getPendingCount());
+            assertEquals(1, acceptedConnections.get());
+        } finally {
+            connection.close();
+        }
+    }
+
+    public void testTimeout() throws Exception {
+        respond = false;
+        TCPFramedConnection connection =
+                new TCPFramedConnection("localhost", serverSocket.getLocalPort(), 5000);
+        try {
+            connection.sendReceive(new byte[] { 1, 2, 3 }, 100);
+            fail("Expected a timeout");
+        } catch (IOException e) {
+            // expected
+        } finally {
+            connection.close();
+        }
+        assertEquals(0, connection.getPendingCount());
+    }
+
+    public void testOversizedResponseClosesConnection() throws Exception {
+        TCPFramedConnection connection =
+                new TCPFramedConnection("localhost", serverSocket.getLocalPort(), 5000, 2);
+        try {
+            connection.sendReceive(new byte[] { 1, 2, 3 }, 5000);
+            fail("Expected an exception");
+        } catch (IOException e) {
+            // expected
+        } finally {
+            connection.close();
+        }
+        assertTrue(connection.isClosed());
+    }
+
+    public void testCloseFailsPendingRequests() throws Exception {
+        respond = false;
+        final TCPFramedConnection connection =
+                new TCPFramedConnection("localhost", serverSocket.getLocalPort(), 5000);
+        final IOException[] error = new IOException[1];
+        Thread caller = new Thread(new Runnable() {
+            public void run() {
+                try {
+                    connection.sendReceive(new byte[] { 1 }, -1);
+                } catch (IOException e) {
+                    error[0] = e;
+                }
+            }
+        });
+        caller.start();
+        while (connection.getPendingCount() == 0) {
+            Thread.sleep(10);
+        }
+        connection.close();
+        caller.join(5000);
+        assertNotNull(error[0]);
+        assertTrue(connection.isClosed());
+        try {
+            connection.send(new byte[] { 1 });
+            fail("Expected an exception");
+        } catch (IOException e) {
+            // expected
+        }
+    }
+
+    public void testPoolReusesAndReplacesConnections() throws Exception {
+        TCPConnectionPool pool = new TCPConnectionPool(2);
+        try {
+            int port = serverSocket.getLocalPort();
+            TCPFramedConnection connection = pool.getConnection("localhost", port, 5000);
+            assertTrue(Arrays.equals(new byte[] { 2, 1 },
+                    connection.sendReceive(new byte[] { 1, 2 }, 5000)));
+            assertSame(connection, pool.getConnection("localhost", port, 5000));
+            connection.close();
+            TCPFramedConnection replacement = pool.getConnection("localhost", port, 5000);
+            assertNotSame(connection, replacement);
+            assertFalse(replacement.isClosed());
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
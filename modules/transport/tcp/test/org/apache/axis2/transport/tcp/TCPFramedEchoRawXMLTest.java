@@ -0,0 +1,202 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.transport.tcp;
+
+import junit.framework.TestCase;
+import org.apache.axiom.om.OMAbstractFactory;
+import org.apache.axiom.om.OMElement;
+import org.apache.axiom.om.OMFactory;
+import org.apache.axiom.om.OMNamespace;
+import org.apache.axis2.Constants;
+import org.apache.axis2.addressing.EndpointReference;
+import org.apache.axis2.client.Options;
+import org.apache.axis2.client.ServiceClient;
+import org.apache.axis2.context.ConfigurationContext;
+import org.apache.axis2.description.AxisService;
+import org.apache.axis2.description.Parameter;
+import org.apache.axis2.util.Utils;
+
+import javax.xml.namespace.QName;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tests the {@link TCPConstants#FRAMING_LENGTH} framing mode with the blocking and the NIO
+ * server, using service specific endpoints.
+ */
+public class TCPFramedEchoRawXMLTest extends TestCase {
+
+    private static final int THREADS = 10;
+    private static final int REQUESTS_PER_THREAD = 20;
+
+    private QName operationName = new QName("echoOMElement");
+
+    private List<AxisService> services = new ArrayList<AxisService>();
+    private ConfigurationContext configContext;
+
+    protected void setUp() throws Exception {
+        UtilsTCPServer.start();
+        configContext = UtilsTCPServer.createClientConfigurationContext();
+    }
+
+    protected void tearDown() throws Exception {
+        for (AxisService service : services) {
+            UtilsTCPServer.unDeployService(new QName(service.getName()));
+        }
+        UtilsTCPServer.stop();
+        configContext.getListenerManager().destroy();
+        configContext.terminate();
+    }
+
+    private String deployService(String serviceName, int port, boolean nio) throws Exception {
+        return deployService(serviceName, port, nio, TCPConstants.TCP_DEFAULT_MAX_CONNECTIONS);
+    }
+
+    private String deployService(String serviceName, int port, boolean nio, int maxConnections)
+            throws Exception {
+        AxisService service = Utils.createSimpleService(new QName(serviceName),
+                Echo.class.getName(), operationName);
+        service.addParameter(new Parameter(TCPConstants.PARAM_PORT, String.valueOf(port)));
+        service.addParameter(new Parameter(TCPConstants.PARAM_FRAMING,
+                TCPConstants.FRAMING_LENGTH));
+        service.addParameter(new Parameter(TCPConstants.PARAM_NIO, String.valueOf(nio)));
+        service.addParameter(new Parameter(TCPConstants.PARAM_MAX_CONNECTIONS,
+                String.valueOf(maxConnections)));
+        UtilsTCPServer.deployService(service);
+        services.add(service);
+        return "tcp://127.0.0.1:" + port + "/axis2/services/" + serviceName
+                + "/echoOMElement?" + TCPConstants.URL_PARAM_FRAMING + "="
+                + TCPConstants.FRAMING_LENGTH;
+    }
+
+    private OMElement createPayload(String text) {
+        OMFactory fac = OMAbstractFactory.getOMFactory();
+        OMNamespace omNs = fac.createOMNamespace("http://localhost/my", "my");
+        OMElement method = fac.createOMElement("echoOMElement", omNs);
+        OMElement value = fac.createOMElement("myValue", omNs);
+        value.setText(text);
+        method.addChild(value);
+        return method;
+    }
+
+    private void runConcurrentEcho(final String url, String serviceName) throws Exception {
+        final AxisService clientService = Utils.createSimpleServiceforClient(
+                new QName(serviceName), Echo.class.getName(), operationName);
+        final List<Throwable> errors = new ArrayList<Throwable>();
+        Thread[] threads = new Thread[THREADS];
+        for (int t = 0; t < THREADS; t++) {
+            final int threadId = t;
+            threads[t] = new Thread() {
+                public void run() {
+                    try {
+                        Options options = new Options();
+                        options.setTo(new EndpointReference(url));
+                        options.setTransportInProtocol(Constants.TRANSPORT_TCP);
+                        options.setAction(Constants.AXIS2_NAMESPACE_URI + "/"
+                                + operationName.getLocalPart());
+                        options.setCallTransportCleanup(true);
+                        ServiceClient sender = new ServiceClient(configContext, clientService);
+                        sender.setOptions(options);
+                        for (int i = 0; i < REQUESTS_PER_THREAD; i++) {
+                            String text = "message " + threadId + "/" + i;
+                            OMElement result = sender.sendReceive(operationName,
+                                    createPayload(text));
+                            assertEquals(text, result.getFirstElement().getText());
+                        }
+                        sender.cleanup();
+                    } catch (Throwable e) {
+                        synchronized (errors) {
+                            errors.add(e);
+                        }
+                    }
+                }
+            };
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(errors.toString(), 0, errors.size());
+    }
+
+    public void testFramedEcho() throws Exception {
+        String url = deployService("FramedEchoXMLService", UtilsTCPServer.TESTING_PORT + 1,
+                false);
+        runConcurrentEcho(url, "FramedEchoXMLService");
+    }
+
+    public void testNIOFramedEcho() throws Exception {
+        String url = deployService("NIOEchoXMLService", UtilsTCPServer.TESTING_PORT + 2, true);
+        runConcurrentEcho(url, "NIOEchoXMLService");
+    }
+
+    /**
+     * Idle persistent connections must not use up the threads of the configuration context's
+     * thread pool (100 by default), which the server also needs to accept connections and to
+     * process requests.
+     */
+    public void testMoreIdleConnectionsThanPoolThreads() throws Exception {
+        String url = deployService("ManyConnectionsEchoXMLService", UtilsTCPServer.TESTING_PORT + 3,
+                false, 200);
+        List<Socket> idleConnections = new ArrayList<Socket>();
+        try {
+            for (int i = 0; i < 120; i++) {
+                idleConnections.add(new Socket("127.0.0.1", UtilsTCPServer.TESTING_PORT + 3));
+            }
+            runConcurrentEcho(url, "ManyConnectionsEchoXMLService");
+        } finally {
+            for (Socket socket : idleConnections) {
+                socket.close();
+            }
+        }
+    }
+
+    public void testConnectionsBeyondMaximumAreClosed() throws Exception {
+        checkConnectionsBeyondMaximumAreClosed("LimitedEchoXMLService",
+                UtilsTCPServer.TESTING_PORT + 4, false);
+    }
+
+    public void testNIOConnectionsBeyondMaximumAreClosed() throws Exception {
+        checkConnectionsBeyondMaximumAreClosed("NIOLimitedEchoXMLService",
+                UtilsTCPServer.TESTING_PORT + 5, true);
+    }
+
+    private void checkConnectionsBeyondMaximumAreClosed(String serviceName, int port, boolean nio)
+            throws Exception {
+        deployService(serviceName, port, nio, 2);
+        List<Socket> connections = new ArrayList<Socket>();
+        try {
+            for (int i = 0; i < 2; i++) {
+                connections.add(new Socket("127.0.0.1", port));
+            }
+            // make sure that both connections have been accepted
+            Thread.sleep(500);
+            Socket rejected = new Socket("127.0.0.1", port);
+            connections.add(rejected);
+            rejected.setSoTimeout(5000);
+            assertEquals(-1, rejected.getInputStream().read());
+        } finally {
+            for (Socket socket : connections) {
+                socket.close();
+            }
+        }
+    }
+}